@@ -0,0 +1,15 @@
+package com.mprzypadlo.thserver.application;
+
+import java.util.Map;
+
+/**
+ *
+ * @author mprzypadlo
+ */
+public interface Message {
+
+    public String name();
+
+    public Map<String, String> content();
+
+}
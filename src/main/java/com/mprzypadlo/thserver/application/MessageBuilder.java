@@ -0,0 +1,15 @@
+package com.mprzypadlo.thserver.application;
+
+/**
+ *
+ * @author mprzypadlo
+ */
+public interface MessageBuilder {
+
+    public MessageBuilder message(String name);
+
+    public MessageBuilder contentField(String fieldName, String value);
+
+    public Message getMessage();
+
+}
@@ -0,0 +1,23 @@
+package com.mprzypadlo.thserver.application;
+
+/**
+ *
+ * @author mprzypadlo
+ */
+public interface MessageBus {
+
+    public void notify(int sourceId, Message message);
+
+    public void notifyAll(Message message);
+
+    /**
+     * Wysyła wiadomość do pierwszych {@code count} połączeń z podanej
+     * tablicy.
+     *
+     * @param sourceIds
+     * @param count
+     * @param message
+     */
+    public void notifyAll(int[] sourceIds, int count, Message message);
+
+}
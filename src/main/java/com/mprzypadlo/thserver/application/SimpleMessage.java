@@ -0,0 +1,36 @@
+package com.mprzypadlo.thserver.application;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ *
+ * @author mprzypadlo
+ */
+public class SimpleMessage implements Message {
+
+    private final String name;
+
+    private final Map<String, String> content;
+
+    public SimpleMessage(String name, Map<String, String> content) {
+        this.name = name;
+        this.content = Collections.unmodifiableMap(new LinkedHashMap<>(content));
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public Map<String, String> content() {
+        return content;
+    }
+
+    @Override
+    public String toString() {
+        return name + content;
+    }
+}
@@ -0,0 +1,38 @@
+package com.mprzypadlo.thserver.application;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Buduje wiadomości {@link SimpleMessage}. Instancja nie jest bezpieczna
+ * wątkowo.
+ *
+ * @author mprzypadlo
+ */
+public class SimpleMessageBuilder implements MessageBuilder {
+
+    private String name;
+
+    private final Map<String, String> content = new LinkedHashMap<>();
+
+    @Override
+    public MessageBuilder message(String name) {
+        this.name = name;
+        content.clear();
+        return this;
+    }
+
+    @Override
+    public MessageBuilder contentField(String fieldName, String value) {
+        content.put(fieldName, value);
+        return this;
+    }
+
+    @Override
+    public Message getMessage() {
+        if (name == null) {
+            throw new IllegalStateException("Message name not set");
+        }
+        return new SimpleMessage(name, content);
+    }
+}
@@ -0,0 +1,188 @@
+package com.mprzypadlo.thserver.application.cluster;
+
+import com.mprzypadlo.thserver.application.command.Command;
+import com.mprzypadlo.thserver.application.command.CommandBus;
+import com.mprzypadlo.thserver.application.protocol.CommandDecoder;
+import com.mprzypadlo.thserver.application.protocol.CommandEncoder;
+import com.mprzypadlo.thserver.application.protocol.Protocol;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+/**
+ * Węzeł klastra.
+ *
+ * Komendy dla gier należących do tego węzła (według
+ * {@link ConsistentHashRing}) trafiają do {@link CommandBus} gry. Komendy dla
+ * pozostałych gier są kodowane i przekazywane przez {@link Transport} do
+ * właściciela gry.
+ *
+ * Przekazywana ramka: {@code [int gra][int połączenie][byte skoki][ramka
+ * komendy]}. Licznik skoków chroni przed krążeniem ramek między węzłami,
+ * które chwilowo mają różny obraz pierścienia.
+ *
+ * Przekierowania ({@link #redirect}) mają pierwszeństwo przed pierścieniem -
+ * pozwalają przenieść pojedynczą grę na inny węzeł bez zmiany pierścienia.
+ *
+ * @author mprzypadlo
+ */
+public class ClusterNode {
+
+    public static final int HEADER_SIZE = 9;
+
+    public static final int MAX_HOPS = 2;
+
+    private final String id;
+
+    private final ConsistentHashRing ring;
+
+    private final Transport transport;
+
+    private final IntFunction<CommandBus> games;
+
+    private final CommandEncoder encoder = new CommandEncoder();
+
+    private final ThreadLocal<CommandDecoder> decoders = ThreadLocal.withInitial(CommandDecoder::new);
+
+    private final Map<Integer, String> redirects = new ConcurrentHashMap<>();
+
+    private final LongAdder forwarded = new LongAdder();
+
+    private final LongAdder received = new LongAdder();
+
+    /**
+     * @param id
+     * @param ring
+     * @param transport
+     * @param games Zwraca CommandBus gry prowadzonej przez ten węzeł lub
+     * null, gdy węzeł jej nie zna.
+     */
+    public ClusterNode(
+            String id,
+            ConsistentHashRing ring,
+            Transport transport,
+            IntFunction<CommandBus> games
+    ) {
+        this.id = id;
+        this.ring = ring;
+        this.transport = transport;
+        this.games = games;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public boolean owns(int gameId) {
+        return id.equals(nodeFor(gameId));
+    }
+
+    /**
+     * @param gameId
+     * @return Węzeł, do którego ten węzeł kieruje komendy gry.
+     */
+    public String nodeFor(int gameId) {
+        if (!redirects.isEmpty()) {
+            String redirect = redirects.get(gameId);
+            if (redirect != null) {
+                return redirect;
+            }
+        }
+        return ring.nodeFor(gameId);
+    }
+
+    /**
+     * Kieruje komendy gry do podanego węzła, niezależnie od pierścienia.
+     *
+     * @param gameId
+     * @param nodeId
+     */
+    public void redirect(int gameId, String nodeId) {
+        redirects.put(gameId, nodeId);
+    }
+
+    public void clearRedirect(int gameId) {
+        redirects.remove(gameId);
+    }
+
+    public void dispatch(int gameId, Command command) {
+        dispatch(gameId, command, 0);
+    }
+
+    /**
+     * Przekazuje komendę do podanego węzła, z pominięciem pierścienia i
+     * przekierowań tego węzła.
+     *
+     * @param nodeId
+     * @param gameId
+     * @param command
+     */
+    public void send(String nodeId, int gameId, Command command) {
+        if (id.equals(nodeId)) {
+            dispatchLocally(gameId, command);
+        } else {
+            forward(nodeId, gameId, command, 0);
+        }
+    }
+
+    private void dispatch(int gameId, Command command, int hops) {
+        String owner = nodeFor(gameId);
+        if (id.equals(owner)) {
+            dispatchLocally(gameId, command);
+        } else {
+            forward(owner, gameId, command, hops);
+        }
+    }
+
+    private void dispatchLocally(int gameId, Command command) {
+        CommandBus bus = games.apply(gameId);
+        if (bus == null) {
+            throw new UnknownGameException(gameId);
+        }
+        bus.dispatch(command);
+    }
+
+    private void forward(String owner, int gameId, Command command, int hops) {
+        if (hops >= MAX_HOPS) {
+            throw new IllegalStateException("Game " + gameId + " forwarded too many times");
+        }
+        ByteBuffer frame = ByteBuffer.allocate(
+                HEADER_SIZE + Protocol.LENGTH_SIZE + Protocol.DEFAULT_MAX_FRAME_SIZE
+        );
+        frame.putInt(gameId).putInt(command.sourceId()).put((byte) (hops + 1));
+        encoder.encode(command, frame);
+        frame.flip();
+        transport.send(owner, frame);
+        forwarded.increment();
+    }
+
+    /**
+     * Odbiera ramki przekazane przez inne węzły.
+     *
+     * @param frames
+     */
+    public void receive(ByteBuffer frames) {
+        CommandDecoder decoder = decoders.get();
+        while (frames.hasRemaining()) {
+            int gameId = frames.getInt();
+            int sourceId = frames.getInt();
+            int hops = frames.get();
+            Command command = decoder.next(frames, sourceId);
+            if (command == null) {
+                throw new IllegalStateException("Incomplete forwarded frame");
+            }
+            received.increment();
+            dispatch(gameId, command, hops);
+        }
+    }
+
+    public long forwarded() {
+        return forwarded.sum();
+    }
+
+    public long received() {
+        return received.sum();
+    }
+}
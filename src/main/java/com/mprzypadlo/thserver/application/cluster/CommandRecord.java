@@ -0,0 +1,64 @@
+package com.mprzypadlo.thserver.application.cluster;
+
+import com.mprzypadlo.thserver.application.command.Command;
+import com.mprzypadlo.thserver.application.protocol.CommandDecoder;
+import com.mprzypadlo.thserver.application.protocol.CommandEncoder;
+import com.mprzypadlo.thserver.application.protocol.Protocol;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Zapis komendy wykonanej na grze, wraz z wynikami rzutów kostką wykonanymi
+ * podczas jej obsługi. Pozwala wiernie odtworzyć komendę na kopii gry.
+ *
+ * @author mprzypadlo
+ */
+public final class CommandRecord {
+
+    private final byte[] frame;
+
+    private final int sourceId;
+
+    private final int[] rolls;
+
+    public CommandRecord(byte[] frame, int sourceId, int[] rolls) {
+        this.frame = frame;
+        this.sourceId = sourceId;
+        this.rolls = rolls;
+    }
+
+    public static CommandRecord of(Command command, int[] rolls, CommandEncoder encoder) {
+        ByteBuffer buffer = ByteBuffer.allocate(
+                Protocol.LENGTH_SIZE + Protocol.DEFAULT_MAX_FRAME_SIZE
+        );
+        encoder.encode(command, buffer);
+        return new CommandRecord(
+                Arrays.copyOf(buffer.array(), buffer.position()),
+                command.sourceId(),
+                rolls
+        );
+    }
+
+    /**
+     * @param decoder
+     * @return Komenda - obiekt wielokrotnego użytku dekodera.
+     */
+    public Command command(CommandDecoder decoder) {
+        return decoder.next(ByteBuffer.wrap(frame), sourceId);
+    }
+
+    /**
+     * @return Ramka komendy w formacie {@link Protocol}.
+     */
+    public byte[] frame() {
+        return frame;
+    }
+
+    public int sourceId() {
+        return sourceId;
+    }
+
+    public int[] rolls() {
+        return rolls;
+    }
+}
@@ -0,0 +1,120 @@
+package com.mprzypadlo.thserver.application.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Pierścień haszowania spójnego przypisujący gry do węzłów klastra.
+ *
+ * Każdy węzeł zajmuje {@code virtualNodes} punktów na pierścieniu. Gra należy
+ * do węzła, którego punkt jako pierwszy następuje po haszu identyfikatora
+ * gry. Dodanie lub usunięcie węzła przenosi więc tylko gry z zakresów
+ * przejmowanych lub zwalnianych przez ten węzeł - średnio {@code 1/n}
+ * wszystkich gier.
+ *
+ * Zmiany budują nową tablicę punktów, wyszukiwanie nie wymaga blokad.
+ *
+ * @author mprzypadlo
+ */
+public class ConsistentHashRing {
+
+    private final int virtualNodes;
+
+    private volatile Points points = new Points(new long[0], new String[0]);
+
+    public ConsistentHashRing(int virtualNodes) {
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("At least one virtual node is required");
+        }
+        this.virtualNodes = virtualNodes;
+    }
+
+    public synchronized void addNode(String nodeId) {
+        Set<String> nodes = nodes();
+        if (!nodes.add(nodeId)) {
+            throw new IllegalArgumentException("Node already in ring: " + nodeId);
+        }
+        points = build(nodes);
+    }
+
+    public synchronized void removeNode(String nodeId) {
+        Set<String> nodes = nodes();
+        if (!nodes.remove(nodeId)) {
+            throw new IllegalArgumentException("Node not in ring: " + nodeId);
+        }
+        points = build(nodes);
+    }
+
+    /**
+     * @param gameId
+     * @return Identyfikator węzła, do którego należy gra.
+     */
+    public String nodeFor(int gameId) {
+        Points current = points;
+        if (current.positions.length == 0) {
+            throw new IllegalStateException("Ring has no nodes");
+        }
+        int index = Arrays.binarySearch(current.positions, mix(gameId));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        if (index == current.positions.length) {
+            index = 0;
+        }
+        return current.owners[index];
+    }
+
+    public Set<String> nodes() {
+        return new TreeSet<>(Arrays.asList(points.owners));
+    }
+
+    private Points build(Set<String> nodes) {
+        int size = nodes.size() * virtualNodes;
+        long[] positions = new long[size];
+        String[] owners = new String[size];
+        long[][] sorted = new long[size][];
+        String[] names = nodes.toArray(new String[0]);
+        int i = 0;
+        for (int node = 0; node < names.length; node++) {
+            long seed = hash(names[node]);
+            for (int replica = 0; replica < virtualNodes; replica++) {
+                sorted[i++] = new long[]{mix(seed + replica), node};
+            }
+        }
+        Arrays.sort(sorted, (a, b) -> Long.compare(a[0], b[0]));
+        for (i = 0; i < size; i++) {
+            positions[i] = sorted[i][0];
+            owners[i] = names[(int) sorted[i][1]];
+        }
+        return new Points(positions, owners);
+    }
+
+    private static long hash(String nodeId) {
+        long hash = 0xCBF29CE484222325L;
+        for (byte b : nodeId.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ b) * 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static final class Points {
+
+        final long[] positions;
+
+        final String[] owners;
+
+        Points(long[] positions, String[] owners) {
+            this.positions = positions;
+            this.owners = owners;
+        }
+    }
+}
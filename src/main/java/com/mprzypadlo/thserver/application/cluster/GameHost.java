@@ -0,0 +1,86 @@
+package com.mprzypadlo.thserver.application.cluster;
+
+import com.mprzypadlo.thserver.application.Message;
+import com.mprzypadlo.thserver.application.MessageBus;
+import com.mprzypadlo.thserver.application.command.CommandBus;
+import com.mprzypadlo.thserver.application.session.StripedIntMap;
+import com.przypadlo.thserver.model.dice.RecordingDice;
+import com.przypadlo.thserver.model.game.Game;
+import java.util.function.BiFunction;
+
+/**
+ * Gry prowadzone przez jeden węzeł klastra.
+ *
+ * {@link #bus(int)} może posłużyć jako źródło CommandBus dla
+ * {@link ClusterNode}.
+ *
+ * @author mprzypadlo
+ */
+public class GameHost {
+
+    private static final MessageBus SILENT = new MessageBus() {
+        @Override
+        public void notify(int sourceId, Message message) {
+        }
+
+        @Override
+        public void notifyAll(Message message) {
+        }
+
+        @Override
+        public void notifyAll(int[] sourceIds, int count, Message message) {
+        }
+    };
+
+    private final StripedIntMap<HostedGame> games = new StripedIntMap<>();
+
+    private final BiFunction<Game, MessageBus, CommandBus> buses;
+
+    private final MessageBus connections;
+
+    /**
+     * @param buses Tworzy CommandBus z handlerami dla gry, wysyłający
+     * wiadomości przez podany MessageBus.
+     * @param connections
+     */
+    public GameHost(BiFunction<Game, MessageBus, CommandBus> buses, MessageBus connections) {
+        this.buses = buses;
+        this.connections = connections;
+    }
+
+    public HostedGame host(int gameId, Game game, RecordingDice dice) {
+        HostedGame hosted = new HostedGame(game, dice, buses.apply(game, connections));
+        if (games.putIfAbsent(gameId, hosted) != null) {
+            throw new IllegalStateException("Game already hosted: " + gameId);
+        }
+        return hosted;
+    }
+
+    /**
+     * @param gameId
+     * @return Gra lub null, gdy węzeł jej nie prowadzi.
+     */
+    public HostedGame game(int gameId) {
+        return games.get(gameId);
+    }
+
+    public CommandBus bus(int gameId) {
+        return games.get(gameId);
+    }
+
+    public HostedGame remove(int gameId) {
+        return games.remove(gameId);
+    }
+
+    public int size() {
+        return games.size();
+    }
+
+    /**
+     * @param game
+     * @return CommandBus gry, który nie wysyła wiadomości do graczy.
+     */
+    public CommandBus replayBus(Game game) {
+        return buses.apply(game, SILENT);
+    }
+}
@@ -0,0 +1,161 @@
+package com.mprzypadlo.thserver.application.cluster;
+
+import com.mprzypadlo.thserver.application.command.Command;
+import com.przypadlo.thserver.domain.Dice;
+import com.przypadlo.thserver.model.dice.RecordingDice;
+import com.przypadlo.thserver.model.game.Game;
+import java.util.List;
+
+/**
+ * Przeniesienie gry na inny węzeł bez zatrzymywania rozgrywki.
+ *
+ * <ol>
+ * <li>Komendy gry są kierowane na węzeł źródłowy, nawet jeśli pierścień
+ * wskazuje już węzeł docelowy.</li>
+ * <li>Na węźle źródłowym tworzona jest kopia gry, a kolejne komendy są
+ * zapisywane.</li>
+ * <li>Kopia trafia na węzeł docelowy, który odtwarza zapisane komendy, w
+ * kilku rundach, dopóki zaległość nie spadnie poniżej progu.</li>
+ * <li>Gra na węźle źródłowym jest wstrzymywana, a ostatnie zapisane komendy
+ * odtwarzane na kopii.</li>
+ * <li>Kopia również jest wstrzymywana, a komendy gry kierowane są na węzeł
+ * docelowy. Komendy buforowane przez grę źródłową wykonywane są na kopii
+ * przed komendami, które w tym czasie dotarły na węzeł docelowy, więc
+ * komendy gracza nie zmieniają kolejności.</li>
+ * </ol>
+ *
+ * Gracze odczuwają jedynie krok 4, zwykle trwający ułamek milisekundy.
+ *
+ * @author mprzypadlo
+ */
+public class GameMigration {
+
+    public static final int DEFAULT_CATCH_UP_ROUNDS = 8;
+
+    public static final int DEFAULT_FENCE_THRESHOLD = 16;
+
+    private final int gameId;
+
+    private final ClusterNode sourceNode;
+
+    private final GameHost source;
+
+    private final ClusterNode targetNode;
+
+    private final GameHost target;
+
+    private final int catchUpRounds;
+
+    private final int fenceThreshold;
+
+    private long pauseNanos;
+
+    private int replayed;
+
+    public GameMigration(
+            int gameId,
+            ClusterNode sourceNode,
+            GameHost source,
+            ClusterNode targetNode,
+            GameHost target
+    ) {
+        this(gameId, sourceNode, source, targetNode, target,
+                DEFAULT_CATCH_UP_ROUNDS, DEFAULT_FENCE_THRESHOLD);
+    }
+
+    /**
+     * @param gameId
+     * @param sourceNode
+     * @param source
+     * @param targetNode
+     * @param target
+     * @param catchUpRounds Maksymalna liczba rund odtwarzania przed
+     * wstrzymaniem gry.
+     * @param fenceThreshold Liczba zaległych komend, przy której gra może
+     * zostać wstrzymana.
+     */
+    public GameMigration(
+            int gameId,
+            ClusterNode sourceNode,
+            GameHost source,
+            ClusterNode targetNode,
+            GameHost target,
+            int catchUpRounds,
+            int fenceThreshold
+    ) {
+        this.gameId = gameId;
+        this.sourceNode = sourceNode;
+        this.source = source;
+        this.targetNode = targetNode;
+        this.target = target;
+        this.catchUpRounds = catchUpRounds;
+        this.fenceThreshold = fenceThreshold;
+    }
+
+    /**
+     * @param dice Kostka gry na węźle docelowym.
+     * @return Przeniesiona gra.
+     */
+    public HostedGame run(Dice dice) {
+        HostedGame original = source.game(gameId);
+        if (original == null) {
+            throw new UnknownGameException(gameId);
+        }
+        sourceNode.redirect(gameId, sourceNode.id());
+        targetNode.redirect(gameId, sourceNode.id());
+        RecordingDice copyDice = new RecordingDice(dice);
+        Game copy = original.startTail(copyDice);
+        HostedGame moved;
+        try {
+            moved = target.host(gameId, copy, copyDice);
+        } catch (RuntimeException e) {
+            original.abort();
+            sourceNode.clearRedirect(gameId);
+            targetNode.clearRedirect(gameId);
+            throw e;
+        }
+        replay(moved, copy, catchUp(original, moved, copy));
+
+        long fencedAt = System.nanoTime();
+        replay(moved, copy, original.fence());
+        moved.fence();
+        targetNode.redirect(gameId, targetNode.id());
+        List<Command> buffered = original.handOver(
+                command -> sourceNode.send(targetNode.id(), gameId, command)
+        );
+        sourceNode.redirect(gameId, targetNode.id());
+        moved.unfence(buffered);
+        pauseNanos = System.nanoTime() - fencedAt;
+
+        source.remove(gameId);
+        return moved;
+    }
+
+    private List<CommandRecord> catchUp(HostedGame original, HostedGame moved, Game copy) {
+        List<CommandRecord> records = original.drainTail();
+        for (int round = 0; round < catchUpRounds && records.size() > fenceThreshold; round++) {
+            replay(moved, copy, records);
+            records = original.drainTail();
+        }
+        return records;
+    }
+
+    private void replay(HostedGame moved, Game copy, List<CommandRecord> records) {
+        moved.replay(records, target.replayBus(copy));
+        replayed += records.size();
+    }
+
+    /**
+     * @return Czas wstrzymania gry podczas ostatniego przeniesienia.
+     */
+    public long pauseNanos() {
+        return pauseNanos;
+    }
+
+    /**
+     * @return Liczba komend odtworzonych na węźle docelowym.
+     */
+    public int replayed() {
+        return replayed;
+    }
+}
@@ -0,0 +1,259 @@
+package com.mprzypadlo.thserver.application.cluster;
+
+import com.mprzypadlo.thserver.application.command.Command;
+import com.mprzypadlo.thserver.application.command.CommandBus;
+import com.mprzypadlo.thserver.application.protocol.CommandDecoder;
+import com.mprzypadlo.thserver.application.protocol.CommandEncoder;
+import com.mprzypadlo.thserver.application.protocol.DecodedCommand;
+import com.mprzypadlo.thserver.application.replication.CommandJournal;
+import com.mprzypadlo.thserver.application.replication.JournalEntry;
+import com.przypadlo.thserver.model.dice.RecordingDice;
+import com.przypadlo.thserver.model.game.Game;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Gra prowadzona przez węzeł, wraz z jej {@link CommandBus}.
+ *
+ * Komendy gry wykonywane są pojedynczo, pod blokadą gry. Na potrzeby
+ * migracji gra może:
+ * <ul>
+ * <li>zapisywać wykonane komendy ({@link #startTail}),</li>
+ * <li>wstrzymać wykonywanie i buforować komendy ({@link #fence()}),</li>
+ * <li>przekazywać komendy dalej, gdy została przeniesiona
+ * ({@link #handOver}),</li>
+ * <li>jako kopia - wykonać najpierw komendy przekazane przez oryginał, a
+ * dopiero potem buforowane ({@link #unfence}).</li>
+ * </ul>
+ * Na potrzeby replikacji gra może też zapisywać komendy do dziennika
+ * ({@link #journalTo}).
+ *
+ * @author mprzypadlo
+ */
+public class HostedGame extends CommandBus {
+
+    private final Game game;
+
+    private final RecordingDice dice;
+
+    private final CommandBus bus;
+
+    private final CommandEncoder encoder = new CommandEncoder();
+
+    private List<CommandRecord> tail;
+
+    private List<Command> fenced;
+
+    private Consumer<Command> movedTo;
+
+    private CommandJournal journal;
+
+    private int journalGameId;
+
+    private long journalSequence;
+
+    private boolean snapshotNeeded;
+
+    public HostedGame(Game game, RecordingDice dice, CommandBus bus) {
+        super(new HashMap());
+        this.game = game;
+        this.dice = dice;
+        this.bus = bus;
+    }
+
+    @Override
+    public void dispatch(Command command) {
+        Consumer<Command> forward;
+        synchronized (this) {
+            forward = movedTo;
+            if (forward == null) {
+                dispatchLocked(command);
+                return;
+            }
+        }
+        forward.accept(command);
+    }
+
+    private void dispatchLocked(Command command) {
+        if (fenced != null) {
+            fenced.add(detach(command));
+            return;
+        }
+        if (tail == null && journal == null) {
+            bus.dispatch(command);
+            return;
+        }
+        boolean journaled = journal != null && (!snapshotNeeded || offerSnapshot());
+        dice.startRecording();
+        try {
+            bus.dispatch(command);
+        } finally {
+            CommandRecord record = CommandRecord.of(command, dice.stopRecording(), encoder);
+            if (tail != null) {
+                tail.add(record);
+            }
+            if (journaled) {
+                offer(JournalEntry.command(journalGameId, ++journalSequence, record));
+            }
+        }
+    }
+
+    /**
+     * Kopia gry tworzona jest dopiero, gdy dziennik ma na nią miejsce, więc
+     * przepełniony dziennik nie spowalnia komend gry.
+     */
+    private boolean offerSnapshot() {
+        if (journal.isFull()) {
+            snapshotNeeded = true;
+            return false;
+        }
+        return offer(JournalEntry.snapshot(journalGameId, ++journalSequence, game.copy(dice)));
+    }
+
+    /**
+     * Wpis, który nie zmieścił się w dzienniku, powoduje wysłanie pełnej
+     * kopii gry przed kolejną komendą.
+     */
+    private boolean offer(JournalEntry entry) {
+        snapshotNeeded = !journal.offer(entry);
+        return !snapshotNeeded;
+    }
+
+    /**
+     * Zaczyna zapisywać komendy gry do dziennika, poczynając od kopii
+     * bieżącego stanu gry.
+     *
+     * @param gameId
+     * @param journal
+     */
+    public synchronized void journalTo(int gameId, CommandJournal journal) {
+        this.journal = journal;
+        this.journalGameId = gameId;
+        this.snapshotNeeded = false;
+        offerSnapshot();
+    }
+
+    public synchronized void stopJournal() {
+        this.journal = null;
+    }
+
+    public Game game() {
+        return game;
+    }
+
+    /**
+     * Tworzy kopię gry i zaczyna zapisywać komendy wykonane po jej
+     * utworzeniu.
+     *
+     * @param copyDice Kostka kopii.
+     * @return
+     */
+    public synchronized Game startTail(RecordingDice copyDice) {
+        tail = new ArrayList<>();
+        return game.copy(copyDice);
+    }
+
+    /**
+     * @return Komendy zapisane od poprzedniego wywołania.
+     */
+    public synchronized List<CommandRecord> drainTail() {
+        List<CommandRecord> drained = tail;
+        tail = new ArrayList<>();
+        return drained;
+    }
+
+    /**
+     * Wstrzymuje wykonywanie komend. Komendy przychodzące w tym czasie są
+     * buforowane do {@link #release}.
+     *
+     * @return Komendy zapisane od ostatniego {@link #drainTail()}.
+     */
+    public synchronized List<CommandRecord> fence() {
+        List<CommandRecord> drained = tail;
+        tail = null;
+        fenced = new ArrayList<>();
+        return drained;
+    }
+
+    /**
+     * Oznacza grę jako przeniesioną. Wszystkie kolejne komendy trafiają do
+     * {@code forward}, w kolejności w jakiej dotarły do gry.
+     *
+     * @param forward
+     * @return Komendy buforowane od {@link #fence()}, do wykonania na
+     * kopii przed jej własnymi buforowanymi komendami.
+     */
+    public synchronized List<Command> handOver(Consumer<Command> forward) {
+        List<Command> buffered = fenced;
+        fenced = null;
+        movedTo = forward;
+        return buffered;
+    }
+
+    /**
+     * Wznawia wykonywanie komend wstrzymane przez {@link #fence()}. Najpierw
+     * wykonywane są komendy przekazane przez oryginał, a następnie
+     * buforowane przez tę grę - komendy gracza zachowują więc kolejność.
+     * Wyjątek komendy nie przerywa wykonywania kolejnych.
+     *
+     * @param earlier Komendy zwrócone przez {@link #handOver} oryginału.
+     */
+    public synchronized void unfence(List<Command> earlier) {
+        List<Command> buffered = fenced;
+        fenced = null;
+        dispatchAll(earlier);
+        dispatchAll(buffered);
+    }
+
+    private void dispatchAll(List<Command> commands) {
+        for (Command command : commands) {
+            try {
+                dispatchLocked(command);
+            } catch (RuntimeException e) {
+                // błąd komendy nie wstrzymuje kolejnych komend gry
+            }
+        }
+    }
+
+    /**
+     * Przerywa migrację - gra wraca do normalnego wykonywania komend.
+     */
+    public synchronized void abort() {
+        tail = null;
+        List<Command> buffered = fenced;
+        fenced = null;
+        if (buffered != null) {
+            for (Command command : buffered) {
+                bus.dispatch(command);
+            }
+        }
+    }
+
+    /**
+     * Odtwarza zapisane komendy, z tymi samymi wynikami rzutów kostką.
+     * Wyjątki komend są pomijane - wystąpiły również na oryginale.
+     *
+     * @param records
+     * @param replayBus CommandBus kopii, niewysyłający wiadomości do graczy.
+     */
+    public synchronized void replay(List<CommandRecord> records, CommandBus replayBus) {
+        CommandDecoder decoder = new CommandDecoder();
+        for (CommandRecord record : records) {
+            dice.replay(record.rolls());
+            try {
+                replayBus.dispatch(record.command(decoder));
+            } catch (RuntimeException e) {
+                // komenda zakończyła się błędem również na oryginale
+            }
+        }
+        dice.replay();
+    }
+
+    private static Command detach(Command command) {
+        return command instanceof DecodedCommand
+                ? ((DecodedCommand) command).detach()
+                : command;
+    }
+}
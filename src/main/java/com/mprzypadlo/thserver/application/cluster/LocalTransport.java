@@ -0,0 +1,35 @@
+package com.mprzypadlo.thserver.application.cluster;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Transport pomiędzy węzłami działającymi w jednej JVM.
+ *
+ * Ramki przekazywane są synchronicznie, w wątku wysyłającym. Pozwala
+ * uruchomić i testować kilka węzłów w jednym procesie.
+ *
+ * @author mprzypadlo
+ */
+public class LocalTransport implements Transport {
+
+    private final Map<String, ClusterNode> nodes = new ConcurrentHashMap<>();
+
+    public void connect(ClusterNode node) {
+        nodes.put(node.id(), node);
+    }
+
+    public void disconnect(String nodeId) {
+        nodes.remove(nodeId);
+    }
+
+    @Override
+    public void send(String nodeId, ByteBuffer frames) {
+        ClusterNode node = nodes.get(nodeId);
+        if (node == null) {
+            throw new IllegalStateException("Node not connected: " + nodeId);
+        }
+        node.receive(frames);
+    }
+}
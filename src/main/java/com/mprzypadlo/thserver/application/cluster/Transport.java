@@ -0,0 +1,18 @@
+package com.mprzypadlo.thserver.application.cluster;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Przesyła ramki pomiędzy węzłami klastra.
+ *
+ * @author mprzypadlo
+ */
+public interface Transport {
+
+    /**
+     * @param nodeId Węzeł docelowy.
+     * @param frames Ramki w trybie odczytu. Transport nie zachowuje bufora
+     * po powrocie z metody.
+     */
+    void send(String nodeId, ByteBuffer frames);
+}
@@ -0,0 +1,14 @@
+package com.mprzypadlo.thserver.application.cluster;
+
+/**
+ * Węzeł nie prowadzi gry o podanym identyfikatorze.
+ *
+ * @author mprzypadlo
+ */
+public class UnknownGameException extends RuntimeException {
+
+    public UnknownGameException(int gameId) {
+        super("Unknown game: " + gameId);
+    }
+
+}
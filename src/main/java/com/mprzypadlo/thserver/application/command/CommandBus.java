@@ -32,6 +32,16 @@ public class CommandBus {
         handler.handle(command);
     }
 
+    /**
+     * Wywoływane przez handlery, które same obsłużyły wyjątek komendy (zob.
+     * {@link HandlerErrorListener}).
+     *
+     * @param command
+     * @param ex
+     */
+    public void handlerFailed(Command command, RuntimeException ex) {
+    }
+
     private void throwExceptionIfCommandHandlerNotFound(CommandHandler handler)  {
         if (handler == null) {
             throw new CommandHandlerNotFoundException();
@@ -0,0 +1,17 @@
+package com.mprzypadlo.thserver.application.command;
+
+/**
+ * Powiadamiany o wyjątkach, które handler obsłużył sam - np. wysyłając
+ * autorowi komendy wiadomość o błędzie - zamiast przekazać je do
+ * {@link CommandBus}.
+ *
+ * @author mprzypadlo
+ */
+public interface HandlerErrorListener {
+
+    public static final HandlerErrorListener NONE = (command, ex) -> {
+    };
+
+    public void handlerFailed(Command command, RuntimeException ex);
+
+}
@@ -0,0 +1,21 @@
+package com.mprzypadlo.thserver.application.command.commands;
+
+import com.mprzypadlo.thserver.application.command.Command;
+
+public abstract class AttackPlayer implements Command {
+
+    public static final String NAME = "attack-player";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public abstract int sourceId();
+
+    public abstract String attackerName();
+
+    public abstract String attackedName();
+
+}
@@ -4,9 +4,11 @@ import com.mprzypadlo.thserver.application.command.Command;
 
 public abstract class CreatePlayer implements Command {
 
+    public static final String NAME = "create-player";
+
     @Override
     public String name() {
-        return "asdf";
+        return NAME;
     }
     
     @Override
@@ -0,0 +1,21 @@
+package com.mprzypadlo.thserver.application.command.commands;
+
+import com.mprzypadlo.thserver.application.command.Command;
+
+public abstract class ExecuteAction implements Command {
+
+    public static final String NAME = "execute-action";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public abstract int sourceId();
+
+    public abstract String playerName();
+
+    public abstract String actionName();
+
+}
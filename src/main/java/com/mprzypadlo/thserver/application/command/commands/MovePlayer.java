@@ -0,0 +1,22 @@
+package com.mprzypadlo.thserver.application.command.commands;
+
+import com.mprzypadlo.thserver.application.command.Command;
+import com.przypadlo.thserver.domain.Board.Directions;
+
+public abstract class MovePlayer implements Command {
+
+    public static final String NAME = "move-player";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public abstract int sourceId();
+
+    public abstract String playerName();
+
+    public abstract Directions direction();
+
+}
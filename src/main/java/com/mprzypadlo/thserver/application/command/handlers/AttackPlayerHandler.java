@@ -0,0 +1,48 @@
+package com.mprzypadlo.thserver.application.command.handlers;
+
+import com.mprzypadlo.thserver.application.Message;
+import com.mprzypadlo.thserver.application.MessageBuilder;
+import com.mprzypadlo.thserver.application.MessageBus;
+import com.mprzypadlo.thserver.application.command.Command;
+import com.mprzypadlo.thserver.application.command.HandlerErrorListener;
+import com.mprzypadlo.thserver.application.command.commands.AttackPlayer;
+import com.mprzypadlo.thserver.application.interest.InterestManager;
+import com.przypadlo.thserver.model.game.Game;
+
+public class AttackPlayerHandler extends GameCommandHandler {
+
+    public AttackPlayerHandler(
+            Game game,
+            MessageBus connections,
+            MessageBuilder messageBuilder
+    ) {
+        super(game, connections, messageBuilder, "player-attack-error");
+    }
+
+    public AttackPlayerHandler(
+            Game game,
+            MessageBus connections,
+            InterestManager interest,
+            HandlerErrorListener errors,
+            MessageBuilder messageBuilder
+    ) {
+        super(game, connections, interest, errors, messageBuilder, "player-attack-error");
+    }
+
+    @Override
+    protected Message execute(Command command) {
+        AttackPlayer attack = (AttackPlayer) command;
+        game.attack(attack.attackerName(), attack.attackedName());
+        return messageBuilder
+                .message("player-attacked")
+                .contentField("attacker-name", attack.attackerName())
+                .contentField("attacked-name", attack.attackedName())
+                .contentField("hp", String.valueOf(game.player(attack.attackedName()).hp()))
+                .getMessage();
+    }
+
+    @Override
+    protected String subject(Command command) {
+        return ((AttackPlayer) command).attackedName();
+    }
+}
@@ -4,7 +4,9 @@ import com.mprzypadlo.thserver.application.Message;
 import com.mprzypadlo.thserver.application.MessageBuilder;
 import com.mprzypadlo.thserver.application.command.Command;
 import com.mprzypadlo.thserver.application.command.CommandHandler;
+import com.mprzypadlo.thserver.application.command.HandlerErrorListener;
 import com.mprzypadlo.thserver.application.command.commands.CreatePlayer;
+import com.mprzypadlo.thserver.application.interest.InterestManager;
 import com.przypadlo.thserver.model.game.Game;
 import com.mprzypadlo.thserver.application.MessageBus;
 
@@ -14,6 +16,10 @@ public class CreatePlayerHandler implements CommandHandler {
 
     private final MessageBus connections;
 
+    private final InterestManager interest;
+
+    private final HandlerErrorListener errors;
+
     private final MessageBuilder messageBuilder;
 
     private CreatePlayer createPlayerCommand;
@@ -22,9 +28,30 @@ public class CreatePlayerHandler implements CommandHandler {
             Game game,
             MessageBus connections,
             MessageBuilder messageBuilder
+    ) {
+        this(game, connections, null, HandlerErrorListener.NONE, messageBuilder);
+    }
+
+    /**
+     * @param game
+     * @param connections
+     * @param interest Rejestruje połączenie nowego gracza lub null.
+     * Dołączenie zmienia skład gry (i może ją rozpocząć), więc wiadomość
+     * otrzymują zawsze wszyscy gracze.
+     * @param errors Powiadamiany o wyjątkach przy dodawaniu gracza.
+     * @param messageBuilder
+     */
+    public CreatePlayerHandler(
+            Game game,
+            MessageBus connections,
+            InterestManager interest,
+            HandlerErrorListener errors,
+            MessageBuilder messageBuilder
     ) {
         this.game = game;
         this.connections = connections;
+        this.interest = interest;
+        this.errors = errors;
         this.messageBuilder = messageBuilder;
     }
 
@@ -33,6 +60,7 @@ public class CreatePlayerHandler implements CommandHandler {
         try {
             tryCreatePlayer(command);
         } catch (RuntimeException ex) {
+            errors.handlerFailed(command, ex);
             notifyError(ex, command.sourceId());
         }
     }
@@ -63,9 +91,11 @@ public class CreatePlayerHandler implements CommandHandler {
     }
 
     private void notifySuccess() {
-        Message successMessage = createSuccessMessage();
+        if (interest != null) {
+            interest.register(createPlayerCommand.sourceId(), createPlayerCommand.playerName());
+        }
         connections.notifyAll(
-                successMessage
+                createSuccessMessage()
         );
     }
 
@@ -0,0 +1,52 @@
+package com.mprzypadlo.thserver.application.command.handlers;
+
+import com.mprzypadlo.thserver.application.Message;
+import com.mprzypadlo.thserver.application.MessageBuilder;
+import com.mprzypadlo.thserver.application.MessageBus;
+import com.mprzypadlo.thserver.application.command.Command;
+import com.mprzypadlo.thserver.application.command.HandlerErrorListener;
+import com.mprzypadlo.thserver.application.command.commands.ExecuteAction;
+import com.mprzypadlo.thserver.application.interest.InterestManager;
+import com.przypadlo.thserver.model.game.Game;
+
+public class ExecuteActionHandler extends GameCommandHandler {
+
+    public ExecuteActionHandler(
+            Game game,
+            MessageBus connections,
+            MessageBuilder messageBuilder
+    ) {
+        super(game, connections, messageBuilder, "action-error");
+    }
+
+    public ExecuteActionHandler(
+            Game game,
+            MessageBus connections,
+            InterestManager interest,
+            HandlerErrorListener errors,
+            MessageBuilder messageBuilder
+    ) {
+        super(game, connections, interest, errors, messageBuilder, "action-error");
+    }
+
+    @Override
+    protected Message execute(Command command) {
+        ExecuteAction action = (ExecuteAction) command;
+        game.action(action.playerName(), action.actionName());
+        return messageBuilder
+                .message("action-executed")
+                .contentField("player-name", action.playerName())
+                .contentField("current-player", game.currentPlayer())
+                .contentField("dice-roll", String.valueOf(game.lastDiceRoll()))
+                .getMessage();
+    }
+
+    /**
+     * Wiadomość niesie stan tury (bieżący gracz, rzut kostką), więc
+     * otrzymują ją wszyscy gracze.
+     */
+    @Override
+    protected String subject(Command command) {
+        return null;
+    }
+}
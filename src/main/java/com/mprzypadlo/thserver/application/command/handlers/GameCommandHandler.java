@@ -0,0 +1,127 @@
+package com.mprzypadlo.thserver.application.command.handlers;
+
+import com.mprzypadlo.thserver.application.Message;
+import com.mprzypadlo.thserver.application.MessageBuilder;
+import com.mprzypadlo.thserver.application.MessageBus;
+import com.mprzypadlo.thserver.application.command.Command;
+import com.mprzypadlo.thserver.application.command.CommandHandler;
+import com.mprzypadlo.thserver.application.command.HandlerErrorListener;
+import com.mprzypadlo.thserver.application.interest.InterestManager;
+import com.przypadlo.thserver.domain.Player;
+import com.przypadlo.thserver.model.game.Game;
+
+/**
+ * Bazowa klasa handlerów wykonujących ruchy graczy.
+ *
+ * Po udanym ruchu wiadomość zwróconą przez {@link #execute(Command)}
+ * otrzymują wszyscy gracze, a gdy handler korzysta z
+ * {@link InterestManager} - autor komendy oraz gracze widzący pole gracza
+ * wskazanego przez {@link #subject(Command)}, przed ruchem lub po nim (np.
+ * gracze przy polu, z którego gracz odszedł). Wiadomości o stanie całej
+ * gry ({@link #subject(Command)} równe null) otrzymują zawsze wszyscy
+ * gracze. W przypadku błędu wiadomość o błędzie otrzymuje tylko autor
+ * komendy.
+ *
+ * @author mprzypadlo
+ */
+public abstract class GameCommandHandler implements CommandHandler {
+
+    protected final Game game;
+
+    protected final MessageBus connections;
+
+    protected final MessageBuilder messageBuilder;
+
+    private final InterestManager interest;
+
+    private final HandlerErrorListener errors;
+
+    private final String errorMessageName;
+
+    protected GameCommandHandler(
+            Game game,
+            MessageBus connections,
+            MessageBuilder messageBuilder,
+            String errorMessageName
+    ) {
+        this(game, connections, null, HandlerErrorListener.NONE, messageBuilder, errorMessageName);
+    }
+
+    /**
+     * @param game
+     * @param connections
+     * @param interest Wyznacza odbiorców wiadomości lub null, gdy wiadomość
+     * otrzymują wszyscy gracze.
+     * @param errors Powiadamiany o wyjątkach ruchów.
+     * @param messageBuilder
+     * @param errorMessageName
+     */
+    protected GameCommandHandler(
+            Game game,
+            MessageBus connections,
+            InterestManager interest,
+            HandlerErrorListener errors,
+            MessageBuilder messageBuilder,
+            String errorMessageName
+    ) {
+        this.game = game;
+        this.connections = connections;
+        this.interest = interest;
+        this.errors = errors;
+        this.messageBuilder = messageBuilder;
+        this.errorMessageName = errorMessageName;
+    }
+
+    @Override
+    public void handle(Command command) {
+        try {
+            String subjectName = interest == null ? null : subject(command);
+            if (subjectName == null) {
+                connections.notifyAll(execute(command));
+                return;
+            }
+            Player before = game.player(subjectName);
+            int fromCircle = before.circle();
+            int fromField = before.field();
+            Message message = execute(command);
+            Player after = game.player(subjectName);
+            interest.refresh(command.sourceId());
+            interest.notifyInterested(
+                    fromCircle,
+                    fromField,
+                    after.circle(),
+                    after.field(),
+                    command.sourceId(),
+                    message
+            );
+        } catch (RuntimeException ex) {
+            errors.handlerFailed(command, ex);
+            notifyError(ex, command.sourceId());
+        }
+    }
+
+    /**
+     * Wykonuje ruch i zwraca wiadomość o jego wyniku.
+     *
+     * @param command
+     * @return
+     */
+    protected abstract Message execute(Command command);
+
+    /**
+     * Zwraca nazwę gracza, na którego polu zaszło zdarzenie.
+     *
+     * @param command
+     * @return Nazwa gracza lub null, gdy zdarzenie dotyczy całej gry.
+     */
+    protected abstract String subject(Command command);
+
+    private void notifyError(RuntimeException ex, int sourceId) {
+        Message errorMessage = messageBuilder
+                .message(errorMessageName)
+                .contentField("error-message", String.valueOf(ex.getMessage()))
+                .contentField("error-type", ex.getClass().getSimpleName())
+                .getMessage();
+        connections.notify(sourceId, errorMessage);
+    }
+}
@@ -0,0 +1,66 @@
+package com.mprzypadlo.thserver.application.command.handlers;
+
+import com.mprzypadlo.thserver.application.MessageBuilder;
+import com.mprzypadlo.thserver.application.MessageBus;
+import com.mprzypadlo.thserver.application.command.Command;
+import com.mprzypadlo.thserver.application.command.CommandBus;
+import com.mprzypadlo.thserver.application.command.HandlerErrorListener;
+import com.mprzypadlo.thserver.application.command.commands.AttackPlayer;
+import com.mprzypadlo.thserver.application.command.commands.CreatePlayer;
+import com.mprzypadlo.thserver.application.command.commands.ExecuteAction;
+import com.mprzypadlo.thserver.application.command.commands.MovePlayer;
+import com.mprzypadlo.thserver.application.command.commands.PickItem;
+import com.mprzypadlo.thserver.application.command.commands.UseItem;
+import com.mprzypadlo.thserver.application.interest.InterestManager;
+import com.przypadlo.thserver.model.game.Game;
+
+/**
+ * Rejestruje handlery wszystkich komend gry.
+ *
+ * Wyjątki obsłużone przez handlery zgłaszane są do
+ * {@link CommandBus#handlerFailed(Command, RuntimeException)}.
+ *
+ * @author mprzypadlo
+ */
+public final class GameHandlers {
+
+    private GameHandlers() {
+    }
+
+    public static CommandBus register(
+            CommandBus bus,
+            Game game,
+            MessageBus connections,
+            MessageBuilder builder
+    ) {
+        return register(bus, game, connections, null, builder);
+    }
+
+    /**
+     * Rejestruje handlery, które powiadamiają tylko zainteresowanych graczy.
+     *
+     * @param bus
+     * @param game
+     * @param connections
+     * @param interest Wyznacza odbiorców wiadomości lub null, gdy wiadomość
+     * otrzymują wszyscy gracze.
+     * @param builder
+     * @return
+     */
+    public static CommandBus register(
+            CommandBus bus,
+            Game game,
+            MessageBus connections,
+            InterestManager interest,
+            MessageBuilder builder
+    ) {
+        HandlerErrorListener errors = bus::handlerFailed;
+        bus.registerHandler(CreatePlayer.NAME, new CreatePlayerHandler(game, connections, interest, errors, builder));
+        bus.registerHandler(MovePlayer.NAME, new MovePlayerHandler(game, connections, interest, errors, builder));
+        bus.registerHandler(AttackPlayer.NAME, new AttackPlayerHandler(game, connections, interest, errors, builder));
+        bus.registerHandler(PickItem.NAME, new PickItemHandler(game, connections, interest, errors, builder));
+        bus.registerHandler(UseItem.NAME, new UseItemHandler(game, connections, interest, errors, builder));
+        bus.registerHandler(ExecuteAction.NAME, new ExecuteActionHandler(game, connections, interest, errors, builder));
+        return bus;
+    }
+}
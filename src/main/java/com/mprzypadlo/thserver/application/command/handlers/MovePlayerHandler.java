@@ -0,0 +1,55 @@
+package com.mprzypadlo.thserver.application.command.handlers;
+
+import com.mprzypadlo.thserver.application.Message;
+import com.mprzypadlo.thserver.application.MessageBuilder;
+import com.mprzypadlo.thserver.application.MessageBus;
+import com.mprzypadlo.thserver.application.command.Command;
+import com.mprzypadlo.thserver.application.command.HandlerErrorListener;
+import com.mprzypadlo.thserver.application.command.commands.MovePlayer;
+import com.mprzypadlo.thserver.application.interest.InterestManager;
+import com.przypadlo.thserver.domain.Board.Directions;
+import com.przypadlo.thserver.domain.Player;
+import com.przypadlo.thserver.model.game.Game;
+
+public class MovePlayerHandler extends GameCommandHandler {
+
+    public MovePlayerHandler(
+            Game game,
+            MessageBus connections,
+            MessageBuilder messageBuilder
+    ) {
+        super(game, connections, messageBuilder, "player-move-error");
+    }
+
+    public MovePlayerHandler(
+            Game game,
+            MessageBus connections,
+            InterestManager interest,
+            HandlerErrorListener errors,
+            MessageBuilder messageBuilder
+    ) {
+        super(game, connections, interest, errors, messageBuilder, "player-move-error");
+    }
+
+    @Override
+    protected Message execute(Command command) {
+        MovePlayer move = (MovePlayer) command;
+        if (move.direction() == Directions.RIGHT) {
+            game.movePlayerRight(move.playerName());
+        } else {
+            game.movePlayerLeft(move.playerName());
+        }
+        Player player = game.player(move.playerName());
+        return messageBuilder
+                .message("player-moved")
+                .contentField("player-name", move.playerName())
+                .contentField("circle", String.valueOf(player.circle()))
+                .contentField("field", String.valueOf(player.field()))
+                .getMessage();
+    }
+
+    @Override
+    protected String subject(Command command) {
+        return ((MovePlayer) command).playerName();
+    }
+}
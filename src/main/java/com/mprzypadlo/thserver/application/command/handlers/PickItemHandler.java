@@ -0,0 +1,47 @@
+package com.mprzypadlo.thserver.application.command.handlers;
+
+import com.mprzypadlo.thserver.application.Message;
+import com.mprzypadlo.thserver.application.MessageBuilder;
+import com.mprzypadlo.thserver.application.MessageBus;
+import com.mprzypadlo.thserver.application.command.Command;
+import com.mprzypadlo.thserver.application.command.HandlerErrorListener;
+import com.mprzypadlo.thserver.application.command.commands.PickItem;
+import com.mprzypadlo.thserver.application.interest.InterestManager;
+import com.przypadlo.thserver.model.game.Game;
+
+public class PickItemHandler extends GameCommandHandler {
+
+    public PickItemHandler(
+            Game game,
+            MessageBus connections,
+            MessageBuilder messageBuilder
+    ) {
+        super(game, connections, messageBuilder, "item-pick-error");
+    }
+
+    public PickItemHandler(
+            Game game,
+            MessageBus connections,
+            InterestManager interest,
+            HandlerErrorListener errors,
+            MessageBuilder messageBuilder
+    ) {
+        super(game, connections, interest, errors, messageBuilder, "item-pick-error");
+    }
+
+    @Override
+    protected Message execute(Command command) {
+        PickItem pick = (PickItem) command;
+        game.pickItem(pick.playerName(), pick.itemName());
+        return messageBuilder
+                .message("item-picked")
+                .contentField("player-name", pick.playerName())
+                .contentField("item-name", pick.itemName())
+                .getMessage();
+    }
+
+    @Override
+    protected String subject(Command command) {
+        return ((PickItem) command).playerName();
+    }
+}
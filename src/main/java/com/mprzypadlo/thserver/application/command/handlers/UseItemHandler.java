@@ -0,0 +1,47 @@
+package com.mprzypadlo.thserver.application.command.handlers;
+
+import com.mprzypadlo.thserver.application.Message;
+import com.mprzypadlo.thserver.application.MessageBuilder;
+import com.mprzypadlo.thserver.application.MessageBus;
+import com.mprzypadlo.thserver.application.command.Command;
+import com.mprzypadlo.thserver.application.command.HandlerErrorListener;
+import com.mprzypadlo.thserver.application.command.commands.UseItem;
+import com.mprzypadlo.thserver.application.interest.InterestManager;
+import com.przypadlo.thserver.model.game.Game;
+
+public class UseItemHandler extends GameCommandHandler {
+
+    public UseItemHandler(
+            Game game,
+            MessageBus connections,
+            MessageBuilder messageBuilder
+    ) {
+        super(game, connections, messageBuilder, "item-use-error");
+    }
+
+    public UseItemHandler(
+            Game game,
+            MessageBus connections,
+            InterestManager interest,
+            HandlerErrorListener errors,
+            MessageBuilder messageBuilder
+    ) {
+        super(game, connections, interest, errors, messageBuilder, "item-use-error");
+    }
+
+    @Override
+    protected Message execute(Command command) {
+        UseItem use = (UseItem) command;
+        game.useItem(use.playerName(), use.itemName());
+        return messageBuilder
+                .message("item-used")
+                .contentField("player-name", use.playerName())
+                .contentField("item-name", use.itemName())
+                .getMessage();
+    }
+
+    @Override
+    protected String subject(Command command) {
+        return ((UseItem) command).playerName();
+    }
+}
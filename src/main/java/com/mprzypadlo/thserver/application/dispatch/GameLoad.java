@@ -0,0 +1,46 @@
+package com.mprzypadlo.thserver.application.dispatch;
+
+/**
+ * Obciążenie gry w ostatnim okresie równoważenia.
+ *
+ * @author mprzypadlo
+ */
+public class GameLoad {
+
+    private final int gameId;
+
+    private final int shard;
+
+    private final long commands;
+
+    private final long handlerNanos;
+
+    public GameLoad(int gameId, int shard, long commands, long handlerNanos) {
+        this.gameId = gameId;
+        this.shard = shard;
+        this.commands = commands;
+        this.handlerNanos = handlerNanos;
+    }
+
+    public int gameId() {
+        return gameId;
+    }
+
+    public int shard() {
+        return shard;
+    }
+
+    /**
+     * @return Liczba komend przetworzonych w okresie.
+     */
+    public long commands() {
+        return commands;
+    }
+
+    /**
+     * @return Łączny czas handlerów w okresie, w nanosekundach.
+     */
+    public long handlerNanos() {
+        return handlerNanos;
+    }
+}
@@ -0,0 +1,77 @@
+package com.mprzypadlo.thserver.application.dispatch;
+
+import com.mprzypadlo.thserver.application.command.Command;
+import com.mprzypadlo.thserver.application.command.CommandBus;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Kolejka komend jednej gry wraz z jej obciążeniem.
+ *
+ * W danej chwili komendy gry przetwarza co najwyżej jeden wątek - ten, który
+ * ustawił {@link #scheduled}. Zmiana wątku ({@link #shard}) obowiązuje od
+ * następnego zaplanowania, czyli zawsze pomiędzy komendami.
+ *
+ * Usunięta gra zostaje zamknięta ({@link #closed}) - nie przyjmuje nowych
+ * komend, a jej kolejka pozostaje w dyspozytorze do czasu przetworzenia
+ * oczekujących komend. Flagi zmieniane są pod blokadą kolejki.
+ *
+ * @author mprzypadlo
+ */
+class GameMailbox {
+
+    final int gameId;
+
+    final CommandBus bus;
+
+    final Queue<Command> commands = new ConcurrentLinkedQueue<>();
+
+    final AtomicBoolean scheduled = new AtomicBoolean();
+
+    final LongAdder dispatched = new LongAdder();
+
+    final LongAdder handlerNanos = new LongAdder();
+
+    volatile int shard;
+
+    volatile boolean closed;
+
+    boolean retired;
+
+    private long sampledNanos;
+
+    private long sampledCommands;
+
+    private long lastNanos;
+
+    private long lastCommands;
+
+    GameMailbox(int gameId, CommandBus bus, int shard) {
+        this.gameId = gameId;
+        this.bus = bus;
+        this.shard = shard;
+    }
+
+    /**
+     * Zapamiętuje obciążenie od poprzedniego próbkowania. Wywoływane tylko
+     * przez {@link ShardedDispatcher#rebalance()}.
+     */
+    void sample() {
+        long nanos = handlerNanos.sum();
+        long count = dispatched.sum();
+        lastNanos = nanos - sampledNanos;
+        lastCommands = count - sampledCommands;
+        sampledNanos = nanos;
+        sampledCommands = count;
+    }
+
+    long lastNanos() {
+        return lastNanos;
+    }
+
+    GameLoad load() {
+        return new GameLoad(gameId, shard, lastCommands, lastNanos);
+    }
+}
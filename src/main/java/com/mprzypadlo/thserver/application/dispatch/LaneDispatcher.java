@@ -0,0 +1,151 @@
+package com.mprzypadlo.thserver.application.dispatch;
+
+import com.mprzypadlo.thserver.application.command.Command;
+import com.mprzypadlo.thserver.application.command.CommandBus;
+import com.mprzypadlo.thserver.application.command.commands.AttackPlayer;
+import com.mprzypadlo.thserver.application.command.commands.CreatePlayer;
+import com.mprzypadlo.thserver.application.command.commands.ExecuteAction;
+import com.mprzypadlo.thserver.application.command.commands.MovePlayer;
+import com.mprzypadlo.thserver.application.command.commands.PickItem;
+import com.mprzypadlo.thserver.application.command.commands.UseItem;
+import com.mprzypadlo.thserver.application.protocol.DecodedCommand;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Przekazuje komendy do {@link CommandBus} przez pasma o różnych
+ * priorytetach.
+ *
+ * Komendy tury (dołączenie do gry, ruch, atak, przedmioty, akcje) nie
+ * czekają za dużym ruchem o niskim priorytecie. Wszystkie trafiają do
+ * jednego pasma {@link #TURN}, więc komendy gracza wykonywane są w
+ * kolejności wysłania - np. ruch zawsze przed zakończeniem tury. Pozostałe
+ * pasma przeznaczone są dla ruchu widzów i administracji
+ * ({@link #SPECTATOR}) oraz czatu i pozostałych komend ({@link #BULK}).
+ * Pasmo komendy wyznaczane jest na podstawie jej nazwy.
+ *
+ * {@link #submit} może być wywoływane z wielu wątków, {@link #drain} - z
+ * jednego.
+ *
+ * @author mprzypadlo
+ */
+public class LaneDispatcher {
+
+    public static final int TURN = 0;
+
+    public static final int SPECTATOR = 1;
+
+    public static final int BULK = 2;
+
+    public static final int[] DEFAULT_WEIGHTS = {8, 4, 1};
+
+    private final CommandBus bus;
+
+    private final PriorityLanes<Command> lanes;
+
+    private final Map<String, Integer> commandLanes;
+
+    private final int defaultLane;
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final LongAdder failed = new LongAdder();
+
+    /**
+     * Tworzy dyspozytor z pasmami {@link #TURN}, {@link #SPECTATOR} i
+     * {@link #BULK} o wagach {@link #DEFAULT_WEIGHTS}.
+     *
+     * @param bus
+     * @param capacity Pojemność każdego pasma.
+     */
+    public LaneDispatcher(CommandBus bus, int capacity) {
+        this(bus, new PriorityLanes<>(capacity, DEFAULT_WEIGHTS), defaultLanes(), BULK);
+    }
+
+    /**
+     * @param bus
+     * @param lanes
+     * @param commandLanes Pasmo dla nazwy komendy.
+     * @param defaultLane Pasmo dla pozostałych komend.
+     */
+    public LaneDispatcher(
+            CommandBus bus,
+            PriorityLanes<Command> lanes,
+            Map<String, Integer> commandLanes,
+            int defaultLane
+    ) {
+        this.bus = bus;
+        this.lanes = lanes;
+        this.commandLanes = new HashMap<>(commandLanes);
+        this.defaultLane = defaultLane;
+    }
+
+    public static Map<String, Integer> defaultLanes() {
+        Map<String, Integer> lanes = new HashMap<>();
+        lanes.put(CreatePlayer.NAME, TURN);
+        lanes.put(ExecuteAction.NAME, TURN);
+        lanes.put(MovePlayer.NAME, TURN);
+        lanes.put(AttackPlayer.NAME, TURN);
+        lanes.put(PickItem.NAME, TURN);
+        lanes.put(UseItem.NAME, TURN);
+        return lanes;
+    }
+
+    /**
+     * Umieszcza komendę w jej paśmie. Komendy zdekodowane do obiektów
+     * wielokrotnego użytku są kopiowane.
+     *
+     * @param command
+     * @return False, gdy pasmo komendy jest pełne.
+     */
+    public boolean submit(Command command) {
+        if (command instanceof DecodedCommand) {
+            command = ((DecodedCommand) command).detach();
+        }
+        if (lanes.offer(laneOf(command), command)) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    /**
+     * Przekazuje do CommandBus co najwyżej {@code max} komend, w kolejności
+     * wyznaczonej przez wagi pasm. Wyjątek komendy nie przerywa przekazywania
+     * kolejnych - jest jedynie liczony.
+     *
+     * @param max
+     * @return Liczba przekazanych komend.
+     */
+    public int drain(int max) {
+        int dispatched = 0;
+        Command command;
+        while (dispatched < max && (command = lanes.poll()) != null) {
+            try {
+                bus.dispatch(command);
+            } catch (RuntimeException e) {
+                failed.increment();
+            }
+            dispatched++;
+        }
+        return dispatched;
+    }
+
+    public int laneOf(Command command) {
+        Integer lane = commandLanes.get(command.name());
+        return lane == null ? defaultLane : lane;
+    }
+
+    public int pending() {
+        return lanes.size();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    public long failed() {
+        return failed.sum();
+    }
+}
@@ -0,0 +1,115 @@
+package com.mprzypadlo.thserver.application.dispatch;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Kolejki o różnych priorytetach, opróżniane według wag (deficit round
+ * robin).
+ *
+ * W każdej rundzie pasmo może oddać co najwyżej tyle elementów, ile wynosi
+ * jego waga, po czym kolej przechodzi na następne pasmo. Pasmo o wadze 8
+ * dostaje więc ośmiokrotnie więcej miejsca niż pasmo o wadze 1, ale żadne
+ * pasmo nie jest zagłodzone. Puste pasmo traci swój przydział w rundzie.
+ *
+ * Dodawać elementy może wiele wątków, pobierać - tylko jeden.
+ *
+ * @author mprzypadlo
+ * @param <T>
+ */
+public class PriorityLanes<T> {
+
+    private final Queue<T>[] queues;
+
+    private final int[] weights;
+
+    private final AtomicIntegerArray sizes;
+
+    private final int capacity;
+
+    private int current = 0;
+
+    private int credit;
+
+    /**
+     * @param capacity Pojemność każdego pasma.
+     * @param weights Wagi kolejnych pasm, od najważniejszego.
+     */
+    @SuppressWarnings("unchecked")
+    public PriorityLanes(int capacity, int... weights) {
+        if (weights.length == 0) {
+            throw new IllegalArgumentException("At least one lane is required");
+        }
+        for (int weight : weights) {
+            if (weight < 1) {
+                throw new IllegalArgumentException("Lane weight must be positive");
+            }
+        }
+        this.queues = new Queue[weights.length];
+        for (int lane = 0; lane < weights.length; lane++) {
+            queues[lane] = new ConcurrentLinkedQueue<>();
+        }
+        this.weights = weights.clone();
+        this.sizes = new AtomicIntegerArray(weights.length);
+        this.capacity = capacity;
+        this.credit = weights[0];
+    }
+
+    /**
+     * @param lane
+     * @param item
+     * @return False, gdy pasmo jest pełne.
+     */
+    public boolean offer(int lane, T item) {
+        int size;
+        do {
+            size = sizes.get(lane);
+            if (size >= capacity) {
+                return false;
+            }
+        } while (!sizes.compareAndSet(lane, size, size + 1));
+        queues[lane].add(item);
+        return true;
+    }
+
+    /**
+     * @return Następny element lub null, gdy wszystkie pasma są puste.
+     */
+    public T poll() {
+        for (int switches = 0; switches <= queues.length; ) {
+            if (credit > 0) {
+                T item = queues[current].poll();
+                if (item != null) {
+                    credit--;
+                    sizes.decrementAndGet(current);
+                    return item;
+                }
+            }
+            current = (current + 1) % queues.length;
+            credit = weights[current];
+            switches++;
+        }
+        return null;
+    }
+
+    public int lanes() {
+        return queues.length;
+    }
+
+    public int size(int lane) {
+        return sizes.get(lane);
+    }
+
+    public int size() {
+        int size = 0;
+        for (int lane = 0; lane < queues.length; lane++) {
+            size += sizes.get(lane);
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+}
@@ -0,0 +1,388 @@
+package com.mprzypadlo.thserver.application.dispatch;
+
+import com.mprzypadlo.thserver.application.cluster.UnknownGameException;
+import com.mprzypadlo.thserver.application.command.Command;
+import com.mprzypadlo.thserver.application.command.CommandBus;
+import com.mprzypadlo.thserver.application.protocol.DecodedCommand;
+import com.mprzypadlo.thserver.application.session.StripedIntMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+import java.util.function.LongSupplier;
+
+/**
+ * Przekazuje komendy gier do CommandBus w stałej liczbie wątków (shardów),
+ * równoważąc ich obciążenie.
+ *
+ * Każda gra ma własną kolejkę komend, przetwarzaną w danej chwili przez co
+ * najwyżej jeden wątek, więc kolejność komend gry jest zachowana. Początkowo
+ * gra trafia do shardu wyznaczonego przez jej identyfikator. Dla każdej gry
+ * liczona jest liczba komend i czas handlerów, a {@link #rebalance()}
+ * przenosi najbardziej obciążające gry z najbardziej obciążonego shardu do
+ * najmniej obciążonego. Przeniesienie następuje pomiędzy paczkami komend gry.
+ *
+ * @author mprzypadlo
+ */
+public class ShardedDispatcher {
+
+    public static final int DEFAULT_BATCH_SIZE = 32;
+
+    public static final double DEFAULT_TOLERANCE = 0.2;
+
+    private static final long IDLE_POLL_MILLIS = 1;
+
+    private final int shards;
+
+    private final IntFunction<CommandBus> buses;
+
+    private final int batchSize;
+
+    private final double tolerance;
+
+    private final LongSupplier clock;
+
+    private final LinkedBlockingQueue<GameMailbox>[] runQueues;
+
+    private final StripedIntMap<GameMailbox> mailboxes = new StripedIntMap<>();
+
+    private final LongAdder failed = new LongAdder();
+
+    private final LongAdder moved = new LongAdder();
+
+    private volatile boolean running;
+
+    private Thread[] threads;
+
+    public ShardedDispatcher(int shards, IntFunction<CommandBus> buses) {
+        this(shards, buses, DEFAULT_BATCH_SIZE, DEFAULT_TOLERANCE, System::nanoTime);
+    }
+
+    /**
+     * @param shards Liczba wątków.
+     * @param buses CommandBus gry o podanym identyfikatorze lub null, gdy gra
+     * nie istnieje.
+     * @param batchSize Liczba komend gry przetwarzanych jednorazowo, zanim
+     * wątek zajmie się kolejną grą.
+     * @param tolerance Względna różnica obciążenia shardów, poniżej której
+     * gry nie są przenoszone.
+     * @param clock Zegar w nanosekundach.
+     */
+    @SuppressWarnings("unchecked")
+    public ShardedDispatcher(
+            int shards,
+            IntFunction<CommandBus> buses,
+            int batchSize,
+            double tolerance,
+            LongSupplier clock
+    ) {
+        if (shards < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Shards and batch size must be positive");
+        }
+        this.shards = shards;
+        this.buses = buses;
+        this.batchSize = batchSize;
+        this.tolerance = tolerance;
+        this.clock = clock;
+        this.runQueues = new LinkedBlockingQueue[shards];
+        for (int i = 0; i < shards; i++) {
+            runQueues[i] = new LinkedBlockingQueue<>();
+        }
+    }
+
+    /**
+     * Umieszcza komendę w kolejce gry. Komendy zdekodowane do obiektów
+     * wielokrotnego użytku są kopiowane.
+     *
+     * @param gameId
+     * @param command
+     * @throws UnknownGameException Gdy nie ma CommandBus dla gry lub gra
+     * została usunięta, a jej kolejka nie została jeszcze opróżniona.
+     */
+    public void submit(int gameId, Command command) {
+        if (command instanceof DecodedCommand) {
+            command = ((DecodedCommand) command).detach();
+        }
+        GameMailbox mailbox = mailboxes.computeIfAbsent(gameId, this::createMailbox);
+        synchronized (mailbox) {
+            if (mailbox.closed) {
+                throw new UnknownGameException(gameId);
+            }
+            mailbox.commands.add(command);
+            schedule(mailbox);
+        }
+    }
+
+    /**
+     * Usuwa grę. Komendy już oczekujące w jej kolejce zostaną przetworzone,
+     * a do tego czasu kolejne komendy gry są odrzucane, więc gra nigdy nie
+     * jest przetwarzana przez dwa shardy naraz.
+     *
+     * @param gameId
+     * @return False, gdy gra nie była znana.
+     */
+    public boolean remove(int gameId) {
+        GameMailbox mailbox = mailboxes.get(gameId);
+        if (mailbox == null) {
+            return false;
+        }
+        synchronized (mailbox) {
+            if (mailbox.closed) {
+                return false;
+            }
+            mailbox.closed = true;
+        }
+        retire(mailbox);
+        return true;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        threads = new Thread[shards];
+        for (int i = 0; i < shards; i++) {
+            int shard = i;
+            threads[i] = new Thread(() -> run(shard), "game-shard-" + i);
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+    }
+
+    public void stop() throws InterruptedException {
+        Thread[] stopped;
+        synchronized (this) {
+            running = false;
+            stopped = threads;
+            threads = null;
+        }
+        if (stopped != null) {
+            for (Thread thread : stopped) {
+                thread.join();
+            }
+        }
+    }
+
+    /**
+     * Przetwarza w bieżącym wątku gry oczekujące w shardzie, każdą co
+     * najwyżej jedną paczką. Pozwala używać dyspozytora bez wątków.
+     *
+     * @param shard
+     * @return Liczba przetworzonych komend.
+     */
+    public int drain(int shard) {
+        LinkedBlockingQueue<GameMailbox> queue = runQueues[shard];
+        int total = 0;
+        GameMailbox mailbox;
+        for (int i = queue.size(); i > 0 && (mailbox = queue.poll()) != null; i--) {
+            total += process(mailbox);
+        }
+        return total;
+    }
+
+    /**
+     * Przenosi gry pomiędzy shardami na podstawie czasu handlerów od
+     * poprzedniego wywołania.
+     *
+     * W każdym kroku z najbardziej obciążonego shardu do najmniej obciążonego
+     * przenoszona jest gra, która najbardziej zmniejsza różnicę ich
+     * obciążenia. Równoważenie kończy się, gdy różnica nie przekracza
+     * tolerancji lub żadne przeniesienie jej nie zmniejsza.
+     *
+     * @return Liczba przeniesionych gier.
+     */
+    public synchronized int rebalance() {
+        long[] loads = new long[shards];
+        List<List<GameMailbox>> games = new ArrayList<>(shards);
+        for (int i = 0; i < shards; i++) {
+            games.add(new ArrayList<>());
+        }
+        mailboxes.forEach(mailbox -> {
+            mailbox.sample();
+            int shard = mailbox.shard;
+            loads[shard] += mailbox.lastNanos();
+            games.get(shard).add(mailbox);
+        });
+
+        int moves = 0;
+        for (int step = 0; step < shards; step++) {
+            int hottest = 0;
+            int coldest = 0;
+            for (int i = 1; i < shards; i++) {
+                if (loads[i] > loads[hottest]) {
+                    hottest = i;
+                }
+                if (loads[i] < loads[coldest]) {
+                    coldest = i;
+                }
+            }
+            long gap = loads[hottest] - loads[coldest];
+            if (gap <= loads[hottest] * tolerance) {
+                break;
+            }
+            GameMailbox candidate = bestMove(games.get(hottest), gap);
+            if (candidate == null) {
+                break;
+            }
+            candidate.shard = coldest;
+            games.get(hottest).remove(candidate);
+            games.get(coldest).add(candidate);
+            loads[hottest] -= candidate.lastNanos();
+            loads[coldest] += candidate.lastNanos();
+            moves++;
+        }
+        moved.add(moves);
+        return moves;
+    }
+
+    public ScheduledFuture<?> rebalancePeriodically(ScheduledExecutorService executor, long periodMillis) {
+        return executor.scheduleWithFixedDelay(
+                this::rebalance,
+                periodMillis,
+                periodMillis,
+                TimeUnit.MILLISECONDS
+        );
+    }
+
+    /**
+     * @param gameId
+     * @return Shard gry lub -1, gdy gra nie jest znana.
+     */
+    public int shardOf(int gameId) {
+        GameMailbox mailbox = mailboxes.get(gameId);
+        return mailbox == null ? -1 : mailbox.shard;
+    }
+
+    /**
+     * @return Obciążenie gier zmierzone podczas ostatniego równoważenia.
+     */
+    public synchronized List<GameLoad> loads() {
+        List<GameLoad> loads = new ArrayList<>();
+        mailboxes.forEach(mailbox -> loads.add(mailbox.load()));
+        return loads;
+    }
+
+    public int shards() {
+        return shards;
+    }
+
+    public int pending(int shard) {
+        return runQueues[shard].size();
+    }
+
+    /**
+     * @return Liczba gier oczekujących na przetworzenie we wszystkich
+     * shardach.
+     */
+    public int pending() {
+        int pending = 0;
+        for (LinkedBlockingQueue<GameMailbox> queue : runQueues) {
+            pending += queue.size();
+        }
+        return pending;
+    }
+
+    public long failed() {
+        return failed.sum();
+    }
+
+    /**
+     * @return Łączna liczba przeniesień gier pomiędzy shardami.
+     */
+    public long moved() {
+        return moved.sum();
+    }
+
+    private GameMailbox createMailbox(int gameId) {
+        CommandBus bus = buses.apply(gameId);
+        if (bus == null) {
+            throw new UnknownGameException(gameId);
+        }
+        return new GameMailbox(gameId, bus, Math.floorMod(gameId, shards));
+    }
+
+    /**
+     * Przeniesienie gry o obciążeniu L zmniejsza różnicę, gdy 0 &lt; L &lt;
+     * gap, a najbardziej, gdy L jest najbliższe połowie różnicy.
+     */
+    private static GameMailbox bestMove(List<GameMailbox> games, long gap) {
+        GameMailbox best = null;
+        long bestDistance = Long.MAX_VALUE;
+        for (GameMailbox mailbox : games) {
+            long load = mailbox.lastNanos();
+            if (load <= 0 || load >= gap) {
+                continue;
+            }
+            long distance = Math.abs(2 * load - gap);
+            if (distance < bestDistance) {
+                best = mailbox;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    private void schedule(GameMailbox mailbox) {
+        if (mailbox.scheduled.compareAndSet(false, true)) {
+            runQueues[mailbox.shard].add(mailbox);
+        }
+    }
+
+    private int process(GameMailbox mailbox) {
+        int count = 0;
+        long start = clock.getAsLong();
+        Command command;
+        while (count < batchSize && (command = mailbox.commands.poll()) != null) {
+            try {
+                mailbox.bus.dispatch(command);
+            } catch (RuntimeException e) {
+                failed.increment();
+            }
+            count++;
+        }
+        mailbox.handlerNanos.add(clock.getAsLong() - start);
+        mailbox.dispatched.add(count);
+        mailbox.scheduled.set(false);
+        if (!mailbox.commands.isEmpty()) {
+            schedule(mailbox);
+        } else if (mailbox.closed) {
+            retire(mailbox);
+        }
+        return count;
+    }
+
+    /**
+     * Usuwa kolejkę zamkniętej gry, gdy nie ma już w niej komend ani nie
+     * jest zaplanowana.
+     */
+    private void retire(GameMailbox mailbox) {
+        synchronized (mailbox) {
+            if (mailbox.retired || !mailbox.commands.isEmpty() || mailbox.scheduled.get()) {
+                return;
+            }
+            mailbox.retired = true;
+            mailboxes.remove(mailbox.gameId);
+        }
+    }
+
+    private void run(int shard) {
+        LinkedBlockingQueue<GameMailbox> queue = runQueues[shard];
+        while (running) {
+            GameMailbox mailbox;
+            try {
+                mailbox = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (mailbox != null) {
+                process(mailbox);
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.mprzypadlo.thserver.application.interest;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Indeks połączeń według okręgu i pola, na którym znajduje się gracz
+ * połączenia.
+ *
+ * Wyznaczenie odbiorców zdarzenia wymaga przejrzenia tylko okręgów, które
+ * gracz może zobaczyć, a nie wszystkich połączeń. Okręgi mają różną liczbę
+ * pól, więc pole zdarzenia przenoszone jest na sąsiednie okręgi
+ * proporcjonalnie do ich długości. Instancja nie jest bezpieczna wątkowo.
+ *
+ * @author mprzypadlo
+ */
+public class InterestIndex {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final int[] fieldsOnCircles;
+
+    private final int[][] members;
+
+    private final int[][] fields;
+
+    private final int[] sizes;
+
+    private final Map<Integer, Integer> circles = new HashMap<>();
+
+    /**
+     * @param fieldsOnCircles Liczba pól na kolejnych okręgach.
+     */
+    public InterestIndex(int[] fieldsOnCircles) {
+        this.fieldsOnCircles = fieldsOnCircles.clone();
+        this.members = new int[fieldsOnCircles.length][INITIAL_CAPACITY];
+        this.fields = new int[fieldsOnCircles.length][INITIAL_CAPACITY];
+        this.sizes = new int[fieldsOnCircles.length];
+    }
+
+    /**
+     * Zapisuje pole, na którym znajduje się gracz połączenia.
+     *
+     * @param sourceId
+     * @param circle
+     * @param field
+     */
+    public void track(int sourceId, int circle, int field) {
+        throwExceptionIfIncorrectPosition(circle, field);
+        Integer previous = circles.put(sourceId, circle);
+        if (previous != null) {
+            if (previous == circle) {
+                fields[circle][indexOf(circle, sourceId)] = field;
+                return;
+            }
+            remove(previous, sourceId);
+        }
+        add(circle, sourceId, field);
+    }
+
+    public void untrack(int sourceId) {
+        Integer circle = circles.remove(sourceId);
+        if (circle != null) {
+            remove(circle, sourceId);
+        }
+    }
+
+    /**
+     * Wpisuje do bufora połączenia z okręgów odległych od podanego o nie
+     * więcej niż {@code circleRadius}, których pole jest odległe od pola
+     * zdarzenia o nie więcej niż {@code fieldRadius}.
+     *
+     * @param circle
+     * @param field
+     * @param circleRadius
+     * @param fieldRadius
+     * @param buffer
+     * @return Liczba wpisanych połączeń.
+     */
+    public int recipients(int circle, int field, int circleRadius, int fieldRadius, int[] buffer) {
+        throwExceptionIfIncorrectPosition(circle, field);
+        int from = Math.max(0, circle - circleRadius);
+        int to = Math.min(members.length - 1, circle + circleRadius);
+        int count = 0;
+        for (int c = from; c <= to; c++) {
+            int length = fieldsOnCircles[c];
+            if (fieldRadius >= length / 2) {
+                System.arraycopy(members[c], 0, buffer, count, sizes[c]);
+                count += sizes[c];
+                continue;
+            }
+            int center = (int) ((long) field * length / fieldsOnCircles[circle]);
+            for (int i = 0; i < sizes[c]; i++) {
+                int distance = Math.abs(fields[c][i] - center);
+                if (Math.min(distance, length - distance) <= fieldRadius) {
+                    buffer[count++] = members[c][i];
+                }
+            }
+        }
+        return count;
+    }
+
+    public int size() {
+        return circles.size();
+    }
+
+    private void add(int circle, int sourceId, int field) {
+        if (sizes[circle] == members[circle].length) {
+            members[circle] = Arrays.copyOf(members[circle], sizes[circle] * 2);
+            fields[circle] = Arrays.copyOf(fields[circle], sizes[circle] * 2);
+        }
+        members[circle][sizes[circle]] = sourceId;
+        fields[circle][sizes[circle]++] = field;
+    }
+
+    private void remove(int circle, int sourceId) {
+        int i = indexOf(circle, sourceId);
+        if (i >= 0) {
+            int last = --sizes[circle];
+            members[circle][i] = members[circle][last];
+            fields[circle][i] = fields[circle][last];
+        }
+    }
+
+    private int indexOf(int circle, int sourceId) {
+        int[] circleMembers = members[circle];
+        for (int i = 0; i < sizes[circle]; i++) {
+            if (circleMembers[i] == sourceId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void throwExceptionIfIncorrectPosition(int circle, int field) {
+        if (circle < 0 || circle >= members.length) {
+            throw new IllegalArgumentException("Incorrect circle: " + circle);
+        }
+        if (field < 0 || field >= fieldsOnCircles[circle]) {
+            throw new IllegalArgumentException("Incorrect field: " + field);
+        }
+    }
+}
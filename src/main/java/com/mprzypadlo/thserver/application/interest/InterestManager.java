@@ -0,0 +1,189 @@
+package com.mprzypadlo.thserver.application.interest;
+
+import com.mprzypadlo.thserver.application.Message;
+import com.mprzypadlo.thserver.application.MessageBus;
+import com.przypadlo.thserver.domain.Player;
+import com.przypadlo.thserver.model.game.Game;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Powiadamia o zdarzeniach tylko graczy, którzy mogą je zobaczyć.
+ *
+ * Gracz widzi zdarzenia na okręgach odległych od swojego o nie więcej niż
+ * {@code circleRadius}, na polach odległych od swojego o nie więcej niż
+ * {@code fieldRadius}. Koszt powiadomienia zależy od liczby zainteresowanych
+ * graczy, a nie od liczby wszystkich połączeń.
+ *
+ * @author mprzypadlo
+ */
+public class InterestManager {
+
+    private final Game game;
+
+    private final MessageBus connections;
+
+    private final InterestIndex index;
+
+    private final int circleRadius;
+
+    private final int fieldRadius;
+
+    private final Map<Integer, String> playerNames = new HashMap<>();
+
+    private int[] recipients = new int[16];
+
+    private int[] candidates = new int[16];
+
+    /**
+     * @param game
+     * @param connections
+     * @param fieldsOnCircles Liczba pól na kolejnych okręgach planszy.
+     * @param circleRadius
+     * @param fieldRadius
+     */
+    public InterestManager(
+            Game game,
+            MessageBus connections,
+            int[] fieldsOnCircles,
+            int circleRadius,
+            int fieldRadius
+    ) {
+        this.game = game;
+        this.connections = connections;
+        this.index = new InterestIndex(fieldsOnCircles);
+        this.circleRadius = circleRadius;
+        this.fieldRadius = fieldRadius;
+    }
+
+    public void register(int sourceId, String playerName) {
+        Player player = game.player(playerName);
+        index.track(sourceId, player.circle(), player.field());
+        playerNames.put(sourceId, playerName);
+        ensureCapacity();
+    }
+
+    public void unregister(int sourceId) {
+        playerNames.remove(sourceId);
+        index.untrack(sourceId);
+    }
+
+    /**
+     * Aktualizuje położenie gracza połączenia. Wywoływane po ruchu gracza.
+     *
+     * @param sourceId
+     * @throws IllegalArgumentException Gdy połączenie nie jest zarejestrowane.
+     */
+    public void playerMoved(int sourceId) {
+        if (!refresh(sourceId)) {
+            throw new IllegalArgumentException("Unknown connection: " + sourceId);
+        }
+    }
+
+    /**
+     * Aktualizuje położenie gracza połączenia, o ile połączenie jest
+     * zarejestrowane.
+     *
+     * @param sourceId
+     * @return False, gdy połączenie nie jest zarejestrowane.
+     */
+    public boolean refresh(int sourceId) {
+        String playerName = playerNames.get(sourceId);
+        if (playerName == null) {
+            return false;
+        }
+        Player player = game.player(playerName);
+        index.track(sourceId, player.circle(), player.field());
+        return true;
+    }
+
+    /**
+     * Wysyła wiadomość o zdarzeniu na podanym polu do zainteresowanych
+     * połączeń.
+     *
+     * @param circle
+     * @param field
+     * @param message
+     * @return Liczba powiadomionych połączeń.
+     */
+    public int notifyInterested(int circle, int field, Message message) {
+        int count = index.recipients(circle, field, circleRadius, fieldRadius, recipients);
+        if (count > 0) {
+            connections.notifyAll(recipients, count, message);
+        }
+        return count;
+    }
+
+    /**
+     * Wysyła wiadomość o zdarzeniu dotyczącym gracza do połączeń, które
+     * widzą pole, na którym gracz się znajduje.
+     *
+     * @param player
+     * @param message
+     * @return
+     */
+    public int notifyInterested(Player player, Message message) {
+        return notifyInterested(player.circle(), player.field(), message);
+    }
+
+    /**
+     * Wysyła wiadomość o zdarzeniu, które mogło przenieść gracza z jednego
+     * pola na drugie. Wiadomość otrzymują połączenia widzące którekolwiek
+     * z pól oraz zawsze autor komendy, nawet gdy nie widzi żadnego z nich
+     * (np. atakujący z dużej odległości).
+     *
+     * @param fromCircle
+     * @param fromField
+     * @param circle
+     * @param field
+     * @param sourceId Autor komendy.
+     * @param message
+     * @return Liczba powiadomionych połączeń.
+     */
+    public int notifyInterested(
+            int fromCircle,
+            int fromField,
+            int circle,
+            int field,
+            int sourceId,
+            Message message
+    ) {
+        int count = index.recipients(fromCircle, fromField, circleRadius, fieldRadius, recipients);
+        if (fromCircle != circle || fromField != field) {
+            Arrays.sort(recipients, 0, count);
+            int before = count;
+            int moved = index.recipients(circle, field, circleRadius, fieldRadius, candidates);
+            for (int i = 0; i < moved; i++) {
+                if (Arrays.binarySearch(recipients, 0, before, candidates[i]) < 0) {
+                    recipients[count++] = candidates[i];
+                }
+            }
+        }
+        if (!contains(recipients, count, sourceId)) {
+            recipients[count++] = sourceId;
+        }
+        connections.notifyAll(recipients, count, message);
+        return count;
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Bufor odbiorców mieści wszystkie śledzone połączenia oraz autora
+     * komendy, który nie musi być śledzony.
+     */
+    private void ensureCapacity() {
+        if (recipients.length < index.size() + 1) {
+            recipients = new int[Math.max(recipients.length * 2, index.size() + 1)];
+            candidates = new int[recipients.length];
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.mprzypadlo.thserver.application.lobby;
+
+import com.przypadlo.thserver.domain.Dice;
+import com.przypadlo.thserver.model.board.GameBoard;
+import com.przypadlo.thserver.model.content.ContentRepository;
+import com.przypadlo.thserver.model.content.ContentVersion;
+import com.przypadlo.thserver.model.game.Game;
+import com.przypadlo.thserver.model.player.PlayerFactory;
+import java.util.LinkedHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Tworzy gry z bieżącej wersji zawartości.
+ *
+ * Gra otrzymuje planszę i klasy postaci z wersji bieżącej w chwili jej
+ * utworzenia i korzysta z nich do końca, również po wczytaniu nowej wersji
+ * zawartości.
+ *
+ * @author mprzypadlo
+ */
+public class ContentGameFactory implements GameFactory {
+
+    private final ContentRepository content;
+
+    private final Supplier<Dice> dice;
+
+    public ContentGameFactory(ContentRepository content, Supplier<Dice> dice) {
+        this.content = content;
+        this.dice = dice;
+    }
+
+    @Override
+    public Game newGame(int players) {
+        ContentVersion version = content.current();
+        GameBoard board = version.board().newBoard();
+        return new Game(
+                board,
+                new PlayerFactory(board, version.playerClasses(), version.items()),
+                new LinkedHashMap<>(),
+                players,
+                dice.get()
+        );
+    }
+}
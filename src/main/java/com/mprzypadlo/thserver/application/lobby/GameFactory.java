@@ -0,0 +1,17 @@
+package com.mprzypadlo.thserver.application.lobby;
+
+import com.przypadlo.thserver.model.game.Game;
+
+/**
+ * Tworzy nowe, puste gry dla lobby.
+ *
+ * @author mprzypadlo
+ */
+public interface GameFactory {
+
+    /**
+     * @param players Liczba graczy potrzebna do rozpoczęcia gry.
+     * @return
+     */
+    Game newGame(int players);
+}
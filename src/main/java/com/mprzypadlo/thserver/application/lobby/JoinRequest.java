@@ -0,0 +1,50 @@
+package com.mprzypadlo.thserver.application.lobby;
+
+/**
+ * Zgłoszenie gracza oczekującego w lobby na przydział do gry.
+ *
+ * @author mprzypadlo
+ */
+public final class JoinRequest {
+
+    private final int sourceId;
+
+    private final String playerName;
+
+    private final String playerClass;
+
+    private final int skill;
+
+    private final long enqueuedAt;
+
+    public JoinRequest(int sourceId, String playerName, String playerClass, int skill, long enqueuedAt) {
+        this.sourceId = sourceId;
+        this.playerName = playerName;
+        this.playerClass = playerClass;
+        this.skill = skill;
+        this.enqueuedAt = enqueuedAt;
+    }
+
+    public int sourceId() {
+        return sourceId;
+    }
+
+    public String playerName() {
+        return playerName;
+    }
+
+    public String playerClass() {
+        return playerClass;
+    }
+
+    public int skill() {
+        return skill;
+    }
+
+    /**
+     * @return Czas dołączenia do kolejki, według zegara lobby.
+     */
+    public long enqueuedAt() {
+        return enqueuedAt;
+    }
+}
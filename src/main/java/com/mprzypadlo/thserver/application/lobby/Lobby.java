@@ -0,0 +1,271 @@
+package com.mprzypadlo.thserver.application.lobby;
+
+import com.mprzypadlo.thserver.application.command.Command;
+import com.przypadlo.thserver.model.game.Game;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Lobby dobierające graczy do gier.
+ *
+ * Zgłoszenia trafiają do kubełków według umiejętności, a w kubełku do kolejek
+ * według klasy postaci. {@link #match()} zapełnia gry równolegle - każdy
+ * kubełek obsługiwany jest przez osobne zadanie, najpierw uzupełniając
+ * niepełne gry, a potem tworząc nowe, gdy czeka wystarczająco wielu graczy.
+ * Gracze czekający dłużej niż {@code widenAfterMillis} mogą trafić do gry z
+ * takimi graczami z sąsiednich kubełków.
+ *
+ * Lobby dodaje graczy bezpośrednio tylko do utworzonych przez siebie gier.
+ * Do gier zwróconych przez {@link #reopen} gracze dołączają przez komendę
+ * wysłaną do dyspozytora gry.
+ *
+ * @author mprzypadlo
+ */
+public class Lobby {
+
+    private final GameFactory gameFactory;
+
+    private final LobbyListener listener;
+
+    private final int playersPerGame;
+
+    private final int skillBucketWidth;
+
+    private final long widenAfterMillis;
+
+    private final LongSupplier clock;
+
+    private final ConcurrentSkipListMap<Integer, SkillBucket> buckets = new ConcurrentSkipListMap<>();
+
+    private final LongAdder gamesFilled = new LongAdder();
+
+    /**
+     * @param gameFactory
+     * @param listener
+     * @param playersPerGame
+     * @param skillBucketWidth Zakres umiejętności graczy w jednym kubełku.
+     * @param widenAfterMillis Czas oczekiwania, po którym gracz może trafić
+     * do gry z sąsiednimi kubełkami.
+     * @param clock Zegar w milisekundach.
+     */
+    public Lobby(
+            GameFactory gameFactory,
+            LobbyListener listener,
+            int playersPerGame,
+            int skillBucketWidth,
+            long widenAfterMillis,
+            LongSupplier clock
+    ) {
+        if (playersPerGame < 1 || skillBucketWidth < 1) {
+            throw new IllegalArgumentException("Players per game and bucket width must be positive");
+        }
+        this.gameFactory = gameFactory;
+        this.listener = listener;
+        this.playersPerGame = playersPerGame;
+        this.skillBucketWidth = skillBucketWidth;
+        this.widenAfterMillis = widenAfterMillis;
+        this.clock = clock;
+    }
+
+    public Lobby(GameFactory gameFactory, LobbyListener listener, int playersPerGame) {
+        this(gameFactory, listener, playersPerGame, 100, 5000, System::currentTimeMillis);
+    }
+
+    public JoinRequest enqueue(int sourceId, String playerName, String playerClass, int skill) {
+        JoinRequest request = new JoinRequest(
+                sourceId, playerName, playerClass, skill, clock.getAsLong()
+        );
+        bucket(skill).add(request);
+        return request;
+    }
+
+    /**
+     * Zwraca do lobby grę, w której zwolniły się miejsca, np. po odejściu
+     * gracza. Gra zostanie uzupełniona przed utworzeniem nowych gier.
+     *
+     * Gra jest już rozgrywana, więc lobby jej nie zmienia - dla każdego
+     * przydzielonego gracza przekazuje komendę {@code CreatePlayer} do
+     * dyspozytora gry.
+     *
+     * @param game
+     * @param dispatcher Przekazuje komendy do wątku gry.
+     * @param skill Umiejętności graczy w grze.
+     * @param freeSlots
+     */
+    public void reopen(Game game, Consumer<Command> dispatcher, int skill, int freeSlots) {
+        if (freeSlots < 1) {
+            throw new IllegalArgumentException("Reopened game needs free slots");
+        }
+        bucket(skill).openGames().add(new OpenGame(game, dispatcher, freeSlots));
+    }
+
+    /**
+     * Przydziela oczekujących graczy do gier.
+     *
+     * @return Liczba zapełnionych gier.
+     */
+    public int match() {
+        int filled = buckets.values().parallelStream().mapToInt(this::fillBucket).sum();
+        return filled + fillAcrossStaleBuckets();
+    }
+
+    public ScheduledFuture<?> matchPeriodically(ScheduledExecutorService executor, long periodMillis) {
+        return executor.scheduleWithFixedDelay(
+                this::match,
+                periodMillis,
+                periodMillis,
+                TimeUnit.MILLISECONDS
+        );
+    }
+
+    public int waiting() {
+        int waiting = 0;
+        for (SkillBucket bucket : buckets.values()) {
+            waiting += bucket.size();
+        }
+        return waiting;
+    }
+
+    public int openGames() {
+        int open = 0;
+        for (SkillBucket bucket : buckets.values()) {
+            open += bucket.openGames().size();
+        }
+        return open;
+    }
+
+    public long gamesFilled() {
+        return gamesFilled.sum();
+    }
+
+    private SkillBucket bucket(int skill) {
+        return buckets.computeIfAbsent(
+                Math.floorDiv(skill, skillBucketWidth),
+                index -> new SkillBucket()
+        );
+    }
+
+    private int fillBucket(SkillBucket bucket) {
+        if (!bucket.lock().tryLock()) {
+            return 0;
+        }
+        try {
+            int filled = 0;
+            int open = bucket.openGames().size();
+            OpenGame game;
+            while (open-- > 0 && bucket.size() > 0 && (game = bucket.openGames().poll()) != null) {
+                filled += fill(game, bucket);
+            }
+            while (bucket.size() >= playersPerGame) {
+                filled += fill(newGame(), bucket);
+            }
+            return filled;
+        } finally {
+            bucket.lock().unlock();
+        }
+    }
+
+    /**
+     * Łączy graczy czekających zbyt długo z sąsiednich kubełków. Kubełki
+     * tworzą grupę, gdy ich numery są kolejne i każdy ma czekające zbyt
+     * długo zgłoszenia. Pozostali gracze kubełków nie są brani pod uwagę.
+     */
+    private int fillAcrossStaleBuckets() {
+        long staleBefore = clock.getAsLong() - widenAfterMillis;
+        int filled = 0;
+        List<SkillBucket> run = new ArrayList<>();
+        int stale = 0;
+        int previous = 0;
+        for (Map.Entry<Integer, SkillBucket> entry : buckets.entrySet()) {
+            int waiting = entry.getValue().waitingSince(staleBefore);
+            if (waiting == 0 || (!run.isEmpty() && entry.getKey() != previous + 1)) {
+                filled += fillRun(run, stale, staleBefore);
+                run.clear();
+                stale = 0;
+            }
+            if (waiting > 0) {
+                run.add(entry.getValue());
+                stale += waiting;
+            }
+            previous = entry.getKey();
+        }
+        return filled + fillRun(run, stale, staleBefore);
+    }
+
+    /**
+     * Zapełnia gry zgłoszeniami czekającymi zbyt długo w grupie sąsiednich
+     * kubełków. Bierze tylko tyle zgłoszeń, ile wystarcza na pełne gry.
+     */
+    private int fillRun(List<SkillBucket> run, int stale, long staleBefore) {
+        int remaining = stale - stale % playersPerGame;
+        if (run.size() < 2 || remaining == 0) {
+            return 0;
+        }
+        for (SkillBucket bucket : run) {
+            bucket.lock().lock();
+        }
+        try {
+            int filled = 0;
+            OpenGame game = null;
+            SkillBucket last = null;
+            for (SkillBucket bucket : run) {
+                JoinRequest request;
+                while (remaining > 0 && (request = bucket.poll(staleBefore)) != null) {
+                    remaining--;
+                    last = bucket;
+                    if (game == null) {
+                        game = newGame();
+                    }
+                    if (game.add(request, listener) && game.isFull()) {
+                        publish(game);
+                        filled++;
+                        game = null;
+                    }
+                }
+            }
+            if (game != null) {
+                last.openGames().add(game);
+            }
+            return filled;
+        } finally {
+            for (SkillBucket bucket : run) {
+                bucket.lock().unlock();
+            }
+        }
+    }
+
+    private OpenGame newGame() {
+        return new OpenGame(gameFactory.newGame(playersPerGame), playersPerGame);
+    }
+
+    /**
+     * Uzupełnia grę graczami z kubełka. Wymaga blokady kubełka.
+     *
+     * @return 1, gdy gra została zapełniona.
+     */
+    private int fill(OpenGame game, SkillBucket bucket) {
+        JoinRequest request;
+        while (!game.isFull() && (request = bucket.poll()) != null) {
+            game.add(request, listener);
+        }
+        if (game.isFull()) {
+            publish(game);
+            return 1;
+        }
+        bucket.openGames().add(game);
+        return 0;
+    }
+
+    private void publish(OpenGame game) {
+        gamesFilled.increment();
+        listener.gameFilled(game.game(), game.players());
+    }
+}
@@ -0,0 +1,32 @@
+package com.mprzypadlo.thserver.application.lobby;
+
+import com.przypadlo.thserver.model.game.Game;
+import java.util.List;
+
+/**
+ * Odbiera wyniki dobierania graczy.
+ *
+ * Metody mogą być wywoływane równolegle z wielu wątków.
+ *
+ * @author mprzypadlo
+ */
+public interface LobbyListener {
+
+    /**
+     * Gra została zapełniona i rozpoczęta. Do gry zwróconej przez
+     * {@link Lobby#reopen} gracze dołączają w wątku gry, więc mogą jeszcze
+     * nie zostać dodani.
+     *
+     * @param game
+     * @param players Gracze dodani do gry przez lobby.
+     */
+    void gameFilled(Game game, List<JoinRequest> players);
+
+    /**
+     * Gra odrzuciła gracza, np. z powodu zajętej nazwy lub nieznanej klasy.
+     *
+     * @param request
+     * @param reason
+     */
+    void requestRejected(JoinRequest request, RuntimeException reason);
+}
@@ -0,0 +1,100 @@
+package com.mprzypadlo.thserver.application.lobby;
+
+import com.mprzypadlo.thserver.application.command.Command;
+import com.mprzypadlo.thserver.application.command.commands.CreatePlayer;
+import com.przypadlo.thserver.model.game.Game;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Gra czekająca na brakujących graczy.
+ *
+ * Do nowej gry, której nie obsługuje jeszcze żaden wątek, gracze dodawani są
+ * bezpośrednio. Do gry już rozgrywanej lobby wysyła komendę
+ * {@link CreatePlayer} przez dyspozytora gry, więc gra zmieniana jest
+ * wyłącznie przez swój wątek.
+ *
+ * @author mprzypadlo
+ */
+class OpenGame {
+
+    private final Game game;
+
+    private final Consumer<Command> dispatcher;
+
+    private final List<JoinRequest> players = new ArrayList<>();
+
+    private int freeSlots;
+
+    OpenGame(Game game, int freeSlots) {
+        this(game, null, freeSlots);
+    }
+
+    /**
+     * @param game
+     * @param dispatcher Przekazuje komendy do wątku gry lub null dla nowej
+     * gry.
+     * @param freeSlots
+     */
+    OpenGame(Game game, Consumer<Command> dispatcher, int freeSlots) {
+        this.game = game;
+        this.dispatcher = dispatcher;
+        this.freeSlots = freeSlots;
+    }
+
+    Game game() {
+        return game;
+    }
+
+    List<JoinRequest> players() {
+        return players;
+    }
+
+    boolean isFull() {
+        return freeSlots == 0;
+    }
+
+    /**
+     * Dodaje gracza do gry. W grze rozgrywanej gracz zostanie dodany przez
+     * wątek gry, a o odrzuceniu dowie się z odpowiedzi handlera komendy.
+     *
+     * @param request
+     * @param listener
+     * @return Czy gracz został dodany.
+     */
+    boolean add(JoinRequest request, LobbyListener listener) {
+        try {
+            if (dispatcher == null) {
+                game.addPlayer(request.playerName(), request.playerClass());
+            } else {
+                dispatcher.accept(createPlayer(request));
+            }
+        } catch (RuntimeException e) {
+            listener.requestRejected(request, e);
+            return false;
+        }
+        players.add(request);
+        freeSlots--;
+        return true;
+    }
+
+    private static CreatePlayer createPlayer(JoinRequest request) {
+        return new CreatePlayer() {
+            @Override
+            public int sourceId() {
+                return request.sourceId();
+            }
+
+            @Override
+            public String playerName() {
+                return request.playerName();
+            }
+
+            @Override
+            public String playerClass() {
+                return request.playerClass();
+            }
+        };
+    }
+}
@@ -0,0 +1,109 @@
+package com.mprzypadlo.thserver.application.lobby;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Kolejki graczy o zbliżonych umiejętnościach, osobne dla każdej klasy
+ * postaci.
+ *
+ * Dodawanie zgłoszeń jest bezpieczne z wielu wątków. Pobieranie odbywa się
+ * wyłącznie pod blokadą kubełka, dzięki czemu jedną grupę zapełnia
+ * jednocześnie tylko jeden wątek.
+ *
+ * @author mprzypadlo
+ */
+class SkillBucket {
+
+    private final Map<String, Queue<JoinRequest>> byClass = new ConcurrentHashMap<>();
+
+    private final List<Queue<JoinRequest>> queues = new CopyOnWriteArrayList<>();
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final Queue<OpenGame> openGames = new ConcurrentLinkedQueue<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private int nextQueue = 0;
+
+    void add(JoinRequest request) {
+        byClass.computeIfAbsent(request.playerClass(), this::createQueue).add(request);
+        size.incrementAndGet();
+    }
+
+    private Queue<JoinRequest> createQueue(String playerClass) {
+        Queue<JoinRequest> queue = new ConcurrentLinkedQueue<>();
+        queues.add(queue);
+        return queue;
+    }
+
+    /**
+     * Pobiera zgłoszenie, przechodząc kolejno po klasach postaci, tak aby w
+     * jednej grze znalazły się różne klasy. Wymaga blokady.
+     *
+     * @return Zgłoszenie lub null, gdy kubełek jest pusty.
+     */
+    JoinRequest poll() {
+        return poll(Long.MAX_VALUE);
+    }
+
+    /**
+     * Pobiera zgłoszenie złożone nie później niż {@code enqueuedBefore},
+     * tak jak {@link #poll()}. Wymaga blokady.
+     *
+     * @param enqueuedBefore
+     * @return Zgłoszenie lub null, gdy w kubełku nie ma takich zgłoszeń.
+     */
+    JoinRequest poll(long enqueuedBefore) {
+        int count = queues.size();
+        for (int i = 0; i < count; i++) {
+            int index = (nextQueue + i) % count;
+            Queue<JoinRequest> queue = queues.get(index);
+            JoinRequest request = queue.peek();
+            if (request != null && request.enqueuedAt() <= enqueuedBefore) {
+                queue.poll();
+                nextQueue = (index + 1) % count;
+                size.decrementAndGet();
+                return request;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param enqueuedBefore
+     * @return Liczba zgłoszeń złożonych nie później niż
+     * {@code enqueuedBefore}.
+     */
+    int waitingSince(long enqueuedBefore) {
+        int waiting = 0;
+        for (Queue<JoinRequest> queue : queues) {
+            for (JoinRequest request : queue) {
+                if (request.enqueuedAt() > enqueuedBefore) {
+                    break;
+                }
+                waiting++;
+            }
+        }
+        return waiting;
+    }
+
+    int size() {
+        return size.get();
+    }
+
+    Queue<OpenGame> openGames() {
+        return openGames;
+    }
+
+    ReentrantLock lock() {
+        return lock;
+    }
+}
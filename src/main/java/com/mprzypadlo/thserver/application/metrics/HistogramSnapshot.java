@@ -0,0 +1,56 @@
+package com.mprzypadlo.thserver.application.metrics;
+
+/**
+ * Niezmienny odczyt histogramu.
+ *
+ * @author mprzypadlo
+ */
+public final class HistogramSnapshot {
+
+    private final long[] counts;
+
+    private final long count;
+
+    HistogramSnapshot(long[] counts) {
+        this.counts = counts;
+        long total = 0;
+        for (long bucketCount : counts) {
+            total += bucketCount;
+        }
+        this.count = total;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Zwraca wartość, której nie przekracza podany procent pomiarów.
+     *
+     * @param percentile Wartość z przedziału (0, 100].
+     * @return
+     */
+    public long percentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+        long seen = 0;
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) {
+                return LatencyHistogram.highestValue(bucket);
+            }
+        }
+        return max();
+    }
+
+    public long max() {
+        for (int bucket = counts.length - 1; bucket >= 0; bucket--) {
+            if (counts[bucket] > 0) {
+                return LatencyHistogram.highestValue(bucket);
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,92 @@
+package com.mprzypadlo.thserver.application.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Histogram czasów wykonania o stałej precyzji względnej.
+ *
+ * Przedziały są logarytmiczne, a każdy z nich podzielony jest na 32 równe
+ * części, co daje błąd względny około 3% w całym zakresie wartości.
+ *
+ * Pomiary zapisywane są do jednego ze stałej liczby rejestratorów,
+ * wybieranego na podstawie identyfikatora wątku, więc wątki rzadko
+ * współdzielą rejestrator, a ich liczba nie rośnie wraz z liczbą
+ * (krótkotrwałych) wątków. Rejestratory tworzone są przy pierwszym użyciu
+ * i łączone dopiero przy odczycie.
+ *
+ * @author mprzypadlo
+ */
+public class LatencyHistogram {
+
+    static final int SUB_BUCKET_BITS = 5;
+
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    static final int BUCKETS = (63 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    static final int RECORDERS = Integer.highestOneBit(
+            Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)
+    ) << 1;
+
+    private final AtomicReferenceArray<AtomicLongArray> recorders = new AtomicReferenceArray<>(RECORDERS);
+
+    /**
+     * Zapisuje pomiar. Wartości ujemne traktowane są jako 0.
+     *
+     * @param value
+     */
+    public void record(long value) {
+        recorder().getAndIncrement(bucket(Math.max(0, value)));
+    }
+
+    public HistogramSnapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        for (int r = 0; r < RECORDERS; r++) {
+            AtomicLongArray recorderCounts = recorders.get(r);
+            if (recorderCounts == null) {
+                continue;
+            }
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] += recorderCounts.get(i);
+            }
+        }
+        return new HistogramSnapshot(counts);
+    }
+
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int shift = magnitude - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Zwraca największą wartość należącą do przedziału.
+     *
+     * @param bucket
+     * @return
+     */
+    static long highestValue(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long subBucket = bucket % SUB_BUCKETS;
+        long lowest = (SUB_BUCKETS | subBucket) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    private AtomicLongArray recorder() {
+        int index = (int) Thread.currentThread().getId() & (RECORDERS - 1);
+        AtomicLongArray counts = recorders.get(index);
+        if (counts == null) {
+            recorders.compareAndSet(index, null, new AtomicLongArray(BUCKETS));
+            counts = recorders.get(index);
+        }
+        return counts;
+    }
+}
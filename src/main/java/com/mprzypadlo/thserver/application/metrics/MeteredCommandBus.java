@@ -0,0 +1,68 @@
+package com.mprzypadlo.thserver.application.metrics;
+
+import com.mprzypadlo.thserver.application.command.Command;
+import com.mprzypadlo.thserver.application.command.CommandBus;
+import com.mprzypadlo.thserver.application.command.exception.CommandHandlerNotFoundException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link CommandBus} mierzący czas obsługi komend.
+ *
+ * Dla każdej nazwy komendy zapisuje histogram czasów obsługi
+ * ({@code command.<nazwa>}), zlicza wszystkie obsłużone komendy
+ * ({@code commands.dispatched}) oraz wyjątki według typu
+ * ({@code exceptions.<typ>}) - zarówno przekazane przez handlery, jak i
+ * obsłużone przez nie same (zob. {@link #handlerFailed}).
+ *
+ * @author mprzypadlo
+ */
+public class MeteredCommandBus extends CommandBus {
+
+    private final Metrics metrics;
+
+    private final LongAdder dispatched;
+
+    private final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+
+    public MeteredCommandBus(Map handlers, Metrics metrics) {
+        super(handlers);
+        this.metrics = metrics;
+        this.dispatched = metrics.counter("commands.dispatched");
+    }
+
+    @Override
+    public void dispatch(Command command) throws CommandHandlerNotFoundException {
+        long start = System.nanoTime();
+        try {
+            super.dispatch(command);
+        } catch (RuntimeException ex) {
+            countException(ex);
+            throw ex;
+        } finally {
+            latency(String.valueOf(command.name())).record(System.nanoTime() - start);
+            dispatched.increment();
+        }
+    }
+
+    @Override
+    public void handlerFailed(Command command, RuntimeException ex) {
+        countException(ex);
+    }
+
+    private void countException(RuntimeException ex) {
+        metrics.counter("exceptions." + ex.getClass().getSimpleName()).increment();
+    }
+
+    private LatencyHistogram latency(String commandName) {
+        LatencyHistogram histogram = latencies.get(commandName);
+        if (histogram == null) {
+            histogram = latencies.computeIfAbsent(
+                    commandName,
+                    (name) -> metrics.histogram("command." + name)
+            );
+        }
+        return histogram;
+    }
+}
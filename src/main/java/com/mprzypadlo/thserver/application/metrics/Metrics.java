@@ -0,0 +1,71 @@
+package com.mprzypadlo.thserver.application.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Rejestr metryk serwera: liczników, wskaźników i histogramów.
+ *
+ * Liczniki oparte są o {@link LongAdder}, a histogramy o rejestratory
+ * przypisane do wątków, dzięki czemu pomiary nie stają się źródłem
+ * rywalizacji między wątkami.
+ *
+ * @author mprzypadlo
+ */
+public class Metrics {
+
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+    public LongAdder counter(String name) {
+        LongAdder counter = counters.get(name);
+        if (counter == null) {
+            counter = counters.computeIfAbsent(name, (key) -> new LongAdder());
+        }
+        return counter;
+    }
+
+    public LatencyHistogram histogram(String name) {
+        LatencyHistogram histogram = histograms.get(name);
+        if (histogram == null) {
+            histogram = histograms.computeIfAbsent(name, (key) -> new LatencyHistogram());
+        }
+        return histogram;
+    }
+
+    /**
+     * Rejestruje wskaźnik, np. długość kolejki lub zaległości w
+     * {@code MessageBus}. Wartość odczytywana jest przy eksporcie.
+     *
+     * @param name
+     * @param gauge
+     */
+    public void gauge(String name, LongSupplier gauge) {
+        gauges.put(name, gauge);
+    }
+
+    public Map<String, Long> counters() {
+        Map<String, Long> values = new TreeMap<>();
+        counters.forEach((name, counter) -> values.put(name, counter.sum()));
+        return Collections.unmodifiableMap(values);
+    }
+
+    public Map<String, Long> gauges() {
+        Map<String, Long> values = new TreeMap<>();
+        gauges.forEach((name, gauge) -> values.put(name, gauge.getAsLong()));
+        return Collections.unmodifiableMap(values);
+    }
+
+    public Map<String, HistogramSnapshot> histograms() {
+        Map<String, HistogramSnapshot> values = new TreeMap<>();
+        histograms.forEach((name, histogram) -> values.put(name, histogram.snapshot()));
+        return Collections.unmodifiableMap(values);
+    }
+}
@@ -0,0 +1,111 @@
+package com.mprzypadlo.thserver.application.metrics;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Eksportuje metryki w postaci tekstowej, jedna metryka w linii:
+ *
+ * <pre>
+ * counter commands.dispatched 1200
+ * gauge message-bus.backlog 3
+ * histogram command.create-player count=10 p50=1200 p90=... p99=... p999=... max=...
+ * </pre>
+ *
+ * Wartości histogramów podawane są w nanosekundach.
+ *
+ * Nieudany okresowy zapis nie przerywa eksportu - jest zliczany
+ * ({@code metrics.export-failures}), a metryki zapisywane są ponownie w
+ * kolejnym okresie.
+ *
+ * @author mprzypadlo
+ */
+public class MetricsExporter {
+
+    public static final String EXPORT_FAILURES = "metrics.export-failures";
+
+    private final Metrics metrics;
+
+    public MetricsExporter(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void writeTo(Writer writer) throws IOException {
+        for (Map.Entry<String, Long> counter : metrics.counters().entrySet()) {
+            writer.write("counter " + counter.getKey() + " " + counter.getValue() + "\n");
+        }
+        for (Map.Entry<String, Long> gauge : metrics.gauges().entrySet()) {
+            writer.write("gauge " + gauge.getKey() + " " + gauge.getValue() + "\n");
+        }
+        for (Map.Entry<String, HistogramSnapshot> entry : metrics.histograms().entrySet()) {
+            HistogramSnapshot histogram = entry.getValue();
+            writer.write("histogram " + entry.getKey()
+                    + " count=" + histogram.count()
+                    + " p50=" + histogram.percentile(50)
+                    + " p90=" + histogram.percentile(90)
+                    + " p99=" + histogram.percentile(99)
+                    + " p999=" + histogram.percentile(99.9)
+                    + " max=" + histogram.max()
+                    + "\n");
+        }
+        writer.flush();
+    }
+
+    public String export() {
+        StringWriter writer = new StringWriter();
+        try {
+            writeTo(writer);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Zapisuje metryki do pliku. Plik podmieniany jest w całości, więc
+     * czytelnik nigdy nie zobaczy częściowego zapisu.
+     *
+     * @param file
+     * @throws IOException
+     */
+    public void writeToFile(Path file) throws IOException {
+        Path absolute = file.toAbsolutePath();
+        Path temporary = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        Files.write(temporary, export().getBytes(StandardCharsets.UTF_8));
+        Files.move(
+                temporary,
+                absolute,
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE
+        );
+    }
+
+    public ScheduledFuture<?> exportPeriodically(
+            ScheduledExecutorService executor,
+            Path file,
+            long periodMillis
+    ) {
+        return executor.scheduleAtFixedRate(
+                () -> {
+                    try {
+                        writeToFile(file);
+                    } catch (IOException | RuntimeException ex) {
+                        metrics.counter(EXPORT_FAILURES).increment();
+                    }
+                },
+                periodMillis,
+                periodMillis,
+                TimeUnit.MILLISECONDS
+        );
+    }
+}
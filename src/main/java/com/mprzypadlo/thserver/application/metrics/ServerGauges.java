@@ -0,0 +1,65 @@
+package com.mprzypadlo.thserver.application.metrics;
+
+import com.mprzypadlo.thserver.application.dispatch.LaneDispatcher;
+import com.mprzypadlo.thserver.application.dispatch.ShardedDispatcher;
+import com.mprzypadlo.thserver.application.replication.CommandJournal;
+import com.mprzypadlo.thserver.application.session.SessionRegistry;
+
+/**
+ * Rejestruje wskaźniki kolejek serwera w {@link Metrics}.
+ *
+ * Wywoływane tam, gdzie tworzone są dyspozytory, dziennik replikacji i
+ * rejestr sesji - wskaźniki odczytują ich bieżący stan przy każdym
+ * eksporcie.
+ *
+ * @author mprzypadlo
+ */
+public final class ServerGauges {
+
+    public static final String LANE_BACKLOG = "lane-dispatcher.backlog";
+
+    public static final String SHARD_BACKLOG = "sharded-dispatcher.backlog";
+
+    public static final String JOURNAL_BACKLOG = "journal.backlog";
+
+    public static final String MESSAGE_BUS_BACKLOG = "message-bus.backlog";
+
+    private ServerGauges() {
+    }
+
+    /**
+     * @param metrics
+     * @param dispatcher
+     * @see LaneDispatcher#pending()
+     */
+    public static void register(Metrics metrics, LaneDispatcher dispatcher) {
+        metrics.gauge(LANE_BACKLOG, dispatcher::pending);
+    }
+
+    /**
+     * @param metrics
+     * @param dispatcher
+     * @see ShardedDispatcher#pending()
+     */
+    public static void register(Metrics metrics, ShardedDispatcher dispatcher) {
+        metrics.gauge(SHARD_BACKLOG, dispatcher::pending);
+    }
+
+    /**
+     * @param metrics
+     * @param journal
+     * @see CommandJournal#size()
+     */
+    public static void register(Metrics metrics, CommandJournal journal) {
+        metrics.gauge(JOURNAL_BACKLOG, journal::size);
+    }
+
+    /**
+     * @param metrics
+     * @param sessions
+     * @see SessionRegistry#backlog()
+     */
+    public static void register(Metrics metrics, SessionRegistry sessions) {
+        metrics.gauge(MESSAGE_BUS_BACKLOG, sessions::backlog);
+    }
+}
@@ -0,0 +1,451 @@
+package com.mprzypadlo.thserver.application.protocol;
+
+import com.mprzypadlo.thserver.application.command.Command;
+import com.mprzypadlo.thserver.application.command.CommandBus;
+import com.mprzypadlo.thserver.application.command.commands.AttackPlayer;
+import com.mprzypadlo.thserver.application.command.commands.CreatePlayer;
+import com.mprzypadlo.thserver.application.command.commands.ExecuteAction;
+import com.mprzypadlo.thserver.application.command.commands.MovePlayer;
+import com.mprzypadlo.thserver.application.command.commands.PickItem;
+import com.mprzypadlo.thserver.application.command.commands.UseItem;
+import com.mprzypadlo.thserver.application.ratelimit.RateLimiter;
+import com.przypadlo.thserver.domain.Board.Directions;
+import java.nio.ByteBuffer;
+
+/**
+ * Dekoder komend jednego połączenia.
+ *
+ * Czyta ramki (zob. {@link Protocol}) bezpośrednio z bufora odczytu i
+ * przekazuje je do {@link CommandBus}. Jeden odczyt może zawierać wiele
+ * ramek - wszystkie pełne ramki są przekazywane od razu, niepełna zostaje w
+ * buforze do następnego odczytu. Komendy są obiektami wielokrotnego użytku
+ * (zob. {@link DecodedCommand}), a napisy pochodzą z {@link NameTable}, więc
+ * w typowym przypadku dekodowanie nie alokuje pamięci.
+ *
+ * Jeżeli podano {@link RateLimiter}, komendy przekraczające limit połączenia
+ * są odrzucane jeszcze przed CommandBus.
+ *
+ * Nie jest bezpieczny wątkowo - każde połączenie ma własny dekoder.
+ *
+ * @author mprzypadlo
+ */
+public class CommandDecoder {
+
+    private static final Directions[] DIRECTIONS = Directions.values();
+
+    private final CommandBus bus;
+
+    private final int sourceId;
+
+    private final int maxFrameSize;
+
+    private final RateLimiter limiter;
+
+    private final NameTable names = new NameTable(256);
+
+    private final DecodedCreatePlayer createPlayer;
+
+    private final DecodedMovePlayer movePlayer;
+
+    private final DecodedAttackPlayer attackPlayer;
+
+    private final DecodedPickItem pickItem;
+
+    private final DecodedUseItem useItem;
+
+    private final DecodedExecuteAction executeAction;
+
+    private int cursor;
+
+    private int frameEnd;
+
+    private long rejected = 0;
+
+    /**
+     * Tworzy dekoder używany wyłącznie przez {@link #next}, bez przekazywania
+     * komend do CommandBus.
+     */
+    public CommandDecoder() {
+        this(null, 0);
+    }
+
+    public CommandDecoder(CommandBus bus, int sourceId) {
+        this(bus, sourceId, Protocol.DEFAULT_MAX_FRAME_SIZE);
+    }
+
+    public CommandDecoder(CommandBus bus, int sourceId, int maxFrameSize) {
+        this(bus, sourceId, maxFrameSize, null);
+    }
+
+    /**
+     * @param bus
+     * @param sourceId
+     * @param maxFrameSize
+     * @param limiter Ograniczenie liczby komend połączenia lub null.
+     */
+    public CommandDecoder(CommandBus bus, int sourceId, int maxFrameSize, RateLimiter limiter) {
+        this.bus = bus;
+        this.sourceId = sourceId;
+        this.maxFrameSize = maxFrameSize;
+        this.limiter = limiter;
+        this.createPlayer = new DecodedCreatePlayer();
+        this.movePlayer = new DecodedMovePlayer();
+        this.attackPlayer = new DecodedAttackPlayer();
+        this.pickItem = new DecodedPickItem();
+        this.useItem = new DecodedUseItem();
+        this.executeAction = new DecodedExecuteAction();
+    }
+
+    /**
+     * Dekoduje i przekazuje wszystkie pełne ramki z bufora.
+     *
+     * Bufor musi być w trybie odczytu. Po powrocie jego pozycja wskazuje
+     * początek niepełnej ramki - wywołujący powinien wywołać
+     * {@code compact()} przed kolejnym odczytem z kanału.
+     *
+     * @param buffer
+     * @return Liczba przekazanych komend, bez komend odrzuconych przez
+     * ograniczenie.
+     * @throws ProtocolException Gdy ramka jest niepoprawna.
+     */
+    public int decode(ByteBuffer buffer) {
+        int dispatched = 0;
+        Command command;
+        while ((command = next(buffer, sourceId)) != null) {
+            if (limiter != null && !limiter.tryAcquire(sourceId, command.name())) {
+                rejected++;
+                continue;
+            }
+            bus.dispatch(command);
+            dispatched++;
+        }
+        return dispatched;
+    }
+
+    /**
+     * @return Liczba komend odrzuconych przez ograniczenie.
+     */
+    public long rejected() {
+        return rejected;
+    }
+
+    /**
+     * Dekoduje następną pełną ramkę bez przekazywania jej dalej.
+     *
+     * Pozwala dekodować ramki pochodzące z różnych połączeń, np. przekazane
+     * przez inny węzeł klastra.
+     *
+     * @param buffer
+     * @param sourceId Połączenie, z którego pochodzi ramka.
+     * @return Komenda lub null, gdy w buforze nie ma pełnej ramki.
+     * @throws ProtocolException Gdy ramka jest niepoprawna.
+     */
+    public Command next(ByteBuffer buffer, int sourceId) {
+        if (buffer.remaining() < Protocol.LENGTH_SIZE) {
+            return null;
+        }
+        int start = buffer.position();
+        int length = buffer.getInt(start);
+        throwExceptionIfIncorrectLength(length);
+        if (buffer.remaining() < Protocol.LENGTH_SIZE + length) {
+            return null;
+        }
+        cursor = start + Protocol.LENGTH_SIZE;
+        frameEnd = cursor + length;
+        Command command = read(buffer, sourceId);
+        buffer.position(frameEnd);
+        return command;
+    }
+
+    private Command read(ByteBuffer buffer, int sourceId) {
+        byte type = readByte(buffer);
+        Command command;
+        switch (type) {
+            case Protocol.CREATE_PLAYER:
+                createPlayer.set(sourceId, readName(buffer), readName(buffer));
+                command = createPlayer;
+                break;
+            case Protocol.MOVE_PLAYER:
+                movePlayer.set(sourceId, readName(buffer), readDirection(buffer));
+                command = movePlayer;
+                break;
+            case Protocol.ATTACK_PLAYER:
+                attackPlayer.set(sourceId, readName(buffer), readName(buffer));
+                command = attackPlayer;
+                break;
+            case Protocol.PICK_ITEM:
+                pickItem.set(sourceId, readName(buffer), readName(buffer));
+                command = pickItem;
+                break;
+            case Protocol.USE_ITEM:
+                useItem.set(sourceId, readName(buffer), readName(buffer));
+                command = useItem;
+                break;
+            case Protocol.EXECUTE_ACTION:
+                executeAction.set(sourceId, readName(buffer), readName(buffer));
+                command = executeAction;
+                break;
+            default:
+                throw new ProtocolException("Unknown command type: " + type);
+        }
+        if (cursor != frameEnd) {
+            throw new ProtocolException("Frame has " + (frameEnd - cursor) + " unexpected bytes");
+        }
+        return command;
+    }
+
+    private byte readByte(ByteBuffer buffer) {
+        throwExceptionIfPastFrame(1);
+        return buffer.get(cursor++);
+    }
+
+    private String readName(ByteBuffer buffer) {
+        int length = readByte(buffer) & 0xFF;
+        throwExceptionIfPastFrame(length);
+        String name = names.name(buffer, cursor, length);
+        cursor += length;
+        return name;
+    }
+
+    private Directions readDirection(ByteBuffer buffer) {
+        int direction = readByte(buffer);
+        if (direction < 0 || direction >= DIRECTIONS.length) {
+            throw new ProtocolException("Unknown direction: " + direction);
+        }
+        return DIRECTIONS[direction];
+    }
+
+    private void throwExceptionIfPastFrame(int bytes) {
+        if (cursor + bytes > frameEnd) {
+            throw new ProtocolException("Field exceeds frame");
+        }
+    }
+
+    private void throwExceptionIfIncorrectLength(int length) {
+        if (length < 1 || length > maxFrameSize) {
+            throw new ProtocolException("Incorrect frame length: " + length);
+        }
+    }
+
+    private static final class DecodedCreatePlayer extends CreatePlayer implements DecodedCommand {
+
+        private int sourceId;
+
+        private String playerName;
+
+        private String playerClass;
+
+        void set(int sourceId, String playerName, String playerClass) {
+            this.sourceId = sourceId;
+            this.playerName = playerName;
+            this.playerClass = playerClass;
+        }
+
+        @Override
+        public int sourceId() {
+            return sourceId;
+        }
+
+        @Override
+        public String playerName() {
+            return playerName;
+        }
+
+        @Override
+        public String playerClass() {
+            return playerClass;
+        }
+
+        @Override
+        public Command detach() {
+            DecodedCreatePlayer copy = new DecodedCreatePlayer();
+            copy.set(sourceId, playerName, playerClass);
+            return copy;
+        }
+    }
+
+    private static final class DecodedMovePlayer extends MovePlayer implements DecodedCommand {
+
+        private int sourceId;
+
+        private String playerName;
+
+        private Directions direction;
+
+        void set(int sourceId, String playerName, Directions direction) {
+            this.sourceId = sourceId;
+            this.playerName = playerName;
+            this.direction = direction;
+        }
+
+        @Override
+        public int sourceId() {
+            return sourceId;
+        }
+
+        @Override
+        public String playerName() {
+            return playerName;
+        }
+
+        @Override
+        public Directions direction() {
+            return direction;
+        }
+
+        @Override
+        public Command detach() {
+            DecodedMovePlayer copy = new DecodedMovePlayer();
+            copy.set(sourceId, playerName, direction);
+            return copy;
+        }
+    }
+
+    private static final class DecodedAttackPlayer extends AttackPlayer implements DecodedCommand {
+
+        private int sourceId;
+
+        private String attackerName;
+
+        private String attackedName;
+
+        void set(int sourceId, String attackerName, String attackedName) {
+            this.sourceId = sourceId;
+            this.attackerName = attackerName;
+            this.attackedName = attackedName;
+        }
+
+        @Override
+        public int sourceId() {
+            return sourceId;
+        }
+
+        @Override
+        public String attackerName() {
+            return attackerName;
+        }
+
+        @Override
+        public String attackedName() {
+            return attackedName;
+        }
+
+        @Override
+        public Command detach() {
+            DecodedAttackPlayer copy = new DecodedAttackPlayer();
+            copy.set(sourceId, attackerName, attackedName);
+            return copy;
+        }
+    }
+
+    private static final class DecodedPickItem extends PickItem implements DecodedCommand {
+
+        private int sourceId;
+
+        private String playerName;
+
+        private String itemName;
+
+        void set(int sourceId, String playerName, String itemName) {
+            this.sourceId = sourceId;
+            this.playerName = playerName;
+            this.itemName = itemName;
+        }
+
+        @Override
+        public int sourceId() {
+            return sourceId;
+        }
+
+        @Override
+        public String playerName() {
+            return playerName;
+        }
+
+        @Override
+        public String itemName() {
+            return itemName;
+        }
+
+        @Override
+        public Command detach() {
+            DecodedPickItem copy = new DecodedPickItem();
+            copy.set(sourceId, playerName, itemName);
+            return copy;
+        }
+    }
+
+    private static final class DecodedUseItem extends UseItem implements DecodedCommand {
+
+        private int sourceId;
+
+        private String playerName;
+
+        private String itemName;
+
+        void set(int sourceId, String playerName, String itemName) {
+            this.sourceId = sourceId;
+            this.playerName = playerName;
+            this.itemName = itemName;
+        }
+
+        @Override
+        public int sourceId() {
+            return sourceId;
+        }
+
+        @Override
+        public String playerName() {
+            return playerName;
+        }
+
+        @Override
+        public String itemName() {
+            return itemName;
+        }
+
+        @Override
+        public Command detach() {
+            DecodedUseItem copy = new DecodedUseItem();
+            copy.set(sourceId, playerName, itemName);
+            return copy;
+        }
+    }
+
+    private static final class DecodedExecuteAction extends ExecuteAction implements DecodedCommand {
+
+        private int sourceId;
+
+        private String playerName;
+
+        private String actionName;
+
+        void set(int sourceId, String playerName, String actionName) {
+            this.sourceId = sourceId;
+            this.playerName = playerName;
+            this.actionName = actionName;
+        }
+
+        @Override
+        public int sourceId() {
+            return sourceId;
+        }
+
+        @Override
+        public String playerName() {
+            return playerName;
+        }
+
+        @Override
+        public String actionName() {
+            return actionName;
+        }
+
+        @Override
+        public Command detach() {
+            DecodedExecuteAction copy = new DecodedExecuteAction();
+            copy.set(sourceId, playerName, actionName);
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.mprzypadlo.thserver.application.protocol;
+
+import com.mprzypadlo.thserver.application.command.Command;
+import com.mprzypadlo.thserver.application.command.commands.AttackPlayer;
+import com.mprzypadlo.thserver.application.command.commands.CreatePlayer;
+import com.mprzypadlo.thserver.application.command.commands.ExecuteAction;
+import com.mprzypadlo.thserver.application.command.commands.MovePlayer;
+import com.mprzypadlo.thserver.application.command.commands.PickItem;
+import com.mprzypadlo.thserver.application.command.commands.UseItem;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Zapisuje komendy w formacie {@link Protocol}, odczytywanym przez
+ * {@link CommandDecoder}.
+ *
+ * @author mprzypadlo
+ */
+public class CommandEncoder {
+
+    /**
+     * @param command
+     * @param buffer Bufor w trybie zapisu.
+     * @return Liczba zapisanych bajtów.
+     */
+    public int encode(Command command, ByteBuffer buffer) {
+        int start = buffer.position();
+        buffer.position(start + Protocol.LENGTH_SIZE);
+        writeFields(command, buffer);
+        int end = buffer.position();
+        buffer.putInt(start, end - start - Protocol.LENGTH_SIZE);
+        return end - start;
+    }
+
+    private void writeFields(Command command, ByteBuffer buffer) {
+        if (command instanceof CreatePlayer) {
+            CreatePlayer create = (CreatePlayer) command;
+            buffer.put(Protocol.CREATE_PLAYER);
+            writeName(create.playerName(), buffer);
+            writeName(create.playerClass(), buffer);
+        } else if (command instanceof MovePlayer) {
+            MovePlayer move = (MovePlayer) command;
+            buffer.put(Protocol.MOVE_PLAYER);
+            writeName(move.playerName(), buffer);
+            buffer.put((byte) move.direction().ordinal());
+        } else if (command instanceof AttackPlayer) {
+            AttackPlayer attack = (AttackPlayer) command;
+            buffer.put(Protocol.ATTACK_PLAYER);
+            writeName(attack.attackerName(), buffer);
+            writeName(attack.attackedName(), buffer);
+        } else if (command instanceof PickItem) {
+            PickItem pick = (PickItem) command;
+            buffer.put(Protocol.PICK_ITEM);
+            writeName(pick.playerName(), buffer);
+            writeName(pick.itemName(), buffer);
+        } else if (command instanceof UseItem) {
+            UseItem use = (UseItem) command;
+            buffer.put(Protocol.USE_ITEM);
+            writeName(use.playerName(), buffer);
+            writeName(use.itemName(), buffer);
+        } else if (command instanceof ExecuteAction) {
+            ExecuteAction action = (ExecuteAction) command;
+            buffer.put(Protocol.EXECUTE_ACTION);
+            writeName(action.playerName(), buffer);
+            writeName(action.actionName(), buffer);
+        } else {
+            throw new IllegalArgumentException("Command cannot be encoded: " + command.name());
+        }
+    }
+
+    private void writeName(String name, ByteBuffer buffer) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Protocol.MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("Name too long: " + name);
+        }
+        buffer.put((byte) bytes.length);
+        buffer.put(bytes);
+    }
+}
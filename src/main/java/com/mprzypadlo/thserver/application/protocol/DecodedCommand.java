@@ -0,0 +1,20 @@
+package com.mprzypadlo.thserver.application.protocol;
+
+import com.mprzypadlo.thserver.application.command.Command;
+
+/**
+ * Komenda zdekodowana do obiektu wielokrotnego użytku.
+ *
+ * Dekoder nadpisuje ją kolejną ramką tego samego typu, więc jest ważna
+ * tylko w trakcie {@code CommandBus.dispatch}. Handler, który chce ją
+ * zachować na później, musi wywołać {@link #detach()}.
+ *
+ * @author mprzypadlo
+ */
+public interface DecodedCommand extends Command {
+
+    /**
+     * @return Kopia komendy, niezależna od dekodera.
+     */
+    Command detach();
+}
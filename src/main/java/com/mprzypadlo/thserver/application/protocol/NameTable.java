@@ -0,0 +1,72 @@
+package com.mprzypadlo.thserver.application.protocol;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Pamięć podręczna napisów odczytywanych z bufora.
+ *
+ * Nazwy graczy, klas, przedmiotów i akcji powtarzają się w kolejnych
+ * komendach, więc zamiast tworzyć nowy String dla każdego pola, bajty z
+ * bufora porównywane są z wcześniej zdekodowanymi nazwami. Tablica jest
+ * mapowana bezpośrednio - kolizja zastępuje starszy wpis.
+ *
+ * Nie jest bezpieczna wątkowo - każdy dekoder ma własną.
+ *
+ * @author mprzypadlo
+ */
+class NameTable {
+
+    private final byte[][] bytes;
+
+    private final String[] names;
+
+    private final int mask;
+
+    NameTable(int capacity) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two");
+        }
+        this.bytes = new byte[capacity][];
+        this.names = new String[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * @param buffer
+     * @param offset Bezwzględna pozycja w buforze.
+     * @param length
+     * @return
+     */
+    String name(ByteBuffer buffer, int offset, int length) {
+        int hash = 0x811C9DC5;
+        for (int i = 0; i < length; i++) {
+            hash = (hash ^ buffer.get(offset + i)) * 0x01000193;
+        }
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        byte[] cached = bytes[slot];
+        if (cached != null && matches(cached, buffer, offset, length)) {
+            return names[slot];
+        }
+        byte[] copy = new byte[length];
+        for (int i = 0; i < length; i++) {
+            copy[i] = buffer.get(offset + i);
+        }
+        String name = new String(copy, StandardCharsets.UTF_8);
+        bytes[slot] = copy;
+        names[slot] = name;
+        return name;
+    }
+
+    private static boolean matches(byte[] cached, ByteBuffer buffer, int offset, int length) {
+        if (cached.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (cached[i] != buffer.get(offset + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,34 @@
+package com.mprzypadlo.thserver.application.protocol;
+
+/**
+ * Binarny format komend przesyłanych przez klientów.
+ *
+ * Ramka: {@code [int długość][byte typ][pola]}, gdzie długość obejmuje typ i
+ * pola. Napisy zapisywane są jako {@code [byte długość][bajty UTF-8]},
+ * kierunek ruchu jako jeden bajt.
+ *
+ * @author mprzypadlo
+ */
+public final class Protocol {
+
+    public static final byte CREATE_PLAYER = 1;
+
+    public static final byte MOVE_PLAYER = 2;
+
+    public static final byte ATTACK_PLAYER = 3;
+
+    public static final byte PICK_ITEM = 4;
+
+    public static final byte USE_ITEM = 5;
+
+    public static final byte EXECUTE_ACTION = 6;
+
+    public static final int LENGTH_SIZE = 4;
+
+    public static final int MAX_NAME_LENGTH = 255;
+
+    public static final int DEFAULT_MAX_FRAME_SIZE = 1 + 2 * (1 + MAX_NAME_LENGTH);
+
+    private Protocol() {
+    }
+}
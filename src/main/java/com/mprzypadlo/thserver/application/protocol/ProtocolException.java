@@ -0,0 +1,13 @@
+package com.mprzypadlo.thserver.application.protocol;
+
+/**
+ * Niepoprawna ramka. Połączenie, z którego przyszła, należy zamknąć.
+ *
+ * @author mprzypadlo
+ */
+public class ProtocolException extends RuntimeException {
+
+    public ProtocolException(String message) {
+        super(message);
+    }
+}
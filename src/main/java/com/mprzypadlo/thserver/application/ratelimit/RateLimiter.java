@@ -0,0 +1,230 @@
+package com.mprzypadlo.thserver.application.ratelimit;
+
+import com.mprzypadlo.thserver.application.session.StripedIntMap;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Ograniczenie liczby komend wysyłanych przez połączenie (token bucket).
+ *
+ * Każde połączenie ma osobny kubełek dla każdego ograniczenia. Stan kubełka -
+ * czas ostatniego uzupełnienia i liczba żetonów - zapisany jest w jednej
+ * liczbie {@code long} i zmieniany przez CAS, bez blokad. Żetony liczone są w
+ * tysięcznych częściach, co pozwala na limity mniejsze niż jedna komenda na
+ * milisekundę.
+ *
+ * Komendy bez własnego ograniczenia podlegają ograniczeniu domyślnemu, o ile
+ * zostało zdefiniowane.
+ *
+ * @author mprzypadlo
+ */
+public final class RateLimiter {
+
+    private static final int NO_LIMIT = -1;
+
+    private static final long MILLI_TOKENS = 1000;
+
+    private final Map<String, Integer> limitIndexes;
+
+    private final int defaultIndex;
+
+    private final long[] capacities;
+
+    private final long[] refillPerMilli;
+
+    private final LongSupplier clock;
+
+    private final StripedIntMap<AtomicLongArray> buckets = new StripedIntMap<>();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private RateLimiter(Builder builder) {
+        this.limitIndexes = new HashMap<>(builder.limitIndexes);
+        this.defaultIndex = builder.defaultIndex;
+        int limits = builder.capacities.length;
+        this.capacities = new long[limits];
+        this.refillPerMilli = new long[limits];
+        for (int i = 0; i < limits; i++) {
+            this.capacities[i] = builder.capacities[i] * MILLI_TOKENS;
+            this.refillPerMilli[i] = builder.perSecond[i];
+        }
+        this.clock = builder.clock;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Pobiera żeton dla komendy.
+     *
+     * @param sourceId
+     * @param commandName
+     * @return Czy komenda może zostać wykonana.
+     */
+    public boolean tryAcquire(int sourceId, String commandName) {
+        int index = indexOf(commandName);
+        if (index == NO_LIMIT) {
+            return true;
+        }
+        AtomicLongArray states = buckets.get(sourceId);
+        if (states == null) {
+            states = buckets.computeIfAbsent(sourceId, id -> newBuckets());
+        }
+        if (tryAcquire(states, index, now())) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    /**
+     * Wątek z wcześniejszym odczytem zegara nie cofa czasu kubełka, aby ten
+     * sam okres nie został uzupełniony dwukrotnie.
+     */
+    private boolean tryAcquire(AtomicLongArray states, int index, int now) {
+        while (true) {
+            long state = states.get(index);
+            long tokens = refill(state, index, now);
+            if (tokens < MILLI_TOKENS) {
+                return false;
+            }
+            int time = now - timeOf(state) > 0 ? now : timeOf(state);
+            if (states.compareAndSet(index, state, pack(time, tokens - MILLI_TOKENS))) {
+                return true;
+            }
+        }
+    }
+
+    private long refill(long state, int index, int now) {
+        long tokens = (int) state;
+        long elapsed = now - timeOf(state);
+        if (elapsed <= 0 || refillPerMilli[index] == 0) {
+            return tokens;
+        }
+        long capacity = capacities[index];
+        long missing = capacity - tokens;
+        if (elapsed >= missing / refillPerMilli[index] + 1) {
+            return capacity;
+        }
+        return tokens + elapsed * refillPerMilli[index];
+    }
+
+    /**
+     * Usuwa kubełki zamkniętego połączenia.
+     *
+     * @param sourceId
+     */
+    public void release(int sourceId) {
+        buckets.remove(sourceId);
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    private int indexOf(String commandName) {
+        Integer index = limitIndexes.get(commandName);
+        return index == null ? defaultIndex : index;
+    }
+
+    private AtomicLongArray newBuckets() {
+        AtomicLongArray states = new AtomicLongArray(capacities.length);
+        int now = now();
+        for (int i = 0; i < capacities.length; i++) {
+            states.set(i, pack(now, capacities[i]));
+        }
+        return states;
+    }
+
+    /**
+     * Czas w milisekundach, obcięty do 32 bitów. Różnice czasu liczone są
+     * arytmetyką int, więc przepełnienie licznika nie zaburza wyników.
+     */
+    private int now() {
+        return (int) clock.getAsLong();
+    }
+
+    private static int timeOf(long state) {
+        return (int) (state >>> 32);
+    }
+
+    private static long pack(int time, long tokens) {
+        return ((long) time << 32) | (tokens & 0xFFFFFFFFL);
+    }
+
+    public static class Builder {
+
+        private final Map<String, Integer> limitIndexes = new HashMap<>();
+
+        private int defaultIndex = NO_LIMIT;
+
+        private long[] capacities = new long[0];
+
+        private long[] perSecond = new long[0];
+
+        private LongSupplier clock = () -> System.nanoTime() / 1000000;
+
+        /**
+         * Ogranicza komendę o podanej nazwie.
+         *
+         * @param commandName
+         * @param burst Maksymalna liczba komend wysłanych naraz.
+         * @param perSecond Liczba komend na sekundę w dłuższym okresie. Zero
+         * oznacza, że żetony nie są uzupełniane.
+         * @return
+         */
+        public Builder limit(String commandName, int burst, int perSecond) {
+            if (limitIndexes.containsKey(commandName)) {
+                throw new IllegalArgumentException("Limit already defined: " + commandName);
+            }
+            limitIndexes.put(commandName, addLimit(burst, perSecond));
+            return this;
+        }
+
+        /**
+         * Ogranicza komendy, dla których nie zdefiniowano osobnego
+         * ograniczenia.
+         *
+         * @param burst
+         * @param perSecond
+         * @return
+         */
+        public Builder defaultLimit(int burst, int perSecond) {
+            if (defaultIndex != NO_LIMIT) {
+                throw new IllegalArgumentException("Default limit already defined");
+            }
+            defaultIndex = addLimit(burst, perSecond);
+            return this;
+        }
+
+        /**
+         * @param clock Zegar w milisekundach.
+         * @return
+         */
+        public Builder clock(LongSupplier clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        public RateLimiter build() {
+            return new RateLimiter(this);
+        }
+
+        private int addLimit(int burst, int perSecond) {
+            if (burst < 1 || burst > Integer.MAX_VALUE / MILLI_TOKENS || perSecond < 0) {
+                throw new IllegalArgumentException("Incorrect limit: " + burst + "/" + perSecond);
+            }
+            int index = capacities.length;
+            capacities = Arrays.copyOf(capacities, index + 1);
+            this.perSecond = Arrays.copyOf(this.perSecond, index + 1);
+            capacities[index] = burst;
+            this.perSecond[index] = perSecond;
+            return index;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.mprzypadlo.thserver.application.replication;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ograniczona kolejka wpisów dziennika, oczekujących na wysłanie do repliki.
+ *
+ * Dodawanie nigdy nie czeka - gdy kolejka jest pełna, wpis jest odrzucany, a
+ * gra wysyła później pełną kopię stanu. Pojemność ogranicza więc zarówno
+ * pamięć, jak i liczbę komend traconych przy awarii węzła głównego.
+ *
+ * @author mprzypadlo
+ */
+public class CommandJournal {
+
+    private final ArrayBlockingQueue<JournalEntry> entries;
+
+    private final LongAdder dropped = new LongAdder();
+
+    public CommandJournal(int capacity) {
+        this.entries = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * @param entry
+     * @return Czy wpis został przyjęty.
+     */
+    public boolean offer(JournalEntry entry) {
+        if (entries.offer(entry)) {
+            return true;
+        }
+        dropped.increment();
+        return false;
+    }
+
+    /**
+     * @return Czy kolejny wpis zostałby odrzucony.
+     */
+    public boolean isFull() {
+        return entries.remainingCapacity() == 0;
+    }
+
+    public int drainTo(List<JournalEntry> batch, int maxEntries) {
+        return entries.drainTo(batch, maxEntries);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+}
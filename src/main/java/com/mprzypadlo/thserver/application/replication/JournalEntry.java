@@ -0,0 +1,64 @@
+package com.mprzypadlo.thserver.application.replication;
+
+import com.mprzypadlo.thserver.application.cluster.CommandRecord;
+import com.przypadlo.thserver.model.game.Game;
+
+/**
+ * Wpis dziennika gry: wykonana komenda lub pełna kopia stanu gry.
+ *
+ * Wpisy każdej gry są numerowane kolejno, co pozwala replice wykryć wpisy
+ * utracone po przepełnieniu dziennika.
+ *
+ * @author mprzypadlo
+ */
+public final class JournalEntry {
+
+    private final int gameId;
+
+    private final long sequence;
+
+    private final CommandRecord command;
+
+    private final Game snapshot;
+
+    private JournalEntry(int gameId, long sequence, CommandRecord command, Game snapshot) {
+        this.gameId = gameId;
+        this.sequence = sequence;
+        this.command = command;
+        this.snapshot = snapshot;
+    }
+
+    public static JournalEntry command(int gameId, long sequence, CommandRecord command) {
+        return new JournalEntry(gameId, sequence, command, null);
+    }
+
+    /**
+     * @param gameId
+     * @param sequence
+     * @param snapshot Kopia gry, niewspółdzielona z grą główną.
+     * @return
+     */
+    public static JournalEntry snapshot(int gameId, long sequence, Game snapshot) {
+        return new JournalEntry(gameId, sequence, null, snapshot);
+    }
+
+    public int gameId() {
+        return gameId;
+    }
+
+    public long sequence() {
+        return sequence;
+    }
+
+    public boolean isSnapshot() {
+        return snapshot != null;
+    }
+
+    public CommandRecord command() {
+        return command;
+    }
+
+    public Game snapshot() {
+        return snapshot;
+    }
+}
@@ -0,0 +1,126 @@
+package com.mprzypadlo.thserver.application.replication;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Przesyła wpisy dziennika do repliki, paczkami, w osobnym wątku.
+ *
+ * Wątki gier jedynie dodają wpisy do {@link CommandJournal}, więc wolna lub
+ * niedostępna replika nie spowalnia gier.
+ *
+ * @author mprzypadlo
+ */
+public class JournalShipper {
+
+    public static final int DEFAULT_BATCH_SIZE = 512;
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    private final CommandJournal journal;
+
+    private final Consumer<List<JournalEntry>> standby;
+
+    private final int batchSize;
+
+    private final List<JournalEntry> batch;
+
+    private final LongAdder shipped = new LongAdder();
+
+    private volatile boolean running;
+
+    private Thread thread;
+
+    public JournalShipper(CommandJournal journal, Consumer<List<JournalEntry>> standby) {
+        this(journal, standby, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param journal
+     * @param standby Odbiorca paczek wpisów, np. {@link StandbyReplica#apply}
+     * lub transport do procesu zapasowego.
+     * @param batchSize
+     */
+    public JournalShipper(
+            CommandJournal journal,
+            Consumer<List<JournalEntry>> standby,
+            int batchSize
+    ) {
+        this.journal = journal;
+        this.standby = standby;
+        this.batchSize = batchSize;
+        this.batch = new ArrayList<>(batchSize);
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "journal-shipper");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Zatrzymuje wątek i wysyła pozostałe wpisy.
+     *
+     * @throws InterruptedException
+     */
+    public void stop() throws InterruptedException {
+        Thread stopped;
+        synchronized (this) {
+            running = false;
+            stopped = thread;
+            thread = null;
+        }
+        if (stopped != null) {
+            stopped.join();
+        }
+        shipPending();
+    }
+
+    /**
+     * Wysyła wszystkie oczekujące wpisy w bieżącym wątku.
+     *
+     * @return Liczba wysłanych wpisów.
+     */
+    public synchronized int shipPending() {
+        int total = 0;
+        int count;
+        while ((count = shipBatch()) > 0) {
+            total += count;
+        }
+        return total;
+    }
+
+    public long shipped() {
+        return shipped.sum();
+    }
+
+    private void run() {
+        while (running) {
+            int count;
+            synchronized (this) {
+                count = shipBatch();
+            }
+            if (count == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private int shipBatch() {
+        batch.clear();
+        int count = journal.drainTo(batch, batchSize);
+        if (count > 0) {
+            standby.accept(batch);
+            shipped.add(count);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,136 @@
+package com.mprzypadlo.thserver.application.replication;
+
+import com.mprzypadlo.thserver.application.cluster.GameHost;
+import com.mprzypadlo.thserver.application.command.CommandBus;
+import com.mprzypadlo.thserver.application.protocol.CommandDecoder;
+import com.mprzypadlo.thserver.application.session.StripedIntMap;
+import com.przypadlo.thserver.domain.Dice;
+import com.przypadlo.thserver.model.dice.RecordingDice;
+import com.przypadlo.thserver.model.game.Game;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Replika gier węzła głównego, utrzymywana na węźle zapasowym.
+ *
+ * Odtwarza wpisy dziennika na kopiach gier, z tymi samymi wynikami rzutów
+ * kostką. Gra, dla której wykryto brakujący wpis, czeka na kolejną pełną
+ * kopię stanu. Po awarii węzła głównego {@link #promote()} przekazuje
+ * aktualne repliki do {@link GameHost} węzła zapasowego.
+ *
+ * @author mprzypadlo
+ */
+public class StandbyReplica {
+
+    private final GameHost host;
+
+    private final Supplier<Dice> dice;
+
+    private final StripedIntMap<Replica> replicas = new StripedIntMap<>();
+
+    private final List<Integer> gameIds = new ArrayList<>();
+
+    private final CommandDecoder decoder = new CommandDecoder();
+
+    /**
+     * @param host Gry węzła zapasowego.
+     * @param dice Dostarcza kostki dla gier po przejęciu.
+     */
+    public StandbyReplica(GameHost host, Supplier<Dice> dice) {
+        this.host = host;
+        this.dice = dice;
+    }
+
+    public synchronized void apply(List<JournalEntry> entries) {
+        for (JournalEntry entry : entries) {
+            if (entry.isSnapshot()) {
+                applySnapshot(entry);
+            } else {
+                applyCommand(entry);
+            }
+        }
+    }
+
+    private void applySnapshot(JournalEntry entry) {
+        RecordingDice replicaDice = new RecordingDice(dice.get());
+        Game game = entry.snapshot().copy(replicaDice);
+        Replica replica = new Replica(game, replicaDice, host.replayBus(game), entry.sequence());
+        if (replicas.put(entry.gameId(), replica) == null) {
+            gameIds.add(entry.gameId());
+        }
+    }
+
+    private void applyCommand(JournalEntry entry) {
+        Replica replica = replicas.get(entry.gameId());
+        if (replica == null || replica.stale) {
+            return;
+        }
+        if (entry.sequence() != replica.sequence + 1) {
+            replica.stale = true;
+            return;
+        }
+        replica.sequence = entry.sequence();
+        replica.dice.replay(entry.command().rolls());
+        try {
+            replica.bus.dispatch(entry.command().command(decoder));
+        } catch (RuntimeException e) {
+            // komenda zakończyła się błędem również na węźle głównym
+        }
+        replica.dice.replay();
+    }
+
+    /**
+     * Przejmuje gry węzła głównego. Gry oczekujące na pełną kopię stanu są
+     * pomijane.
+     *
+     * @return Identyfikatory przejętych gier.
+     */
+    public synchronized List<Integer> promote() {
+        List<Integer> promoted = new ArrayList<>();
+        for (Integer gameId : gameIds) {
+            Replica replica = replicas.remove(gameId);
+            if (replica != null && !replica.stale) {
+                host.host(gameId, replica.game, replica.dice);
+                promoted.add(gameId);
+            }
+        }
+        gameIds.clear();
+        return promoted;
+    }
+
+    /**
+     * @param gameId
+     * @return Numer ostatniego odtworzonego wpisu gry lub -1, gdy replika gry
+     * nie istnieje.
+     */
+    public synchronized long appliedSequence(int gameId) {
+        Replica replica = replicas.get(gameId);
+        return replica == null ? -1 : replica.sequence;
+    }
+
+    public synchronized Game game(int gameId) {
+        Replica replica = replicas.get(gameId);
+        return replica == null ? null : replica.game;
+    }
+
+    private static final class Replica {
+
+        final Game game;
+
+        final RecordingDice dice;
+
+        final CommandBus bus;
+
+        long sequence;
+
+        boolean stale = false;
+
+        Replica(Game game, RecordingDice dice, CommandBus bus, long sequence) {
+            this.game = game;
+            this.dice = dice;
+            this.bus = bus;
+            this.sequence = sequence;
+        }
+    }
+}
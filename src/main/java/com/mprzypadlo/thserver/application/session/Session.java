@@ -0,0 +1,85 @@
+package com.mprzypadlo.thserver.application.session;
+
+import com.mprzypadlo.thserver.application.Message;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sesja połączenia: gracz, jego gra i kolejka wiadomości wychodzących.
+ *
+ * Wiadomości może dodawać dowolny wątek, odbiera je wątek obsługujący
+ * połączenie.
+ *
+ * @author mprzypadlo
+ */
+public class Session {
+
+    public static final int NO_GAME = -1;
+
+    private final int sourceId;
+
+    private final Queue<Message> outbound = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private volatile String playerName;
+
+    private volatile int gameId = NO_GAME;
+
+    public Session(int sourceId) {
+        this.sourceId = sourceId;
+    }
+
+    public int sourceId() {
+        return sourceId;
+    }
+
+    public String playerName() {
+        return playerName;
+    }
+
+    public int gameId() {
+        return gameId;
+    }
+
+    public boolean inGame() {
+        return gameId != NO_GAME;
+    }
+
+    public void join(String playerName, int gameId) {
+        this.playerName = playerName;
+        this.gameId = gameId;
+    }
+
+    public void leave() {
+        this.gameId = NO_GAME;
+    }
+
+    public void send(Message message) {
+        outbound.add(message);
+        pending.incrementAndGet();
+    }
+
+    /**
+     * @return Następna wiadomość do wysłania lub null.
+     */
+    public Message poll() {
+        Message message = outbound.poll();
+        if (message != null) {
+            pending.decrementAndGet();
+        }
+        return message;
+    }
+
+    public boolean hasPending() {
+        return !outbound.isEmpty();
+    }
+
+    /**
+     * @return Liczba wiadomości oczekujących na wysłanie.
+     */
+    public int pending() {
+        return Math.max(0, pending.get());
+    }
+}
@@ -0,0 +1,86 @@
+package com.mprzypadlo.thserver.application.session;
+
+import com.mprzypadlo.thserver.application.Message;
+import com.mprzypadlo.thserver.application.MessageBus;
+
+/**
+ * Rejestr sesji połączeń, indeksowany identyfikatorem połączenia
+ * ({@code Command.sourceId()}).
+ *
+ * Oparty na {@link StripedIntMap}, więc wyszukiwanie sesji nie opakowuje
+ * identyfikatorów i nie rywalizuje o jedną globalną blokadę. Jako
+ * {@link MessageBus} umieszcza wiadomości w kolejkach wychodzących sesji.
+ * Wiadomości do nieznanych połączeń są pomijane - połączenie mogło zostać
+ * zamknięte w międzyczasie.
+ *
+ * @author mprzypadlo
+ */
+public class SessionRegistry implements MessageBus {
+
+    private final StripedIntMap<Session> sessions;
+
+    public SessionRegistry() {
+        this.sessions = new StripedIntMap<>();
+    }
+
+    public SessionRegistry(int stripes, int initialCapacity) {
+        this.sessions = new StripedIntMap<>(stripes, initialCapacity);
+    }
+
+    public Session open(int sourceId) {
+        Session session = new Session(sourceId);
+        if (sessions.putIfAbsent(sourceId, session) != null) {
+            throw new IllegalStateException("Session already open: " + sourceId);
+        }
+        return session;
+    }
+
+    /**
+     * @param sourceId
+     * @return Sesja lub null, gdy połączenie nie jest zarejestrowane.
+     */
+    public Session session(int sourceId) {
+        return sessions.get(sourceId);
+    }
+
+    /**
+     * @param sourceId
+     * @return Zamknięta sesja lub null.
+     */
+    public Session close(int sourceId) {
+        return sessions.remove(sourceId);
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * @return Łączna liczba wiadomości oczekujących w kolejkach sesji.
+     */
+    public long backlog() {
+        long[] backlog = new long[1];
+        sessions.forEach(session -> backlog[0] += session.pending());
+        return backlog[0];
+    }
+
+    @Override
+    public void notify(int sourceId, Message message) {
+        Session session = sessions.get(sourceId);
+        if (session != null) {
+            session.send(message);
+        }
+    }
+
+    @Override
+    public void notifyAll(Message message) {
+        sessions.forEach(session -> session.send(message));
+    }
+
+    @Override
+    public void notifyAll(int[] sourceIds, int count, Message message) {
+        for (int i = 0; i < count; i++) {
+            notify(sourceIds[i], message);
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.mprzypadlo.thserver.application.session;
+
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * Współbieżna mapa o kluczach typu {@code int}, bez opakowywania kluczy.
+ *
+ * Klucze rozdzielane są między paski (stripes), każdy z własną tablicą z
+ * adresowaniem otwartym (linear probing) i własną blokadą. Zapisy blokują
+ * tylko jeden pasek, odczyty są optymistyczne i nie blokują wcale, o ile w
+ * tym czasie nie nastąpił zapis do tego samego paska.
+ *
+ * Wartości nie mogą być nullami - null oznacza pusty slot.
+ *
+ * @author mprzypadlo
+ * @param <V>
+ */
+public class StripedIntMap<V> {
+
+    private static final int MIN_CAPACITY = 8;
+
+    private final Stripe<V>[] stripes;
+
+    private final int stripeMask;
+
+    public StripedIntMap() {
+        this(64, 16);
+    }
+
+    /**
+     * @param stripes Liczba pasków, potęga dwójki.
+     * @param initialCapacity Początkowa pojemność całej mapy.
+     */
+    @SuppressWarnings("unchecked")
+    public StripedIntMap(int stripes, int initialCapacity) {
+        if (stripes < 1 || Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("Number of stripes must be a power of two");
+        }
+        this.stripes = new Stripe[stripes];
+        this.stripeMask = stripes - 1;
+        int capacity = tableSizeFor(Math.max(MIN_CAPACITY, initialCapacity / stripes * 2));
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe<>(capacity);
+        }
+    }
+
+    public V get(int key) {
+        int hash = hash(key);
+        return stripeFor(hash).get(key, hash);
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @param key
+     * @param value
+     * @return Poprzednia wartość lub null.
+     */
+    public V put(int key, V value) {
+        throwExceptionIfNull(value);
+        int hash = hash(key);
+        return stripeFor(hash).put(key, hash, value, false);
+    }
+
+    /**
+     * @param key
+     * @param value
+     * @return Dotychczasowa wartość, gdy klucz już istniał - wtedy mapa nie
+     * jest zmieniana. Null, gdy wartość została dodana.
+     */
+    public V putIfAbsent(int key, V value) {
+        throwExceptionIfNull(value);
+        int hash = hash(key);
+        return stripeFor(hash).put(key, hash, value, true);
+    }
+
+    public V computeIfAbsent(int key, IntFunction<? extends V> factory) {
+        int hash = hash(key);
+        return stripeFor(hash).computeIfAbsent(key, hash, factory);
+    }
+
+    public V remove(int key) {
+        int hash = hash(key);
+        return stripeFor(hash).remove(key, hash);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe<V> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    /**
+     * Przechodzi po wartościach pasek po pasku. Wartości dodane lub usunięte
+     * w trakcie mogą zostać pominięte.
+     *
+     * @param action
+     */
+    public void forEach(Consumer<? super V> action) {
+        for (Stripe<V> stripe : stripes) {
+            stripe.forEach(action);
+        }
+    }
+
+    private Stripe<V> stripeFor(int hash) {
+        return stripes[hash & stripeMask];
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(int capacity) {
+        return Integer.highestOneBit(capacity - 1) << 1;
+    }
+
+    private static void throwExceptionIfNull(Object value) {
+        if (value == null) {
+            throw new NullPointerException("Null values are not supported");
+        }
+    }
+
+    /**
+     * Tablica kluczy i wartości podmieniana w całości przy powiększaniu, tak
+     * aby odczyt optymistyczny zawsze widział tablice tej samej długości.
+     */
+    private static final class Table {
+
+        final int[] keys;
+
+        final Object[] values;
+
+        Table(int capacity) {
+            keys = new int[capacity];
+            values = new Object[capacity];
+        }
+    }
+
+    private static final class Stripe<V> {
+
+        private final StampedLock lock = new StampedLock();
+
+        private volatile Table table;
+
+        private int size;
+
+        Stripe(int capacity) {
+            table = new Table(capacity);
+        }
+
+        V get(int key, int hash) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                Object value = find(table, key, hash);
+                if (lock.validate(stamp)) {
+                    return cast(value);
+                }
+            }
+            stamp = lock.readLock();
+            try {
+                return cast(find(table, key, hash));
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private static Object find(Table table, int key, int hash) {
+            int mask = table.keys.length - 1;
+            for (int i = 0, slot = (hash >>> 8) & mask; i <= mask; i++, slot = (slot + 1) & mask) {
+                Object value = table.values[slot];
+                if (value == null) {
+                    return null;
+                }
+                if (table.keys[slot] == key) {
+                    return value;
+                }
+            }
+            return null;
+        }
+
+        V put(int key, int hash, V value, boolean onlyIfAbsent) {
+            long stamp = lock.writeLock();
+            try {
+                return insert(key, hash, value, onlyIfAbsent);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        V computeIfAbsent(int key, int hash, IntFunction<? extends V> factory) {
+            V existing = get(key, hash);
+            if (existing != null) {
+                return existing;
+            }
+            long stamp = lock.writeLock();
+            try {
+                existing = cast(find(table, key, hash));
+                if (existing != null) {
+                    return existing;
+                }
+                V value = factory.apply(key);
+                throwExceptionIfNull(value);
+                insert(key, hash, value, true);
+                return value;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private V insert(int key, int hash, V value, boolean onlyIfAbsent) {
+            if ((size + 1) * 4 > table.keys.length * 3) {
+                resize();
+            }
+            Table current = table;
+            int mask = current.keys.length - 1;
+            int slot = (hash >>> 8) & mask;
+            while (current.values[slot] != null) {
+                if (current.keys[slot] == key) {
+                    V previous = cast(current.values[slot]);
+                    if (!onlyIfAbsent) {
+                        current.values[slot] = value;
+                    }
+                    return previous;
+                }
+                slot = (slot + 1) & mask;
+            }
+            current.keys[slot] = key;
+            current.values[slot] = value;
+            size++;
+            return null;
+        }
+
+        private void resize() {
+            Table old = table;
+            Table resized = new Table(old.keys.length * 2);
+            int mask = resized.keys.length - 1;
+            for (int i = 0; i < old.keys.length; i++) {
+                if (old.values[i] != null) {
+                    int slot = (hash(old.keys[i]) >>> 8) & mask;
+                    while (resized.values[slot] != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    resized.keys[slot] = old.keys[i];
+                    resized.values[slot] = old.values[i];
+                }
+            }
+            table = resized;
+        }
+
+        V remove(int key, int hash) {
+            long stamp = lock.writeLock();
+            try {
+                Table current = table;
+                int mask = current.keys.length - 1;
+                int slot = (hash >>> 8) & mask;
+                while (current.values[slot] != null) {
+                    if (current.keys[slot] == key) {
+                        V removed = cast(current.values[slot]);
+                        shiftBack(current, slot);
+                        size--;
+                        return removed;
+                    }
+                    slot = (slot + 1) & mask;
+                }
+                return null;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * Usuwa wpis bez znaczników usunięcia - przesuwa kolejne wpisy z tego
+         * samego ciągu na zwolnione miejsce.
+         */
+        private static void shiftBack(Table table, int free) {
+            int mask = table.keys.length - 1;
+            int slot = free;
+            while (true) {
+                slot = (slot + 1) & mask;
+                Object value = table.values[slot];
+                if (value == null) {
+                    break;
+                }
+                int home = (hash(table.keys[slot]) >>> 8) & mask;
+                boolean movable = free <= slot
+                        ? home <= free || home > slot
+                        : home <= free && home > slot;
+                if (movable) {
+                    table.keys[free] = table.keys[slot];
+                    table.values[free] = value;
+                    free = slot;
+                }
+            }
+            table.values[free] = null;
+        }
+
+        int size() {
+            long stamp = lock.readLock();
+            try {
+                return size;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        void forEach(Consumer<? super V> action) {
+            Object[] values;
+            long stamp = lock.readLock();
+            try {
+                values = table.values.clone();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+            for (Object value : values) {
+                if (value != null) {
+                    action.accept(cast(value));
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <V> V cast(Object value) {
+            return (V) value;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.mprzypadlo.thserver.application.spectator;
+
+/**
+ * Zakodowane zdarzenie gry, współdzielone przez wszystkich widzów.
+ *
+ * @author mprzypadlo
+ */
+public final class Frame {
+
+    private final long sequence;
+
+    private final boolean keyframe;
+
+    private final long timestamp;
+
+    private final byte[] payload;
+
+    Frame(long sequence, boolean keyframe, long timestamp, byte[] payload) {
+        this.sequence = sequence;
+        this.keyframe = keyframe;
+        this.timestamp = timestamp;
+        this.payload = payload;
+    }
+
+    public long sequence() {
+        return sequence;
+    }
+
+    public boolean isKeyframe() {
+        return keyframe;
+    }
+
+    public long timestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Zwraca zakodowaną treść zdarzenia. Tablica jest współdzielona i nie
+     * może być modyfikowana.
+     *
+     * @return
+     */
+    public byte[] payload() {
+        return payload;
+    }
+}
@@ -0,0 +1,13 @@
+package com.mprzypadlo.thserver.application.spectator;
+
+import com.mprzypadlo.thserver.application.Message;
+
+/**
+ *
+ * @author mprzypadlo
+ */
+public interface FrameEncoder {
+
+    public byte[] encode(Message message);
+
+}
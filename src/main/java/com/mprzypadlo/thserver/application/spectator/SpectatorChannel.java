@@ -0,0 +1,214 @@
+package com.mprzypadlo.thserver.application.spectator;
+
+import com.mprzypadlo.thserver.application.Message;
+import com.mprzypadlo.thserver.application.SimpleMessage;
+import com.mprzypadlo.thserver.application.sync.DeltaEncoder;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Kanał transmisji gry dla widzów.
+ *
+ * Każde zdarzenie kodowane jest raz, do ramki współdzielonej przez
+ * wszystkich widzów. Ramki przechowywane są w buforze cyklicznym o stałej
+ * pojemności - widz, który nie nadąża, przeskakuje do ostatniej klatki
+ * kluczowej zamiast buforować zaległe ramki.
+ *
+ * Decymacji podlegają wyłącznie zmiany stanu ({@link DeltaEncoder#DELTA}),
+ * pozostałe zdarzenia publikowane są zawsze i bez zmian. Pominięte zmiany
+ * nie są tracone - ich pola scalane są z kolejną publikowaną zmianą (nowsze
+ * wartości zastępują starsze, a wersja bazowa pochodzi z pierwszej
+ * pominiętej zmiany). Klatka kluczowa zawiera pełny stan, więc pominięte
+ * zmiany sprzed niej są odrzucane.
+ *
+ * Zdarzenia publikuje jeden wątek (wątek gry), a widzowie mogą odczytywać
+ * ramki z dowolnych wątków, bez blokad.
+ *
+ * @author mprzypadlo
+ */
+public class SpectatorChannel {
+
+    private final FrameEncoder encoder;
+
+    private final AtomicReferenceArray<Frame> frames;
+
+    private final int mask;
+
+    private final long delay;
+
+    private final int decimation;
+
+    private final LongSupplier clock;
+
+    private volatile long published = 0;
+
+    private volatile long latestKeyframe = 0;
+
+    private int skippedDeltas = 0;
+
+    private final Map<String, String> skippedContent = new LinkedHashMap<>();
+
+    /**
+     * Konstruktor
+     *
+     * @param encoder
+     * @param capacity Liczba przechowywanych ramek, potęga dwójki.
+     * @param delay Opóźnienie transmisji w milisekundach.
+     * @param decimation Publikowana jest co n-ta zmiana stanu, zawierająca
+     * zmiany pominięte od poprzedniej.
+     * @param clock Zegar w milisekundach.
+     */
+    public SpectatorChannel(
+            FrameEncoder encoder,
+            int capacity,
+            long delay,
+            int decimation,
+            LongSupplier clock
+    ) {
+        throwExceptionIfIncorrectCapacity(capacity);
+        if (decimation < 1) {
+            throw new IllegalArgumentException("Decimation must be positive");
+        }
+        this.encoder = encoder;
+        this.frames = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        this.delay = delay;
+        this.decimation = decimation;
+        this.clock = clock;
+    }
+
+    public SpectatorChannel(FrameEncoder encoder, int capacity) {
+        this(encoder, capacity, 0, 1, System::currentTimeMillis);
+    }
+
+    /**
+     * Publikuje wiadomość. Wiadomości {@link DeltaEncoder#KEYFRAME} są
+     * traktowane jako klatki kluczowe.
+     *
+     * @param message
+     */
+    public void publish(Message message) {
+        publish(message, DeltaEncoder.KEYFRAME.equals(message.name()));
+    }
+
+    public void publish(Message message, boolean keyframe) {
+        if (keyframe) {
+            skippedContent.clear();
+            skippedDeltas = 0;
+        } else if (DeltaEncoder.DELTA.equals(message.name())) {
+            if (++skippedDeltas < decimation) {
+                skip(message);
+                return;
+            }
+            skippedDeltas = 0;
+            if (!skippedContent.isEmpty()) {
+                message = merge(message);
+            }
+        }
+        long sequence = published + 1;
+        frames.set(
+                (int) sequence & mask,
+                new Frame(sequence, keyframe, clock.getAsLong(), encoder.encode(message))
+        );
+        if (keyframe) {
+            latestKeyframe = sequence;
+        }
+        published = sequence;
+    }
+
+    /**
+     * Tworzy widza, który rozpocznie oglądanie od ostatniej klatki
+     * kluczowej.
+     *
+     * @return
+     */
+    public Spectator watch() {
+        return new Spectator();
+    }
+
+    public long published() {
+        return published;
+    }
+
+    private void skip(Message delta) {
+        String baseVersion = skippedContent.get(DeltaEncoder.BASE_VERSION);
+        skippedContent.putAll(delta.content());
+        if (baseVersion != null) {
+            skippedContent.put(DeltaEncoder.BASE_VERSION, baseVersion);
+        }
+    }
+
+    private Message merge(Message delta) {
+        skip(delta);
+        Message merged = new SimpleMessage(delta.name(), skippedContent);
+        skippedContent.clear();
+        return merged;
+    }
+
+    private void throwExceptionIfIncorrectCapacity(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two");
+        }
+    }
+
+    /**
+     * Widz kanału. Instancja powinna być używana przez jeden wątek.
+     */
+    public class Spectator {
+
+        private long position;
+
+        private boolean waitingForKeyframe = true;
+
+        private Spectator() {
+            this.position = 0;
+        }
+
+        /**
+         * Zwraca kolejną ramkę lub null, gdy żadna ramka nie jest jeszcze
+         * dostępna.
+         *
+         * @return
+         */
+        public Frame poll() {
+            if (waitingForKeyframe) {
+                skipToLatestKeyframe();
+            }
+            while (position < published) {
+                long sequence = position + 1;
+                Frame frame = frames.get((int) sequence & mask);
+                if (frame == null || frame.sequence() != sequence) {
+                    skipToLatestKeyframe();
+                    continue;
+                }
+                if (frame.timestamp() > clock.getAsLong() - delay) {
+                    return null;
+                }
+                position = sequence;
+                if (waitingForKeyframe && !frame.isKeyframe()) {
+                    continue;
+                }
+                waitingForKeyframe = false;
+                return frame;
+            }
+            return null;
+        }
+
+        public long position() {
+            return position;
+        }
+
+        private void skipToLatestKeyframe() {
+            long keyframe = latestKeyframe;
+            long newest = published;
+            if (keyframe > position && newest - keyframe <= mask) {
+                position = keyframe - 1;
+            } else if (newest - position > mask) {
+                position = newest - mask - 1;
+            }
+            waitingForKeyframe = true;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.mprzypadlo.thserver.application.spectator;
+
+import com.mprzypadlo.thserver.application.Message;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Koduje wiadomość jako tekst UTF-8: nazwa wiadomości w pierwszej linii,
+ * a w kolejnych liniach pola w postaci {@code nazwa=wartość}.
+ *
+ * @author mprzypadlo
+ */
+public class TextFrameEncoder implements FrameEncoder {
+
+    @Override
+    public byte[] encode(Message message) {
+        StringBuilder text = new StringBuilder(message.name());
+        for (Map.Entry<String, String> field : message.content().entrySet()) {
+            text.append('\n').append(field.getKey()).append('=').append(field.getValue());
+        }
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,228 @@
+package com.mprzypadlo.thserver.application.sync;
+
+import com.mprzypadlo.thserver.application.Message;
+import com.mprzypadlo.thserver.application.MessageBuilder;
+import com.mprzypadlo.thserver.application.MessageBus;
+import com.przypadlo.thserver.domain.Player;
+import com.przypadlo.thserver.model.game.Game;
+import com.przypadlo.thserver.model.game.StateChanges;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Wysyła połączeniom zmiany stanu gry.
+ *
+ * Każde połączenie otrzymuje tylko zmiany od ostatniej potwierdzonej przez
+ * siebie wersji. Nowe połączenia, połączenia bez potwierdzeń oraz połączenia,
+ * którym od ostatniej klatki kluczowej upłynęło {@code keyframeInterval}
+ * wersji, otrzymują pełny stan gry.
+ *
+ * Usunięcia graczy potwierdzone przez wszystkie połączenia są zapominane,
+ * więc rejestr zmian gry nie rośnie bez końca. Połączenia bez potwierdzeń
+ * otrzymają klatkę kluczową, więc nie wstrzymują zapominania.
+ *
+ * @author mprzypadlo
+ */
+public class DeltaEncoder {
+
+    public static final String DELTA = "state-delta";
+
+    public static final String KEYFRAME = "state-keyframe";
+
+    public static final String BASE_VERSION = "base-version";
+
+    private static final long NOT_ACKNOWLEDGED = -1;
+
+    private final Game game;
+
+    private final MessageBus connections;
+
+    private final MessageBuilder messageBuilder;
+
+    private final long keyframeInterval;
+
+    private final Map<Integer, Connection> states = new HashMap<>();
+
+    public DeltaEncoder(
+            Game game,
+            MessageBus connections,
+            MessageBuilder messageBuilder,
+            long keyframeInterval
+    ) {
+        this.game = game;
+        this.connections = connections;
+        this.messageBuilder = messageBuilder;
+        this.keyframeInterval = keyframeInterval;
+    }
+
+    public void connect(int sourceId) {
+        states.put(sourceId, new Connection());
+    }
+
+    public void disconnect(int sourceId) {
+        states.remove(sourceId);
+        forgetAcknowledgedRemovals();
+    }
+
+    /**
+     * Zapisuje wersję stanu gry potwierdzoną przez klienta.
+     *
+     * @param sourceId
+     * @param version
+     */
+    public void acknowledge(int sourceId, long version) {
+        Connection state = connection(sourceId);
+        if (version > game.version()) {
+            throw new IllegalArgumentException("Version not published yet");
+        }
+        state.acknowledged = Math.max(state.acknowledged, version);
+        forgetAcknowledgedRemovals();
+    }
+
+    private void forgetAcknowledgedRemovals() {
+        long oldest = game.version();
+        for (Connection state : states.values()) {
+            if (state.acknowledged != NOT_ACKNOWLEDGED) {
+                oldest = Math.min(oldest, state.acknowledged);
+            }
+        }
+        game.changes().forgetRemovalsUpTo(oldest);
+    }
+
+    /**
+     * Wysyła każdemu połączeniu zmiany od jego ostatniej potwierdzonej wersji.
+     */
+    public void publish() {
+        for (Map.Entry<Integer, Connection> entry : states.entrySet()) {
+            Message message = encode(entry.getValue());
+            if (message != null) {
+                connections.notify(entry.getKey(), message);
+            }
+        }
+    }
+
+    /**
+     * Tworzy wiadomość dla połączenia lub zwraca null, gdy połączenie zna
+     * już bieżący stan.
+     *
+     * @param sourceId
+     * @return
+     */
+    public Message encode(int sourceId) {
+        return encode(connection(sourceId));
+    }
+
+    private Message encode(Connection state) {
+        long version = game.version();
+        if (needsKeyframe(state, version)) {
+            state.keyframe = version;
+            return keyframe(version);
+        }
+        if (state.acknowledged == version) {
+            return null;
+        }
+        return delta(state.acknowledged, version);
+    }
+
+    private boolean needsKeyframe(Connection state, long version) {
+        return state.acknowledged == NOT_ACKNOWLEDGED
+                || version - state.keyframe >= keyframeInterval;
+    }
+
+    private Message keyframe(long version) {
+        messageBuilder.message(KEYFRAME)
+                .contentField("version", String.valueOf(version));
+        addGameFields();
+        for (String playerName : game.playerNames()) {
+            if (game.player(playerName) != null) {
+                addPlayerFields(playerName, Player.ALL_CHANGED);
+            }
+        }
+        return messageBuilder.getMessage();
+    }
+
+    private Message delta(long since, long version) {
+        StateChanges changes = game.changes();
+        messageBuilder.message(DELTA)
+                .contentField("version", String.valueOf(version))
+                .contentField(BASE_VERSION, String.valueOf(since));
+        if (changes.gameChangedSince(since)) {
+            addGameFields();
+        }
+        for (String playerName : changes.players()) {
+            int playerChanges = changes.playerChangesSince(playerName, since);
+            if (playerChanges != 0) {
+                addPlayerFields(playerName, playerChanges);
+            }
+        }
+        for (String playerName : changes.removedPlayers()) {
+            if (changes.playerRemovedSince(playerName, since)) {
+                messageBuilder.contentField(key(playerName, "removed"), "true");
+            }
+        }
+        return messageBuilder.getMessage();
+    }
+
+    private void addGameFields() {
+        messageBuilder
+                .contentField("status", String.valueOf(game.status()))
+                .contentField("current-player", String.valueOf(game.currentPlayer()))
+                .contentField("dice-roll", String.valueOf(game.lastDiceRoll()));
+    }
+
+    private void addPlayerFields(String playerName, int playerChanges) {
+        Player player = game.player(playerName);
+        if ((playerChanges & Player.HP_CHANGED) != 0) {
+            field(playerName, "hp", player.hp());
+        }
+        if ((playerChanges & Player.POSITION_CHANGED) != 0) {
+            field(playerName, "circle", player.circle());
+            field(playerName, "field", player.field());
+        }
+        if ((playerChanges & Player.INVENTORY_CHANGED) != 0) {
+            messageBuilder.contentField(key(playerName, "items"), items(player));
+        }
+        if ((playerChanges & Player.WEAPON_CHANGED) != 0) {
+            messageBuilder.contentField(key(playerName, "weapon"), player.equippedWeapon());
+        }
+        if ((playerChanges & Player.STATS_CHANGED) != 0) {
+            field(playerName, "def", player.def());
+            field(playerName, "attack", player.attackPoints());
+            field(playerName, "mana", player.mana());
+        }
+    }
+
+    private void field(String playerName, String property, int value) {
+        messageBuilder.contentField(key(playerName, property), String.valueOf(value));
+    }
+
+    private String key(String playerName, String property) {
+        return "player." + playerName + "." + property;
+    }
+
+    private String items(Player player) {
+        StringBuilder items = new StringBuilder();
+        for (Object itemName : player.items()) {
+            if (items.length() > 0) {
+                items.append(',');
+            }
+            items.append(itemName).append(':').append(player.itemCount((String) itemName));
+        }
+        return items.toString();
+    }
+
+    private Connection connection(int sourceId) {
+        Connection state = states.get(sourceId);
+        if (state == null) {
+            throw new IllegalArgumentException("Unknown connection: " + sourceId);
+        }
+        return state;
+    }
+
+    private static class Connection {
+
+        private long acknowledged = NOT_ACKNOWLEDGED;
+
+        private long keyframe = 0;
+    }
+}
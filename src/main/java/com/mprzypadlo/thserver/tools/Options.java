@@ -0,0 +1,26 @@
+package com.mprzypadlo.thserver.tools;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parsuje argumenty narzędzi w postaci {@code --nazwa wartość}.
+ *
+ * @author mprzypadlo
+ */
+public final class Options {
+
+    private Options() {
+    }
+
+    public static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i += 2) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --name value, got: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+}
@@ -0,0 +1,159 @@
+package com.mprzypadlo.thserver.tools;
+
+import com.przypadlo.thserver.model.board.BoardDefinition;
+import com.przypadlo.thserver.model.board.FieldDefinition;
+import com.przypadlo.thserver.model.item.CatalogItem;
+import com.przypadlo.thserver.model.item.ItemCatalog;
+import com.przypadlo.thserver.model.player.PlayerClass;
+import com.przypadlo.thserver.model.weapon.WeaponCatalog;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Przykładowa zawartość gry (broń, przedmioty, plansza, klasy postaci)
+ * używana przez narzędzia testowe.
+ *
+ * @author mprzypadlo
+ */
+public final class SampleContent {
+
+    public static final String[] ITEMS = {"mana-potion", "shield-charm", "strength-elixir"};
+
+    private final WeaponCatalog weapons;
+
+    private final ItemCatalog items;
+
+    private final BoardDefinition board;
+
+    private final Map<String, PlayerClass> playerClasses;
+
+    public SampleContent() {
+        weapons = WeaponCatalog.builder()
+                .weapon("sword", 1, "slash", 12, 2)
+                .weapon("staff", 3, "fireball", 9, 3)
+                .weapon("bow", 4, "arrow", 7, 1)
+                .build();
+        items = new ItemCatalog(
+                new CatalogItem("mana-potion", (player) -> player.increaseMana(5)),
+                new CatalogItem("shield-charm", (player) -> player.increaseDefence(1)),
+                new CatalogItem("strength-elixir", (player) -> player.increaseAttack(2))
+        );
+        board = createBoard(items);
+        playerClasses = new HashMap<>();
+        addClass(new PlayerClass("warrior", 120, 4, 12, 0, weapons.weapon("sword")));
+        addClass(new PlayerClass("wizard", 80, 1, 6, 40, weapons.weapon("staff")));
+        addClass(new PlayerClass("ranger", 100, 2, 8, 10, weapons.weapon("bow")));
+    }
+
+    /**
+     * Zwraca tę samą zawartość w postaci definicji dla
+     * {@link com.przypadlo.thserver.model.content.ContentCompiler}.
+     *
+     * @return
+     */
+    public static Properties properties() {
+        Properties config = new Properties();
+        config.setProperty("attacks", "slash,fireball,arrow");
+        attack(config, "slash", 12, 2);
+        attack(config, "fireball", 9, 3);
+        attack(config, "arrow", 7, 1);
+        config.setProperty("weapons", "sword,staff,bow");
+        weapon(config, "sword", 1, "slash");
+        weapon(config, "staff", 3, "fireball");
+        weapon(config, "bow", 4, "arrow");
+        config.setProperty("items", String.join(",", ITEMS));
+        item(config, "mana-potion", "mana", 5);
+        item(config, "shield-charm", "defence", 1);
+        item(config, "strength-elixir", "attack", 2);
+        config.setProperty("player-classes", "warrior,wizard,ranger");
+        playerClass(config, "warrior", 120, 4, 12, 0, "sword");
+        playerClass(config, "wizard", 80, 1, 6, 40, "staff");
+        playerClass(config, "ranger", 100, 2, 8, 10, "bow");
+        int[] fields = {12, 10, 8};
+        config.setProperty("board.circles", "12,10,8");
+        for (int circle = 0; circle < fields.length; circle++) {
+            for (int field = 0; field < fields[circle]; field += 3) {
+                config.setProperty(
+                        "board.field." + circle + "." + field,
+                        ITEMS[field % ITEMS.length] + ":2"
+                );
+            }
+        }
+        return config;
+    }
+
+    public WeaponCatalog weapons() {
+        return weapons;
+    }
+
+    public ItemCatalog items() {
+        return items;
+    }
+
+    public BoardDefinition board() {
+        return board;
+    }
+
+    public Map<String, PlayerClass> playerClasses() {
+        return Collections.unmodifiableMap(playerClasses);
+    }
+
+    private static void attack(Properties config, String name, int value, int experience) {
+        config.setProperty("attack." + name + ".value", String.valueOf(value));
+        config.setProperty("attack." + name + ".experience", String.valueOf(experience));
+    }
+
+    private static void weapon(Properties config, String name, int range, String attack) {
+        config.setProperty("weapon." + name + ".range", String.valueOf(range));
+        config.setProperty("weapon." + name + ".attack", attack);
+    }
+
+    private static void item(Properties config, String name, String effect, int amount) {
+        config.setProperty("item." + name + ".effect", effect);
+        config.setProperty("item." + name + ".amount", String.valueOf(amount));
+    }
+
+    private static void playerClass(
+            Properties config,
+            String name,
+            int hp,
+            int def,
+            int attack,
+            int mana,
+            String weapon
+    ) {
+        config.setProperty(name + ".hp", String.valueOf(hp));
+        config.setProperty(name + ".def", String.valueOf(def));
+        config.setProperty(name + ".attack", String.valueOf(attack));
+        config.setProperty(name + ".mana", String.valueOf(mana));
+        config.setProperty(name + ".weapon", weapon);
+    }
+
+    private void addClass(PlayerClass playerClass) {
+        playerClasses.put(playerClass.name(), playerClass);
+    }
+
+    private static BoardDefinition createBoard(ItemCatalog items) {
+        int[] fields = {12, 10, 8};
+        BoardDefinition.Builder builder = BoardDefinition.builder(items, fields);
+        for (int circle = 0; circle < fields.length; circle++) {
+            for (int field = 0; field < fields[circle]; field++) {
+                if (field % 3 == 0) {
+                    builder.field(circle, field, stockedField(items, ITEMS[field % ITEMS.length]));
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    private static FieldDefinition stockedField(ItemCatalog items, String itemName) {
+        return new FieldDefinition(
+                items,
+                Collections.singletonMap(itemName, 2),
+                (player) -> {
+                }
+        );
+    }
+}
@@ -0,0 +1,65 @@
+package com.mprzypadlo.thserver.tools.loadgen;
+
+import java.util.SplittableRandom;
+
+/**
+ * Proporcje ruchów wykonywanych przez boty w swojej turze.
+ *
+ * @author mprzypadlo
+ */
+public final class BehaviorMix {
+
+    public enum Behavior {
+        MOVE, ATTACK, PICK, USE
+    }
+
+    private final int[] weights;
+
+    private final int total;
+
+    public BehaviorMix(int move, int attack, int pick, int use) {
+        this.weights = new int[]{move, attack, pick, use};
+        int sum = 0;
+        for (int weight : weights) {
+            if (weight < 0) {
+                throw new IllegalArgumentException("Weights cannot be negative");
+            }
+            sum += weight;
+        }
+        if (sum == 0) {
+            throw new IllegalArgumentException("At least one weight must be positive");
+        }
+        this.total = sum;
+    }
+
+    /**
+     * Tworzy proporcje z zapisu w postaci {@code move=4,attack=3,pick=2,use=1}.
+     * Pominięte ruchy mają wagę 0.
+     *
+     * @param mix
+     * @return
+     */
+    public static BehaviorMix parse(String mix) {
+        int[] weights = new int[Behavior.values().length];
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Incorrect mix entry: " + entry);
+            }
+            Behavior behavior = Behavior.valueOf(parts[0].trim().toUpperCase());
+            weights[behavior.ordinal()] = Integer.parseInt(parts[1].trim());
+        }
+        return new BehaviorMix(weights[0], weights[1], weights[2], weights[3]);
+    }
+
+    public Behavior pick(SplittableRandom random) {
+        int value = random.nextInt(total);
+        for (Behavior behavior : Behavior.values()) {
+            value -= weights[behavior.ordinal()];
+            if (value < 0) {
+                return behavior;
+            }
+        }
+        throw new IllegalStateException("Weights changed");
+    }
+}
@@ -0,0 +1,75 @@
+package com.mprzypadlo.thserver.tools.loadgen;
+
+import com.mprzypadlo.thserver.application.command.Command;
+import com.mprzypadlo.thserver.tools.SampleContent;
+import com.przypadlo.thserver.domain.Board.Directions;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Symulowany gracz.
+ *
+ * @author mprzypadlo
+ */
+class Bot {
+
+    private final int sourceId;
+
+    private final String playerName;
+
+    private final String playerClass;
+
+    Bot(int sourceId, String playerName, String playerClass) {
+        this.sourceId = sourceId;
+        this.playerName = playerName;
+        this.playerClass = playerClass;
+    }
+
+    Command join() {
+        return BotCommands.createPlayer(sourceId, playerName, playerClass);
+    }
+
+    /**
+     * Wybiera ruch wykonywany w turze bota.
+     *
+     * @param mix
+     * @param opponents Wszyscy gracze w grze, łącznie z botem.
+     * @param random
+     * @return
+     */
+    Command move(BehaviorMix mix, List<Bot> opponents, SplittableRandom random) {
+        switch (mix.pick(random)) {
+            case MOVE:
+                Directions direction = random.nextBoolean()
+                        ? Directions.RIGHT
+                        : Directions.LEFT;
+                return BotCommands.move(sourceId, playerName, direction);
+            case ATTACK:
+                return BotCommands.attack(sourceId, playerName, opponent(opponents, random));
+            case PICK:
+                return BotCommands.pick(sourceId, playerName, randomItem(random));
+            default:
+                return BotCommands.use(sourceId, playerName, randomItem(random));
+        }
+    }
+
+    Command endTurn() {
+        return BotCommands.endTurn(sourceId, playerName);
+    }
+
+    String playerName() {
+        return playerName;
+    }
+
+    private String opponent(List<Bot> players, SplittableRandom random) {
+        Bot opponent = players.get(random.nextInt(players.size()));
+        if (opponent == this) {
+            opponent = players.get((players.indexOf(this) + 1) % players.size());
+        }
+        return opponent.playerName;
+    }
+
+    private String randomItem(SplittableRandom random) {
+        return SampleContent.ITEMS[random.nextInt(SampleContent.ITEMS.length)];
+    }
+}
@@ -0,0 +1,134 @@
+package com.mprzypadlo.thserver.tools.loadgen;
+
+import com.mprzypadlo.thserver.application.command.commands.AttackPlayer;
+import com.mprzypadlo.thserver.application.command.commands.CreatePlayer;
+import com.mprzypadlo.thserver.application.command.commands.ExecuteAction;
+import com.mprzypadlo.thserver.application.command.commands.MovePlayer;
+import com.mprzypadlo.thserver.application.command.commands.PickItem;
+import com.mprzypadlo.thserver.application.command.commands.UseItem;
+import com.przypadlo.thserver.domain.Board.Directions;
+
+/**
+ * Komendy wysyłane przez boty.
+ *
+ * @author mprzypadlo
+ */
+final class BotCommands {
+
+    private BotCommands() {
+    }
+
+    static CreatePlayer createPlayer(int sourceId, String playerName, String playerClass) {
+        return new CreatePlayer() {
+            @Override
+            public int sourceId() {
+                return sourceId;
+            }
+
+            @Override
+            public String playerName() {
+                return playerName;
+            }
+
+            @Override
+            public String playerClass() {
+                return playerClass;
+            }
+        };
+    }
+
+    static MovePlayer move(int sourceId, String playerName, Directions direction) {
+        return new MovePlayer() {
+            @Override
+            public int sourceId() {
+                return sourceId;
+            }
+
+            @Override
+            public String playerName() {
+                return playerName;
+            }
+
+            @Override
+            public Directions direction() {
+                return direction;
+            }
+        };
+    }
+
+    static AttackPlayer attack(int sourceId, String attackerName, String attackedName) {
+        return new AttackPlayer() {
+            @Override
+            public int sourceId() {
+                return sourceId;
+            }
+
+            @Override
+            public String attackerName() {
+                return attackerName;
+            }
+
+            @Override
+            public String attackedName() {
+                return attackedName;
+            }
+        };
+    }
+
+    static PickItem pick(int sourceId, String playerName, String itemName) {
+        return new PickItem() {
+            @Override
+            public int sourceId() {
+                return sourceId;
+            }
+
+            @Override
+            public String playerName() {
+                return playerName;
+            }
+
+            @Override
+            public String itemName() {
+                return itemName;
+            }
+        };
+    }
+
+    static UseItem use(int sourceId, String playerName, String itemName) {
+        return new UseItem() {
+            @Override
+            public int sourceId() {
+                return sourceId;
+            }
+
+            @Override
+            public String playerName() {
+                return playerName;
+            }
+
+            @Override
+            public String itemName() {
+                return itemName;
+            }
+        };
+    }
+
+    static ExecuteAction endTurn(int sourceId, String playerName) {
+        return new ExecuteAction() {
+            @Override
+            public int sourceId() {
+                return sourceId;
+            }
+
+            @Override
+            public String playerName() {
+                return playerName;
+            }
+
+            @Override
+            public String actionName() {
+                return "end-turn";
+            }
+        };
+    }
+}
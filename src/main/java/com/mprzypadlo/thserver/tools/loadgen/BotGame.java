@@ -0,0 +1,76 @@
+package com.mprzypadlo.thserver.tools.loadgen;
+
+import com.mprzypadlo.thserver.application.MessageBus;
+import com.mprzypadlo.thserver.application.SimpleMessageBuilder;
+import com.mprzypadlo.thserver.application.command.CommandBus;
+import com.mprzypadlo.thserver.application.command.handlers.GameHandlers;
+import com.mprzypadlo.thserver.application.metrics.MeteredCommandBus;
+import com.mprzypadlo.thserver.application.metrics.Metrics;
+import com.mprzypadlo.thserver.tools.SampleContent;
+import com.przypadlo.thserver.domain.Board;
+import com.przypadlo.thserver.domain.Dice;
+import com.przypadlo.thserver.model.game.Game;
+import com.przypadlo.thserver.model.player.PlayerFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Gra rozgrywana przez boty, wraz z własnym {@link CommandBus}.
+ *
+ * @author mprzypadlo
+ */
+class BotGame {
+
+    private final Game game;
+
+    private final CommandBus bus;
+
+    private final List<Bot> bots = new ArrayList<>();
+
+    private final Map<String, Bot> botsByName = new HashMap<>();
+
+    BotGame(SampleContent content, Dice dice, int players, MessageBus connections, Metrics metrics) {
+        Board board = content.board().newBoard();
+        this.game = new Game(
+                board,
+                new PlayerFactory(board, content.playerClasses(), content.items()),
+                new LinkedHashMap<>(),
+                players,
+                dice
+        );
+        this.bus = createBus(game, connections, metrics);
+    }
+
+    void join(Bot bot) {
+        bots.add(bot);
+        botsByName.put(bot.playerName(), bot);
+        bus.dispatch(bot.join());
+    }
+
+    /**
+     * Rozgrywa turę bieżącego gracza: jeden ruch i zakończenie tury.
+     *
+     * @param mix
+     * @param random
+     * @return Liczba wysłanych komend.
+     */
+    int playTurn(BehaviorMix mix, SplittableRandom random) {
+        Bot current = botsByName.get(game.currentPlayer());
+        bus.dispatch(current.move(mix, bots, random));
+        bus.dispatch(current.endTurn());
+        return 2;
+    }
+
+    private static CommandBus createBus(Game game, MessageBus connections, Metrics metrics) {
+        return GameHandlers.register(
+                new MeteredCommandBus(new HashMap(), metrics),
+                game,
+                connections,
+                new SimpleMessageBuilder()
+        );
+    }
+}
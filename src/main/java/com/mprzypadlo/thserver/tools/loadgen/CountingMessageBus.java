@@ -0,0 +1,47 @@
+package com.mprzypadlo.thserver.tools.loadgen;
+
+import com.mprzypadlo.thserver.application.Message;
+import com.mprzypadlo.thserver.application.MessageBus;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link MessageBus} zliczający wysłane wiadomości zamiast je wysyłać.
+ *
+ * @author mprzypadlo
+ */
+class CountingMessageBus implements MessageBus {
+
+    private final LongAdder delivered = new LongAdder();
+
+    private final LongAdder errors = new LongAdder();
+
+    @Override
+    public void notify(int sourceId, Message message) {
+        count(message, 1);
+    }
+
+    @Override
+    public void notifyAll(Message message) {
+        count(message, 1);
+    }
+
+    @Override
+    public void notifyAll(int[] sourceIds, int count, Message message) {
+        count(message, count);
+    }
+
+    long delivered() {
+        return delivered.sum();
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+
+    private void count(Message message, int recipients) {
+        delivered.add(recipients);
+        if (message.name().endsWith("-error")) {
+            errors.increment();
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.mprzypadlo.thserver.tools.loadgen;
+
+import com.mprzypadlo.thserver.application.metrics.HistogramSnapshot;
+import com.mprzypadlo.thserver.application.metrics.Metrics;
+import com.mprzypadlo.thserver.tools.Options;
+import com.mprzypadlo.thserver.tools.SampleContent;
+import com.przypadlo.thserver.model.dice.SplittableDice;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Generator obciążenia.
+ *
+ * Tworzy gry rozgrywane przez boty, które dołączają przez
+ * {@code CreatePlayer}, a następnie w swoich turach poruszają się, atakują,
+ * podnoszą i używają przedmiotów. Komendy przechodzą pełną ścieżkę
+ * CommandBus → handler → Game → MessageBus. Gry dzielone są między wątki -
+ * każdą grę obsługuje zawsze ten sam wątek.
+ *
+ * Uruchomienie:
+ * <pre>
+ * java com.mprzypadlo.thserver.tools.loadgen.LoadGenerator \
+ *     --games 2000 --players 4 --threads 8 --seconds 30 \
+ *     --mix move=4,attack=3,pick=2,use=1 --seed 42
+ * </pre>
+ *
+ * @author mprzypadlo
+ */
+public class LoadGenerator {
+
+    private final int games;
+
+    private final int playersPerGame;
+
+    private final int threads;
+
+    private final long durationMillis;
+
+    private final BehaviorMix mix;
+
+    private final long seed;
+
+    public LoadGenerator(
+            int games,
+            int playersPerGame,
+            int threads,
+            long durationMillis,
+            BehaviorMix mix,
+            long seed
+    ) {
+        if (playersPerGame < 2) {
+            throw new IllegalArgumentException("Game needs at least two players");
+        }
+        this.games = games;
+        this.playersPerGame = playersPerGame;
+        this.threads = threads;
+        this.durationMillis = durationMillis;
+        this.mix = mix;
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = Options.parse(args);
+        LoadGenerator generator = new LoadGenerator(
+                Integer.parseInt(options.getOrDefault("games", "1000")),
+                Integer.parseInt(options.getOrDefault("players", "4")),
+                Integer.parseInt(options.getOrDefault(
+                        "threads",
+                        String.valueOf(Runtime.getRuntime().availableProcessors())
+                )),
+                Long.parseLong(options.getOrDefault("seconds", "10")) * 1000,
+                BehaviorMix.parse(options.getOrDefault("mix", "move=4,attack=3,pick=2,use=1")),
+                Long.parseLong(options.getOrDefault("seed", "42"))
+        );
+        generator.run().print(System.out);
+    }
+
+    public Report run() throws InterruptedException {
+        Metrics metrics = new Metrics();
+        CountingMessageBus connections = new CountingMessageBus();
+        List<List<BotGame>> partitions = createGames(metrics, connections);
+
+        long gcCount = gcCount();
+        long gcTime = gcTime();
+        LongAdder commands = new LongAdder();
+        CountDownLatch done = new CountDownLatch(threads);
+        long start = System.nanoTime();
+        long deadline = start + durationMillis * 1000000L;
+
+        for (int t = 0; t < threads; t++) {
+            List<BotGame> partition = partitions.get(t);
+            SplittableRandom random = new SplittableRandom(seed + t);
+            Thread worker = new Thread(() -> {
+                commands.add(play(partition, random, deadline));
+                done.countDown();
+            }, "load-generator-" + t);
+            worker.start();
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+
+        return new Report(
+                commands.sum(),
+                elapsed,
+                connections.delivered(),
+                connections.errors(),
+                gcCount() - gcCount,
+                gcTime() - gcTime,
+                metrics.histograms()
+        );
+    }
+
+    private List<List<BotGame>> createGames(Metrics metrics, CountingMessageBus connections) {
+        SampleContent content = new SampleContent();
+        SplittableDice dice = new SplittableDice(SplittableDice.DEFAULT_SIDES, seed);
+        String[] classes = content.playerClasses().keySet().toArray(new String[0]);
+        List<List<BotGame>> partitions = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            partitions.add(new ArrayList<>());
+        }
+        int sourceId = 0;
+        for (int g = 0; g < games; g++) {
+            BotGame game = new BotGame(content, dice.split(), playersPerGame, connections, metrics);
+            for (int p = 0; p < playersPerGame; p++) {
+                sourceId++;
+                game.join(new Bot(sourceId, "bot-" + sourceId, classes[sourceId % classes.length]));
+            }
+            partitions.get(g % threads).add(game);
+        }
+        return partitions;
+    }
+
+    private long play(List<BotGame> partition, SplittableRandom random, long deadline) {
+        long commands = 0;
+        while (System.nanoTime() < deadline) {
+            for (BotGame game : partition) {
+                commands += game.playTurn(mix, random);
+            }
+        }
+        return commands;
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcTime() {
+        long time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, gc.getCollectionTime());
+        }
+        return time;
+    }
+
+    /**
+     * Wynik przebiegu generatora.
+     */
+    public static class Report {
+
+        private final long commands;
+
+        private final long elapsedNanos;
+
+        private final long messages;
+
+        private final long errors;
+
+        private final long gcCount;
+
+        private final long gcMillis;
+
+        private final Map<String, HistogramSnapshot> latencies;
+
+        Report(
+                long commands,
+                long elapsedNanos,
+                long messages,
+                long errors,
+                long gcCount,
+                long gcMillis,
+                Map<String, HistogramSnapshot> latencies
+        ) {
+            this.commands = commands;
+            this.elapsedNanos = elapsedNanos;
+            this.messages = messages;
+            this.errors = errors;
+            this.gcCount = gcCount;
+            this.gcMillis = gcMillis;
+            this.latencies = latencies;
+        }
+
+        public long commands() {
+            return commands;
+        }
+
+        public double commandsPerSecond() {
+            return commands * 1e9 / elapsedNanos;
+        }
+
+        public long errors() {
+            return errors;
+        }
+
+        public Map<String, HistogramSnapshot> latencies() {
+            return latencies;
+        }
+
+        public void print(PrintStream out) {
+            out.printf("commands:   %d in %.1f s (%.0f/s)%n",
+                    commands, elapsedNanos / 1e9, commandsPerSecond());
+            out.printf("messages:   %d (%d errors)%n", messages, errors);
+            out.printf("gc:         %d collections, %d ms (%.2f%% of run)%n",
+                    gcCount, gcMillis, gcMillis * 1e8 / elapsedNanos);
+            out.printf("%-24s %10s %10s %10s %10s %10s%n",
+                    "latency [us]", "count", "p50", "p99", "p99.9", "max");
+            for (Map.Entry<String, HistogramSnapshot> entry : latencies.entrySet()) {
+                HistogramSnapshot latency = entry.getValue();
+                out.printf("%-24s %10d %10.1f %10.1f %10.1f %10.1f%n",
+                        entry.getKey(),
+                        latency.count(),
+                        latency.percentile(50) / 1e3,
+                        latency.percentile(99) / 1e3,
+                        latency.percentile(99.9) / 1e3,
+                        latency.max() / 1e3);
+            }
+        }
+    }
+}
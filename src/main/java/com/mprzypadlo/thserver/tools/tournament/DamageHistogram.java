@@ -0,0 +1,73 @@
+package com.mprzypadlo.thserver.tools.tournament;
+
+/**
+ * Rozkład obrażeń zadanych jednym atakiem.
+ *
+ * Każda wartość od 0 do {@link #MAX_TRACKED} ma własny licznik, większe
+ * wartości trafiają do ostatniego. Obrażenia ujemne (atak słabszy niż
+ * obrona) liczone są jako 0. Histogram nie jest bezpieczny wątkowo - każdy
+ * wątek symulatora ma własny, a wyniki są łączone przez {@link #merge}.
+ *
+ * @author mprzypadlo
+ */
+public class DamageHistogram {
+
+    public static final int MAX_TRACKED = 255;
+
+    private final long[] counts = new long[MAX_TRACKED + 2];
+
+    private long count = 0;
+
+    private long sum = 0;
+
+    private int max = 0;
+
+    public void record(int damage) {
+        int value = Math.max(0, damage);
+        counts[Math.min(value, MAX_TRACKED + 1)]++;
+        count++;
+        sum += value;
+        max = Math.max(max, value);
+    }
+
+    public void merge(DamageHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public double mean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    public int max() {
+        return max;
+    }
+
+    /**
+     * @param percentile Wartość od 0 do 100.
+     * @return Najmniejsze obrażenia, których nie przekracza podany procent
+     * ataków.
+     */
+    public int percentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int value = 0; value < counts.length; value++) {
+            seen += counts[value];
+            if (seen >= rank) {
+                return value > MAX_TRACKED ? max : value;
+            }
+        }
+        return max;
+    }
+}
@@ -0,0 +1,85 @@
+package com.mprzypadlo.thserver.tools.tournament;
+
+import com.przypadlo.thserver.domain.Player;
+import com.przypadlo.thserver.model.ai.Move;
+import com.przypadlo.thserver.model.game.Game;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Polityki dostępne w symulatorze turniejów.
+ *
+ * @author mprzypadlo
+ */
+public final class Policies {
+
+    private Policies() {
+    }
+
+    /**
+     * Losowy ruch spośród ruchów, atakowania żyjących przeciwników i użycia
+     * posiadanych przedmiotów.
+     *
+     * @return
+     */
+    public static Policy random() {
+        return (game, playerName, random) -> {
+            List<Move> moves = new ArrayList<>();
+            moves.add(Move.moveRight());
+            moves.add(Move.moveLeft());
+            for (String opponent : opponents(game, playerName)) {
+                moves.add(Move.attack(opponent));
+            }
+            for (Object item : game.player(playerName).items()) {
+                moves.add(Move.useItem((String) item));
+            }
+            return moves.get(random.nextInt(moves.size()));
+        };
+    }
+
+    /**
+     * Atakuje najsłabszego przeciwnika na tym samym okręgu, a gdy takiego
+     * nie ma - porusza się w losowym kierunku.
+     *
+     * @return
+     */
+    public static Policy aggressive() {
+        return (game, playerName, random) -> {
+            Player player = game.player(playerName);
+            String target = null;
+            int targetHp = Integer.MAX_VALUE;
+            for (String opponent : opponents(game, playerName)) {
+                Player other = game.player(opponent);
+                if (other.circle() == player.circle() && other.hp() < targetHp) {
+                    target = opponent;
+                    targetHp = other.hp();
+                }
+            }
+            if (target != null) {
+                return Move.attack(target);
+            }
+            return random.nextBoolean() ? Move.moveRight() : Move.moveLeft();
+        };
+    }
+
+    public static Policy named(String name) {
+        switch (name) {
+            case "random":
+                return random();
+            case "aggressive":
+                return aggressive();
+            default:
+                throw new IllegalArgumentException("Unknown policy: " + name);
+        }
+    }
+
+    private static List<String> opponents(Game game, String playerName) {
+        List<String> opponents = new ArrayList<>();
+        for (String name : game.playerNames()) {
+            if (!name.equals(playerName) && game.player(name).hp() > 0) {
+                opponents.add(name);
+            }
+        }
+        return opponents;
+    }
+}
@@ -0,0 +1,24 @@
+package com.mprzypadlo.thserver.tools.tournament;
+
+import com.przypadlo.thserver.model.ai.Move;
+import com.przypadlo.thserver.model.game.Game;
+import java.util.SplittableRandom;
+
+/**
+ * Sposób gry gracza w symulowanym turnieju.
+ *
+ * @author mprzypadlo
+ */
+@FunctionalInterface
+public interface Policy {
+
+    /**
+     * Wybiera ruch bieżącego gracza. Niedozwolony ruch kończy turę gracza.
+     *
+     * @param game
+     * @param playerName
+     * @param random Generator losowy gry.
+     * @return
+     */
+    public Move choose(Game game, String playerName, SplittableRandom random);
+}
@@ -0,0 +1,334 @@
+package com.mprzypadlo.thserver.tools.tournament;
+
+import com.mprzypadlo.thserver.tools.Options;
+import com.mprzypadlo.thserver.tools.SampleContent;
+import com.przypadlo.thserver.domain.Board;
+import com.przypadlo.thserver.model.ai.Move;
+import com.przypadlo.thserver.model.board.BoardDefinition;
+import com.przypadlo.thserver.model.dice.SplittableDice;
+import com.przypadlo.thserver.model.game.Game;
+import com.przypadlo.thserver.model.item.ItemCatalog;
+import com.przypadlo.thserver.model.player.PlayerClass;
+import com.przypadlo.thserver.model.player.PlayerFactory;
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.LongStream;
+
+/**
+ * Symulator turniejów do strojenia klas postaci, broni i przedmiotów.
+ *
+ * Rozgrywa pełne gry bez serwera - bezpośrednio na {@link Game}, z
+ * prawdziwymi graczami, planszą i kostką. Gra kończy się, gdy przy życiu
+ * pozostaje jeden gracz (zwycięstwo jego klasy) lub po limicie tur (remis).
+ * Gry rozgrywane są równolegle, a każda ma własne ziarno wyznaczone przez
+ * jej numer, więc wynik zależy tylko od parametrów, a nie od liczby wątków.
+ * Kolejność klas przy stole przesuwa się z każdą grą, aby żadna klasa nie
+ * zaczynała zawsze pierwsza.
+ *
+ * Uruchomienie:
+ * <pre>
+ * java com.mprzypadlo.thserver.tools.tournament.TournamentSimulator \
+ *     --games 1000000 --lineup warrior,wizard --policy aggressive \
+ *     --max-turns 200 --threads 8 --seed 42
+ * </pre>
+ *
+ * @author mprzypadlo
+ */
+public class TournamentSimulator {
+
+    private final BoardDefinition board;
+
+    private final Map<String, PlayerClass> playerClasses;
+
+    private final ItemCatalog items;
+
+    private final String[] lineup;
+
+    private final Policy policy;
+
+    private final int maxTurns;
+
+    private final long seed;
+
+    public TournamentSimulator(
+            BoardDefinition board,
+            Map<String, PlayerClass> playerClasses,
+            ItemCatalog items,
+            String[] lineup,
+            Policy policy,
+            int maxTurns,
+            long seed
+    ) {
+        if (lineup.length < 2) {
+            throw new IllegalArgumentException("Game needs at least two players");
+        }
+        for (String playerClass : lineup) {
+            if (!playerClasses.containsKey(playerClass)) {
+                throw new IllegalArgumentException("Unknown player class: " + playerClass);
+            }
+        }
+        this.board = board;
+        this.playerClasses = playerClasses;
+        this.items = items;
+        this.lineup = lineup.clone();
+        this.policy = policy;
+        this.maxTurns = maxTurns;
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = Options.parse(args);
+        SampleContent content = new SampleContent();
+        TournamentSimulator simulator = new TournamentSimulator(
+                content.board(),
+                content.playerClasses(),
+                content.items(),
+                options.getOrDefault("lineup", "warrior,wizard").split(","),
+                Policies.named(options.getOrDefault("policy", "aggressive")),
+                Integer.parseInt(options.getOrDefault("max-turns", "200")),
+                Long.parseLong(options.getOrDefault("seed", "42"))
+        );
+        Report report = simulator.run(
+                Long.parseLong(options.getOrDefault("games", "100000")),
+                Integer.parseInt(options.getOrDefault(
+                        "threads",
+                        String.valueOf(Runtime.getRuntime().availableProcessors())
+                ))
+        );
+        report.print(System.out);
+    }
+
+    /**
+     * @param games Liczba gier.
+     * @param threads Liczba wątków.
+     * @return
+     * @throws InterruptedException
+     */
+    public Report run(long games, int threads) throws InterruptedException {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        try {
+            Tally tally = pool.submit(() -> LongStream.range(0, games)
+                    .parallel()
+                    .collect(Tally::new, this::play, Tally::merge)
+            ).get();
+            return new Report(tally, System.nanoTime() - start);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new IllegalStateException(ex.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Rozgrywa jedną grę i dolicza jej wynik.
+     */
+    void play(Tally tally, long gameNumber) {
+        SplittableRandom random = new SplittableRandom(seed + gameNumber);
+        Board gameBoard = board.newBoard();
+        Game game = new Game(
+                gameBoard,
+                new PlayerFactory(gameBoard, playerClasses, items),
+                new LinkedHashMap<>(),
+                lineup.length,
+                new SplittableDice(SplittableDice.DEFAULT_SIDES, random.nextLong())
+        );
+        Map<String, String> classes = new LinkedHashMap<>();
+        for (int seat = 0; seat < lineup.length; seat++) {
+            String playerClass = lineup[(int) ((seat + gameNumber) % lineup.length)];
+            String name = "seat-" + seat;
+            classes.put(name, playerClass);
+            game.addPlayer(name, playerClass);
+            tally.seated(playerClass);
+        }
+
+        int alive = lineup.length;
+        int turns = 0;
+        while (alive > 1 && turns < maxTurns) {
+            String name = game.currentPlayer();
+            if (game.player(name).hp() <= 0) {
+                Move.endTurn().apply(game, name);
+                continue;
+            }
+            turns++;
+            Move move = policy.choose(game, name, random);
+            int hpBefore = 0;
+            if (move.kind() == Move.Kind.ATTACK) {
+                hpBefore = game.player(move.target()).hp();
+            }
+            try {
+                move.apply(game, name);
+            } catch (RuntimeException e) {
+                Move.endTurn().apply(game, name);
+                continue;
+            }
+            if (move.kind() == Move.Kind.ATTACK) {
+                int hpAfter = game.player(move.target()).hp();
+                tally.damage(classes.get(name), hpBefore - hpAfter);
+                if (hpBefore > 0 && hpAfter <= 0) {
+                    alive--;
+                }
+            }
+        }
+
+        String winner = null;
+        if (alive == 1) {
+            for (Map.Entry<String, String> seat : classes.entrySet()) {
+                if (game.player(seat.getKey()).hp() > 0) {
+                    winner = seat.getValue();
+                }
+            }
+        }
+        tally.finished(winner, turns);
+    }
+
+    /**
+     * Wyniki gier rozegranych przez jeden wątek.
+     */
+    static final class Tally {
+
+        private long games = 0;
+
+        private long draws = 0;
+
+        private long turns = 0;
+
+        private int maxTurns = 0;
+
+        private final Map<String, long[]> seats = new TreeMap<>();
+
+        private final Map<String, DamageHistogram> damage = new TreeMap<>();
+
+        void seated(String playerClass) {
+            seats.computeIfAbsent(playerClass, (key) -> new long[2])[0]++;
+        }
+
+        void damage(String playerClass, int value) {
+            damage.computeIfAbsent(playerClass, (key) -> new DamageHistogram()).record(value);
+        }
+
+        void finished(String winner, int gameTurns) {
+            games++;
+            turns += gameTurns;
+            maxTurns = Math.max(maxTurns, gameTurns);
+            if (winner == null) {
+                draws++;
+            } else {
+                seats.get(winner)[1]++;
+            }
+        }
+
+        void merge(Tally other) {
+            games += other.games;
+            draws += other.draws;
+            turns += other.turns;
+            maxTurns = Math.max(maxTurns, other.maxTurns);
+            for (Map.Entry<String, long[]> entry : other.seats.entrySet()) {
+                long[] counts = seats.computeIfAbsent(entry.getKey(), (key) -> new long[2]);
+                counts[0] += entry.getValue()[0];
+                counts[1] += entry.getValue()[1];
+            }
+            for (Map.Entry<String, DamageHistogram> entry : other.damage.entrySet()) {
+                damage.computeIfAbsent(entry.getKey(), (key) -> new DamageHistogram())
+                        .merge(entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Wynik symulacji.
+     */
+    public static class Report {
+
+        private final Tally tally;
+
+        private final long elapsedNanos;
+
+        Report(Tally tally, long elapsedNanos) {
+            this.tally = tally;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long games() {
+            return tally.games;
+        }
+
+        public long draws() {
+            return tally.draws;
+        }
+
+        public long wins(String playerClass) {
+            long[] counts = tally.seats.get(playerClass);
+            return counts == null ? 0 : counts[1];
+        }
+
+        /**
+         * @param playerClass
+         * @return Udział zwycięstw w grach, w których grała klasa.
+         */
+        public double winRate(String playerClass) {
+            long[] counts = tally.seats.get(playerClass);
+            return counts == null || counts[0] == 0 ? 0 : (double) counts[1] / counts[0];
+        }
+
+        /**
+         * @return Średnia liczba tur gry, licząc tury wszystkich graczy.
+         */
+        public double averageTurns() {
+            return tally.games == 0 ? 0 : (double) tally.turns / tally.games;
+        }
+
+        public int maxTurns() {
+            return tally.maxTurns;
+        }
+
+        /**
+         * @param playerClass
+         * @return Rozkład obrażeń zadanych przez klasę.
+         */
+        public DamageHistogram damage(String playerClass) {
+            DamageHistogram histogram = tally.damage.get(playerClass);
+            return histogram == null ? new DamageHistogram() : histogram;
+        }
+
+        public double gamesPerSecond() {
+            return tally.games * 1e9 / elapsedNanos;
+        }
+
+        public void print(PrintStream out) {
+            out.printf("games:      %d in %.1f s (%.0f/s)%n",
+                    tally.games, elapsedNanos / 1e9, gamesPerSecond());
+            out.printf("draws:      %d (%.2f%%)%n",
+                    tally.draws, tally.games == 0 ? 0 : tally.draws * 100.0 / tally.games);
+            out.printf("turns:      %.1f average, %d max%n", averageTurns(), tally.maxTurns);
+            out.printf("%-16s %10s %10s %10s%n", "class", "games", "wins", "win rate");
+            for (Map.Entry<String, long[]> entry : tally.seats.entrySet()) {
+                out.printf("%-16s %10d %10d %9.2f%%%n",
+                        entry.getKey(),
+                        entry.getValue()[0],
+                        entry.getValue()[1],
+                        winRate(entry.getKey()) * 100);
+            }
+            out.printf("%-16s %10s %10s %10s %10s %10s%n",
+                    "damage", "attacks", "mean", "p50", "p90", "max");
+            for (Map.Entry<String, DamageHistogram> entry : tally.damage.entrySet()) {
+                DamageHistogram damage = entry.getValue();
+                out.printf("%-16s %10d %10.1f %10d %10d %10d%n",
+                        entry.getKey(),
+                        damage.count(),
+                        damage.mean(),
+                        damage.percentile(50),
+                        damage.percentile(90),
+                        damage.max());
+            }
+        }
+    }
+}
@@ -7,6 +7,16 @@ package com.przypadlo.thserver.domain;
  */
 public interface Attack {
     
+    /**
+     * Identyfikator ataku nadany przez katalog broni, lub 0 dla ataków spoza
+     * katalogu.
+     *
+     * @return
+     */
+    public default int id() {
+        return 0;
+    }
+    
     public String name();
     
     public int value();
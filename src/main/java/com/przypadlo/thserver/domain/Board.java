@@ -20,4 +20,14 @@ public interface Board {
     public Integer numberOfCircles();
     
     public Field fieldOfPosition(int circle, int field);
+
+    /**
+     * Zwraca planszę dla kopii gry. Plansza bez własnego stanu może zwrócić
+     * samą siebie.
+     *
+     * @return
+     */
+    public default Board copy() {
+        return this;
+    }
 }
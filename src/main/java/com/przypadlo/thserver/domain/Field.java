@@ -4,6 +4,12 @@ public interface Field {
     
     public Item getItem(String itemName);
     
+    /**
+     * Odkłada na pole przedmiot zabrany przez {@link #getItem(String)},
+     * którego gracz nie mógł przyjąć.
+     */
+    public void returnItem(Item item);
+    
     public void applyAction(Player player);
     
 }
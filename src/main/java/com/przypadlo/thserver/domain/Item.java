@@ -6,17 +6,14 @@
 package com.przypadlo.thserver.domain;
 
 /**
+ * Przedmiot wraz z liczbą posiadanych sztuk.
  *
  * @author marek
  */
-public interface Item {
-    
-    public String name();
+public interface Item extends ItemType {
     
     public void decreaseCount();
     
     public int count();
-
-    public void applyTo(Player player);
     
 }
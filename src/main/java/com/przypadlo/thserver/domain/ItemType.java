@@ -0,0 +1,14 @@
+package com.przypadlo.thserver.domain;
+
+/**
+ * Rodzaj przedmiotu - jego nazwa i działanie, bez liczby sztuk.
+ *
+ * @author mprzypadlo
+ */
+public interface ItemType {
+
+    public String name();
+
+    public void applyTo(Player player);
+
+}
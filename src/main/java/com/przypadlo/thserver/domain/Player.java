@@ -3,6 +3,10 @@ package com.przypadlo.thserver.domain;
 import com.przypadlo.thserver.domain.Board.Directions;
 import com.przypadlo.thserver.model.exception.CannotAttackException;
 import com.przypadlo.thserver.model.exception.IncorrectCircleException;
+import com.przypadlo.thserver.model.exception.ItemUsageException;
+import com.przypadlo.thserver.model.item.Inventory;
+import com.przypadlo.thserver.model.item.ItemCatalog;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Function;
@@ -15,6 +19,18 @@ import java.util.Set;
  */
 public class Player {
 
+    public static final int HP_CHANGED = 1;
+
+    public static final int POSITION_CHANGED = 1 << 1;
+
+    public static final int INVENTORY_CHANGED = 1 << 2;
+
+    public static final int WEAPON_CHANGED = 1 << 3;
+
+    public static final int STATS_CHANGED = 1 << 4;
+
+    public static final int ALL_CHANGED = (1 << 5) - 1;
+
     private int field = 0;
 
     private int circle = 0;
@@ -31,7 +47,11 @@ public class Player {
 
     private Map<String, Function<Attack, Integer>> attackHandlers;
 
-    private Map<String, Item> items;
+    private Function<Attack, Integer>[] attackHandlersById;
+
+    private final Inventory inventory;
+
+    private int changes = 0;
 
     private Weapon equippedWeapon;
     
@@ -40,6 +60,9 @@ public class Player {
     /**
      * Konstruktor
      *
+     * Gracz nie korzysta z katalogu przedmiotów - podniesione przedmioty
+     * przechowywane są w ekwipunku pod swoimi nazwami.
+     *
      * @param board Instancja obiektu planszy po której poruszał będzie się
      * gracz.
      * @param hp Wyjściowa liczba punktów zycia.
@@ -55,6 +78,31 @@ public class Player {
             int attack,
             int mana,
             Weapon initialWeapon
+    ) {
+        this(board, hp, def, attack, mana, initialWeapon, new Inventory(ItemCatalog.EMPTY));
+    }
+
+    /**
+     * Konstruktor
+     *
+     * @param board Instancja obiektu planszy po której poruszał będzie się
+     * gracz.
+     * @param hp Wyjściowa liczba punktów zycia.
+     * @param def Wyjściowa liczba punktów obrony.
+     * @param attack Wyjściowa liczba punktów ataku.
+     * @param mana Wyjściowa liczba punktów many.
+     * @param initialWeapon
+     * @param inventory Ekwipunek gracza, oparty o współdzielony katalog
+     * przedmiotów.
+     */
+    public Player(
+            Board board,
+            int hp,
+            int def,
+            int attack,
+            int mana,
+            Weapon initialWeapon,
+            Inventory inventory
     ) {
         this.hp = hp;
         this.def = def;
@@ -65,11 +113,48 @@ public class Player {
         this.equippedWeapon = initialWeapon;
         this.weaponInventory = new HashMap();
         this.attackHandlers = new HashMap();
-        this.items = new HashMap();
+        this.attackHandlersById = new Function[0];
+        this.inventory = inventory;
+    }
+
+    private Player(Player other) {
+        this.field = other.field;
+        this.circle = other.circle;
+        this.hp = other.hp;
+        this.def = other.def;
+        this.experience = other.experience;
+        this.attackPts = other.attackPts;
+        this.mana = other.mana;
+        this.attackHandlers = new HashMap(other.attackHandlers);
+        this.attackHandlersById = other.attackHandlersById.clone();
+        this.inventory = other.inventory.copy();
+        this.changes = other.changes;
+        this.equippedWeapon = other.equippedWeapon;
+        this.weaponInventory = new HashMap(other.weaponInventory);
+    }
+
+    /**
+     * Tworzy niezależną kopię gracza. Broń, przedmioty i handlery ataków są
+     * współdzielone, ponieważ nie posiadają stanu.
+     *
+     * @return
+     */
+    public Player copy() {
+        return new Player(this);
     }
 
     public Set items() {
-        return items.keySet();
+        return inventory.names();
+    }
+
+    /**
+     * Zwraca liczbę posiadanych sztuk przedmiotu.
+     *
+     * @param itemName
+     * @return
+     */
+    public int itemCount(String itemName) {
+        return inventory.count(itemName);
     }
 
     /**
@@ -81,6 +166,7 @@ public class Player {
      */
     public void moveRight(Board board, int numberOfFields) {
         field = board.calculatePosition(this, Directions.RIGHT, numberOfFields);
+        changes |= POSITION_CHANGED;
     }
 
     /**
@@ -92,6 +178,7 @@ public class Player {
      */
     public void moveLeft(Board board, int numberOfFields) {
         field = board.calculatePosition(this, Directions.LEFT, numberOfFields);
+        changes |= POSITION_CHANGED;
     }
 
     /**
@@ -123,6 +210,7 @@ public class Player {
         }
         circle += 1;
         field = fieldNumber;
+        changes |= POSITION_CHANGED;
     }
 
     /**
@@ -139,17 +227,32 @@ public class Player {
      *
      * Jeżeli gracz posiada zarejestrowany handler dla podanego ataku, to
      * obsługą ataku zajmuje się ten właśnie hanlder. W przeciwnym wypadku
-     * wykonany zostanie domyślny kod ataku.
+     * wykonany zostanie domyślny kod ataku. Handlery zarejestrowane dla
+     * identyfikatora ataku mają pierwszeństwo przed handlerami
+     * zarejestrowanymi dla nazwy.
      *
      * @param attack
      */
     public void handleAttack(Attack attack) {
-
-        if (attackHandlers.containsKey(attack.name())) {
-            hp -= attackHandlers.get(attack.name()).apply(attack);
+        Function<Attack, Integer> handler = attackHandler(attack);
+        if (handler != null) {
+            hp -= handler.apply(attack);
         } else {
             hp -= attack.value() - def;
         }
+        changes |= HP_CHANGED;
+    }
+
+    private Function<Attack, Integer> attackHandler(Attack attack) {
+        int id = attack.id();
+        if (id > 0 && id < attackHandlersById.length
+                && attackHandlersById[id] != null) {
+            return attackHandlersById[id];
+        }
+        if (attackHandlers.isEmpty()) {
+            return null;
+        }
+        return attackHandlers.get(attack.name());
     }
 
     /**
@@ -174,6 +277,26 @@ public class Player {
         attackHandlers.put(name, handler);
     }
 
+    /**
+     * Pozwala zarejestrować handler obsługujący atak o podanym
+     * identyfikatorze z katalogu broni.
+     *
+     * @param attackId
+     * @param handler
+     */
+    public void registerAttackHanlder(
+            int attackId,
+            Function<Attack, Integer> handler
+    ) {
+        if (attackId < 1) {
+            throw new IllegalArgumentException("Incorrect attack id");
+        }
+        if (attackId >= attackHandlersById.length) {
+            attackHandlersById = Arrays.copyOf(attackHandlersById, attackId + 1);
+        }
+        attackHandlersById[attackId] = handler;
+    }
+
     /**
      * Atakuje przeciwnika podanego jako parametr.
      *
@@ -185,7 +308,6 @@ public class Player {
     public void attack(Player attacked) {
         checkAttackPossibility(attacked);
         Attack attack = equippedWeapon.createAttack(this);
-        System.out.println(attack);
         attacked.handleAttack(attack);
     }
 
@@ -210,14 +332,23 @@ public class Player {
     
     public void pickWeapon(Weapon weapon) { 
         weaponInventory.put(weapon.name(), weapon);
+        changes |= WEAPON_CHANGED;
     }
     
     public Set weapons() {
        return weaponInventory.keySet();
     }
 
+    /**
+     * Dodaje do ekwipunku wszystkie sztuki przedmiotu. Sztuki tego samego
+     * przedmiotu są sumowane.
+     *
+     * @param item
+     * @throws ItemUsageException gdy liczba sztuk nie jest dodatnia.
+     */
     public void pickItem(Item item) {
-        items.put(item.name(), item);
+        inventory.add(item);
+        changes |= INVENTORY_CHANGED;
     }
 
     /**
@@ -240,33 +371,61 @@ public class Player {
 
     public void increaseDefence(int defenceIncrease) {
         def += defenceIncrease;
+        changes |= STATS_CHANGED;
     }
 
     public void increaseAttack(int attackIncrease) {
         attackPts += attackIncrease;
+        changes |= STATS_CHANGED;
     }
 
     public void increaseMana(int manaIncrease) {
         mana += manaIncrease;
+        changes |= STATS_CHANGED;
+    }
+
+    /**
+     * Zwraca punkty many gracza.
+     *
+     * @return
+     */
+    public int mana() {
+        return mana;
     }
 
+    /**
+     * Używa jednej sztuki przedmiotu z ekwipunku.
+     *
+     * @param itemName
+     * @throws ItemUsageException gdy gracz nie posiada przedmiotu.
+     */
     public void useItem(String itemName) {
-        Item item = items.get(itemName);
-        item.applyTo(this);
-        item.decreaseCount();
-        
-        if (item.count() == 0) { 
-            items.remove(item.name());
-        }
+        inventory.use(itemName, this);
+        changes |= INVENTORY_CHANGED;
     }
 
     public void equipWeapon(String weaponName) {
         weaponInventory.put(equippedWeapon.name(), equippedWeapon);
         equippedWeapon = weaponInventory.get(weaponName);
         weaponInventory.remove(weaponName);        
+        changes |= WEAPON_CHANGED;
     }
 
     public String equippedWeapon() {
         return equippedWeapon.name();
     }
+
+    /**
+     * Zwraca maskę bitową właściwości gracza zmienionych od ostatniego
+     * wywołania {@link #clearChanges()}.
+     *
+     * @return
+     */
+    public int changes() {
+        return changes;
+    }
+
+    public void clearChanges() {
+        changes = 0;
+    }
 }
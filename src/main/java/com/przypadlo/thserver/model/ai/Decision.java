@@ -0,0 +1,50 @@
+package com.przypadlo.thserver.model.ai;
+
+/**
+ * Wynik {@link LookaheadSearch}.
+ *
+ * @author mprzypadlo
+ */
+public class Decision {
+
+    private final Move move;
+
+    private final double score;
+
+    private final long nodes;
+
+    private final boolean complete;
+
+    public Decision(Move move, double score, long nodes, boolean complete) {
+        this.move = move;
+        this.score = score;
+        this.nodes = nodes;
+        this.complete = complete;
+    }
+
+    public Move move() {
+        return move;
+    }
+
+    /**
+     * @return Średnia ocena wybranego ruchu.
+     */
+    public double score() {
+        return score;
+    }
+
+    /**
+     * @return Liczba rozważonych ruchów, we wszystkich turach.
+     */
+    public long nodes() {
+        return nodes;
+    }
+
+    /**
+     * @return False, gdy część gałęzi nie została rozwinięta z powodu braku
+     * czasu.
+     */
+    public boolean complete() {
+        return complete;
+    }
+}
@@ -0,0 +1,38 @@
+package com.przypadlo.thserver.model.ai;
+
+import com.przypadlo.thserver.domain.Player;
+import com.przypadlo.thserver.model.game.Game;
+
+/**
+ * Ocena stanu gry z punktu widzenia gracza - im wyższa, tym lepiej dla
+ * gracza.
+ *
+ * @author mprzypadlo
+ */
+@FunctionalInterface
+public interface Evaluator {
+
+    public double evaluate(Game game, String playerName);
+
+    /**
+     * Ocena oparta o punkty życia i statystyki gracza, pomniejszona o punkty
+     * życia przeciwników.
+     *
+     * @return
+     */
+    public static Evaluator material() {
+        return (game, playerName) -> {
+            double score = 0;
+            for (String name : game.playerNames()) {
+                Player player = game.player(name);
+                if (name.equals(playerName)) {
+                    score += 4 * player.hp() + player.def() + player.attackPoints()
+                            + player.mana() + player.experience();
+                } else {
+                    score -= 4 * player.hp();
+                }
+            }
+            return score;
+        };
+    }
+}
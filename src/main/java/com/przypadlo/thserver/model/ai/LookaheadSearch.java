@@ -0,0 +1,280 @@
+package com.przypadlo.thserver.model.ai;
+
+import com.przypadlo.thserver.domain.Dice;
+import com.przypadlo.thserver.domain.Player;
+import com.przypadlo.thserver.model.dice.SplittableDice;
+import com.przypadlo.thserver.model.game.Game;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+
+/**
+ * Wybiera ruch gracza symulując kolejne tury na rozgałęzieniach gry (zob.
+ * {@link Game#fork(Dice)}).
+ *
+ * Każdy ruch gracza oceniany jest na kilku próbkach rzutów kostką. Próbka
+ * ma własne ziarno, wspólne dla wszystkich porównywanych ruchów, więc ruchy
+ * porównywane są przy tych samych rzutach, a wynik wyszukiwania jest
+ * powtarzalny. W kolejnych turach gracz wybiera ruch najlepszy dla siebie,
+ * a przeciwnicy - najgorszy dla gracza. Gałęzie oceniane są równolegle w
+ * {@link ForkJoinPool}. Po upływie czasu na decyzję gałęzie nie są dalej
+ * rozwijane, lecz od razu oceniane.
+ *
+ * @author mprzypadlo
+ */
+public class LookaheadSearch {
+
+    public static final int DEFAULT_DEPTH = 3;
+
+    public static final int DEFAULT_SAMPLES = 4;
+
+    private final ForkJoinPool pool;
+
+    private final Evaluator evaluator;
+
+    private final int depth;
+
+    private final int samples;
+
+    private final long seed;
+
+    private final LongFunction<Dice> dice;
+
+    public LookaheadSearch(ForkJoinPool pool, long seed) {
+        this(pool, Evaluator.material(), DEFAULT_DEPTH, DEFAULT_SAMPLES, seed);
+    }
+
+    public LookaheadSearch(ForkJoinPool pool, Evaluator evaluator, int depth, int samples, long seed) {
+        this(
+                pool,
+                evaluator,
+                depth,
+                samples,
+                seed,
+                (diceSeed) -> new SplittableDice(SplittableDice.DEFAULT_SIDES, diceSeed)
+        );
+    }
+
+    /**
+     * @param pool
+     * @param evaluator
+     * @param depth Liczba symulowanych tur, wliczając turę gracza.
+     * @param samples Liczba próbek rzutów kostką dla każdego ruchu gracza.
+     * @param seed
+     * @param dice Tworzy kostkę rozgałęzienia z podanego ziarna.
+     */
+    public LookaheadSearch(
+            ForkJoinPool pool,
+            Evaluator evaluator,
+            int depth,
+            int samples,
+            long seed,
+            LongFunction<Dice> dice
+    ) {
+        if (depth < 1 || samples < 1) {
+            throw new IllegalArgumentException("Depth and samples must be positive");
+        }
+        this.pool = pool;
+        this.evaluator = evaluator;
+        this.depth = depth;
+        this.samples = samples;
+        this.seed = seed;
+        this.dice = dice;
+    }
+
+    /**
+     * Wybiera ruch bieżącego gracza.
+     *
+     * Rozgałęzia grę, więc musi być wywoływana przez wątek, który grę
+     * zmienia.
+     *
+     * @param game
+     * @param playerName
+     * @param budgetMillis Czas na decyzję.
+     * @return
+     * @throws IllegalArgumentException Gdy gracz nie jest bieżącym graczem.
+     */
+    public Decision decide(Game game, String playerName, long budgetMillis) {
+        if (!playerName.equals(game.currentPlayer())) {
+            throw new IllegalArgumentException("Given Player is not current");
+        }
+        Search search = new Search(
+                playerName,
+                System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis)
+        );
+        List<Move> moves = moves(game, playerName);
+        List<Branch> branches = new ArrayList<>(moves.size() * samples);
+        for (Move move : moves) {
+            for (int sample = 0; sample < samples; sample++) {
+                long sampleSeed = mix(seed + sample);
+                branches.add(new Branch(
+                        search,
+                        game.fork(dice.apply(sampleSeed)),
+                        move,
+                        playerName,
+                        depth - 1,
+                        sampleSeed
+                ));
+            }
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(branches);
+            }
+        });
+
+        Move best = Move.endTurn();
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < moves.size(); i++) {
+            double score = average(branches.subList(i * samples, (i + 1) * samples));
+            if (score > bestScore) {
+                best = moves.get(i);
+                bestScore = score;
+            }
+        }
+        return new Decision(best, bestScore, search.nodes.sum(), search.cutOff.sum() == 0);
+    }
+
+    private static double average(List<Branch> branches) {
+        double sum = 0;
+        int legal = 0;
+        for (Branch branch : branches) {
+            double score = branch.join();
+            if (!Double.isNaN(score)) {
+                sum += score;
+                legal++;
+            }
+        }
+        return legal == 0 ? Double.NEGATIVE_INFINITY : sum / legal;
+    }
+
+    /**
+     * Ruchy do rozważenia. Niedozwolone ruchy (np. atak poza zasięgiem)
+     * odrzucane są dopiero przy próbie wykonania.
+     */
+    private static List<Move> moves(Game game, String playerName) {
+        List<Move> moves = new ArrayList<>();
+        moves.add(Move.moveRight());
+        moves.add(Move.moveLeft());
+        for (String name : game.playerNames()) {
+            if (!name.equals(playerName)) {
+                moves.add(Move.attack(name));
+            }
+        }
+        Player player = game.player(playerName);
+        if (player != null) {
+            for (Object item : player.items()) {
+                moves.add(Move.useItem((String) item));
+            }
+        }
+        moves.add(Move.endTurn());
+        return moves;
+    }
+
+    private static long mix(long value) {
+        return new SplittableRandom(value).nextLong();
+    }
+
+    /**
+     * Stan jednego wyszukiwania, wspólny dla wszystkich gałęzi.
+     */
+    private final class Search {
+
+        private final String playerName;
+
+        private final long deadline;
+
+        private final LongAdder nodes = new LongAdder();
+
+        private final LongAdder cutOff = new LongAdder();
+
+        Search(String playerName, long deadline) {
+            this.playerName = playerName;
+            this.deadline = deadline;
+        }
+
+        double evaluate(Game game) {
+            return evaluator.evaluate(game, playerName);
+        }
+    }
+
+    /**
+     * Ocena ruchu wykonanego na rozgałęzieniu gry. NaN oznacza ruch
+     * niedozwolony.
+     */
+    private final class Branch extends RecursiveTask<Double> {
+
+        private final Search search;
+
+        private final Game game;
+
+        private final Move move;
+
+        private final String mover;
+
+        private final int remaining;
+
+        private final long branchSeed;
+
+        Branch(Search search, Game game, Move move, String mover, int remaining, long branchSeed) {
+            this.search = search;
+            this.game = game;
+            this.move = move;
+            this.mover = mover;
+            this.remaining = remaining;
+            this.branchSeed = branchSeed;
+        }
+
+        @Override
+        protected Double compute() {
+            search.nodes.increment();
+            try {
+                move.apply(game, mover);
+            } catch (RuntimeException e) {
+                return Double.NaN;
+            }
+            if (remaining == 0) {
+                return search.evaluate(game);
+            }
+            if (System.nanoTime() - search.deadline > 0) {
+                search.cutOff.increment();
+                return search.evaluate(game);
+            }
+
+            String next = game.currentPlayer();
+            long childSeed = mix(branchSeed);
+            List<Branch> children = new ArrayList<>();
+            for (Move child : moves(game, next)) {
+                children.add(new Branch(
+                        search,
+                        game.fork(dice.apply(childSeed)),
+                        child,
+                        next,
+                        remaining - 1,
+                        childSeed
+                ));
+            }
+            invokeAll(children);
+
+            boolean maximize = next.equals(search.playerName);
+            double best = Double.NaN;
+            for (Branch child : children) {
+                double score = child.join();
+                if (Double.isNaN(score)) {
+                    continue;
+                }
+                if (Double.isNaN(best) || (maximize ? score > best : score < best)) {
+                    best = score;
+                }
+            }
+            return Double.isNaN(best) ? search.evaluate(game) : best;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.przypadlo.thserver.model.ai;
+
+import com.przypadlo.thserver.model.game.Game;
+
+/**
+ * Ruch rozważany przez {@link LookaheadSearch} - jedna operacja gracza,
+ * po której gracz kończy turę.
+ *
+ * @author mprzypadlo
+ */
+public final class Move {
+
+    public static final String END_TURN_ACTION = "end-turn";
+
+    public enum Kind {
+        MOVE_RIGHT,
+        MOVE_LEFT,
+        ATTACK,
+        USE_ITEM,
+        END_TURN
+    }
+
+    private static final Move MOVE_RIGHT = new Move(Kind.MOVE_RIGHT, null);
+
+    private static final Move MOVE_LEFT = new Move(Kind.MOVE_LEFT, null);
+
+    private static final Move END_TURN = new Move(Kind.END_TURN, null);
+
+    private final Kind kind;
+
+    private final String target;
+
+    private Move(Kind kind, String target) {
+        this.kind = kind;
+        this.target = target;
+    }
+
+    public static Move moveRight() {
+        return MOVE_RIGHT;
+    }
+
+    public static Move moveLeft() {
+        return MOVE_LEFT;
+    }
+
+    public static Move attack(String attackedName) {
+        return new Move(Kind.ATTACK, attackedName);
+    }
+
+    public static Move useItem(String itemName) {
+        return new Move(Kind.USE_ITEM, itemName);
+    }
+
+    public static Move endTurn() {
+        return END_TURN;
+    }
+
+    public Kind kind() {
+        return kind;
+    }
+
+    /**
+     * @return Atakowany gracz, używany przedmiot lub null.
+     */
+    public String target() {
+        return target;
+    }
+
+    /**
+     * Wykonuje ruch i kończy turę gracza.
+     *
+     * @param game
+     * @param playerName
+     * @throws RuntimeException Gdy ruch jest niedozwolony.
+     */
+    public void apply(Game game, String playerName) {
+        switch (kind) {
+            case MOVE_RIGHT:
+                game.movePlayerRight(playerName);
+                break;
+            case MOVE_LEFT:
+                game.movePlayerLeft(playerName);
+                break;
+            case ATTACK:
+                game.attack(playerName, target);
+                break;
+            case USE_ITEM:
+                game.useItem(playerName, target);
+                break;
+            default:
+                break;
+        }
+        game.action(playerName, END_TURN_ACTION);
+    }
+
+    @Override
+    public String toString() {
+        return target == null ? kind.name() : kind.name() + " " + target;
+    }
+}
@@ -0,0 +1,145 @@
+package com.przypadlo.thserver.model.board;
+
+import com.przypadlo.thserver.model.item.ItemCatalog;
+import java.util.Arrays;
+
+/**
+ * Niezmienna definicja planszy, współdzielona przez wszystkie gry.
+ *
+ * Plansza składa się z okręgów, a każdy okrąg z określonej liczby pól.
+ * Stan zmieniający się w trakcie gry przechowuje {@link GameBoard}.
+ *
+ * @author mprzypadlo
+ */
+public final class BoardDefinition {
+
+    private final FieldDefinition[][] fields;
+
+    private final int[] offsets;
+
+    private final int startingCircle;
+
+    private final int startingField;
+
+    private BoardDefinition(Builder builder) {
+        this.fields = new FieldDefinition[builder.fields.length][];
+        this.offsets = new int[builder.fields.length];
+        int offset = 0;
+        for (int circle = 0; circle < fields.length; circle++) {
+            fields[circle] = builder.fields[circle].clone();
+            offsets[circle] = offset;
+            offset += fields[circle].length;
+        }
+        this.startingCircle = builder.startingCircle;
+        this.startingField = builder.startingField;
+    }
+
+    /**
+     * Rozpoczyna budowanie planszy o podanej liczbie pól na kolejnych
+     * okręgach. Wszystkie pola są początkowo puste.
+     *
+     * @param catalog
+     * @param fieldsOnCircles
+     * @return
+     */
+    public static Builder builder(ItemCatalog catalog, int... fieldsOnCircles) {
+        return new Builder(catalog, fieldsOnCircles);
+    }
+
+    public GameBoard newBoard() {
+        return new GameBoard(this);
+    }
+
+    public int numberOfCircles() {
+        return fields.length;
+    }
+
+    public int numberOfFields(int circle) {
+        return fields[checkCircle(circle)].length;
+    }
+
+    public FieldDefinition field(int circle, int field) {
+        checkField(circle, field);
+        return fields[circle][field];
+    }
+
+    public int startingCircle() {
+        return startingCircle;
+    }
+
+    public int startingField() {
+        return startingField;
+    }
+
+    /**
+     * Zwraca numer pola unikalny w obrębie całej planszy.
+     *
+     * @param circle
+     * @param field
+     * @return
+     */
+    int index(int circle, int field) {
+        checkField(circle, field);
+        return offsets[circle] + field;
+    }
+
+    private int checkCircle(int circle) {
+        if (circle < 0 || circle >= fields.length) {
+            throw new IllegalArgumentException("Incorrect circle: " + circle);
+        }
+        return circle;
+    }
+
+    private void checkField(int circle, int field) {
+        if (field < 0 || field >= fields[checkCircle(circle)].length) {
+            throw new IllegalArgumentException("Incorrect field: " + field);
+        }
+    }
+
+    public static class Builder {
+
+        private final FieldDefinition[][] fields;
+
+        private int startingCircle = 0;
+
+        private int startingField = 0;
+
+        private Builder(ItemCatalog catalog, int[] fieldsOnCircles) {
+            if (fieldsOnCircles.length == 0) {
+                throw new IllegalArgumentException("Board needs at least one circle");
+            }
+            FieldDefinition empty = new FieldDefinition(catalog);
+            fields = new FieldDefinition[fieldsOnCircles.length][];
+            for (int circle = 0; circle < fields.length; circle++) {
+                throwExceptionIfIncorrectNumberOfFields(fieldsOnCircles[circle]);
+                fields[circle] = new FieldDefinition[fieldsOnCircles[circle]];
+                Arrays.fill(fields[circle], empty);
+            }
+        }
+
+        public Builder field(int circle, int field, FieldDefinition definition) {
+            fields[circle][field] = definition;
+            return this;
+        }
+
+        public Builder startingPosition(int circle, int field) {
+            if (circle < 0 || circle >= fields.length
+                    || field < 0 || field >= fields[circle].length) {
+                throw new IllegalArgumentException("Incorrect starting position");
+            }
+            this.startingCircle = circle;
+            this.startingField = field;
+            return this;
+        }
+
+        public BoardDefinition build() {
+            return new BoardDefinition(this);
+        }
+
+        private void throwExceptionIfIncorrectNumberOfFields(int numberOfFields) {
+            if (numberOfFields < 1) {
+                throw new IllegalArgumentException("Circle needs at least one field");
+            }
+        }
+    }
+}
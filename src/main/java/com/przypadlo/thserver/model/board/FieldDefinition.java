@@ -0,0 +1,137 @@
+package com.przypadlo.thserver.model.board;
+
+import com.przypadlo.thserver.domain.Player;
+import com.przypadlo.thserver.model.item.ItemCatalog;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Niezmienna definicja pola planszy.
+ *
+ * Definicja może być współdzielona przez dowolną liczbę gier - stan
+ * przedmiotów leżących na polu przechowuje {@link StockedField} tworzone
+ * osobno dla każdej gry.
+ *
+ * @author mprzypadlo
+ */
+public final class FieldDefinition {
+
+    private static final Consumer<Player> NO_ACTION = (player) -> {
+    };
+
+    private final ItemCatalog catalog;
+
+    private final int[] itemIds;
+
+    private final int[] initialCounts;
+
+    private final Consumer<Player> action;
+
+    private final StockedField sharedField;
+
+    public FieldDefinition(ItemCatalog catalog) {
+        this(catalog, Collections.emptyMap(), NO_ACTION);
+    }
+
+    public FieldDefinition(
+            ItemCatalog catalog,
+            Map<String, Integer> stock,
+            Consumer<Player> action
+    ) {
+        this.catalog = catalog;
+        this.action = action;
+        this.itemIds = sortedIds(catalog, stock);
+        this.initialCounts = new int[itemIds.length];
+        for (int i = 0; i < itemIds.length; i++) {
+            initialCounts[i] = stock.get(catalog.item(itemIds[i]).name());
+        }
+        this.sharedField = hasItems() ? null : new StockedField(this);
+    }
+
+    /**
+     * Tworzy pole z własną kopią stanu przedmiotów.
+     *
+     * @return
+     */
+    public StockedField newField() {
+        return new StockedField(this);
+    }
+
+    public boolean hasItems() {
+        return itemIds.length > 0;
+    }
+
+    /**
+     * Zwraca pole współdzielone przez wszystkie gry. Dostępne tylko dla pól
+     * bez przedmiotów, których stan nie zmienia się w trakcie gry.
+     *
+     * @return
+     * @throws IllegalStateException gdy na polu leżą przedmioty.
+     */
+    public StockedField sharedField() {
+        if (sharedField == null) {
+            throw new IllegalStateException("Field with items cannot be shared");
+        }
+        return sharedField;
+    }
+
+    /**
+     * Zwraca liczbę sztuk przedmiotu leżących na polu na początku gry.
+     *
+     * @param itemName
+     * @return
+     */
+    public int initialCount(String itemName) {
+        int slot = slotOf(catalog.id(itemName));
+        return slot < 0 ? 0 : initialCounts[slot];
+    }
+
+    ItemCatalog catalog() {
+        return catalog;
+    }
+
+    Consumer<Player> action() {
+        return action;
+    }
+
+    int[] initialCounts() {
+        return initialCounts;
+    }
+
+    /**
+     * Zwraca pozycję przedmiotu w tablicy stanu lub -1, gdy przedmiot nie
+     * występuje na polu.
+     *
+     * @param itemId
+     * @return
+     */
+    int slotOf(int itemId) {
+        return itemId < 0 ? -1 : Math.max(-1, Arrays.binarySearch(itemIds, itemId));
+    }
+
+    private static int[] sortedIds(ItemCatalog catalog, Map<String, Integer> stock) {
+        int[] ids = new int[stock.size()];
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : stock.entrySet()) {
+            throwExceptionIfIncorrectCount(entry.getKey(), entry.getValue());
+            ids[i++] = catalog.id(entry.getKey());
+            throwExceptionIfUnknownItem(entry.getKey(), ids[i - 1]);
+        }
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    private static void throwExceptionIfUnknownItem(String itemName, int id) {
+        if (id == ItemCatalog.UNKNOWN) {
+            throw new IllegalArgumentException("Unknown item: " + itemName);
+        }
+    }
+
+    private static void throwExceptionIfIncorrectCount(String itemName, Integer count) {
+        if (count == null || count < 0) {
+            throw new IllegalArgumentException("Incorrect stock of " + itemName);
+        }
+    }
+}
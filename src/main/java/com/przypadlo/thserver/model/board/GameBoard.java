@@ -0,0 +1,163 @@
+package com.przypadlo.thserver.model.board;
+
+import com.przypadlo.thserver.domain.Board;
+import com.przypadlo.thserver.domain.Field;
+import com.przypadlo.thserver.domain.Item;
+import com.przypadlo.thserver.domain.Player;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Plansza jednej gry.
+ *
+ * Układ planszy pochodzi ze współdzielonej {@link BoardDefinition}. Pola bez
+ * przedmiotów są współdzielone przez wszystkie gry. Pole z przedmiotami
+ * czytane jest z definicji, a własny stan przedmiotów tworzony jest dopiero
+ * przy pierwszym zabraniu przedmiotu z pola.
+ *
+ * Działanie pola nie zmienia się w trakcie gry, więc zawsze pochodzi z
+ * definicji i nie wymaga stanu gry.
+ *
+ * @author mprzypadlo
+ */
+public class GameBoard implements Board {
+
+    private final BoardDefinition definition;
+
+    private final Map<Integer, StockedField> overlays;
+
+    GameBoard(BoardDefinition definition) {
+        this.definition = definition;
+        this.overlays = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Kopiuje planszę wraz ze stanem pól z przedmiotami.
+     *
+     * @return
+     */
+    @Override
+    public GameBoard copy() {
+        GameBoard copy = new GameBoard(definition);
+        for (Map.Entry<Integer, StockedField> entry : overlays.entrySet()) {
+            copy.overlays.put(entry.getKey(), entry.getValue().copy());
+        }
+        return copy;
+    }
+
+    /**
+     * Wylicza pole, na którym znajdzie się gracz po ruchu. Okręgi są
+     * zamknięte - ruch poza ostatnie pole prowadzi na początek okręgu.
+     *
+     * @param player
+     * @param direction
+     * @param fieldNumber Liczba pól, o którą przesuwa się gracz.
+     * @return
+     */
+    @Override
+    public Integer calculatePosition(
+            Player player,
+            Directions direction,
+            Integer fieldNumber
+    ) {
+        int fields = definition.numberOfFields(player.circle());
+        int step = direction == Directions.RIGHT ? fieldNumber : -fieldNumber;
+        return Math.floorMod(player.field() + step, fields);
+    }
+
+    @Override
+    public Integer startingCircle() {
+        return definition.startingCircle();
+    }
+
+    @Override
+    public Integer startingField() {
+        return definition.startingField();
+    }
+
+    @Override
+    public Integer numberOfCircles() {
+        return definition.numberOfCircles();
+    }
+
+    @Override
+    public Field fieldOfPosition(int circle, int field) {
+        FieldDefinition fieldDefinition = definition.field(circle, field);
+        if (!fieldDefinition.hasItems()) {
+            return fieldDefinition.sharedField();
+        }
+        int index = definition.index(circle, field);
+        StockedField overlay = overlays.get(index);
+        return overlay != null ? overlay : new UntouchedField(index, fieldDefinition);
+    }
+
+    /**
+     * Zwraca liczbę sztuk przedmiotu pozostałych na polu.
+     *
+     * @param circle
+     * @param field
+     * @param itemName
+     * @return
+     */
+    public int remaining(int circle, int field, String itemName) {
+        StockedField overlay = overlays.get(definition.index(circle, field));
+        return overlay != null
+                ? overlay.remaining(itemName)
+                : definition.field(circle, field).initialCount(itemName);
+    }
+
+    public BoardDefinition definition() {
+        return definition;
+    }
+
+    /**
+     * Zwraca liczbę pól, dla których gra utworzyła własny stan.
+     *
+     * @return
+     */
+    public int numberOfOverlays() {
+        return overlays.size();
+    }
+
+    private StockedField overlay(int index, FieldDefinition fieldDefinition) {
+        StockedField overlay = overlays.get(index);
+        if (overlay == null) {
+            overlay = overlays.computeIfAbsent(
+                    index,
+                    (key) -> fieldDefinition.newField()
+            );
+        }
+        return overlay;
+    }
+
+    /**
+     * Pole z przedmiotami, z którego gra jeszcze niczego nie zabrała.
+     * Własny stan pola tworzony jest przy pierwszej zmianie.
+     */
+    private final class UntouchedField implements Field {
+
+        private final int index;
+
+        private final FieldDefinition fieldDefinition;
+
+        UntouchedField(int index, FieldDefinition fieldDefinition) {
+            this.index = index;
+            this.fieldDefinition = fieldDefinition;
+        }
+
+        @Override
+        public Item getItem(String itemName) {
+            return overlay(index, fieldDefinition).getItem(itemName);
+        }
+
+        @Override
+        public void returnItem(Item item) {
+            overlay(index, fieldDefinition).returnItem(item);
+        }
+
+        @Override
+        public void applyAction(Player player) {
+            fieldDefinition.action().accept(player);
+        }
+    }
+}
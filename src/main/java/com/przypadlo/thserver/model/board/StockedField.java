@@ -0,0 +1,103 @@
+package com.przypadlo.thserver.model.board;
+
+import com.przypadlo.thserver.domain.Field;
+import com.przypadlo.thserver.domain.Item;
+import com.przypadlo.thserver.domain.Player;
+import com.przypadlo.thserver.model.exception.ItemUsageException;
+import com.przypadlo.thserver.model.item.ItemStack;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Pole planszy należące do jednej gry.
+ *
+ * Przechowuje liczbę sztuk przedmiotów leżących na polu. Zabranie przedmiotu
+ * jest atomowe, więc ta sama sztuka nie zostanie wydana dwóm graczom.
+ *
+ * @author mprzypadlo
+ */
+public class StockedField implements Field {
+
+    private final FieldDefinition definition;
+
+    private final AtomicIntegerArray stock;
+
+    StockedField(FieldDefinition definition) {
+        this(definition, definition.initialCounts());
+    }
+
+    private StockedField(FieldDefinition definition, int[] stock) {
+        this.definition = definition;
+        this.stock = new AtomicIntegerArray(stock);
+    }
+
+    StockedField copy() {
+        int[] counts = new int[stock.length()];
+        for (int slot = 0; slot < counts.length; slot++) {
+            counts[slot] = stock.get(slot);
+        }
+        return new StockedField(definition, counts);
+    }
+
+    /**
+     * Zabiera z pola jedną sztukę przedmiotu.
+     *
+     * @param itemName
+     * @return Jedna sztuka przedmiotu.
+     * @throws ItemUsageException gdy przedmiotu nie ma na polu.
+     */
+    @Override
+    public Item getItem(String itemName) {
+        int itemId = definition.catalog().id(itemName);
+        int slot = definition.slotOf(itemId);
+        if (slot < 0 || !take(slot)) {
+            throw new ItemUsageException("Item not available: " + itemName);
+        }
+        return new ItemStack(definition.catalog().item(itemId), 1);
+    }
+
+    /**
+     * Odkłada na pole sztuki zabranego przedmiotu.
+     *
+     * @param item
+     * @throws ItemUsageException gdy przedmiot nie występuje na polu.
+     */
+    @Override
+    public void returnItem(Item item) {
+        int slot = definition.slotOf(definition.catalog().id(item.name()));
+        if (slot < 0) {
+            throw new ItemUsageException("Item does not belong to field: " + item.name());
+        }
+        stock.addAndGet(slot, item.count());
+    }
+
+    @Override
+    public void applyAction(Player player) {
+        definition.action().accept(player);
+    }
+
+    /**
+     * Zwraca liczbę sztuk przedmiotu pozostałych na polu.
+     *
+     * @param itemName
+     * @return
+     */
+    public int remaining(String itemName) {
+        int slot = definition.slotOf(definition.catalog().id(itemName));
+        return slot < 0 ? 0 : stock.get(slot);
+    }
+
+    public FieldDefinition definition() {
+        return definition;
+    }
+
+    private boolean take(int slot) {
+        int count;
+        do {
+            count = stock.get(slot);
+            if (count == 0) {
+                return false;
+            }
+        } while (!stock.compareAndSet(slot, count, count - 1));
+        return true;
+    }
+}
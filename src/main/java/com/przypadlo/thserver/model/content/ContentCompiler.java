@@ -0,0 +1,348 @@
+package com.przypadlo.thserver.model.content;
+
+import com.przypadlo.thserver.model.item.ItemEffect;
+import com.przypadlo.thserver.model.player.PlayerClassLoader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/**
+ * Kompiluje definicje zawartości do binarnej paczki (zob.
+ * {@link ContentPack}).
+ *
+ * Oczekiwany format:
+ * <pre>
+ * attacks=slash,fireball
+ * attack.slash.value=12
+ * attack.slash.experience=2
+ * weapons=sword
+ * weapon.sword.range=1
+ * weapon.sword.attack=slash
+ * items=mana-potion
+ * item.mana-potion.effect=mana
+ * item.mana-potion.amount=5
+ * player-classes=warrior
+ * warrior.hp=120
+ * warrior.def=4
+ * warrior.attack=12
+ * warrior.mana=0
+ * warrior.weapon=sword
+ * board.circles=12,10,8
+ * board.start=0,0
+ * board.field.0.3=mana-potion:2
+ * board.action.1.5=defence:1
+ * </pre>
+ *
+ * Klasy postaci zapisuje się tak samo jak dla {@link PlayerClassLoader}.
+ * Akcja pola ma te same działania co przedmioty i wykonywana jest, gdy
+ * gracz zatrzyma się na polu.
+ * Wszystkie odwołania (atak broni, broń klasy, przedmioty na polach) są
+ * sprawdzane przy kompilacji, więc serwer nie musi ich sprawdzać przy
+ * starcie.
+ *
+ * Uruchomienie:
+ * <pre>
+ * java com.przypadlo.thserver.model.content.ContentCompiler content.properties content.pack
+ * </pre>
+ *
+ * @author mprzypadlo
+ */
+public class ContentCompiler {
+
+    public static final String ATTACKS_KEY = "attacks";
+
+    public static final String WEAPONS_KEY = "weapons";
+
+    public static final String ITEMS_KEY = "items";
+
+    public static final String CIRCLES_KEY = "board.circles";
+
+    public static final String START_KEY = "board.start";
+
+    public static final String FIELD_PREFIX = "board.field.";
+
+    public static final String ACTION_PREFIX = "board.action.";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Expected: <content.properties> <content.pack>");
+        }
+        Properties config = new Properties();
+        try (InputStream input = Files.newInputStream(Paths.get(args[0]))) {
+            config.load(input);
+        }
+        new ContentCompiler().compile(config, Paths.get(args[1]));
+    }
+
+    /**
+     * Kompiluje zawartość i zapisuje paczkę do pliku. Plik podmieniany jest
+     * w całości, więc serwer nigdy nie odczyta częściowego zapisu.
+     *
+     * @param config
+     * @param file
+     * @throws IOException
+     */
+    public void compile(Properties config, Path file) throws IOException {
+        Path absolute = file.toAbsolutePath();
+        Path temporary = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        Files.write(temporary, compile(config));
+        Files.move(
+                temporary,
+                absolute,
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE
+        );
+    }
+
+    /**
+     * @param config
+     * @return Zawartość paczki.
+     * @throws IllegalArgumentException Gdy definicje są niepełne lub
+     * niespójne.
+     */
+    public byte[] compile(Properties config) {
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        List<String> attacks = names(config, ATTACKS_KEY);
+        List<String> weapons = names(config, WEAPONS_KEY);
+        List<String> items = names(config, ITEMS_KEY);
+        List<String> classes = names(config, PlayerClassLoader.CLASSES_KEY);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        int[] sections = new int[ContentFormat.SECTIONS];
+        try {
+            out.write(new byte[ContentFormat.HEADER_SIZE]);
+            ByteArrayOutputStream records = new ByteArrayOutputStream();
+            DataOutputStream body = new DataOutputStream(records);
+            int[] bodySections = new int[ContentFormat.SECTIONS];
+
+            bodySections[ContentFormat.ATTACKS] = body.size();
+            body.writeInt(attacks.size());
+            for (String attack : attacks) {
+                body.writeInt(intern(strings, attack));
+                body.writeInt(requiredInt(config, "attack." + attack + ".value"));
+                body.writeInt(requiredInt(config, "attack." + attack + ".experience"));
+            }
+
+            bodySections[ContentFormat.WEAPONS] = body.size();
+            body.writeInt(weapons.size());
+            for (String weapon : weapons) {
+                body.writeInt(intern(strings, weapon));
+                body.writeInt(requiredInt(config, "weapon." + weapon + ".range"));
+                body.writeInt(indexOf(attacks, required(config, "weapon." + weapon + ".attack"), "attack"));
+            }
+
+            bodySections[ContentFormat.ITEMS] = body.size();
+            body.writeInt(items.size());
+            for (String item : items) {
+                body.writeInt(intern(strings, item));
+                body.writeInt(effect(required(config, "item." + item + ".effect")).ordinal());
+                body.writeInt(requiredInt(config, "item." + item + ".amount"));
+            }
+
+            bodySections[ContentFormat.CLASSES] = body.size();
+            body.writeInt(classes.size());
+            for (String playerClass : classes) {
+                body.writeInt(intern(strings, playerClass));
+                body.writeInt(requiredInt(config, playerClass + ".hp"));
+                body.writeInt(requiredInt(config, playerClass + ".def"));
+                body.writeInt(requiredInt(config, playerClass + ".attack"));
+                body.writeInt(requiredInt(config, playerClass + ".mana"));
+                body.writeInt(indexOf(weapons, required(config, playerClass + ".weapon"), "weapon"));
+            }
+
+            bodySections[ContentFormat.BOARD] = body.size();
+            writeBoard(config, items, body);
+
+            sections[ContentFormat.STRINGS] = out.size();
+            writeStrings(strings, out);
+            int bodyStart = out.size();
+            records.writeTo(out);
+            for (int section = ContentFormat.ATTACKS; section < ContentFormat.SECTIONS; section++) {
+                sections[section] = bodyStart + bodySections[section];
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        byte[] pack = bytes.toByteArray();
+        ByteBuffer header = ByteBuffer.wrap(pack);
+        header.putInt(ContentFormat.MAGIC);
+        header.putInt(ContentFormat.VERSION);
+        for (int offset : sections) {
+            header.putInt(offset);
+        }
+        return pack;
+    }
+
+    private void writeBoard(Properties config, List<String> items, DataOutputStream body) throws IOException {
+        int[] circles = ints(required(config, CIRCLES_KEY), CIRCLES_KEY);
+        body.writeInt(circles.length);
+        for (int fields : circles) {
+            if (fields < 1) {
+                throw new IllegalArgumentException("Circle needs at least one field");
+            }
+            body.writeInt(fields);
+        }
+        int[] start = ints(config.getProperty(START_KEY, "0,0"), START_KEY);
+        if (start.length != 2) {
+            throw new IllegalArgumentException("Expected circle,field: " + START_KEY);
+        }
+        checkPosition(circles, start[0], start[1], START_KEY);
+        body.writeInt(start[0]);
+        body.writeInt(start[1]);
+
+        TreeSet<String> positions = new TreeSet<>();
+        for (String key : config.stringPropertyNames()) {
+            if (key.startsWith(FIELD_PREFIX)) {
+                positions.add(key.substring(FIELD_PREFIX.length()));
+            } else if (key.startsWith(ACTION_PREFIX)) {
+                positions.add(key.substring(ACTION_PREFIX.length()));
+            }
+        }
+        body.writeInt(positions.size());
+        for (String suffix : positions) {
+            String key = FIELD_PREFIX + suffix;
+            int[] position = ints(suffix.replace('.', ','), key);
+            if (position.length != 2) {
+                throw new IllegalArgumentException("Expected circle.field: " + suffix);
+            }
+            checkPosition(circles, position[0], position[1], key);
+            body.writeInt(position[0]);
+            body.writeInt(position[1]);
+            writeAction(config.getProperty(ACTION_PREFIX + suffix), ACTION_PREFIX + suffix, body);
+            String value = config.getProperty(key, "").trim();
+            String[] stock = value.isEmpty() ? new String[0] : value.split("\\s*,\\s*");
+            body.writeInt(stock.length);
+            for (String entry : stock) {
+                String[] parts = entry.split("\\s*:\\s*");
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("Expected item:count in " + key);
+                }
+                body.writeInt(indexOf(items, parts[0], "item"));
+                body.writeInt(parseInt(parts[1], key));
+            }
+        }
+    }
+
+    private static void writeAction(String value, String key, DataOutputStream body) throws IOException {
+        if (value == null) {
+            body.writeInt(ContentFormat.NO_EFFECT);
+            body.writeInt(0);
+            return;
+        }
+        String[] parts = value.trim().split("\\s*:\\s*");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Expected effect:amount in " + key);
+        }
+        body.writeInt(effect(parts[0]).ordinal());
+        body.writeInt(parseInt(parts[1], key));
+    }
+
+    private static void writeStrings(Map<String, Integer> strings, DataOutputStream out) throws IOException {
+        List<byte[]> encoded = new ArrayList<>(strings.size());
+        for (String string : strings.keySet()) {
+            byte[] utf8 = string.getBytes(StandardCharsets.UTF_8);
+            if (utf8.length > 0xFFFF) {
+                throw new IllegalArgumentException("Name too long: " + string);
+            }
+            encoded.add(utf8);
+        }
+        int offset = out.size() + 4 + 4 * encoded.size();
+        out.writeInt(encoded.size());
+        for (byte[] utf8 : encoded) {
+            out.writeInt(offset);
+            offset += 2 + utf8.length;
+        }
+        for (byte[] utf8 : encoded) {
+            out.writeShort(utf8.length);
+            out.write(utf8);
+        }
+    }
+
+    private static int intern(Map<String, Integer> strings, String string) {
+        Integer index = strings.get(string);
+        if (index == null) {
+            index = strings.size();
+            strings.put(string, index);
+        }
+        return index;
+    }
+
+    private static void checkPosition(int[] circles, int circle, int field, String key) {
+        if (circle < 0 || circle >= circles.length || field < 0 || field >= circles[circle]) {
+            throw new IllegalArgumentException("Incorrect position: " + key);
+        }
+    }
+
+    private static ItemEffect effect(String name) {
+        try {
+            return ItemEffect.valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unknown item effect: " + name, ex);
+        }
+    }
+
+    private static int indexOf(List<String> names, String name, String kind) {
+        int index = names.indexOf(name.trim());
+        if (index < 0) {
+            throw new IllegalArgumentException("Unknown " + kind + ": " + name);
+        }
+        return index;
+    }
+
+    private static List<String> names(Properties config, String key) {
+        List<String> names = new ArrayList<>();
+        for (String name : required(config, key).trim().split("\\s*,\\s*")) {
+            if (names.contains(name)) {
+                throw new IllegalArgumentException("Defined twice in " + key + ": " + name);
+            }
+            names.add(name);
+        }
+        return names;
+    }
+
+    private static int[] ints(String value, String key) {
+        String[] parts = value.trim().split("\\s*,\\s*");
+        int[] ints = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            ints[i] = parseInt(parts[i], key);
+        }
+        return ints;
+    }
+
+    private static int requiredInt(Properties config, String key) {
+        return parseInt(required(config, key), key);
+    }
+
+    private static int parseInt(String value, String key) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Not a number: " + key, ex);
+        }
+    }
+
+    private static String required(Properties config, String key) {
+        String value = config.getProperty(key);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing property: " + key);
+        }
+        return value;
+    }
+}
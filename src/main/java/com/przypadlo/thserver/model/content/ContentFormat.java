@@ -0,0 +1,64 @@
+package com.przypadlo.thserver.model.content;
+
+/**
+ * Układ binarnej paczki zawartości.
+ *
+ * <pre>
+ * nagłówek:   int MAGIC, int VERSION, int[SECTIONS] początki sekcji
+ * napisy:     int n, int[n] położenia napisów, napisy jako short długość + UTF-8
+ * ataki:      int n, n x (nazwa, wartość, doświadczenie)
+ * bronie:     int n, n x (nazwa, zasięg, numer ataku)
+ * przedmioty: int n, n x (nazwa, działanie, wielkość)
+ * klasy:      int n, n x (nazwa, hp, obrona, atak, mana, numer broni)
+ * plansza:    int okręgi, int[okręgi] pola, okrąg i pole startowe, int n,
+ *             n x (okrąg, pole, działanie, wielkość, int k,
+ *                  k x (numer przedmiotu, liczba))
+ * </pre>
+ *
+ * Działanie pola równe {@link #NO_EFFECT} oznacza pole bez akcji.
+ *
+ * Wszystkie wartości są typu int, a nazwy zapisane są jako numery napisów,
+ * więc rekordy ataków, broni, przedmiotów i klas mają stały rozmiar i można
+ * je czytać bezpośrednio z bufora.
+ *
+ * @author mprzypadlo
+ */
+final class ContentFormat {
+
+    static final int MAGIC = 0x54484350;
+
+    static final int VERSION = 2;
+
+    static final int NO_EFFECT = -1;
+
+    static final int STRINGS = 0;
+
+    static final int ATTACKS = 1;
+
+    static final int WEAPONS = 2;
+
+    static final int ITEMS = 3;
+
+    static final int CLASSES = 4;
+
+    static final int BOARD = 5;
+
+    static final int SECTIONS = 6;
+
+    static final int HEADER_SIZE = 4 * (2 + SECTIONS);
+
+    static final int ATTACK_SIZE = 12;
+
+    static final int WEAPON_SIZE = 12;
+
+    static final int ITEM_SIZE = 12;
+
+    static final int CLASS_SIZE = 24;
+
+    private ContentFormat() {
+    }
+
+    static int sectionOffset(int section) {
+        return 8 + 4 * section;
+    }
+}
@@ -0,0 +1,356 @@
+package com.przypadlo.thserver.model.content;
+
+import com.przypadlo.thserver.domain.Player;
+import com.przypadlo.thserver.model.board.BoardDefinition;
+import com.przypadlo.thserver.model.board.FieldDefinition;
+import com.przypadlo.thserver.model.exception.ContentFormatException;
+import com.przypadlo.thserver.model.item.CatalogItem;
+import com.przypadlo.thserver.model.item.ItemCatalog;
+import com.przypadlo.thserver.model.item.ItemEffect;
+import com.przypadlo.thserver.model.player.PlayerClass;
+import com.przypadlo.thserver.model.weapon.WeaponCatalog;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Zawartość gry wczytana z binarnej paczki (zob. {@link ContentCompiler}).
+ *
+ * Plik jest mapowany do pamięci, a przy otwarciu sprawdzany jest jedynie
+ * nagłówek. Rekordy czytane są wprost z bufora przez widoki
+ * ({@link PlayerClassView}), a katalogi (przedmioty, bronie, klasy postaci,
+ * plansza) tworzone są dopiero przy pierwszym odwołaniu i zapamiętywane.
+ * Bufor czytany jest wyłącznie metodami z jawnym położeniem, więc paczka
+ * jest bezpieczna wątkowo.
+ *
+ * @author mprzypadlo
+ */
+public final class ContentPack {
+
+    private static final ItemEffect[] EFFECTS = ItemEffect.values();
+
+    private final ByteBuffer buffer;
+
+    private final int[] sections = new int[ContentFormat.SECTIONS];
+
+    private volatile ItemCatalog items;
+
+    private volatile WeaponCatalog weapons;
+
+    private volatile Map<String, PlayerClass> playerClasses;
+
+    private volatile BoardDefinition board;
+
+    private ContentPack(ByteBuffer buffer) {
+        this.buffer = buffer;
+        readHeader();
+    }
+
+    /**
+     * Mapuje paczkę do pamięci.
+     *
+     * @param file
+     * @return
+     * @throws IOException
+     * @throws ContentFormatException Gdy plik nie jest paczką zawartości.
+     */
+    public static ContentPack open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new ContentPack(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * @param buffer Zawartość paczki, od pozycji 0.
+     * @return
+     * @throws ContentFormatException Gdy bufor nie zawiera paczki zawartości.
+     */
+    public static ContentPack wrap(ByteBuffer buffer) {
+        return new ContentPack(buffer.duplicate());
+    }
+
+    public ItemCatalog items() {
+        ItemCatalog catalog = items;
+        if (catalog == null) {
+            synchronized (this) {
+                catalog = items;
+                if (catalog == null) {
+                    catalog = readItems();
+                    items = catalog;
+                }
+            }
+        }
+        return catalog;
+    }
+
+    public WeaponCatalog weapons() {
+        WeaponCatalog catalog = weapons;
+        if (catalog == null) {
+            synchronized (this) {
+                catalog = weapons;
+                if (catalog == null) {
+                    catalog = readWeapons();
+                    weapons = catalog;
+                }
+            }
+        }
+        return catalog;
+    }
+
+    public Map<String, PlayerClass> playerClasses() {
+        Map<String, PlayerClass> classes = playerClasses;
+        if (classes == null) {
+            synchronized (this) {
+                classes = playerClasses;
+                if (classes == null) {
+                    classes = readPlayerClasses();
+                    playerClasses = classes;
+                }
+            }
+        }
+        return classes;
+    }
+
+    public BoardDefinition board() {
+        BoardDefinition definition = board;
+        if (definition == null) {
+            synchronized (this) {
+                definition = board;
+                if (definition == null) {
+                    definition = readBoard();
+                    board = definition;
+                }
+            }
+        }
+        return definition;
+    }
+
+    public int numberOfPlayerClasses() {
+        return count(ContentFormat.CLASSES);
+    }
+
+    /**
+     * Tworzy widok klas postaci, ustawiony na pierwszej klasie.
+     *
+     * @return
+     */
+    public PlayerClassView playerClassView() {
+        return new PlayerClassView();
+    }
+
+    /**
+     * @return Rozmiar paczki w bajtach.
+     */
+    public int size() {
+        return buffer.limit();
+    }
+
+    private void readHeader() {
+        if (buffer.limit() < ContentFormat.HEADER_SIZE
+                || buffer.getInt(0) != ContentFormat.MAGIC) {
+            throw new ContentFormatException("Not a content pack");
+        }
+        int version = buffer.getInt(4);
+        if (version != ContentFormat.VERSION) {
+            throw new ContentFormatException("Unsupported content pack version: " + version);
+        }
+        for (int section = 0; section < ContentFormat.SECTIONS; section++) {
+            int offset = buffer.getInt(ContentFormat.sectionOffset(section));
+            if (offset < ContentFormat.HEADER_SIZE || offset > buffer.limit() - 4) {
+                throw new ContentFormatException("Incorrect section offset: " + offset);
+            }
+            sections[section] = offset;
+        }
+        checkRecords(ContentFormat.ATTACKS, ContentFormat.ATTACK_SIZE);
+        checkRecords(ContentFormat.WEAPONS, ContentFormat.WEAPON_SIZE);
+        checkRecords(ContentFormat.ITEMS, ContentFormat.ITEM_SIZE);
+        checkRecords(ContentFormat.CLASSES, ContentFormat.CLASS_SIZE);
+    }
+
+    private void checkRecords(int section, int recordSize) {
+        long end = sections[section] + 4 + (long) count(section) * recordSize;
+        if (count(section) < 0 || end > buffer.limit()) {
+            throw new ContentFormatException("Section exceeds content pack: " + section);
+        }
+    }
+
+    private int count(int section) {
+        return buffer.getInt(sections[section]);
+    }
+
+    private int record(int section, int recordSize, int index) {
+        return sections[section] + 4 + index * recordSize;
+    }
+
+    private String string(int index) {
+        try {
+            int offset = buffer.getInt(sections[ContentFormat.STRINGS] + 4 + 4 * index);
+            int length = buffer.getShort(offset) & 0xFFFF;
+            ByteBuffer bytes = buffer.duplicate();
+            bytes.limit(offset + 2 + length).position(offset + 2);
+            return StandardCharsets.UTF_8.decode(bytes).toString();
+        } catch (IndexOutOfBoundsException | IllegalArgumentException ex) {
+            throw new ContentFormatException("Incorrect string: " + index, ex);
+        }
+    }
+
+    private ItemCatalog readItems() {
+        List<CatalogItem> catalogItems = new ArrayList<>();
+        for (int i = 0; i < count(ContentFormat.ITEMS); i++) {
+            int record = record(ContentFormat.ITEMS, ContentFormat.ITEM_SIZE, i);
+            catalogItems.add(effect(buffer.getInt(record + 4)).item(
+                    string(buffer.getInt(record)),
+                    buffer.getInt(record + 8)
+            ));
+        }
+        return new ItemCatalog(catalogItems);
+    }
+
+    private WeaponCatalog readWeapons() {
+        WeaponCatalog.Builder builder = WeaponCatalog.builder();
+        String[] attacks = new String[count(ContentFormat.ATTACKS)];
+        for (int i = 0; i < attacks.length; i++) {
+            int record = record(ContentFormat.ATTACKS, ContentFormat.ATTACK_SIZE, i);
+            attacks[i] = string(buffer.getInt(record));
+            builder.attack(attacks[i], buffer.getInt(record + 4), buffer.getInt(record + 8));
+        }
+        for (int i = 0; i < count(ContentFormat.WEAPONS); i++) {
+            int record = record(ContentFormat.WEAPONS, ContentFormat.WEAPON_SIZE, i);
+            builder.weapon(
+                    string(buffer.getInt(record)),
+                    buffer.getInt(record + 4),
+                    attacks[checkIndex(buffer.getInt(record + 8), attacks.length)]
+            );
+        }
+        return builder.build();
+    }
+
+    private Map<String, PlayerClass> readPlayerClasses() {
+        WeaponCatalog catalog = weapons();
+        Map<String, PlayerClass> classes = new LinkedHashMap<>();
+        PlayerClassView view = playerClassView();
+        for (int i = 0; i < numberOfPlayerClasses(); i++) {
+            view.moveTo(i);
+            classes.put(view.name(), new PlayerClass(
+                    view.name(),
+                    view.hp(),
+                    view.def(),
+                    view.attack(),
+                    view.mana(),
+                    catalog.weapon(view.weaponName())
+            ));
+        }
+        return Collections.unmodifiableMap(classes);
+    }
+
+    private BoardDefinition readBoard() {
+        ItemCatalog catalog = items();
+        try {
+            int position = sections[ContentFormat.BOARD];
+            int[] circles = new int[buffer.getInt(position)];
+            position += 4;
+            for (int circle = 0; circle < circles.length; circle++) {
+                circles[circle] = buffer.getInt(position);
+                position += 4;
+            }
+            BoardDefinition.Builder builder = BoardDefinition.builder(catalog, circles)
+                    .startingPosition(buffer.getInt(position), buffer.getInt(position + 4));
+            int stocked = buffer.getInt(position + 8);
+            position += 12;
+            for (int i = 0; i < stocked; i++) {
+                int circle = buffer.getInt(position);
+                int field = buffer.getInt(position + 4);
+                Consumer<Player> action = action(buffer.getInt(position + 8), buffer.getInt(position + 12));
+                int entries = buffer.getInt(position + 16);
+                position += 20;
+                Map<String, Integer> stock = new HashMap<>();
+                for (int entry = 0; entry < entries; entry++) {
+                    int item = checkIndex(buffer.getInt(position), catalog.size());
+                    stock.put(catalog.item(item).name(), buffer.getInt(position + 4));
+                    position += 8;
+                }
+                builder.field(circle, field, new FieldDefinition(catalog, stock, action));
+            }
+            return builder.build();
+        } catch (IndexOutOfBoundsException | NegativeArraySizeException ex) {
+            throw new ContentFormatException("Incorrect board section", ex);
+        }
+    }
+
+    private static Consumer<Player> action(int ordinal, int amount) {
+        if (ordinal == ContentFormat.NO_EFFECT) {
+            return (player) -> {
+            };
+        }
+        return effect(ordinal).action(amount);
+    }
+
+    private static ItemEffect effect(int ordinal) {
+        return EFFECTS[checkIndex(ordinal, EFFECTS.length)];
+    }
+
+    private static int checkIndex(int index, int size) {
+        if (index < 0 || index >= size) {
+            throw new ContentFormatException("Incorrect reference: " + index);
+        }
+        return index;
+    }
+
+    /**
+     * Widok rekordu klasy postaci, czytający wartości wprost z paczki.
+     *
+     * Jeden widok może być przestawiany na kolejne klasy przez
+     * {@link #moveTo(int)}. Widok nie jest bezpieczny wątkowo.
+     */
+    public final class PlayerClassView {
+
+        private int record;
+
+        private PlayerClassView() {
+            moveTo(0);
+        }
+
+        public PlayerClassView moveTo(int index) {
+            if (index < 0 || (index > 0 && index >= numberOfPlayerClasses())) {
+                throw new IndexOutOfBoundsException("Incorrect player class: " + index);
+            }
+            record = record(ContentFormat.CLASSES, ContentFormat.CLASS_SIZE, index);
+            return this;
+        }
+
+        public String name() {
+            return string(buffer.getInt(record));
+        }
+
+        public int hp() {
+            return buffer.getInt(record + 4);
+        }
+
+        public int def() {
+            return buffer.getInt(record + 8);
+        }
+
+        public int attack() {
+            return buffer.getInt(record + 12);
+        }
+
+        public int mana() {
+            return buffer.getInt(record + 16);
+        }
+
+        public String weaponName() {
+            int weapon = checkIndex(buffer.getInt(record + 20), count(ContentFormat.WEAPONS));
+            return string(buffer.getInt(record(ContentFormat.WEAPONS, ContentFormat.WEAPON_SIZE, weapon)));
+        }
+    }
+}
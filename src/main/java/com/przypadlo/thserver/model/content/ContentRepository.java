@@ -0,0 +1,84 @@
+package com.przypadlo.thserver.model.content;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Bieżąca wersja zawartości gry, wymieniana bez zatrzymywania serwera.
+ *
+ * Nowa wersja wczytywana jest w całości (łącznie z katalogami) przed
+ * publikacją, a następnie podmieniana atomowo. Wątki gier jedynie odczytują
+ * referencję do bieżącej wersji - nie czekają na wczytywanie ani na blokady.
+ * Gry utworzone wcześniej zachowują swoją wersję, nowe gry korzystają z
+ * najnowszej. Nieudane wczytanie nie zmienia bieżącej wersji.
+ *
+ * @author mprzypadlo
+ */
+public class ContentRepository {
+
+    private final AtomicLong versions = new AtomicLong();
+
+    private final AtomicReference<ContentVersion> current = new AtomicReference<>();
+
+    public ContentRepository(ContentPack initial) {
+        current.set(new ContentVersion(versions.incrementAndGet(), initial));
+    }
+
+    public static ContentRepository open(Path file) throws IOException {
+        return new ContentRepository(ContentPack.open(file));
+    }
+
+    public ContentVersion current() {
+        return current.get();
+    }
+
+    /**
+     * Wczytuje i publikuje nową wersję w bieżącym wątku.
+     *
+     * @param file
+     * @return Opublikowana wersja.
+     * @throws IOException
+     * @throws com.przypadlo.thserver.model.exception.ContentFormatException
+     */
+    public ContentVersion reload(Path file) throws IOException {
+        return publish(ContentPack.open(file));
+    }
+
+    /**
+     * Wczytuje i publikuje nową wersję w podanym wykonawcy.
+     *
+     * @param executor
+     * @param file
+     * @return Opublikowana wersja lub błąd wczytania.
+     */
+    public CompletableFuture<ContentVersion> reloadInBackground(Executor executor, Path file) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return reload(file);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }, executor);
+    }
+
+    /**
+     * Publikuje zawartość paczki jako nową wersję. Gdy kilka wczytań
+     * przebiega równocześnie, bieżącą zostaje wersja o najwyższym numerze.
+     *
+     * @param pack
+     * @return Opublikowana wersja.
+     */
+    public ContentVersion publish(ContentPack pack) {
+        ContentVersion loaded = new ContentVersion(versions.incrementAndGet(), pack);
+        current.accumulateAndGet(
+                loaded,
+                (published, next) -> next.version() > published.version() ? next : published
+        );
+        return loaded;
+    }
+}
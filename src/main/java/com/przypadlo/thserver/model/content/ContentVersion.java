@@ -0,0 +1,61 @@
+package com.przypadlo.thserver.model.content;
+
+import com.przypadlo.thserver.model.board.BoardDefinition;
+import com.przypadlo.thserver.model.item.ItemCatalog;
+import com.przypadlo.thserver.model.player.PlayerClass;
+import com.przypadlo.thserver.model.weapon.WeaponCatalog;
+import java.util.Map;
+
+/**
+ * Jedna wersja zawartości gry.
+ *
+ * Wszystkie katalogi tworzone są przy wczytaniu wersji, więc pierwsza gra
+ * korzystająca z wersji nie płaci za ich budowę. Wersja jest niezmienna -
+ * gry utworzone z niej korzystają z jej definicji do końca rozgrywki,
+ * niezależnie od późniejszych wersji.
+ *
+ * @author mprzypadlo
+ */
+public final class ContentVersion {
+
+    private final long version;
+
+    private final WeaponCatalog weapons;
+
+    private final ItemCatalog items;
+
+    private final Map<String, PlayerClass> playerClasses;
+
+    private final BoardDefinition board;
+
+    ContentVersion(long version, ContentPack pack) {
+        this.version = version;
+        this.weapons = pack.weapons();
+        this.items = pack.items();
+        this.playerClasses = pack.playerClasses();
+        this.board = pack.board();
+    }
+
+    /**
+     * @return Numer wersji, rosnący z każdym wczytaniem.
+     */
+    public long version() {
+        return version;
+    }
+
+    public WeaponCatalog weapons() {
+        return weapons;
+    }
+
+    public ItemCatalog items() {
+        return items;
+    }
+
+    public Map<String, PlayerClass> playerClasses() {
+        return playerClasses;
+    }
+
+    public BoardDefinition board() {
+        return board;
+    }
+}
@@ -0,0 +1,74 @@
+package com.przypadlo.thserver.model.dice;
+
+import com.przypadlo.thserver.domain.Dice;
+import java.util.SplittableRandom;
+
+/**
+ * Kostka losująca wyniki paczkami.
+ *
+ * Wyniki rzutów są losowane z wyprzedzeniem do bufora, więc pojedynczy rzut
+ * sprowadza się do odczytu z tablicy. Dla tego samego ziarna kostka zwraca
+ * ten sam ciąg wyników co {@link SplittableDice}. Instancja nie jest
+ * bezpieczna wątkowo.
+ *
+ * @author mprzypadlo
+ */
+public class BufferedDice implements Dice {
+
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    private final SplittableRandom random;
+
+    private final int sides;
+
+    private final int[] rolls;
+
+    private int position;
+
+    public BufferedDice() {
+        this(SplittableDice.DEFAULT_SIDES, DEFAULT_BATCH_SIZE, new SplittableRandom());
+    }
+
+    public BufferedDice(int sides, int batchSize, long seed) {
+        this(sides, batchSize, new SplittableRandom(seed));
+    }
+
+    private BufferedDice(int sides, int batchSize, SplittableRandom random) {
+        SplittableDice.throwExceptionIfIncorrectSides(sides);
+        throwExceptionIfIncorrectBatchSize(batchSize);
+        this.sides = sides;
+        this.random = random;
+        this.rolls = new int[batchSize];
+        this.position = batchSize;
+    }
+
+    @Override
+    public int roll() {
+        if (position == rolls.length) {
+            refill();
+        }
+        return rolls[position++];
+    }
+
+    /**
+     * Tworzy nową, niezależną kostkę z buforem tej samej wielkości.
+     *
+     * @return
+     */
+    public BufferedDice split() {
+        return new BufferedDice(sides, rolls.length, random.split());
+    }
+
+    private void refill() {
+        for (int i = 0; i < rolls.length; i++) {
+            rolls[i] = random.nextInt(1, sides + 1);
+        }
+        position = 0;
+    }
+
+    private void throwExceptionIfIncorrectBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+    }
+}
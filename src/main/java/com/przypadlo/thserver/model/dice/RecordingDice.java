@@ -0,0 +1,82 @@
+package com.przypadlo.thserver.model.dice;
+
+import com.przypadlo.thserver.domain.Dice;
+import java.util.Arrays;
+
+/**
+ * Kostka zapamiętująca wyniki rzutów, pozwalająca też wymusić kolejne wyniki.
+ *
+ * Służy do odtwarzania komend na kopii gry: na oryginale zapisywane są wyniki
+ * rzutów wykonanych podczas obsługi komendy, a na kopii te same wyniki są
+ * podawane przed obsługą tej samej komendy. Poza odtwarzaniem rzuty
+ * wykonuje kostka podana w konstruktorze. Instancja nie jest bezpieczna
+ * wątkowo.
+ *
+ * @author mprzypadlo
+ */
+public class RecordingDice implements Dice {
+
+    private static final int[] NO_ROLLS = new int[0];
+
+    private final Dice dice;
+
+    private int[] recorded = new int[4];
+
+    private int recordedCount = 0;
+
+    private boolean recording = false;
+
+    private int[] replayed = NO_ROLLS;
+
+    private int replayPosition = 0;
+
+    public RecordingDice(Dice dice) {
+        this.dice = dice;
+    }
+
+    @Override
+    public int roll() {
+        int roll = replayPosition < replayed.length
+                ? replayed[replayPosition++]
+                : dice.roll();
+        if (recording) {
+            if (recordedCount == recorded.length) {
+                recorded = Arrays.copyOf(recorded, recordedCount * 2);
+            }
+            recorded[recordedCount++] = roll;
+        }
+        return roll;
+    }
+
+    public void startRecording() {
+        recording = true;
+        recordedCount = 0;
+    }
+
+    /**
+     * Kończy zapisywanie.
+     *
+     * @return Wyniki rzutów od wywołania {@link #startRecording()}.
+     */
+    public int[] stopRecording() {
+        recording = false;
+        return recordedCount == 0 ? NO_ROLLS : Arrays.copyOf(recorded, recordedCount);
+    }
+
+    /**
+     * Ustala wyniki kolejnych rzutów.
+     *
+     * @param rolls
+     */
+    public void replay(int... rolls) {
+        replayed = rolls;
+        replayPosition = 0;
+    }
+
+    /**
+     * @return Liczba ustalonych wyników, które nie zostały jeszcze użyte.
+     */
+    public int remainingReplayed() {
+        return replayed.length - replayPosition;
+    }
+}
@@ -0,0 +1,37 @@
+package com.przypadlo.thserver.model.dice;
+
+import com.przypadlo.thserver.domain.Dice;
+
+/**
+ * Kostka zwracająca wcześniej zapisane wyniki, w zadanej kolejności.
+ *
+ * Służy do odtwarzania rozgrywki na podstawie zapisanych rzutów.
+ *
+ * @author mprzypadlo
+ */
+public class ScriptedDice implements Dice {
+
+    private final int[] rolls;
+
+    private int position = 0;
+
+    public ScriptedDice(int... rolls) {
+        this.rolls = rolls.clone();
+    }
+
+    @Override
+    public int roll() {
+        throwExceptionIfNoRollsLeft();
+        return rolls[position++];
+    }
+
+    public int remaining() {
+        return rolls.length - position;
+    }
+
+    private void throwExceptionIfNoRollsLeft() {
+        if (position == rolls.length) {
+            throw new IllegalStateException("No recorded rolls left");
+        }
+    }
+}
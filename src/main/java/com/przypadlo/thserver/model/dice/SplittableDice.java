@@ -0,0 +1,63 @@
+package com.przypadlo.thserver.model.dice;
+
+import com.przypadlo.thserver.domain.Dice;
+import java.util.SplittableRandom;
+
+/**
+ * Kostka oparta o {@link SplittableRandom}.
+ *
+ * Instancja nie jest bezpieczna wątkowo - każda gra powinna posiadać własną
+ * kostkę, uzyskaną przez {@link #split()}. Dzięki temu gry nie rywalizują o
+ * wspólny stan generatora, jak ma to miejsce w przypadku
+ * {@link java.util.Random}. Kostka utworzona z ziarnem zwraca zawsze ten sam
+ * ciąg wyników, co pozwala odtwarzać rozgrywki.
+ *
+ * @author mprzypadlo
+ */
+public class SplittableDice implements Dice {
+
+    public static final int DEFAULT_SIDES = 6;
+
+    private final SplittableRandom random;
+
+    private final int sides;
+
+    public SplittableDice() {
+        this(DEFAULT_SIDES, new SplittableRandom());
+    }
+
+    public SplittableDice(int sides, long seed) {
+        this(sides, new SplittableRandom(seed));
+    }
+
+    private SplittableDice(int sides, SplittableRandom random) {
+        throwExceptionIfIncorrectSides(sides);
+        this.sides = sides;
+        this.random = random;
+    }
+
+    @Override
+    public int roll() {
+        return random.nextInt(1, sides + 1);
+    }
+
+    /**
+     * Tworzy nową, niezależną kostkę dla kolejnej gry. Kostki utworzone z
+     * kostki posiadającej ziarno również są deterministyczne.
+     *
+     * @return
+     */
+    public SplittableDice split() {
+        return new SplittableDice(sides, random.split());
+    }
+
+    public int sides() {
+        return sides;
+    }
+
+    static void throwExceptionIfIncorrectSides(int sides) {
+        if (sides < 1) {
+            throw new IllegalArgumentException("Dice needs at least one side");
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.przypadlo.thserver.model.exception;
+
+/**
+ * Paczka zawartości jest uszkodzona lub pochodzi z niezgodnej wersji
+ * kompilatora.
+ *
+ * @author mprzypadlo
+ */
+public class ContentFormatException extends RuntimeException {
+
+    public ContentFormatException(String message) {
+        super(message);
+    }
+
+    public ContentFormatException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -11,4 +11,11 @@ package com.przypadlo.thserver.model.exception;
  */
 public class ItemUsageException extends RuntimeException{
     
+    public ItemUsageException() {
+    }
+
+    public ItemUsageException(String message) {
+        super(message);
+    }
+    
 }
@@ -0,0 +1,13 @@
+package com.przypadlo.thserver.model.exception;
+
+/**
+ *
+ * @author mprzypadlo
+ */
+public class UnknownPlayerClassException extends RuntimeException {
+
+    public UnknownPlayerClassException(String playerClass) {
+        super("Unknown player class: " + playerClass);
+    }
+
+}
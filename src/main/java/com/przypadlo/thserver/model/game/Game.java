@@ -2,12 +2,15 @@ package com.przypadlo.thserver.model.game;
 
 import com.przypadlo.thserver.domain.Board;
 import com.przypadlo.thserver.domain.Dice;
+import com.przypadlo.thserver.domain.Field;
 import com.przypadlo.thserver.domain.Item;
 import com.przypadlo.thserver.domain.Player;
 import com.przypadlo.thserver.domain.PlayerFactoryInterface;
-import java.util.Iterator;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 
 /**
  *
@@ -30,13 +33,29 @@ public class Game {
 
     private Status status = Status.WAITING_FOR_USERS;
 
-    private Iterator<String> playerIterator;
-
     private final Dice dice;
 
     private int diceRoll;
 
-    private final Board board;
+    private Board board;
+
+    /**
+     * Gracze współdzieleni z rozgałęzieniem (zob. {@link #fork(Dice)}),
+     * kopiowani przed pierwszą zmianą.
+     */
+    private final Set<String> sharedPlayers = new HashSet<>();
+
+    private boolean sharedBoard = false;
+
+    private final boolean publishing;
+
+    private final StateChanges changes = new StateChanges();
+
+    private long version = 0;
+
+    private boolean gameChanged = false;
+
+    private volatile GameSnapshot snapshot;
 
     public Game(
             Board board,
@@ -44,24 +63,99 @@ public class Game {
             LinkedHashMap<String, Player> players,
             int minPlayers,
             Dice dice
+    ) {
+        this(board, playerFactory, players, minPlayers, dice, true);
+    }
+
+    private Game(
+            Board board,
+            PlayerFactoryInterface playerFactory,
+            LinkedHashMap<String, Player> players,
+            int minPlayers,
+            Dice dice,
+            boolean publishing
     ) {
         this.playerFactory = playerFactory;
         this.players = players;
         this.minPlayers = minPlayers;
         this.dice = dice;
         this.board = board;
+        this.publishing = publishing;
+        publishSnapshot();
     }
 
 
+    /**
+     * Tworzy niezależną kopię gry, wraz z graczami, planszą i rejestrem
+     * zmian. Kopia kontynuuje numerację wersji oryginału.
+     *
+     * @param dice Kostka kopii.
+     * @return
+     */
+    public Game copy(Dice dice) {
+        LinkedHashMap<String, Player> copiedPlayers = new LinkedHashMap<>();
+        for (Map.Entry<String, Player> entry : players.entrySet()) {
+            Player player = entry.getValue();
+            copiedPlayers.put(entry.getKey(), player == null ? null : player.copy());
+        }
+        Game copy = new Game(board.copy(), playerFactory, copiedPlayers, minPlayers, dice);
+        copy.currentPlayer = currentPlayer;
+        copy.status = status;
+        copy.diceRoll = diceRoll;
+        copy.version = version;
+        copy.changes.copyFrom(changes);
+        copy.publishSnapshot();
+        return copy;
+    }
+
+    /**
+     * Tworzy rozgałęzienie gry do symulacji kolejnych ruchów.
+     *
+     * Rozgałęzienie współdzieli graczy i planszę z grą, a gracz lub plansza
+     * kopiowani są dopiero przed pierwszą zmianą - po którejkolwiek stronie.
+     * Koszt rozgałęzienia nie zależy więc od liczby przedmiotów i broni
+     * graczy, a kopiowane jest tylko to, czego dotyczą symulowane ruchy.
+     *
+     * Rozgałęzienie zaczyna z pustym rejestrem zmian i nie publikuje obrazów
+     * stanu po każdej operacji - {@link #snapshot()} tworzy obraz na
+     * żądanie. Metoda zmienia stan współdzielenia gry, więc musi być
+     * wywoływana przez wątek, który grę zmienia; samo rozgałęzienie może
+     * być następnie używane w innym wątku.
+     *
+     * @param dice Kostka rozgałęzienia.
+     * @return
+     */
+    public Game fork(Dice dice) {
+        Game fork = new Game(
+                board,
+                playerFactory,
+                new LinkedHashMap<>(players),
+                minPlayers,
+                dice,
+                false
+        );
+        sharedPlayers.addAll(players.keySet());
+        sharedBoard = true;
+        fork.sharedPlayers.addAll(players.keySet());
+        fork.sharedBoard = true;
+        fork.currentPlayer = currentPlayer;
+        fork.status = status;
+        fork.diceRoll = diceRoll;
+        fork.version = version;
+        return fork;
+    }
+
     public void addPlayer(String name, String playerClass) {
         Player p = createPlayer(name, playerClass);
         players.put(name, p);
+        sharedPlayers.remove(name);
+        changes.playerChanged(name, Player.ALL_CHANGED, version + 1);
 
         if (players.size() == minPlayers) {
             status = Status.CURRENT_PLAYER_MOVE;
-            playerIterator = players.keySet().iterator();
             updateCurrentPlayer();
         }
+        commitChanges();
     }
 
     private Player createPlayer(String name, String playerClass) {
@@ -70,8 +164,31 @@ public class Game {
     }
 
     private void updateCurrentPlayer() {
-        currentPlayer = playerIterator.next();
+        currentPlayer = playerAfter(currentPlayer);
         diceRoll = dice.roll();
+        gameChanged = true;
+    }
+
+    /**
+     * Zwraca gracza następującego po podanym, w kolejności dołączania. Po
+     * ostatnim graczu ruch wraca do pierwszego.
+     *
+     * @param playerName
+     * @return
+     */
+    private String playerAfter(String playerName) {
+        String first = null;
+        boolean found = false;
+        for (String name : players.keySet()) {
+            if (found) {
+                return name;
+            }
+            if (first == null) {
+                first = name;
+            }
+            found = name.equals(playerName);
+        }
+        return first;
     }
 
     private void throwExceptionIfPlayerExists(String name) {
@@ -83,9 +200,13 @@ public class Game {
     public void removePlayer(String playerName) {
         throwExceptionWhenPlayerAlreadyExists(playerName);
         players.remove(playerName);
+        sharedPlayers.remove(playerName);
+        changes.playerRemoved(playerName, version + 1);
         if (players.size() < minPlayers) {
             status = Status.WAITING_FOR_USERS;
+            gameChanged = true;
         }
+        commitChanges();
     }
 
     private void throwExceptionWhenPlayerAlreadyExists(String playerName) {
@@ -107,54 +228,146 @@ public class Game {
         return diceRoll;
     }
 
+    /**
+     * Zwraca wersję stanu gry, zwiększaną po każdej wykonanej operacji.
+     *
+     * @return
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Zwraca obraz stanu gry po ostatniej wykonanej operacji. Metoda może
+     * być wywoływana z dowolnego wątku.
+     *
+     * @return
+     */
+    public GameSnapshot snapshot() {
+        if (!publishing) {
+            return GameSnapshot.of(version, status, currentPlayer, diceRoll, players);
+        }
+        return snapshot;
+    }
+
+    public StateChanges changes() {
+        return changes;
+    }
+
+    /**
+     * Zwraca nazwy graczy w kolejności dołączania.
+     *
+     * @return
+     */
+    public Set<String> playerNames() {
+        return Collections.unmodifiableSet(players.keySet());
+    }
+
+    public Player player(String playerName) {
+        throwExceptionIfPlayerDoesNotExists(playerName);
+        return players.get(playerName);
+    }
+
     public void movePlayerRight(String playerName) {
         throwExceptionWhenIncorrectPlayer(playerName);
-        Player p = players.get(playerName);
+        Player p = ownPlayer(playerName);
         p.moveRight(board, diceRoll);
-
+        commitChanges();
     }
 
     public void movePlayerLeft(String playerName) {
         throwExceptionWhenIncorrectPlayer(playerName);
-        Player p = players.get(playerName);
+        Player p = ownPlayer(playerName);
         p.moveLeft(board, diceRoll);
+        commitChanges();
     }
 
     public void attack(String attackerName, String attackeeName) {
         throwExceptionWhenIncorrectPlayer(attackerName);
         throwExceptionIfPlayerDoesNotExists(attackeeName);
-        Player attacker = players.get(attackerName);
-        Player attackee = players.get(attackeeName);
+        Player attacker = ownPlayer(attackerName);
+        Player attackee = ownPlayer(attackeeName);
 
         attacker.attack(attackee);
+        commitChanges();
     }
 
     public void pickItem(String playerName, String itemName) {
         throwExceptionWhenIncorrectPlayer(playerName);
-        Player player = players.get(playerName);
-        Item itemToPick = getItem(player, itemName);
-        player.pickItem(itemToPick);
-    }
-
-    private Item getItem(Player player, String itemName) {
-        return board.fieldOfPosition(
-                player.circle(),
-                player.field()
-        ).getItem(itemName);
+        Player player = ownPlayer(playerName);
+        ownBoard();
+        Field field = board.fieldOfPosition(player.circle(), player.field());
+        Item itemToPick = field.getItem(itemName);
+        try {
+            player.pickItem(itemToPick);
+        } catch (RuntimeException e) {
+            field.returnItem(itemToPick);
+            throw e;
+        }
+        commitChanges();
     }
 
     public void useItem(String playerName, String itemName) {
         throwExceptionWhenIncorrectPlayer(playerName);
-        Player player = players.get(playerName);
+        Player player = ownPlayer(playerName);
         player.useItem(itemName);
+        commitChanges();
     }
 
     public void action(String playerName, String actionName) {
         throwExceptionWhenIncorrectPlayer(playerName);
-        Player player = players.get(playerName);
+        Player player = ownPlayer(playerName);
         board.fieldOfPosition(player.circle(), player.field()).
                 applyAction(player);
         updateCurrentPlayer();
+        commitChanges();
+    }
+
+    /**
+     * Zwraca gracza, którego gra może zmieniać - współdzielonego gracza
+     * zastępuje jego kopią.
+     */
+    private Player ownPlayer(String playerName) {
+        Player player = players.get(playerName);
+        if (!sharedPlayers.isEmpty() && sharedPlayers.remove(playerName) && player != null) {
+            player = player.copy();
+            players.put(playerName, player);
+        }
+        return player;
+    }
+
+    private void ownBoard() {
+        if (sharedBoard) {
+            board = board.copy();
+            sharedBoard = false;
+        }
+    }
+
+    /**
+     * Zamyka wersję stanu gry - przenosi zmiany graczy do rejestru zmian i
+     * publikuje nowy obraz stanu gry.
+     */
+    private void commitChanges() {
+        version++;
+        if (gameChanged) {
+            changes.gameChanged(version);
+            gameChanged = false;
+        }
+        for (Map.Entry<String, Player> entry : players.entrySet()) {
+            Player player = entry.getValue();
+            if (player != null && player.changes() != 0) {
+                changes.playerChanged(entry.getKey(), player.changes(), version);
+                player.clearChanges();
+            }
+        }
+        publishSnapshot();
+    }
+
+    private void publishSnapshot() {
+        if (!publishing) {
+            return;
+        }
+        snapshot = GameSnapshot.of(version, status, currentPlayer, diceRoll, players);
     }
 
     private void throwExceptionIfPlayerDoesNotExists(String playerName) {
@@ -0,0 +1,100 @@
+package com.przypadlo.thserver.model.game;
+
+import com.przypadlo.thserver.domain.Player;
+import com.przypadlo.thserver.model.game.Game.Status;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Niezmienny obraz stanu gry po wykonaniu operacji.
+ *
+ * Obraz publikowany jest przez wątek gry, a odczytywany bez blokad przez
+ * dowolną liczbę wątków (widzowie, rankingi, panele administracyjne).
+ *
+ * @author mprzypadlo
+ */
+public final class GameSnapshot {
+
+    private final long version;
+
+    private final Status status;
+
+    private final String currentPlayer;
+
+    private final int lastDiceRoll;
+
+    private final List<PlayerSnapshot> players;
+
+    private GameSnapshot(
+            long version,
+            Status status,
+            String currentPlayer,
+            int lastDiceRoll,
+            List<PlayerSnapshot> players
+    ) {
+        this.version = version;
+        this.status = status;
+        this.currentPlayer = currentPlayer;
+        this.lastDiceRoll = lastDiceRoll;
+        this.players = players;
+    }
+
+    static GameSnapshot of(
+            long version,
+            Status status,
+            String currentPlayer,
+            int lastDiceRoll,
+            Map<String, Player> players
+    ) {
+        List<PlayerSnapshot> playerSnapshots = new ArrayList<>(players.size());
+        for (Map.Entry<String, Player> entry : players.entrySet()) {
+            Player player = entry.getValue();
+            if (player != null) {
+                playerSnapshots.add(new PlayerSnapshot(
+                        entry.getKey(),
+                        player.hp(),
+                        player.circle(),
+                        player.field()
+                ));
+            }
+        }
+        return new GameSnapshot(
+                version,
+                status,
+                currentPlayer,
+                lastDiceRoll,
+                Collections.unmodifiableList(playerSnapshots)
+        );
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public Status status() {
+        return status;
+    }
+
+    public String currentPlayer() {
+        return currentPlayer;
+    }
+
+    public int lastDiceRoll() {
+        return lastDiceRoll;
+    }
+
+    public List<PlayerSnapshot> players() {
+        return players;
+    }
+
+    public PlayerSnapshot player(String playerName) {
+        for (PlayerSnapshot player : players) {
+            if (player.name().equals(playerName)) {
+                return player;
+            }
+        }
+        throw new IllegalArgumentException("Player does not exists");
+    }
+}
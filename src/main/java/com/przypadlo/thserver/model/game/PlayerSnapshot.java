@@ -0,0 +1,40 @@
+package com.przypadlo.thserver.model.game;
+
+/**
+ * Niezmienny stan gracza w danej wersji gry.
+ *
+ * @author mprzypadlo
+ */
+public final class PlayerSnapshot {
+
+    private final String name;
+
+    private final int hp;
+
+    private final int circle;
+
+    private final int field;
+
+    PlayerSnapshot(String name, int hp, int circle, int field) {
+        this.name = name;
+        this.hp = hp;
+        this.circle = circle;
+        this.field = field;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int hp() {
+        return hp;
+    }
+
+    public int circle() {
+        return circle;
+    }
+
+    public int field() {
+        return field;
+    }
+}
@@ -0,0 +1,115 @@
+package com.przypadlo.thserver.model.game;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rejestr zmian stanu gry.
+ *
+ * Dla każdego gracza i każdej śledzonej właściwości (patrz stałe
+ * {@code Player.*_CHANGED}) przechowuje wersję gry, w której właściwość
+ * zmieniła się ostatni raz. Pozwala to wyznaczyć zmiany od dowolnej wersji
+ * potwierdzonej przez klienta.
+ *
+ * @author mprzypadlo
+ */
+public class StateChanges {
+
+    private static final int PROPERTIES = 5;
+
+    private final Map<String, long[]> players = new LinkedHashMap<>();
+
+    private final Map<String, Long> removedPlayers = new LinkedHashMap<>();
+
+    private long gameChangedAt = 0;
+
+    void copyFrom(StateChanges other) {
+        players.clear();
+        for (Map.Entry<String, long[]> entry : other.players.entrySet()) {
+            players.put(entry.getKey(), entry.getValue().clone());
+        }
+        removedPlayers.clear();
+        removedPlayers.putAll(other.removedPlayers);
+        gameChangedAt = other.gameChangedAt;
+    }
+
+    void gameChanged(long version) {
+        gameChangedAt = version;
+    }
+
+    void playerChanged(String playerName, int changes, long version) {
+        long[] versions = players.get(playerName);
+        if (versions == null) {
+            versions = new long[PROPERTIES];
+            players.put(playerName, versions);
+            removedPlayers.remove(playerName);
+        }
+        for (int property = 0; property < PROPERTIES; property++) {
+            if ((changes & (1 << property)) != 0) {
+                versions[property] = version;
+            }
+        }
+    }
+
+    void playerRemoved(String playerName, long version) {
+        players.remove(playerName);
+        removedPlayers.put(playerName, version);
+    }
+
+    /**
+     * Zwraca czy stan gry (status, bieżący gracz, rzut kostką) zmienił się
+     * po podanej wersji.
+     *
+     * @param version
+     * @return
+     */
+    public boolean gameChangedSince(long version) {
+        return gameChangedAt > version;
+    }
+
+    /**
+     * Zwraca maskę właściwości gracza zmienionych po podanej wersji.
+     *
+     * @param playerName
+     * @param version
+     * @return
+     */
+    public int playerChangesSince(String playerName, long version) {
+        long[] versions = players.get(playerName);
+        if (versions == null) {
+            return 0;
+        }
+        int changes = 0;
+        for (int property = 0; property < PROPERTIES; property++) {
+            if (versions[property] > version) {
+                changes |= 1 << property;
+            }
+        }
+        return changes;
+    }
+
+    public boolean playerRemovedSince(String playerName, long version) {
+        Long removedAt = removedPlayers.get(playerName);
+        return removedAt != null && removedAt > version;
+    }
+
+    public Set<String> players() {
+        return Collections.unmodifiableSet(players.keySet());
+    }
+
+    public Set<String> removedPlayers() {
+        return Collections.unmodifiableSet(removedPlayers.keySet());
+    }
+
+    /**
+     * Zapomina usunięcia graczy, które nastąpiły nie później niż w podanej
+     * wersji - czyli znane już wszystkim klientom.
+     *
+     * @param version
+     */
+    public void forgetRemovalsUpTo(long version) {
+        removedPlayers.values().removeIf((removedAt) -> removedAt <= version);
+    }
+}
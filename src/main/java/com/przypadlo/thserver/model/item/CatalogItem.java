@@ -0,0 +1,35 @@
+package com.przypadlo.thserver.model.item;
+
+import com.przypadlo.thserver.domain.ItemType;
+import com.przypadlo.thserver.domain.Player;
+import java.util.function.Consumer;
+
+/**
+ * Niezmienna definicja przedmiotu, współdzielona przez wszystkich graczy.
+ *
+ * Definicja nie posiada liczby sztuk - przechowuje ją {@link Inventory} gracza
+ * lub {@link ItemStack}.
+ *
+ * @author mprzypadlo
+ */
+public final class CatalogItem implements ItemType {
+
+    private final String name;
+
+    private final Consumer<Player> effect;
+
+    public CatalogItem(String name, Consumer<Player> effect) {
+        this.name = name;
+        this.effect = effect;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public void applyTo(Player player) {
+        effect.accept(player);
+    }
+}
@@ -0,0 +1,126 @@
+package com.przypadlo.thserver.model.item;
+
+import com.przypadlo.thserver.domain.Item;
+import com.przypadlo.thserver.domain.Player;
+import com.przypadlo.thserver.model.exception.ItemUsageException;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Ekwipunek gracza.
+ *
+ * Dla przedmiotów z katalogu przechowuje wyłącznie liczbę sztuk. Przedmioty
+ * spoza katalogu (np. gracza utworzonego bez katalogu) przechowywane są jako
+ * {@link ItemStack} pod swoją nazwą. Podniesienie przedmiotu, który gracz
+ * już posiada, zwiększa liczbę jego sztuk.
+ *
+ * @author mprzypadlo
+ */
+public class Inventory {
+
+    private final ItemCatalog catalog;
+
+    private final int[] counts;
+
+    private Map<String, ItemStack> uncatalogued;
+
+    public Inventory(ItemCatalog catalog) {
+        this(catalog, new int[catalog.size()], null);
+    }
+
+    private Inventory(ItemCatalog catalog, int[] counts, Map<String, ItemStack> uncatalogued) {
+        this.catalog = catalog;
+        this.counts = counts;
+        this.uncatalogued = uncatalogued;
+    }
+
+    public Inventory copy() {
+        Map<String, ItemStack> stacks = null;
+        if (uncatalogued != null) {
+            stacks = new LinkedHashMap<>();
+            for (ItemStack stack : uncatalogued.values()) {
+                stacks.put(stack.name(), stack.copy());
+            }
+        }
+        return new Inventory(catalog, counts.clone(), stacks);
+    }
+
+    /**
+     * Dodaje wszystkie sztuki przedmiotu.
+     *
+     * @param item
+     * @throws ItemUsageException gdy liczba sztuk nie jest dodatnia.
+     */
+    public void add(Item item) {
+        int count = item.count();
+        if (count < 1) {
+            throw new ItemUsageException("Incorrect item count: " + item.name());
+        }
+        int id = catalog.id(item.name());
+        if (id != ItemCatalog.UNKNOWN) {
+            counts[id] += count;
+            return;
+        }
+        if (uncatalogued == null) {
+            uncatalogued = new LinkedHashMap<>();
+        }
+        ItemStack stack = uncatalogued.get(item.name());
+        if (stack == null) {
+            uncatalogued.put(item.name(), new ItemStack(item, count));
+        } else {
+            stack.increaseCount(count);
+        }
+    }
+
+    /**
+     * Używa jednej sztuki przedmiotu na podanym graczu.
+     *
+     * @param itemName
+     * @param player
+     * @throws ItemUsageException gdy gracz nie posiada przedmiotu.
+     */
+    public void use(String itemName, Player player) {
+        int id = catalog.id(itemName);
+        if (id != ItemCatalog.UNKNOWN) {
+            if (counts[id] == 0) {
+                throw new ItemUsageException("Item not in inventory: " + itemName);
+            }
+            catalog.item(id).applyTo(player);
+            counts[id]--;
+            return;
+        }
+        ItemStack stack = uncatalogued == null ? null : uncatalogued.get(itemName);
+        if (stack == null) {
+            throw new ItemUsageException("Item not in inventory: " + itemName);
+        }
+        stack.applyTo(player);
+        stack.decreaseCount();
+        if (stack.count() == 0) {
+            uncatalogued.remove(itemName);
+        }
+    }
+
+    public int count(String itemName) {
+        int id = catalog.id(itemName);
+        if (id != ItemCatalog.UNKNOWN) {
+            return counts[id];
+        }
+        ItemStack stack = uncatalogued == null ? null : uncatalogued.get(itemName);
+        return stack == null ? 0 : stack.count();
+    }
+
+    public Set<String> names() {
+        Set<String> names = new LinkedHashSet<>();
+        for (int id = 0; id < counts.length; id++) {
+            if (counts[id] > 0) {
+                names.add(catalog.item(id).name());
+            }
+        }
+        if (uncatalogued != null) {
+            names.addAll(uncatalogued.keySet());
+        }
+        return names;
+    }
+}
@@ -0,0 +1,79 @@
+package com.przypadlo.thserver.model.item;
+
+import com.przypadlo.thserver.domain.ItemType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Niezmienny katalog przedmiotów.
+ *
+ * Każdy przedmiot otrzymuje identyfikator odpowiadający jego pozycji w
+ * katalogu, co pozwala przechowywać ekwipunek gracza jako tablicę liczników.
+ *
+ * @author mprzypadlo
+ */
+public final class ItemCatalog {
+
+    public static final ItemCatalog EMPTY = new ItemCatalog(Collections.emptyList());
+
+    public static final int UNKNOWN = -1;
+
+    private final ItemType[] items;
+
+    private final Map<String, Integer> ids;
+
+    public ItemCatalog(ItemType... items) {
+        this(Arrays.asList(items));
+    }
+
+    public ItemCatalog(List<? extends ItemType> items) {
+        this.items = items.toArray(new ItemType[items.size()]);
+        this.ids = new HashMap<>();
+        for (int id = 0; id < this.items.length; id++) {
+            throwExceptionIfItemExists(this.items[id].name());
+            ids.put(this.items[id].name(), id);
+        }
+    }
+
+    /**
+     * Zwraca identyfikator przedmiotu lub {@link #UNKNOWN}, jeżeli przedmiot
+     * nie należy do katalogu.
+     *
+     * @param itemName
+     * @return
+     */
+    public int id(String itemName) {
+        Integer id = ids.get(itemName);
+        return id == null ? UNKNOWN : id;
+    }
+
+    public ItemType item(int id) {
+        return items[id];
+    }
+
+    public ItemType item(String itemName) {
+        int id = id(itemName);
+        if (id == UNKNOWN) {
+            throw new IllegalArgumentException("Unknown item: " + itemName);
+        }
+        return items[id];
+    }
+
+    public int size() {
+        return items.length;
+    }
+
+    public List<ItemType> items() {
+        return Collections.unmodifiableList(new ArrayList<>(Arrays.asList(items)));
+    }
+
+    private void throwExceptionIfItemExists(String itemName) {
+        if (ids.containsKey(itemName)) {
+            throw new IllegalArgumentException("Item already defined: " + itemName);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.przypadlo.thserver.model.item;
+
+import com.przypadlo.thserver.domain.Player;
+import java.util.function.Consumer;
+
+/**
+ * Działanie przedmiotu lub pola opisanego w plikach zawartości.
+ *
+ * @author mprzypadlo
+ */
+public enum ItemEffect {
+
+    ATTACK {
+        @Override
+        public void apply(Player player, int amount) {
+            player.increaseAttack(amount);
+        }
+    },
+    DEFENCE {
+        @Override
+        public void apply(Player player, int amount) {
+            player.increaseDefence(amount);
+        }
+    },
+    MANA {
+        @Override
+        public void apply(Player player, int amount) {
+            player.increaseMana(amount);
+        }
+    };
+
+    public abstract void apply(Player player, int amount);
+
+    /**
+     * Tworzy przedmiot o podanym działaniu.
+     *
+     * @param name
+     * @param amount
+     * @return
+     */
+    public CatalogItem item(String name, int amount) {
+        return new CatalogItem(name, action(amount));
+    }
+
+    /**
+     * @param amount
+     * @return Akcja pola o podanym działaniu.
+     */
+    public Consumer<Player> action(int amount) {
+        return (player) -> apply(player, amount);
+    }
+}
@@ -0,0 +1,65 @@
+package com.przypadlo.thserver.model.item;
+
+import com.przypadlo.thserver.domain.Item;
+import com.przypadlo.thserver.domain.ItemType;
+import com.przypadlo.thserver.domain.Player;
+import com.przypadlo.thserver.model.exception.ItemUsageException;
+
+/**
+ * Kilka sztuk przedmiotu jednego rodzaju.
+ *
+ * @author mprzypadlo
+ */
+public final class ItemStack implements Item {
+
+    private final ItemType type;
+
+    private int count;
+
+    /**
+     * @param type
+     * @param count
+     * @throws IllegalArgumentException Gdy liczba sztuk nie jest dodatnia.
+     */
+    public ItemStack(ItemType type, int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Item count must be positive");
+        }
+        this.type = type;
+        this.count = count;
+    }
+
+    @Override
+    public String name() {
+        return type.name();
+    }
+
+    /**
+     * @throws ItemUsageException Gdy nie pozostała żadna sztuka.
+     */
+    @Override
+    public void decreaseCount() {
+        if (count == 0) {
+            throw new ItemUsageException("Item not in inventory: " + name());
+        }
+        count--;
+    }
+
+    @Override
+    public int count() {
+        return count;
+    }
+
+    @Override
+    public void applyTo(Player player) {
+        type.applyTo(player);
+    }
+
+    void increaseCount(int amount) {
+        count += amount;
+    }
+
+    ItemStack copy() {
+        return new ItemStack(type, count);
+    }
+}
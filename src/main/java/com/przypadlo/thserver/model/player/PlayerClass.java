@@ -0,0 +1,92 @@
+package com.przypadlo.thserver.model.player;
+
+import com.przypadlo.thserver.domain.Attack;
+import com.przypadlo.thserver.domain.Weapon;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Niezmienny szablon klasy postaci (wojownik, czarodziej, ...).
+ *
+ * Szablon tworzony jest raz, przy starcie serwera, a następnie służy do
+ * tworzenia kolejnych graczy danej klasy.
+ *
+ * @author mprzypadlo
+ */
+public final class PlayerClass {
+
+    private final String name;
+
+    private final int hp;
+
+    private final int def;
+
+    private final int attack;
+
+    private final int mana;
+
+    private final Weapon initialWeapon;
+
+    private final Map<String, Function<Attack, Integer>> attackHandlers;
+
+    public PlayerClass(
+            String name,
+            int hp,
+            int def,
+            int attack,
+            int mana,
+            Weapon initialWeapon
+    ) {
+        this(name, hp, def, attack, mana, initialWeapon, Collections.emptyMap());
+    }
+
+    public PlayerClass(
+            String name,
+            int hp,
+            int def,
+            int attack,
+            int mana,
+            Weapon initialWeapon,
+            Map<String, Function<Attack, Integer>> attackHandlers
+    ) {
+        this.name = name;
+        this.hp = hp;
+        this.def = def;
+        this.attack = attack;
+        this.mana = mana;
+        this.initialWeapon = initialWeapon;
+        this.attackHandlers = Collections.unmodifiableMap(
+                new HashMap<>(attackHandlers)
+        );
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int hp() {
+        return hp;
+    }
+
+    public int def() {
+        return def;
+    }
+
+    public int attack() {
+        return attack;
+    }
+
+    public int mana() {
+        return mana;
+    }
+
+    public Weapon initialWeapon() {
+        return initialWeapon;
+    }
+
+    public Map<String, Function<Attack, Integer>> attackHandlers() {
+        return attackHandlers;
+    }
+}
@@ -0,0 +1,83 @@
+package com.przypadlo.thserver.model.player;
+
+import com.przypadlo.thserver.domain.Weapon;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Wczytuje definicje klas postaci z konfiguracji.
+ *
+ * Oczekiwany format:
+ * <pre>
+ * player-classes=warrior,wizard
+ * warrior.hp=120
+ * warrior.def=5
+ * warrior.attack=12
+ * warrior.mana=0
+ * warrior.weapon=sword
+ * </pre>
+ *
+ * Brakujące wartości lub nieznana broń powodują błąd już przy wczytywaniu.
+ *
+ * @author mprzypadlo
+ */
+public class PlayerClassLoader {
+
+    public static final String CLASSES_KEY = "player-classes";
+
+    private final Map<String, Weapon> weapons;
+
+    public PlayerClassLoader(Map<String, Weapon> weapons) {
+        this.weapons = weapons;
+    }
+
+    public Map<String, PlayerClass> load(Properties config) {
+        Map<String, PlayerClass> playerClasses = new HashMap<>();
+        for (String name : classNames(config)) {
+            playerClasses.put(name, loadClass(config, name));
+        }
+        return playerClasses;
+    }
+
+    private String[] classNames(Properties config) {
+        String names = required(config, CLASSES_KEY);
+        return names.trim().split("\\s*,\\s*");
+    }
+
+    private PlayerClass loadClass(Properties config, String name) {
+        return new PlayerClass(
+                name,
+                requiredInt(config, name + ".hp"),
+                requiredInt(config, name + ".def"),
+                requiredInt(config, name + ".attack"),
+                requiredInt(config, name + ".mana"),
+                weapon(required(config, name + ".weapon"))
+        );
+    }
+
+    private Weapon weapon(String weaponName) {
+        Weapon weapon = weapons.get(weaponName);
+        if (weapon == null) {
+            throw new IllegalArgumentException("Unknown weapon: " + weaponName);
+        }
+        return weapon;
+    }
+
+    private int requiredInt(Properties config, String key) {
+        String value = required(config, key);
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Not a number: " + key, ex);
+        }
+    }
+
+    private String required(Properties config, String key) {
+        String value = config.getProperty(key);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing property: " + key);
+        }
+        return value;
+    }
+}
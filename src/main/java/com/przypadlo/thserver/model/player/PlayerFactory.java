@@ -0,0 +1,86 @@
+package com.przypadlo.thserver.model.player;
+
+import com.przypadlo.thserver.domain.Board;
+import com.przypadlo.thserver.domain.Player;
+import com.przypadlo.thserver.domain.PlayerFactoryInterface;
+import com.przypadlo.thserver.model.exception.UnknownPlayerClassException;
+import com.przypadlo.thserver.model.item.Inventory;
+import com.przypadlo.thserver.model.item.ItemCatalog;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tworzy graczy na podstawie szablonów klas postaci.
+ *
+ * Szablony są wczytywane jednokrotnie, więc dołączenie gracza sprowadza się
+ * do wyszukania szablonu i utworzenia obiektu gracza.
+ *
+ * @author mprzypadlo
+ */
+public class PlayerFactory implements PlayerFactoryInterface {
+
+    private final Board board;
+
+    private final Map<String, PlayerClass> playerClasses;
+
+    private final ItemCatalog itemCatalog;
+
+    public PlayerFactory(Board board, Map<String, PlayerClass> playerClasses) {
+        this(board, playerClasses, ItemCatalog.EMPTY);
+    }
+
+    public PlayerFactory(
+            Board board,
+            Map<String, PlayerClass> playerClasses,
+            ItemCatalog itemCatalog
+    ) {
+        this.board = board;
+        this.itemCatalog = itemCatalog;
+        this.playerClasses = Collections.unmodifiableMap(
+                new HashMap<>(playerClasses)
+        );
+    }
+
+    /**
+     * Tworzy gracza podanej klasy.
+     *
+     * @param playerClass
+     * @return
+     * @throws UnknownPlayerClassException
+     */
+    @Override
+    public Player getPlayer(String playerClass) {
+        PlayerClass template = playerClasses.get(playerClass);
+        throwExceptionIfUnknownClass(template, playerClass);
+        return createPlayer(template);
+    }
+
+    public Set<String> playerClasses() {
+        return playerClasses.keySet();
+    }
+
+    private Player createPlayer(PlayerClass template) {
+        Player player = new Player(
+                board,
+                template.hp(),
+                template.def(),
+                template.attack(),
+                template.mana(),
+                template.initialWeapon(),
+                new Inventory(itemCatalog)
+        );
+        template.attackHandlers().forEach(player::registerAttackHanlder);
+        return player;
+    }
+
+    private void throwExceptionIfUnknownClass(
+            PlayerClass template,
+            String playerClass
+    ) {
+        if (template == null) {
+            throw new UnknownPlayerClassException(playerClass);
+        }
+    }
+}
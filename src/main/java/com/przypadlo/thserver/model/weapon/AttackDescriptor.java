@@ -0,0 +1,59 @@
+package com.przypadlo.thserver.model.weapon;
+
+import com.przypadlo.thserver.domain.Attack;
+
+/**
+ * Niezmienny opis ataku.
+ *
+ * Jedna instancja opisuje dany atak dla wszystkich graczy i gier, dlatego
+ * wykonanie ataku nie wymaga tworzenia nowych obiektów.
+ *
+ * @author mprzypadlo
+ */
+public final class AttackDescriptor implements Attack {
+
+    private final int id;
+
+    private final String name;
+
+    private final int value;
+
+    private final int experienceIncrease;
+
+    AttackDescriptor(int id, String name, int value, int experienceIncrease) {
+        this.id = id;
+        this.name = name;
+        this.value = value;
+        this.experienceIncrease = experienceIncrease;
+    }
+
+    @Override
+    public int id() {
+        return id;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public int value() {
+        return value;
+    }
+
+    @Override
+    public int experienceIncrease() {
+        return experienceIncrease;
+    }
+
+    boolean sameAs(int value, int experienceIncrease) {
+        return this.value == value
+                && this.experienceIncrease == experienceIncrease;
+    }
+
+    @Override
+    public String toString() {
+        return name + "#" + id;
+    }
+}
@@ -0,0 +1,50 @@
+package com.przypadlo.thserver.model.weapon;
+
+import com.przypadlo.thserver.domain.Attack;
+import com.przypadlo.thserver.domain.Player;
+import com.przypadlo.thserver.domain.Weapon;
+
+/**
+ * Niezmienna broń z katalogu, współdzielona przez wszystkich graczy.
+ *
+ * @author mprzypadlo
+ */
+public final class CatalogWeapon implements Weapon {
+
+    private final String name;
+
+    private final int range;
+
+    private final AttackDescriptor attack;
+
+    CatalogWeapon(String name, int range, AttackDescriptor attack) {
+        this.name = name;
+        this.range = range;
+        this.attack = attack;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Zwraca współdzielony opis ataku tej broni.
+     *
+     * @param attacker
+     * @return
+     */
+    @Override
+    public Attack createAttack(Player attacker) {
+        return attack;
+    }
+
+    @Override
+    public int range() {
+        return range;
+    }
+
+    public AttackDescriptor attack() {
+        return attack;
+    }
+}
@@ -0,0 +1,146 @@
+package com.przypadlo.thserver.model.weapon;
+
+import com.przypadlo.thserver.domain.Weapon;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Niezmienny katalog broni i ataków.
+ *
+ * Ataki o tej samej nazwie są internowane - wszystkie bronie używające danego
+ * ataku współdzielą jeden {@link AttackDescriptor}. Identyfikatory ataków
+ * nadawane są kolejno od 1.
+ *
+ * @author mprzypadlo
+ */
+public final class WeaponCatalog {
+
+    private final Map<String, Weapon> weapons;
+
+    private final AttackDescriptor[] attacks;
+
+    private final Map<String, AttackDescriptor> attacksByName;
+
+    private WeaponCatalog(Builder builder) {
+        this.weapons = Collections.unmodifiableMap(new HashMap<>(builder.weapons));
+        this.attacksByName = Collections.unmodifiableMap(
+                new HashMap<>(builder.attacksByName)
+        );
+        this.attacks = builder.attacks.toArray(
+                new AttackDescriptor[builder.attacks.size()]
+        );
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public Weapon weapon(String name) {
+        Weapon weapon = weapons.get(name);
+        if (weapon == null) {
+            throw new IllegalArgumentException("Unknown weapon: " + name);
+        }
+        return weapon;
+    }
+
+    public AttackDescriptor attack(int id) {
+        if (id < 1 || id > attacks.length) {
+            throw new IllegalArgumentException("Unknown attack id: " + id);
+        }
+        return attacks[id - 1];
+    }
+
+    public AttackDescriptor attack(String name) {
+        AttackDescriptor attack = attacksByName.get(name);
+        if (attack == null) {
+            throw new IllegalArgumentException("Unknown attack: " + name);
+        }
+        return attack;
+    }
+
+    public Map<String, Weapon> weapons() {
+        return weapons;
+    }
+
+    public int numberOfAttacks() {
+        return attacks.length;
+    }
+
+    public static class Builder {
+
+        private final Map<String, Weapon> weapons = new HashMap<>();
+
+        private final List<AttackDescriptor> attacks = new ArrayList<>();
+
+        private final Map<String, AttackDescriptor> attacksByName = new HashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Rejestruje atak. Ponowna rejestracja ataku o tej samej nazwie i
+         * parametrach zwraca istniejący opis.
+         *
+         * @param name
+         * @param value
+         * @param experienceIncrease
+         * @return
+         */
+        public Builder attack(String name, int value, int experienceIncrease) {
+            internAttack(name, value, experienceIncrease);
+            return this;
+        }
+
+        public Builder weapon(String name, int range, String attackName) {
+            throwExceptionIfWeaponExists(name);
+            AttackDescriptor attack = attacksByName.get(attackName);
+            if (attack == null) {
+                throw new IllegalArgumentException("Unknown attack: " + attackName);
+            }
+            weapons.put(name, new CatalogWeapon(name, range, attack));
+            return this;
+        }
+
+        public Builder weapon(
+                String name,
+                int range,
+                String attackName,
+                int value,
+                int experienceIncrease
+        ) {
+            internAttack(attackName, value, experienceIncrease);
+            return weapon(name, range, attackName);
+        }
+
+        public WeaponCatalog build() {
+            return new WeaponCatalog(this);
+        }
+
+        private void internAttack(String name, int value, int experienceIncrease) {
+            AttackDescriptor existing = attacksByName.get(name);
+            if (existing == null) {
+                AttackDescriptor attack = new AttackDescriptor(
+                        attacks.size() + 1,
+                        name,
+                        value,
+                        experienceIncrease
+                );
+                attacks.add(attack);
+                attacksByName.put(name, attack);
+            } else if (!existing.sameAs(value, experienceIncrease)) {
+                throw new IllegalArgumentException(
+                        "Attack redefined with different values: " + name
+                );
+            }
+        }
+
+        private void throwExceptionIfWeaponExists(String name) {
+            if (weapons.containsKey(name)) {
+                throw new IllegalArgumentException("Weapon already defined: " + name);
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.mprzypadlo.tests.thserver.model;
+
+import com.mprzypadlo.thserver.tools.SampleContent;
+import com.przypadlo.thserver.domain.Player;
+import com.przypadlo.thserver.model.board.BoardDefinition;
+import com.przypadlo.thserver.model.board.GameBoard;
+import com.przypadlo.thserver.model.content.ContentCompiler;
+import com.przypadlo.thserver.model.content.ContentPack;
+import com.przypadlo.thserver.model.exception.ContentFormatException;
+import com.przypadlo.thserver.model.item.ItemStack;
+import com.przypadlo.thserver.model.player.PlayerClass;
+import com.przypadlo.thserver.model.player.PlayerFactory;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Properties;
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author mprzypadlo
+ */
+public class ContentPackTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ContentCompiler compiler = new ContentCompiler();
+
+    @Test
+    public void Compiled_Pack_Contains_Player_Classes() throws IOException {
+        ContentPack pack = open(SampleContent.properties());
+
+        PlayerClass warrior = pack.playerClasses().get("warrior");
+        assertEquals(3, pack.playerClasses().size());
+        assertEquals(120, warrior.hp());
+        assertEquals(4, warrior.def());
+        assertEquals(12, warrior.attack());
+        assertEquals("sword", warrior.initialWeapon().name());
+        assertEquals(1, warrior.initialWeapon().range());
+        assertEquals(12, pack.weapons().attack("slash").value());
+    }
+
+    @Test
+    public void Player_Class_View_Reads_Records_Without_Catalogs() {
+        ContentPack pack = ContentPack.wrap(ByteBuffer.wrap(compiler.compile(SampleContent.properties())));
+
+        ContentPack.PlayerClassView view = pack.playerClassView();
+
+        assertEquals(3, pack.numberOfPlayerClasses());
+        assertEquals("wizard", view.moveTo(1).name());
+        assertEquals(40, view.mana());
+        assertEquals("staff", view.weaponName());
+    }
+
+    @Test
+    public void Compiled_Board_Has_Stocked_Fields() throws IOException {
+        ContentPack pack = open(SampleContent.properties());
+
+        BoardDefinition board = pack.board();
+        GameBoard gameBoard = board.newBoard();
+
+        assertEquals(3, board.numberOfCircles());
+        assertEquals(10, board.numberOfFields(1));
+        assertEquals(2, gameBoard.remaining(0, 3, "mana-potion"));
+        assertFalse(board.field(0, 4).hasItems());
+    }
+
+    @Test
+    public void Items_Apply_Compiled_Effects() throws IOException {
+        ContentPack pack = open(SampleContent.properties());
+        GameBoard board = pack.board().newBoard();
+        Player player = new PlayerFactory(board, pack.playerClasses(), pack.items())
+                .getPlayer("warrior");
+
+        player.pickItem(new ItemStack(pack.items().item("strength-elixir"), 1));
+        player.useItem("strength-elixir");
+
+        assertEquals(14, player.attackPoints());
+    }
+
+    @Test
+    public void Fields_Apply_Compiled_Actions() throws IOException {
+        Properties config = SampleContent.properties();
+        config.setProperty("board.action.0.3", "defence:2");
+        config.setProperty("board.action.1.5", "attack:3");
+        ContentPack pack = open(config);
+        GameBoard board = pack.board().newBoard();
+        Player player = new PlayerFactory(board, pack.playerClasses(), pack.items())
+                .getPlayer("warrior");
+
+        board.fieldOfPosition(0, 3).applyAction(player);
+        board.fieldOfPosition(1, 5).applyAction(player);
+        board.fieldOfPosition(0, 4).applyAction(player);
+
+        assertEquals(6, player.def());
+        assertEquals(15, player.attackPoints());
+        assertEquals(2, board.remaining(0, 3, "mana-potion"));
+        assertFalse(pack.board().field(1, 5).hasItems());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void Compiler_Rejects_Unknown_Field_Action() {
+        Properties config = SampleContent.properties();
+        config.setProperty("board.action.0.3", "teleport:1");
+        compiler.compile(config);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void Compiler_Rejects_Unknown_Weapon() {
+        Properties config = SampleContent.properties();
+        config.setProperty("warrior.weapon", "axe");
+        compiler.compile(config);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void Compiler_Rejects_Field_Outside_Board() {
+        Properties config = SampleContent.properties();
+        config.setProperty("board.field.2.8", "mana-potion:1");
+        compiler.compile(config);
+    }
+
+    @Test(expected = ContentFormatException.class)
+    public void Pack_With_Incorrect_Header_Is_Rejected() {
+        byte[] pack = compiler.compile(SampleContent.properties());
+        pack[0] = 0;
+        ContentPack.wrap(ByteBuffer.wrap(pack));
+    }
+
+    private ContentPack open(Properties config) throws IOException {
+        Path file = folder.getRoot().toPath().resolve("content.pack");
+        compiler.compile(config, file);
+        return ContentPack.open(file);
+    }
+}
@@ -0,0 +1,99 @@
+package com.mprzypadlo.tests.thserver.model;
+
+import com.mprzypadlo.thserver.tools.SampleContent;
+import com.przypadlo.thserver.model.content.ContentCompiler;
+import com.przypadlo.thserver.model.content.ContentRepository;
+import com.przypadlo.thserver.model.content.ContentVersion;
+import com.przypadlo.thserver.model.exception.ContentFormatException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author mprzypadlo
+ */
+public class ContentRepositoryTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ContentCompiler compiler = new ContentCompiler();
+
+    private Path file;
+
+    private ContentRepository repository;
+
+    @Before
+    public void setUp() throws IOException {
+        file = folder.getRoot().toPath().resolve("content.pack");
+        compiler.compile(SampleContent.properties(), file);
+        repository = ContentRepository.open(file);
+    }
+
+    @Test
+    public void Reload_Publishes_New_Version() throws IOException {
+        ContentVersion first = repository.current();
+        compiler.compile(withSlashValue(20), file);
+
+        ContentVersion second = repository.reload(file);
+
+        assertSame(second, repository.current());
+        assertTrue(second.version() > first.version());
+        assertEquals(20, second.weapons().attack("slash").value());
+        assertEquals(12, first.weapons().attack("slash").value());
+    }
+
+    @Test
+    public void Failed_Reload_Keeps_Current_Version() throws IOException {
+        ContentVersion current = repository.current();
+        Path broken = folder.newFile("broken.pack").toPath();
+        Files.write(broken, new byte[64]);
+
+        try {
+            repository.reload(broken);
+            fail("Broken pack was published");
+        } catch (ContentFormatException ex) {
+            assertSame(current, repository.current());
+        }
+    }
+
+    @Test
+    public void Content_Is_Reloaded_In_Background() throws Exception {
+        compiler.compile(withSlashValue(30), file);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            ContentVersion loaded = repository.reloadInBackground(executor, file).get();
+
+            assertSame(loaded, repository.current());
+            assertEquals(30, repository.current().weapons().attack("slash").value());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected = ExecutionException.class)
+    public void Background_Reload_Reports_Missing_File() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            repository.reloadInBackground(executor, folder.getRoot().toPath().resolve("missing")).get();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static Properties withSlashValue(int value) {
+        Properties config = SampleContent.properties();
+        config.setProperty("attack.slash.value", String.valueOf(value));
+        return config;
+    }
+}
@@ -0,0 +1,86 @@
+package com.mprzypadlo.tests.thserver.model;
+
+import com.przypadlo.thserver.domain.Dice;
+import com.przypadlo.thserver.model.dice.BufferedDice;
+import com.przypadlo.thserver.model.dice.SplittableDice;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+/**
+ * Porównuje przepustowość rzutów, gdy tysiące gier rzuca kostką
+ * jednocześnie. Uruchamiany ręcznie:
+ *
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.mprzypadlo.tests.thserver.model.DiceBenchmark
+ *
+ * @author mprzypadlo
+ */
+public class DiceBenchmark {
+
+    private static final int GAMES = 4000;
+
+    private static final int ROLLS_PER_GAME = 20000;
+
+    private static final int THREADS = Runtime.getRuntime().availableProcessors();
+
+    public static void main(String[] args) throws InterruptedException {
+        Random shared = new Random();
+        SplittableDice splittableRoot = new SplittableDice();
+        BufferedDice bufferedRoot = new BufferedDice();
+
+        for (int warmup = 0; warmup < 2; warmup++) {
+            run("shared java.util.Random", () -> () -> shared.nextInt(6) + 1);
+            run("SplittableDice per game", splittableRoot::split);
+            run("BufferedDice per game", bufferedRoot::split);
+        }
+    }
+
+    private static void run(String name, Supplier<Dice> perGameDice)
+            throws InterruptedException {
+        Dice[] dice = new Dice[GAMES];
+        for (int i = 0; i < GAMES; i++) {
+            dice[i] = perGameDice.get();
+        }
+
+        CountDownLatch done = new CountDownLatch(THREADS);
+        long[] checksums = new long[THREADS];
+        long start = System.nanoTime();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            new Thread(() -> {
+                checksums[thread] = rollGames(dice, thread);
+                done.countDown();
+            }).start();
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+
+        long rolls = (long) GAMES * ROLLS_PER_GAME;
+        System.out.printf(
+                "%-26s %8.1f M rolls/s (%d threads, checksum %d)%n",
+                name,
+                rolls * 1000.0 / elapsed,
+                THREADS,
+                sum(checksums)
+        );
+    }
+
+    private static long rollGames(Dice[] dice, int thread) {
+        long checksum = 0;
+        for (int game = thread; game < dice.length; game += THREADS) {
+            for (int i = 0; i < ROLLS_PER_GAME; i++) {
+                checksum += dice[game].roll();
+            }
+        }
+        return checksum;
+    }
+
+    private static long sum(long[] values) {
+        long sum = 0;
+        for (long value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,93 @@
+package com.mprzypadlo.tests.thserver.model;
+
+import com.przypadlo.thserver.domain.Dice;
+import com.przypadlo.thserver.model.dice.BufferedDice;
+import com.przypadlo.thserver.model.dice.RecordingDice;
+import com.przypadlo.thserver.model.dice.ScriptedDice;
+import com.przypadlo.thserver.model.dice.SplittableDice;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class DiceTest {
+
+    @Test
+    public void Splittable_Dice_Rolls_Within_Sides() {
+        assertRollsWithinSides(new SplittableDice(6, 42L), 6);
+    }
+
+    @Test
+    public void Buffered_Dice_Rolls_Within_Sides() {
+        assertRollsWithinSides(new BufferedDice(6, 16, 42L), 6);
+    }
+
+    @Test
+    public void Seeded_Dice_Are_Deterministic() {
+        Dice first = new SplittableDice(6, 7L);
+        Dice second = new SplittableDice(6, 7L);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(first.roll(), second.roll());
+        }
+    }
+
+    @Test
+    public void Buffered_Dice_Rolls_Same_Sequence_As_Splittable_Dice() {
+        Dice splittable = new SplittableDice(6, 7L);
+        Dice buffered = new BufferedDice(6, 10, 7L);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(splittable.roll(), buffered.roll());
+        }
+    }
+
+    @Test
+    public void Split_Dice_Are_Deterministic_For_Seeded_Parent() {
+        SplittableDice first = new SplittableDice(6, 3L).split();
+        SplittableDice second = new SplittableDice(6, 3L).split();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(first.roll(), second.roll());
+        }
+    }
+
+    @Test
+    public void Scripted_Dice_Replays_Recorded_Rolls() {
+        ScriptedDice dice = new ScriptedDice(3, 1, 6);
+        assertEquals(3, dice.roll());
+        assertEquals(1, dice.roll());
+        assertEquals(6, dice.roll());
+        assertEquals(0, dice.remaining());
+    }
+
+    @Test
+    public void Recording_Dice_Replays_Recorded_Rolls() {
+        RecordingDice original = new RecordingDice(new SplittableDice(6, 5));
+        RecordingDice copy = new RecordingDice(new ScriptedDice(1));
+
+        original.startRecording();
+        int first = original.roll();
+        int second = original.roll();
+        int[] recorded = original.stopRecording();
+        copy.replay(recorded);
+
+        assertEquals(first, copy.roll());
+        assertEquals(second, copy.roll());
+        assertEquals(0, copy.remainingReplayed());
+        assertEquals(1, copy.roll());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void Scripted_Dice_Throws_Exception_When_Out_Of_Rolls() {
+        new ScriptedDice().roll();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void Dice_Needs_At_Least_One_Side() {
+        new SplittableDice(0, 1L);
+    }
+
+    private void assertRollsWithinSides(Dice dice, int sides) {
+        for (int i = 0; i < 1000; i++) {
+            int roll = dice.roll();
+            assertTrue(roll >= 1 && roll <= sides);
+        }
+    }
+}
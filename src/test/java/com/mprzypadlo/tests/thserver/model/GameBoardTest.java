@@ -0,0 +1,117 @@
+package com.mprzypadlo.tests.thserver.model;
+
+import com.przypadlo.thserver.domain.Board.Directions;
+import com.przypadlo.thserver.domain.Field;
+import com.przypadlo.thserver.domain.Player;
+import com.przypadlo.thserver.model.board.BoardDefinition;
+import com.przypadlo.thserver.model.board.FieldDefinition;
+import com.przypadlo.thserver.model.board.GameBoard;
+import com.przypadlo.thserver.model.item.CatalogItem;
+import com.przypadlo.thserver.model.item.ItemCatalog;
+import java.util.Collections;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import org.junit.Before;
+import org.junit.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class GameBoardTest {
+
+    private BoardDefinition definition;
+
+    @Before
+    public void setUp() {
+        ItemCatalog catalog = new ItemCatalog(
+                new CatalogItem("mana-potion", (player) -> player.increaseMana(5))
+        );
+        definition = BoardDefinition.builder(catalog, 8, 4)
+                .field(0, 3, new FieldDefinition(
+                        catalog,
+                        Collections.singletonMap("mana-potion", 1),
+                        (player) -> {
+                        }
+                ))
+                .startingPosition(0, 1)
+                .build();
+    }
+
+    @Test
+    public void Board_Exposes_Definition_Layout() {
+        GameBoard board = definition.newBoard();
+        assertEquals(2, (int) board.numberOfCircles());
+        assertEquals(0, (int) board.startingCircle());
+        assertEquals(1, (int) board.startingField());
+    }
+
+    @Test
+    public void Board_Wraps_Movement_Around_Circle() {
+        GameBoard board = definition.newBoard();
+        Player player = playerAt(0, 6);
+        assertEquals(1, (int) board.calculatePosition(player, Directions.RIGHT, 3));
+        assertEquals(3, (int) board.calculatePosition(player, Directions.LEFT, 3));
+        assertEquals(7, (int) board.calculatePosition(playerAt(0, 1), Directions.LEFT, 2));
+    }
+
+    @Test
+    public void Empty_Fields_Are_Shared_Between_Games() {
+        Field first = definition.newBoard().fieldOfPosition(1, 2);
+        Field second = definition.newBoard().fieldOfPosition(1, 2);
+        assertSame(first, second);
+    }
+
+    @Test
+    public void Fields_With_Items_Are_Created_Lazily_Per_Game() {
+        GameBoard first = definition.newBoard();
+        GameBoard second = definition.newBoard();
+        assertEquals(0, first.numberOfOverlays());
+
+        first.fieldOfPosition(0, 3).getItem("mana-potion");
+
+        assertEquals(1, first.numberOfOverlays());
+        assertEquals(0, second.numberOfOverlays());
+        assertNotSame(first.fieldOfPosition(0, 3), second.fieldOfPosition(0, 3));
+        assertEquals(1, second.remaining(0, 3, "mana-potion"));
+    }
+
+    @Test
+    public void Reading_Field_With_Items_Does_Not_Create_Overlay() {
+        GameBoard board = definition.newBoard();
+        board.fieldOfPosition(0, 3).applyAction(playerAt(0, 3));
+
+        assertEquals(1, board.remaining(0, 3, "mana-potion"));
+        assertEquals(0, board.numberOfOverlays());
+    }
+
+    @Test
+    public void Board_Copy_Keeps_Field_Stock() {
+        GameBoard board = definition.newBoard();
+        GameBoard copy = board.copy();
+        board.fieldOfPosition(0, 3).getItem("mana-potion");
+        GameBoard secondCopy = board.copy();
+
+        assertEquals(1, copy.remaining(0, 3, "mana-potion"));
+        assertEquals(0, secondCopy.remaining(0, 3, "mana-potion"));
+        assertNotSame(board.fieldOfPosition(0, 3), secondCopy.fieldOfPosition(0, 3));
+    }
+
+    @Test
+    public void Board_Returns_The_Same_Overlay_For_A_Field() {
+        GameBoard board = definition.newBoard();
+        board.fieldOfPosition(0, 3).getItem("mana-potion");
+        assertSame(board.fieldOfPosition(0, 3), board.fieldOfPosition(0, 3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void Board_Throws_Exception_For_Non_Existing_Field() {
+        definition.newBoard().fieldOfPosition(1, 4);
+    }
+
+    private Player playerAt(int circle, int field) {
+        Player player = mock(Player.class);
+        when(player.circle()).thenReturn(circle);
+        when(player.field()).thenReturn(field);
+        return player;
+    }
+}
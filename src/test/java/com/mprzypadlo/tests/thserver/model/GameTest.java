@@ -1,17 +1,23 @@
 package com.mprzypadlo.tests.thserver.model;
 
 import com.przypadlo.thserver.domain.Board;
+import com.przypadlo.thserver.domain.Board.Directions;
 import com.przypadlo.thserver.domain.Dice;
 import com.przypadlo.thserver.domain.Field;
 import com.przypadlo.thserver.model.game.Game;
 import com.przypadlo.thserver.model.game.Game.Status;
+import com.przypadlo.thserver.model.game.GameSnapshot;
 import com.przypadlo.thserver.domain.Item;
 import com.przypadlo.thserver.domain.Player;
 import com.przypadlo.thserver.domain.PlayerFactoryInterface;
+import com.przypadlo.thserver.domain.Weapon;
+import com.przypadlo.thserver.model.exception.ItemUsageException;
 import java.util.LinkedHashMap;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import org.junit.Before;
 import org.junit.Test;
 import static org.mockito.Mockito.*;
@@ -148,6 +154,21 @@ public class GameTest {
         verify(player, times(1)).pickItem(any(Item.class));
     }
 
+    @Test
+    public void Game_Returns_Item_To_Field_When_Player_Rejects_It() {
+        Player player = startGame();
+        when(player.circle()).thenReturn(0);
+        when(player.field()).thenReturn(0);
+        Field fieldMock = configureFieldReturning();
+        doThrow(new ItemUsageException("rejected")).when(player).pickItem(any(Item.class));
+        try {
+            game.pickItem("first-player", "test-item-name");
+            fail("Expected ItemUsageException");
+        } catch (ItemUsageException e) {
+            verify(fieldMock, times(1)).returnItem(any(Item.class));
+        }
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void Game_Throws_Exception_On_Inccorect_User_Picks_Item() {
         startGame();
@@ -189,6 +210,126 @@ public class GameTest {
         assertEquals("second-player", game.currentPlayer());
     }
 
+    @Test
+    public void Game_Increases_Version_After_Each_Operation() {
+        configureGameForMovement();
+        long version = game.version();
+        game.movePlayerRight("first-player");
+        assertEquals(version + 1, game.version());
+    }
+
+    @Test
+    public void Game_Records_Player_Changes() {
+        Player player = configureGameForMovement();
+        long version = game.version();
+        when(player.changes()).thenReturn(Player.POSITION_CHANGED);
+        game.movePlayerRight("first-player");
+
+        assertEquals(
+                Player.POSITION_CHANGED,
+                game.changes().playerChangesSince("first-player", version)
+        );
+        verify(player, atLeastOnce()).clearChanges();
+    }
+
+    @Test
+    public void Game_Records_Removed_Players() {
+        startGame();
+        long version = game.version();
+        game.removePlayer("second-player");
+        assertTrue(game.changes().playerRemovedSince("second-player", version));
+        assertTrue(game.changes().gameChangedSince(version));
+    }
+
+    @Test
+    public void Game_Publishes_Snapshot_After_Each_Operation() {
+        Player player = configureGameForMovement();
+        when(player.field()).thenReturn(4);
+        game.movePlayerRight("first-player");
+
+        GameSnapshot snapshot = game.snapshot();
+        assertEquals(game.version(), snapshot.version());
+        assertEquals(Status.CURRENT_PLAYER_MOVE, snapshot.status());
+        assertEquals("first-player", snapshot.currentPlayer());
+        assertEquals(6, snapshot.lastDiceRoll());
+        assertEquals(4, snapshot.player("second-player").field());
+    }
+
+    @Test
+    public void Published_Snapshot_Does_Not_Change() {
+        GameSnapshot snapshot = game.snapshot();
+        startGame();
+        assertEquals(Status.WAITING_FOR_USERS, snapshot.status());
+        assertEquals(0, snapshot.players().size());
+    }
+
+    @Test
+    public void Game_Returns_To_First_Player_After_Last_Player() {
+        startGame();
+        createFieldMock();
+        game.action("first-player", "test-action");
+        game.action("second-player", "test-action");
+        assertEquals("first-player", game.currentPlayer());
+    }
+
+    @Test
+    public void Game_Copy_Is_Independent_Of_Original() {
+        Player first = new Player(boardMock, 10, 0, 0, 0, mock(Weapon.class));
+        Player second = new Player(boardMock, 10, 0, 0, 0, mock(Weapon.class));
+        when(playerFactoryMock.getPlayer("a")).thenReturn(first);
+        when(playerFactoryMock.getPlayer("b")).thenReturn(second);
+        when(boardMock.calculatePosition(any(Player.class), any(Directions.class), anyInt()))
+                .thenReturn(3);
+        game.addPlayer("first-player", "a");
+        game.addPlayer("second-player", "b");
+
+        Game copy = game.copy(diceMock);
+        game.movePlayerRight("first-player");
+
+        assertEquals(3, game.player("first-player").field());
+        assertEquals(0, copy.player("first-player").field());
+        assertEquals(game.version() - 1, copy.version());
+        assertEquals("first-player", copy.currentPlayer());
+        assertEquals(Status.CURRENT_PLAYER_MOVE, copy.status());
+    }
+
+    @Test
+    public void Game_Fork_Copies_Player_Before_Change() {
+        Player first = new Player(boardMock, 10, 0, 0, 0, mock(Weapon.class));
+        Player second = new Player(boardMock, 10, 0, 0, 0, mock(Weapon.class));
+        when(playerFactoryMock.getPlayer("a")).thenReturn(first);
+        when(playerFactoryMock.getPlayer("b")).thenReturn(second);
+        when(boardMock.calculatePosition(any(Player.class), any(Directions.class), anyInt()))
+                .thenReturn(3);
+        game.addPlayer("first-player", "a");
+        game.addPlayer("second-player", "b");
+
+        Game fork = game.fork(diceMock);
+        fork.movePlayerRight("first-player");
+
+        assertEquals(3, fork.player("first-player").field());
+        assertEquals(0, game.player("first-player").field());
+        assertSame(second, fork.player("second-player"));
+        assertEquals(game.version() + 1, fork.version());
+        assertEquals(fork.version(), fork.snapshot().version());
+    }
+
+    @Test
+    public void Game_Is_Not_Affected_By_Changes_After_Fork() {
+        Player first = new Player(boardMock, 10, 0, 0, 0, mock(Weapon.class));
+        Player second = new Player(boardMock, 10, 0, 0, 0, mock(Weapon.class));
+        startGame(first, second);
+        when(boardMock.calculatePosition(any(Player.class), any(Directions.class), anyInt()))
+                .thenReturn(3);
+
+        Game fork = game.fork(diceMock);
+        game.movePlayerRight("first-player");
+
+        assertEquals(3, game.player("first-player").field());
+        assertEquals(0, fork.player("first-player").field());
+        assertSame(first, fork.player("first-player"));
+    }
+
     private Field createFieldMock() {
         Field fieldMock = mock(Field.class);
         when(boardMock.fieldOfPosition(0, 0)).thenReturn(fieldMock);
@@ -222,11 +363,12 @@ public class GameTest {
         configureFieldReturning();
     }
 
-    private void configureFieldReturning() {
+    private Field configureFieldReturning() {
         Field fieldMock = mock(Field.class);
         Item itemMock = mock(Item.class);
         when(boardMock.fieldOfPosition(0, 0)).thenReturn(fieldMock);
         when(fieldMock.getItem("test-item-name")).thenReturn(itemMock);
+        return fieldMock;
     }
 
     private Player configureGameForMovement() {
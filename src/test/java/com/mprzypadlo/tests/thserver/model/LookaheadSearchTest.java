@@ -0,0 +1,99 @@
+package com.mprzypadlo.tests.thserver.model;
+
+import com.mprzypadlo.thserver.tools.SampleContent;
+import com.przypadlo.thserver.domain.Board;
+import com.przypadlo.thserver.model.ai.Decision;
+import com.przypadlo.thserver.model.ai.LookaheadSearch;
+import com.przypadlo.thserver.model.ai.Move;
+import com.przypadlo.thserver.model.dice.SplittableDice;
+import com.przypadlo.thserver.model.game.Game;
+import com.przypadlo.thserver.model.player.PlayerFactory;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ForkJoinPool;
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ * @author mprzypadlo
+ */
+public class LookaheadSearchTest {
+
+    private final SampleContent content = new SampleContent();
+
+    private ForkJoinPool pool;
+
+    private Game game;
+
+    @Before
+    public void setUp() {
+        pool = new ForkJoinPool(4);
+        Board board = content.board().newBoard();
+        game = new Game(
+                board,
+                new PlayerFactory(board, content.playerClasses(), content.items()),
+                new LinkedHashMap<>(),
+                2,
+                new SplittableDice(6, 5)
+        );
+        game.addPlayer("warrior", "warrior");
+        game.addPlayer("wizard", "wizard");
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void Search_Attacks_Player_In_Range() {
+        LookaheadSearch search = new LookaheadSearch(pool, 1);
+
+        Decision decision = search.decide(game, "warrior", 1000);
+
+        assertEquals(Move.Kind.ATTACK, decision.move().kind());
+        assertEquals("wizard", decision.move().target());
+    }
+
+    @Test
+    public void Search_Does_Not_Change_Game() {
+        long version = game.version();
+        int hp = game.player("wizard").hp();
+
+        new LookaheadSearch(pool, 1).decide(game, "warrior", 1000);
+
+        assertEquals(version, game.version());
+        assertEquals(hp, game.player("wizard").hp());
+        assertEquals("warrior", game.currentPlayer());
+    }
+
+    @Test
+    public void Search_With_Same_Seed_Chooses_Same_Move() {
+        Decision first = new LookaheadSearch(pool, 7).decide(game, "warrior", 5000);
+        Decision second = new LookaheadSearch(pool, 7).decide(game, "warrior", 5000);
+
+        assertEquals(first.move().toString(), second.move().toString());
+        assertEquals(first.score(), second.score(), 0.0);
+        assertEquals(first.nodes(), second.nodes());
+        assertTrue(first.complete());
+    }
+
+    @Test
+    public void Search_Stops_Expanding_After_Budget() {
+        LookaheadSearch search = new LookaheadSearch(
+                pool, (g, player) -> 0, 6, 4, 1
+        );
+
+        Decision decision = search.decide(game, "warrior", 0);
+
+        assertFalse(decision.complete());
+        assertNotNull(decision.move());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void Search_Is_Only_For_Current_Player() {
+        new LookaheadSearch(pool, 1).decide(game, "wizard", 1000);
+    }
+}
@@ -0,0 +1,122 @@
+package com.mprzypadlo.tests.thserver.model;
+
+import com.przypadlo.thserver.domain.Attack;
+import com.przypadlo.thserver.domain.Board;
+import com.przypadlo.thserver.domain.Player;
+import com.przypadlo.thserver.domain.Weapon;
+import com.przypadlo.thserver.model.exception.UnknownPlayerClassException;
+import com.przypadlo.thserver.model.player.PlayerClass;
+import com.przypadlo.thserver.model.player.PlayerClassLoader;
+import com.przypadlo.thserver.model.player.PlayerFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import org.junit.Before;
+import org.junit.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PlayerFactoryTest {
+
+    private Board boardMock;
+
+    private Weapon sword;
+
+    private PlayerClassLoader loader;
+
+    @Before
+    public void setUp() {
+        boardMock = mock(Board.class);
+        when(boardMock.startingCircle()).thenReturn(0);
+        when(boardMock.startingField()).thenReturn(0);
+        sword = mock(Weapon.class);
+        when(sword.name()).thenReturn("sword");
+        loader = new PlayerClassLoader(Collections.singletonMap("sword", sword));
+    }
+
+    @Test
+    public void Factory_Creates_Player_From_Template() {
+        PlayerFactory factory = new PlayerFactory(boardMock, loader.load(warriorConfig()));
+        Player player = factory.getPlayer("warrior");
+
+        assertEquals(120, player.hp());
+        assertEquals(5, player.def());
+        assertEquals(12, player.attackPoints());
+        assertEquals("sword", player.equippedWeapon());
+    }
+
+    @Test
+    public void Factory_Creates_New_Player_On_Each_Call() {
+        PlayerFactory factory = new PlayerFactory(boardMock, loader.load(warriorConfig()));
+        assertNotSame(factory.getPlayer("warrior"), factory.getPlayer("warrior"));
+    }
+
+    @Test
+    public void Factory_Registers_Template_Attack_Handlers() {
+        PlayerClass template = new PlayerClass(
+                "golem", 100, 0, 1, 0, sword,
+                Collections.singletonMap("test-attack", (attack) -> 1)
+        );
+        PlayerFactory factory = new PlayerFactory(
+                boardMock,
+                Collections.singletonMap("golem", template)
+        );
+        Player player = factory.getPlayer("golem");
+        player.handleAttack(createAttack("test-attack"));
+        assertEquals(99, player.hp());
+    }
+
+    @Test(expected = UnknownPlayerClassException.class)
+    public void Factory_Throws_Exception_On_Unknown_Class() {
+        PlayerFactory factory = new PlayerFactory(boardMock, loader.load(warriorConfig()));
+        factory.getPlayer("bard");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void Loader_Throws_Exception_On_Missing_Property() {
+        Properties config = warriorConfig();
+        config.remove("warrior.hp");
+        loader.load(config);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void Loader_Throws_Exception_On_Unknown_Weapon() {
+        Properties config = warriorConfig();
+        config.setProperty("warrior.weapon", "axe");
+        loader.load(config);
+    }
+
+    @Test
+    public void Loader_Loads_All_Listed_Classes() {
+        Properties config = warriorConfig();
+        config.setProperty(PlayerClassLoader.CLASSES_KEY, "warrior, wizard");
+        config.setProperty("wizard.hp", "80");
+        config.setProperty("wizard.def", "1");
+        config.setProperty("wizard.attack", "4");
+        config.setProperty("wizard.mana", "50");
+        config.setProperty("wizard.weapon", "sword");
+
+        Map<String, PlayerClass> classes = loader.load(config);
+        assertEquals(2, classes.size());
+        assertEquals(50, classes.get("wizard").mana());
+    }
+
+    private Properties warriorConfig() {
+        Properties config = new Properties();
+        config.setProperty(PlayerClassLoader.CLASSES_KEY, "warrior");
+        config.setProperty("warrior.hp", "120");
+        config.setProperty("warrior.def", "5");
+        config.setProperty("warrior.attack", "12");
+        config.setProperty("warrior.mana", "0");
+        config.setProperty("warrior.weapon", "sword");
+        return config;
+    }
+
+    private Attack createAttack(String name) {
+        Attack attack = mock(Attack.class);
+        when(attack.name()).thenReturn(name);
+        return attack;
+    }
+}
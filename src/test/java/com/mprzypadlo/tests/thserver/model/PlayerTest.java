@@ -8,6 +8,10 @@ import com.przypadlo.thserver.domain.Player;
 import com.przypadlo.thserver.domain.Weapon;
 import com.przypadlo.thserver.model.exception.CannotAttackException;
 import com.przypadlo.thserver.model.exception.IncorrectCircleException;
+import com.przypadlo.thserver.model.exception.ItemUsageException;
+import com.przypadlo.thserver.model.item.Inventory;
+import com.przypadlo.thserver.model.item.ItemCatalog;
+import com.przypadlo.thserver.model.item.ItemStack;
 import org.junit.Before;
 import org.junit.Test;
 import static org.junit.Assert.*;
@@ -33,10 +37,16 @@ public class PlayerTest {
 
     private Weapon sword;
 
+    private Item testItem;
+
+    private Item manaPotion;
+
     @Before
     public void setUp() {
         boardMock = mock(Board.class);
         sword = mock(Weapon.class);
+        testItem = createItemMock("test-item");
+        manaPotion = createItemMock("mana-potion");
         player = createPlayer();
     }
 
@@ -47,7 +57,8 @@ public class PlayerTest {
                 initialDef,
                 initialAttack,
                 initialMana,
-                sword
+                sword,
+                new Inventory(new ItemCatalog(testItem, manaPotion))
         );
     }
 
@@ -127,6 +138,52 @@ public class PlayerTest {
         assertEquals(95, player.hp());
     }
 
+    @Test
+    public void testPlayer_Use_Attack_Hanlder_Registered_For_Attack_Id() {
+        player.registerAttackHanlder(3, (attack) -> 7);
+        Attack attackMock = createAttackMock("other-name", 20);
+        when(attackMock.id()).thenReturn(3);
+
+        player.handleAttack(attackMock);
+        assertEquals(93, player.hp());
+    }
+
+    @Test
+    public void testPlayer_Handles_Attack_Outside_Catalog() {
+        player.registerAttackHanlder("custom-attack", (attack) -> 4);
+        Attack custom = new Attack() {
+            @Override
+            public String name() {
+                return "custom-attack";
+            }
+
+            @Override
+            public int value() {
+                return 20;
+            }
+
+            @Override
+            public int experienceIncrease() {
+                return 0;
+            }
+        };
+
+        player.handleAttack(custom);
+        assertEquals(0, custom.id());
+        assertEquals(96, player.hp());
+    }
+
+    @Test
+    public void testPlayer_Prefers_Id_Hanlder_Over_Name_Hanlder() {
+        player.registerAttackHanlder("test-attack", (attack) -> 5);
+        player.registerAttackHanlder(2, (attack) -> 1);
+        Attack attackMock = createAttackMock("test-attack", 20);
+        when(attackMock.id()).thenReturn(2);
+
+        player.handleAttack(attackMock);
+        assertEquals(99, player.hp());
+    }
+
     @Test
     public void testPlayer_Has_Default_Weapon() {
         when(sword.name()).thenReturn("test-weapon");
@@ -160,43 +217,91 @@ public class PlayerTest {
 
     @Test
     public void Player_Can_Pick_Items() {
-        Item item = mock(Item.class);
-        when(item.name()).thenReturn("test-item");
-        player.pickItem(item);
+        player.pickItem(testItem);
 
         assertTrue(player.items().contains("test-item"));
     }
     
+    @Test
+    public void Player_Stacks_Picked_Items() {
+        player.pickItem(testItem);
+        player.pickItem(testItem);
+
+        assertEquals(2, player.itemCount("test-item"));
+        assertEquals(1, player.items().size());
+    }
+    
     @Test 
     public void Player_Uses_Items() { 
-        Item itemMock = mock(Item.class); 
-        when(itemMock.name()).thenReturn("test-item");
-        
-        player.pickItem(itemMock);
+        player.pickItem(testItem);
         player.useItem("test-item");
         
-        verify(itemMock, times(1)).applyTo(player);
+        verify(testItem, times(1)).applyTo(player);
     }
 
     @Test
     public void Player_Decrease_Item_Count_When_Used() {
-        Item itemMock = mock(Item.class);
-        when(itemMock.name()).thenReturn("test-item");
-        player.pickItem(itemMock);
+        player.pickItem(testItem);
+        player.pickItem(testItem);
         player.useItem("test-item");
-        verify(itemMock, times(1)).decreaseCount();
+        assertEquals(1, player.itemCount("test-item"));
     }
 
     @Test
     public void testPlayer_Removes_Item_When_Run_Out_Of_It() {
-        Item item = mock(Item.class);
-        when(item.name()).thenReturn("mana-potion");
-        when(item.count()).thenReturn(0);
-        player.pickItem(item);
+        player.pickItem(manaPotion);
         player.useItem("mana-potion");
         assertEquals(0, player.items().size());
     }
 
+    @Test(expected = ItemUsageException.class)
+    public void testPlayer_Throws_Exception_When_Using_Item_Not_In_Inventory() {
+        player.useItem("mana-potion");
+    }
+
+    @Test
+    public void Player_Adds_All_Units_Of_Picked_Item() {
+        player.pickItem(new ItemStack(testItem, 3));
+
+        assertEquals(3, player.itemCount("test-item"));
+    }
+
+    @Test(expected = ItemUsageException.class)
+    public void testPlayer_Throws_Exception_When_Picking_Item_Without_Units() {
+        Item empty = createItemMock("test-item");
+        when(empty.count()).thenReturn(0);
+        player.pickItem(empty);
+    }
+
+    @Test
+    public void Player_Keeps_Items_Outside_Catalog() {
+        Item unknown = createItemMock("unknown-item");
+        player.pickItem(unknown);
+        player.pickItem(unknown);
+        player.useItem("unknown-item");
+
+        verify(unknown, times(1)).applyTo(player);
+        assertEquals(1, player.itemCount("unknown-item"));
+        assertTrue(player.items().contains("unknown-item"));
+    }
+
+    @Test
+    public void Player_Without_Catalog_Uses_Picked_Items() {
+        Player withoutCatalog = new Player(
+                boardMock,
+                initialHP,
+                initialDef,
+                initialAttack,
+                initialMana,
+                sword
+        );
+        withoutCatalog.pickItem(manaPotion);
+        withoutCatalog.useItem("mana-potion");
+
+        verify(manaPotion, times(1)).applyTo(withoutCatalog);
+        assertEquals(0, withoutCatalog.items().size());
+    }
+
     @Test
     public void testPlayer_Picks_Up_Weapons() {
         Weapon weapon = mock(Weapon.class);
@@ -236,6 +341,13 @@ public class PlayerTest {
         assertTrue(player.weapons().contains("andrzej"));
     }
 
+    private Item createItemMock(String itemName) {
+        Item itemMock = mock(Item.class);
+        when(itemMock.name()).thenReturn(itemName);
+        when(itemMock.count()).thenReturn(1);
+        return itemMock;
+    }
+
     private Attack createAttackMock(String attackName, int value, int exp) {
         Attack attackMock = createAttackMock(attackName, value);
         when(attackMock.experienceIncrease()).thenReturn(exp);
@@ -0,0 +1,127 @@
+package com.mprzypadlo.tests.thserver.model;
+
+import com.przypadlo.thserver.domain.Item;
+import com.przypadlo.thserver.domain.Player;
+import com.przypadlo.thserver.model.board.FieldDefinition;
+import com.przypadlo.thserver.model.board.StockedField;
+import com.przypadlo.thserver.model.exception.ItemUsageException;
+import com.przypadlo.thserver.model.item.CatalogItem;
+import com.przypadlo.thserver.model.item.ItemCatalog;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import static org.junit.Assert.assertEquals;
+import org.junit.Before;
+import org.junit.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class StockedFieldTest {
+
+    private ItemCatalog catalog;
+
+    private Consumer<Player> actionMock;
+
+    private FieldDefinition definition;
+
+    @Before
+    public void setUp() {
+        catalog = new ItemCatalog(
+                new CatalogItem("mana-potion", (player) -> player.increaseMana(5)),
+                new CatalogItem("shield", (player) -> player.increaseDefence(1))
+        );
+        actionMock = mock(Consumer.class);
+        Map<String, Integer> stock = new HashMap<>();
+        stock.put("mana-potion", 2);
+        definition = new FieldDefinition(catalog, stock, actionMock);
+    }
+
+    @Test
+    public void Field_Returns_Single_Unit_Of_Item() {
+        StockedField field = definition.newField();
+        Item item = field.getItem("mana-potion");
+        assertEquals("mana-potion", item.name());
+        assertEquals(1, item.count());
+    }
+
+    @Test
+    public void Field_Decreases_Stock_When_Item_Taken() {
+        StockedField field = definition.newField();
+        field.getItem("mana-potion");
+        assertEquals(1, field.remaining("mana-potion"));
+    }
+
+    @Test
+    public void Field_Takes_Back_Returned_Item() {
+        StockedField field = definition.newField();
+        field.returnItem(field.getItem("mana-potion"));
+        assertEquals(2, field.remaining("mana-potion"));
+    }
+
+    @Test(expected = ItemUsageException.class)
+    public void Field_Throws_Exception_When_Out_Of_Stock() {
+        StockedField field = definition.newField();
+        field.getItem("mana-potion");
+        field.getItem("mana-potion");
+        field.getItem("mana-potion");
+    }
+
+    @Test(expected = ItemUsageException.class)
+    public void Field_Throws_Exception_When_Item_Not_On_Field() {
+        definition.newField().getItem("shield");
+    }
+
+    @Test
+    public void Fields_Of_Shared_Definition_Have_Separate_Stock() {
+        StockedField first = definition.newField();
+        StockedField second = definition.newField();
+        first.getItem("mana-potion");
+        first.getItem("mana-potion");
+        assertEquals(2, second.remaining("mana-potion"));
+    }
+
+    @Test
+    public void Field_Applies_Action() {
+        Player playerMock = mock(Player.class);
+        definition.newField().applyAction(playerMock);
+        verify(actionMock, times(1)).accept(playerMock);
+    }
+
+    @Test
+    public void Concurrent_Pickups_Never_Exceed_Stock() throws InterruptedException {
+        int stock = 10000;
+        int threads = 4;
+        StockedField field = new FieldDefinition(
+                catalog,
+                Collections.singletonMap("shield", stock),
+                actionMock
+        ).newField();
+        AtomicInteger taken = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                takeUntilEmpty(field, taken);
+                done.countDown();
+            }).start();
+        }
+        done.await();
+
+        assertEquals(stock, taken.get());
+        assertEquals(0, field.remaining("shield"));
+    }
+
+    private void takeUntilEmpty(StockedField field, AtomicInteger taken) {
+        try {
+            while (true) {
+                field.getItem("shield");
+                taken.incrementAndGet();
+            }
+        } catch (ItemUsageException ex) {
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.mprzypadlo.tests.thserver.model;
+
+import com.przypadlo.thserver.domain.Attack;
+import com.przypadlo.thserver.domain.Player;
+import com.przypadlo.thserver.domain.Weapon;
+import com.przypadlo.thserver.model.weapon.WeaponCatalog;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import org.junit.Before;
+import org.junit.Test;
+import static org.mockito.Mockito.mock;
+
+public class WeaponCatalogTest {
+
+    private WeaponCatalog catalog;
+
+    @Before
+    public void setUp() {
+        catalog = WeaponCatalog.builder()
+                .attack("slash", 10, 2)
+                .weapon("sword", 1, "slash")
+                .weapon("sabre", 1, "slash")
+                .weapon("bow", 5, "arrow", 6, 1)
+                .build();
+    }
+
+    @Test
+    public void Catalog_Returns_Shared_Weapons() {
+        assertSame(catalog.weapon("sword"), catalog.weapon("sword"));
+    }
+
+    @Test
+    public void Weapon_Returns_The_Same_Attack_On_Every_Swing() {
+        Weapon sword = catalog.weapon("sword");
+        Player attacker = mock(Player.class);
+        assertSame(sword.createAttack(attacker), sword.createAttack(attacker));
+    }
+
+    @Test
+    public void Attacks_With_The_Same_Name_Are_Interned() {
+        Player attacker = mock(Player.class);
+        assertSame(
+                catalog.weapon("sword").createAttack(attacker),
+                catalog.weapon("sabre").createAttack(attacker)
+        );
+    }
+
+    @Test
+    public void Attacks_Have_Sequential_Ids() {
+        assertEquals(1, catalog.attack("slash").id());
+        assertEquals(2, catalog.attack("arrow").id());
+        assertSame(catalog.attack("arrow"), catalog.attack(2));
+        assertEquals(2, catalog.numberOfAttacks());
+    }
+
+    @Test
+    public void Attack_Keeps_Its_Values() {
+        Attack arrow = catalog.weapon("bow").createAttack(mock(Player.class));
+        assertEquals("arrow", arrow.name());
+        assertEquals(6, arrow.value());
+        assertEquals(1, arrow.experienceIncrease());
+        assertEquals(5, catalog.weapon("bow").range());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void Catalog_Throws_Exception_On_Conflicting_Attack_Definition() {
+        WeaponCatalog.builder()
+                .attack("slash", 10, 2)
+                .attack("slash", 11, 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void Catalog_Throws_Exception_On_Unknown_Weapon() {
+        catalog.weapon("axe");
+    }
+}
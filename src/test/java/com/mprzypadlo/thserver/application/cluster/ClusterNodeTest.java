@@ -0,0 +1,135 @@
+package com.mprzypadlo.thserver.application.cluster;
+
+import com.mprzypadlo.thserver.application.command.Command;
+import com.mprzypadlo.thserver.application.command.CommandBus;
+import com.mprzypadlo.thserver.application.command.commands.MovePlayer;
+import com.mprzypadlo.thserver.application.protocol.DecodedCommand;
+import com.przypadlo.thserver.domain.Board.Directions;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ *
+ * @author mprzypadlo
+ */
+public class ClusterNodeTest {
+
+    private ConsistentHashRing ring;
+
+    private final Map<String, List<Command>> handled = new HashMap<>();
+
+    private final Map<String, ClusterNode> nodes = new HashMap<>();
+
+    @Before
+    public void setUp() {
+        ring = new ConsistentHashRing(64);
+        LocalTransport transport = new LocalTransport();
+        for (String id : new String[]{"node-a", "node-b", "node-c"}) {
+            ring.addNode(id);
+            List<Command> commands = new ArrayList<>();
+            handled.put(id, commands);
+            CommandBus bus = mock(CommandBus.class);
+            doAnswer(invocation -> {
+                Command command = (Command) invocation.getArguments()[0];
+                commands.add(command instanceof DecodedCommand
+                        ? ((DecodedCommand) command).detach()
+                        : command);
+                return null;
+            }).when(bus).dispatch(any(Command.class));
+            ClusterNode node = new ClusterNode(id, ring, transport, gameId -> bus);
+            nodes.put(id, node);
+            transport.connect(node);
+        }
+    }
+
+    @Test
+    public void Command_Is_Handled_By_Game_Owner() {
+        for (int gameId = 0; gameId < 30; gameId++) {
+            nodes.get("node-a").dispatch(gameId, move(gameId, "player-" + gameId));
+        }
+
+        int total = 0;
+        for (Map.Entry<String, List<Command>> entry : handled.entrySet()) {
+            for (Command command : entry.getValue()) {
+                MovePlayer move = (MovePlayer) command;
+                assertEquals(entry.getKey(), ring.nodeFor(move.sourceId()));
+                assertEquals("player-" + move.sourceId(), move.playerName());
+                assertEquals(Directions.LEFT, move.direction());
+                total++;
+            }
+        }
+        assertEquals(30, total);
+        assertEquals(30 - handled.get("node-a").size(), nodes.get("node-a").forwarded());
+    }
+
+    @Test(expected = UnknownGameException.class)
+    public void Unknown_Local_Game_Is_Reported() {
+        ClusterNode node = new ClusterNode("solo", single(), mock(Transport.class), gameId -> null);
+        node.dispatch(1, move(1, "johny"));
+    }
+
+    @Test
+    public void Adding_Node_Moves_Only_Its_Share_Of_Games() {
+        int games = 10000;
+        String[] before = new String[games];
+        for (int gameId = 0; gameId < games; gameId++) {
+            before[gameId] = ring.nodeFor(gameId);
+        }
+        ring.addNode("node-d");
+
+        int moved = 0;
+        for (int gameId = 0; gameId < games; gameId++) {
+            String owner = ring.nodeFor(gameId);
+            if (!owner.equals(before[gameId])) {
+                assertEquals("node-d", owner);
+                moved++;
+            }
+        }
+        assertTrue(moved > games / 8);
+        assertTrue(moved < games * 3 / 8);
+    }
+
+    @Test
+    public void Games_Are_Spread_Across_Nodes() {
+        Map<String, Integer> counts = new HashMap<>();
+        for (int gameId = 0; gameId < 30000; gameId++) {
+            counts.merge(ring.nodeFor(gameId), 1, Integer::sum);
+        }
+        for (int count : counts.values()) {
+            assertTrue(count > 7000);
+            assertTrue(count < 13000);
+        }
+    }
+
+    private ConsistentHashRing single() {
+        ConsistentHashRing single = new ConsistentHashRing(1);
+        single.addNode("solo");
+        return single;
+    }
+
+    private static MovePlayer move(int sourceId, String playerName) {
+        return new MovePlayer() {
+            @Override
+            public int sourceId() {
+                return sourceId;
+            }
+
+            @Override
+            public String playerName() {
+                return playerName;
+            }
+
+            @Override
+            public Directions direction() {
+                return Directions.LEFT;
+            }
+        };
+    }
+}
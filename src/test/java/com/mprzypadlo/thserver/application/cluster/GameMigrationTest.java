@@ -0,0 +1,212 @@
+package com.mprzypadlo.thserver.application.cluster;
+
+import com.mprzypadlo.thserver.application.MessageBus;
+import com.mprzypadlo.thserver.application.SimpleMessageBuilder;
+import com.mprzypadlo.thserver.application.command.Command;
+import com.mprzypadlo.thserver.application.command.CommandBus;
+import com.mprzypadlo.thserver.application.command.commands.ExecuteAction;
+import com.mprzypadlo.thserver.application.command.commands.MovePlayer;
+import com.mprzypadlo.thserver.application.command.handlers.GameHandlers;
+import com.mprzypadlo.thserver.tools.SampleContent;
+import com.przypadlo.thserver.domain.Board;
+import com.przypadlo.thserver.domain.Board.Directions;
+import com.przypadlo.thserver.domain.Dice;
+import com.przypadlo.thserver.model.dice.RecordingDice;
+import com.przypadlo.thserver.model.dice.SplittableDice;
+import com.przypadlo.thserver.model.game.Game;
+import com.przypadlo.thserver.model.player.PlayerFactory;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+import static org.mockito.Mockito.*;
+
+/**
+ *
+ * @author mprzypadlo
+ */
+public class GameMigrationTest {
+
+    private static final String[] PLAYERS = {"johny", "mark"};
+
+    private final SampleContent content = new SampleContent();
+
+    private GameHost hostA;
+
+    private GameHost hostB;
+
+    private ClusterNode nodeA;
+
+    private ClusterNode nodeB;
+
+    private int gameId;
+
+    @Before
+    public void setUp() {
+        ConsistentHashRing ring = new ConsistentHashRing(16);
+        ring.addNode("node-a");
+        ring.addNode("node-b");
+        LocalTransport transport = new LocalTransport();
+        hostA = new GameHost(GameMigrationTest::bus, mock(MessageBus.class));
+        hostB = new GameHost(GameMigrationTest::bus, mock(MessageBus.class));
+        nodeA = new ClusterNode("node-a", ring, transport, hostA::bus);
+        nodeB = new ClusterNode("node-b", ring, transport, hostB::bus);
+        transport.connect(nodeA);
+        transport.connect(nodeB);
+        while (!nodeA.owns(gameId)) {
+            gameId++;
+        }
+    }
+
+    @Test
+    public void Game_Is_Moved_To_Target_Node() {
+        RecordingDice dice = new RecordingDice(() -> 3);
+        hostA.host(gameId, newGame(dice), dice);
+        nodeA.dispatch(gameId, move(PLAYERS[0]));
+
+        HostedGame moved = new GameMigration(gameId, nodeA, hostA, nodeB, hostB).run(() -> 3);
+        nodeA.dispatch(gameId, endTurn(PLAYERS[0]));
+
+        assertNull(hostA.game(gameId));
+        assertSame(moved, hostB.game(gameId));
+        assertEquals("node-b", nodeA.nodeFor(gameId));
+        assertEquals(3, moved.game().player(PLAYERS[0]).field());
+        assertEquals(PLAYERS[1], moved.game().currentPlayer());
+        assertEquals(1, nodeA.forwarded());
+    }
+
+    @Test
+    public void Command_Reaching_Target_During_Cutover_Waits_For_Fenced_Commands() {
+        LocalTransport transport = new LocalTransport();
+        ConsistentHashRing ring = new ConsistentHashRing(16);
+        ring.addNode("node-a");
+        ring.addNode("node-b");
+        nodeA = new ClusterNode("node-a", ring, transport, hostA::bus);
+        nodeB = new ClusterNode("node-b", ring, transport, hostB::bus) {
+            @Override
+            public void redirect(int redirectedGame, String nodeId) {
+                if (!"node-b".equals(nodeId)) {
+                    super.redirect(redirectedGame, nodeId);
+                    return;
+                }
+                nodeA.dispatch(redirectedGame, move(PLAYERS[0]));
+                super.redirect(redirectedGame, nodeId);
+                dispatch(redirectedGame, endTurn(PLAYERS[0]));
+            }
+        };
+        transport.connect(nodeA);
+        transport.connect(nodeB);
+        RecordingDice dice = new RecordingDice(() -> 3);
+        hostA.host(gameId, newGame(dice), dice);
+
+        HostedGame moved = new GameMigration(gameId, nodeA, hostA, nodeB, hostB).run(() -> 3);
+
+        assertEquals(3, moved.game().player(PLAYERS[0]).field());
+        assertEquals(PLAYERS[1], moved.game().currentPlayer());
+    }
+
+    @Test
+    public void Commands_Sent_During_Migration_Are_Not_Lost() throws InterruptedException {
+        SplittableDice shared = new SplittableDice(6, 9);
+        RecordingDice dice = new RecordingDice(shared);
+        hostA.host(gameId, newGame(dice), dice);
+        Game referenceGame = newGame(new SplittableDice(6, 9));
+        CommandBus reference = bus(referenceGame, mock(MessageBus.class));
+        AtomicInteger turns = new AtomicInteger();
+        Thread players = new Thread(() -> {
+            for (int turn = 0; turn < 3000; turn++) {
+                for (Command command : turn(turn)) {
+                    nodeA.dispatch(gameId, command);
+                    reference.dispatch(command);
+                }
+                turns.incrementAndGet();
+            }
+        });
+        players.start();
+        while (turns.get() < 200) {
+            Thread.yield();
+        }
+
+        GameMigration migration = new GameMigration(gameId, nodeA, hostA, nodeB, hostB);
+        HostedGame moved = migration.run(shared);
+        players.join();
+
+        Game game = moved.game();
+        assertEquals(referenceGame.version(), game.version());
+        assertEquals(referenceGame.currentPlayer(), game.currentPlayer());
+        assertEquals(referenceGame.lastDiceRoll(), game.lastDiceRoll());
+        for (String player : PLAYERS) {
+            assertEquals(referenceGame.player(player).field(), game.player(player).field());
+            assertEquals(referenceGame.player(player).hp(), game.player(player).hp());
+        }
+        assertTrue(migration.pauseNanos() > 0);
+    }
+
+    private Game newGame(Dice dice) {
+        Board board = content.board().newBoard();
+        Game game = new Game(
+                board,
+                new PlayerFactory(board, content.playerClasses(), content.items()),
+                new LinkedHashMap<>(),
+                PLAYERS.length,
+                dice
+        );
+        game.addPlayer(PLAYERS[0], "warrior");
+        game.addPlayer(PLAYERS[1], "wizard");
+        return game;
+    }
+
+    private static CommandBus bus(Game game, MessageBus connections) {
+        return GameHandlers.register(
+                new CommandBus(new HashMap()),
+                game,
+                connections,
+                new SimpleMessageBuilder()
+        );
+    }
+
+    private static Command[] turn(int turn) {
+        String player = PLAYERS[turn % PLAYERS.length];
+        return new Command[]{move(player), endTurn(player)};
+    }
+
+    private static MovePlayer move(String playerName) {
+        return new MovePlayer() {
+            @Override
+            public int sourceId() {
+                return 1;
+            }
+
+            @Override
+            public String playerName() {
+                return playerName;
+            }
+
+            @Override
+            public Directions direction() {
+                return Directions.RIGHT;
+            }
+        };
+    }
+
+    private static ExecuteAction endTurn(String playerName) {
+        return new ExecuteAction() {
+            @Override
+            public int sourceId() {
+                return 1;
+            }
+
+            @Override
+            public String playerName() {
+                return playerName;
+            }
+
+            @Override
+            public String actionName() {
+                return "end-turn";
+            }
+        };
+    }
+}
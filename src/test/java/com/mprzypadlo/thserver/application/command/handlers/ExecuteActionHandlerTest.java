@@ -0,0 +1,54 @@
+package com.mprzypadlo.thserver.application.command.handlers;
+
+import com.mprzypadlo.thserver.application.Message;
+import com.mprzypadlo.thserver.application.MessageBus;
+import com.mprzypadlo.thserver.application.SimpleMessageBuilder;
+import com.mprzypadlo.thserver.application.command.HandlerErrorListener;
+import com.mprzypadlo.thserver.application.command.commands.ExecuteAction;
+import com.mprzypadlo.thserver.application.interest.InterestManager;
+import com.przypadlo.thserver.domain.Player;
+import com.przypadlo.thserver.model.game.Game;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ExecuteActionHandlerTest {
+
+    @Test
+    public void Turn_State_Is_Sent_To_All_Players_Despite_Interest() {
+        Game gameMock = mock(Game.class);
+        MessageBus connectionsMock = mock(MessageBus.class);
+        Player far = mock(Player.class);
+        when(far.field()).thenReturn(6);
+        when(gameMock.player("player-one")).thenReturn(mock(Player.class));
+        when(gameMock.player("player-two")).thenReturn(far);
+        when(gameMock.currentPlayer()).thenReturn("player-two");
+        InterestManager interest = new InterestManager(gameMock, connectionsMock, new int[]{12}, 0, 1);
+        interest.register(10, "player-one");
+        interest.register(11, "player-two");
+        ExecuteActionHandler handler = new ExecuteActionHandler(
+                gameMock,
+                connectionsMock,
+                interest,
+                HandlerErrorListener.NONE,
+                new SimpleMessageBuilder()
+        );
+        ExecuteAction action = mock(ExecuteAction.class);
+        when(action.playerName()).thenReturn("player-one");
+        when(action.actionName()).thenReturn("end-turn");
+        when(action.sourceId()).thenReturn(10);
+
+        handler.handle(action);
+
+        ArgumentCaptor<Message> message = ArgumentCaptor.forClass(Message.class);
+        verify(connectionsMock).notifyAll(message.capture());
+        assertEquals("player-two", message.getValue().content().get("current-player"));
+        verify(connectionsMock, never()).notifyAll(any(int[].class), anyInt(), any(Message.class));
+    }
+}
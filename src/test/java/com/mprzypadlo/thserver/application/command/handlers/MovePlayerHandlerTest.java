@@ -0,0 +1,149 @@
+package com.mprzypadlo.thserver.application.command.handlers;
+
+import com.mprzypadlo.thserver.application.Message;
+import com.mprzypadlo.thserver.application.MessageBus;
+import com.mprzypadlo.thserver.application.SimpleMessageBuilder;
+import com.mprzypadlo.thserver.application.command.HandlerErrorListener;
+import com.mprzypadlo.thserver.application.command.commands.MovePlayer;
+import com.mprzypadlo.thserver.application.interest.InterestManager;
+import com.przypadlo.thserver.domain.Board.Directions;
+import com.przypadlo.thserver.domain.Player;
+import com.przypadlo.thserver.model.exception.CannotAttackException;
+import com.przypadlo.thserver.model.game.Game;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MovePlayerHandlerTest {
+
+    private MovePlayerHandler handler;
+
+    private Game gameMock;
+
+    private MessageBus connectionsMock;
+
+    @Before
+    public void setUp() {
+        gameMock = mock(Game.class);
+        connectionsMock = mock(MessageBus.class);
+        handler = new MovePlayerHandler(
+                gameMock,
+                connectionsMock,
+                new SimpleMessageBuilder()
+        );
+        Player player = mock(Player.class);
+        when(player.field()).thenReturn(4);
+        when(gameMock.player("player-one")).thenReturn(player);
+    }
+
+    @Test
+    public void MovePlayer_Executes_Domain_Logic() {
+        handler.handle(createMovePlayerCommand(Directions.LEFT));
+        verify(gameMock, times(1)).movePlayerLeft("player-one");
+    }
+
+    @Test
+    public void MovePlayer_Sends_Message_On_Success() {
+        handler.handle(createMovePlayerCommand(Directions.RIGHT));
+
+        ArgumentCaptor<Message> message = ArgumentCaptor.forClass(Message.class);
+        verify(connectionsMock, times(1)).notifyAll(message.capture());
+        assertEquals("player-moved", message.getValue().name());
+        assertEquals("4", message.getValue().content().get("field"));
+    }
+
+    @Test
+    public void MovePlayer_Sends_Message_On_Failure() {
+        doThrow(CannotAttackException.class).when(gameMock).movePlayerRight("player-one");
+        handler.handle(createMovePlayerCommand(Directions.RIGHT));
+
+        ArgumentCaptor<Message> message = ArgumentCaptor.forClass(Message.class);
+        verify(connectionsMock, times(1)).notify(eq(10), message.capture());
+        assertEquals("player-move-error", message.getValue().name());
+        assertEquals(
+                "CannotAttackException",
+                message.getValue().content().get("error-type")
+        );
+    }
+
+    @Test
+    public void MovePlayer_Notifies_Only_Players_Near_The_Field() {
+        Player other = mock(Player.class);
+        when(gameMock.player("player-two")).thenReturn(other);
+        InterestManager interest = new InterestManager(gameMock, connectionsMock, new int[]{8}, 0, 1);
+        interest.register(10, "player-one");
+        interest.register(11, "player-two");
+        handler = new MovePlayerHandler(
+                gameMock,
+                connectionsMock,
+                interest,
+                HandlerErrorListener.NONE,
+                new SimpleMessageBuilder()
+        );
+
+        handler.handle(createMovePlayerCommand(Directions.RIGHT));
+
+        ArgumentCaptor<int[]> recipients = ArgumentCaptor.forClass(int[].class);
+        verify(connectionsMock, times(1)).notifyAll(recipients.capture(), eq(1), any(Message.class));
+        assertEquals(10, recipients.getValue()[0]);
+        verify(connectionsMock, never()).notifyAll(any(Message.class));
+    }
+
+    @Test
+    public void MovePlayer_Notifies_Players_Near_Old_And_New_Field() {
+        AtomicInteger field = new AtomicInteger(1);
+        Player player = mock(Player.class);
+        when(player.field()).thenAnswer(invocation -> field.get());
+        when(gameMock.player("player-one")).thenReturn(player);
+        doAnswer(invocation -> {
+            field.set(4);
+            return null;
+        }).when(gameMock).movePlayerRight("player-one");
+        Player near = mock(Player.class);
+        when(gameMock.player("player-two")).thenReturn(near);
+        Player far = mock(Player.class);
+        when(far.field()).thenReturn(6);
+        when(gameMock.player("player-three")).thenReturn(far);
+        InterestManager interest = new InterestManager(gameMock, connectionsMock, new int[]{12}, 0, 1);
+        interest.register(10, "player-one");
+        interest.register(11, "player-two");
+        interest.register(12, "player-three");
+        handler = new MovePlayerHandler(
+                gameMock,
+                connectionsMock,
+                interest,
+                HandlerErrorListener.NONE,
+                new SimpleMessageBuilder()
+        );
+
+        handler.handle(createMovePlayerCommand(Directions.RIGHT));
+
+        ArgumentCaptor<int[]> recipients = ArgumentCaptor.forClass(int[].class);
+        ArgumentCaptor<Integer> count = ArgumentCaptor.forClass(Integer.class);
+        verify(connectionsMock).notifyAll(recipients.capture(), count.capture(), any(Message.class));
+        int[] notified = Arrays.copyOf(recipients.getValue(), count.getValue());
+        Arrays.sort(notified);
+        assertArrayEquals(new int[]{10, 11}, notified);
+    }
+
+    private MovePlayer createMovePlayerCommand(Directions direction) {
+        MovePlayer command = mock(MovePlayer.class);
+        when(command.playerName()).thenReturn("player-one");
+        when(command.direction()).thenReturn(direction);
+        when(command.sourceId()).thenReturn(10);
+        return command;
+    }
+}
@@ -0,0 +1,140 @@
+package com.mprzypadlo.thserver.application.dispatch;
+
+import com.mprzypadlo.thserver.application.command.Command;
+import com.mprzypadlo.thserver.application.command.CommandBus;
+import com.mprzypadlo.thserver.application.command.commands.AttackPlayer;
+import com.mprzypadlo.thserver.application.command.commands.ExecuteAction;
+import com.mprzypadlo.thserver.application.command.commands.MovePlayer;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ *
+ * @author mprzypadlo
+ */
+public class LaneDispatcherTest {
+
+    private final List<String> dispatched = new ArrayList<>();
+
+    private LaneDispatcher dispatcher;
+
+    private CommandBus bus;
+
+    @Before
+    public void setUp() {
+        bus = mock(CommandBus.class);
+        doAnswer(invocation -> {
+            dispatched.add(((Command) invocation.getArguments()[0]).name());
+            return null;
+        }).when(bus).dispatch(any(Command.class));
+        dispatcher = new LaneDispatcher(bus, 100000);
+    }
+
+    @Test
+    public void Lanes_Are_Drained_According_To_Weights() {
+        PriorityLanes<String> lanes = new PriorityLanes<>(100, 3, 1);
+        for (int i = 0; i < 10; i++) {
+            lanes.offer(0, "high");
+            lanes.offer(1, "low");
+        }
+
+        List<String> order = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            order.add(lanes.poll());
+        }
+
+        assertEquals(6, order.stream().filter("high"::equals).count());
+        assertEquals(2, order.stream().filter("low"::equals).count());
+    }
+
+    @Test
+    public void Low_Priority_Lane_Is_Not_Starved() {
+        PriorityLanes<String> lanes = new PriorityLanes<>(100, 8, 1);
+        for (int i = 0; i < 50; i++) {
+            lanes.offer(0, "high");
+        }
+        lanes.offer(1, "low");
+
+        List<String> order = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            order.add(lanes.poll());
+        }
+
+        assertTrue(order.contains("low"));
+    }
+
+    @Test
+    public void Full_Lane_Rejects_Commands() {
+        PriorityLanes<String> lanes = new PriorityLanes<>(2, 1);
+        assertTrue(lanes.offer(0, "a"));
+        assertTrue(lanes.offer(0, "b"));
+        assertFalse(lanes.offer(0, "c"));
+        assertEquals("a", lanes.poll());
+        assertTrue(lanes.offer(0, "c"));
+    }
+
+    @Test
+    public void Turn_Command_Overtakes_Bulk_Traffic() {
+        for (int i = 0; i < 10000; i++) {
+            dispatcher.submit(command("chat-message"));
+        }
+        dispatcher.submit(command(MovePlayer.NAME));
+        dispatcher.submit(command(ExecuteAction.NAME));
+
+        dispatcher.drain(10);
+
+        assertTrue(dispatched.contains(MovePlayer.NAME));
+        assertTrue(dispatched.contains(ExecuteAction.NAME));
+        assertEquals(10000, dispatcher.pending() + dispatched.size() - 2);
+    }
+
+    @Test
+    public void Turn_Commands_Of_Source_Keep_Order_Under_Bulk_Traffic() {
+        for (int i = 0; i < 10000; i++) {
+            dispatcher.submit(command("chat-message"));
+        }
+        dispatcher.submit(command(MovePlayer.NAME));
+        dispatcher.submit(command(AttackPlayer.NAME));
+        dispatcher.submit(command(ExecuteAction.NAME));
+
+        dispatcher.drain(10);
+
+        int move = dispatched.indexOf(MovePlayer.NAME);
+        int attack = dispatched.indexOf(AttackPlayer.NAME);
+        int action = dispatched.indexOf(ExecuteAction.NAME);
+        assertTrue(move >= 0);
+        assertTrue(move < attack);
+        assertTrue(attack < action);
+    }
+
+    @Test
+    public void Failing_Command_Does_Not_Stop_Draining() {
+        CommandBus failing = mock(CommandBus.class);
+        doThrow(new RuntimeException()).when(failing).dispatch(any(Command.class));
+        LaneDispatcher failingDispatcher = new LaneDispatcher(failing, 10);
+        failingDispatcher.submit(command(MovePlayer.NAME));
+        failingDispatcher.submit(command(MovePlayer.NAME));
+
+        assertEquals(2, failingDispatcher.drain(10));
+        assertEquals(2, failingDispatcher.failed());
+    }
+
+    private static Command command(String name) {
+        return new Command() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public int sourceId() {
+                return 1;
+            }
+        };
+    }
+}
@@ -0,0 +1,191 @@
+package com.mprzypadlo.thserver.application.dispatch;
+
+import com.mprzypadlo.thserver.application.cluster.UnknownGameException;
+import com.mprzypadlo.thserver.application.command.Command;
+import com.mprzypadlo.thserver.application.command.CommandBus;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author mprzypadlo
+ */
+public class ShardedDispatcherTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final long[] costs = {100, 10, 100, 10};
+
+    @Test
+    public void Hot_Game_Is_Moved_To_Idle_Shard() {
+        ShardedDispatcher dispatcher = new ShardedDispatcher(
+                2, this::costlyBus, 32, ShardedDispatcher.DEFAULT_TOLERANCE, clock::get
+        );
+        for (int i = 0; i < 10; i++) {
+            for (int game = 0; game < costs.length; game++) {
+                dispatcher.submit(game, new TestCommand(i));
+            }
+        }
+        dispatcher.drain(0);
+        dispatcher.drain(1);
+
+        assertEquals(1, dispatcher.rebalance());
+        assertEquals(1, dispatcher.moved());
+        assertEquals(1, dispatcher.shardOf(0) + dispatcher.shardOf(2));
+    }
+
+    @Test
+    public void Balanced_Shards_Are_Left_Alone() {
+        ShardedDispatcher dispatcher = new ShardedDispatcher(
+                2, this::costlyBus, 32, ShardedDispatcher.DEFAULT_TOLERANCE, clock::get
+        );
+        for (int game = 0; game < 2; game++) {
+            dispatcher.submit(game, new TestCommand(0));
+        }
+        costs[1] = 100;
+        dispatcher.drain(0);
+        dispatcher.drain(1);
+
+        assertEquals(0, dispatcher.rebalance());
+        assertEquals(0, dispatcher.shardOf(0));
+        assertEquals(1, dispatcher.shardOf(1));
+    }
+
+    @Test
+    public void Load_Is_Reported_Per_Game() {
+        ShardedDispatcher dispatcher = new ShardedDispatcher(
+                2, this::costlyBus, 32, ShardedDispatcher.DEFAULT_TOLERANCE, clock::get
+        );
+        for (int i = 0; i < 5; i++) {
+            dispatcher.submit(2, new TestCommand(i));
+        }
+        dispatcher.drain(0);
+        dispatcher.rebalance();
+
+        GameLoad load = dispatcher.loads().get(0);
+        assertEquals(2, load.gameId());
+        assertEquals(5, load.commands());
+        assertEquals(500, load.handlerNanos());
+    }
+
+    @Test(expected = UnknownGameException.class)
+    public void Command_For_Unknown_Game_Is_Rejected() {
+        ShardedDispatcher dispatcher = new ShardedDispatcher(2, (gameId) -> null);
+        dispatcher.submit(7, new TestCommand(0));
+    }
+
+    @Test
+    public void Removed_Game_Drains_Before_Accepting_Commands() {
+        List<Integer> received = new ArrayList<>();
+        ShardedDispatcher dispatcher = new ShardedDispatcher(2, (gameId) -> new CommandBus(new HashMap<>()) {
+            @Override
+            public void dispatch(Command command) {
+                received.add(((TestCommand) command).sequence);
+            }
+        });
+        dispatcher.submit(2, new TestCommand(0));
+        assertTrue(dispatcher.remove(2));
+
+        try {
+            dispatcher.submit(2, new TestCommand(1));
+            fail("Removed game accepted a command before draining");
+        } catch (UnknownGameException e) {
+            assertEquals(0, dispatcher.shardOf(2));
+        }
+        assertEquals(1, dispatcher.drain(0));
+        assertEquals(-1, dispatcher.shardOf(2));
+
+        dispatcher.submit(2, new TestCommand(2));
+        assertEquals(1, dispatcher.pending(0));
+        assertEquals(1, dispatcher.drain(0));
+        assertEquals(Arrays.asList(0, 2), received);
+    }
+
+    @Test
+    public void Idle_Game_Is_Removed_At_Once() {
+        ShardedDispatcher dispatcher = new ShardedDispatcher(2, this::costlyBus);
+        dispatcher.submit(1, new TestCommand(0));
+        dispatcher.drain(1);
+
+        assertTrue(dispatcher.remove(1));
+        assertFalse(dispatcher.remove(1));
+        assertEquals(-1, dispatcher.shardOf(1));
+    }
+
+    @Test
+    public void Commands_Keep_Order_While_Games_Move() throws Exception {
+        int games = 8;
+        int commands = 2000;
+        ConcurrentHashMap<Integer, List<Integer>> received = new ConcurrentHashMap<>();
+        for (int game = 0; game < games; game++) {
+            received.put(game, Collections.synchronizedList(new ArrayList<>()));
+        }
+        ShardedDispatcher dispatcher = new ShardedDispatcher(4, (gameId) -> new CommandBus(new HashMap<>()) {
+            @Override
+            public void dispatch(Command command) {
+                received.get(gameId).add(((TestCommand) command).sequence);
+            }
+        });
+        dispatcher.start();
+        for (int i = 0; i < commands; i++) {
+            for (int game = 0; game < games; game++) {
+                dispatcher.submit(game, new TestCommand(i));
+            }
+            if (i % 100 == 0) {
+                dispatcher.rebalance();
+            }
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (total(received) < games * commands && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        dispatcher.stop();
+
+        for (List<Integer> sequence : received.values()) {
+            assertEquals(commands, sequence.size());
+            for (int i = 0; i < commands; i++) {
+                assertEquals(i, (int) sequence.get(i));
+            }
+        }
+    }
+
+    private static int total(ConcurrentHashMap<Integer, List<Integer>> received) {
+        return received.values().stream().mapToInt(List::size).sum();
+    }
+
+    private CommandBus costlyBus(int gameId) {
+        return new CommandBus(new HashMap<>()) {
+            @Override
+            public void dispatch(Command command) {
+                clock.addAndGet(costs[gameId]);
+            }
+        };
+    }
+
+    private static class TestCommand implements Command {
+
+        private final int sequence;
+
+        TestCommand(int sequence) {
+            this.sequence = sequence;
+        }
+
+        @Override
+        public String name() {
+            return "test";
+        }
+
+        @Override
+        public int sourceId() {
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.mprzypadlo.thserver.application.interest;
+
+import com.mprzypadlo.thserver.application.Message;
+import com.mprzypadlo.thserver.application.MessageBus;
+import com.przypadlo.thserver.domain.Player;
+import com.przypadlo.thserver.model.game.Game;
+import java.util.Arrays;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class InterestManagerTest {
+
+    private Game gameMock;
+
+    private MessageBus connectionsMock;
+
+    private InterestManager manager;
+
+    private Message message;
+
+    private final int[] fieldsOnCircles = {8, 8, 8, 16};
+
+    @Before
+    public void setUp() {
+        gameMock = mock(Game.class);
+        connectionsMock = mock(MessageBus.class);
+        message = mock(Message.class);
+        manager = new InterestManager(gameMock, connectionsMock, fieldsOnCircles, 0, 8);
+    }
+
+    @Test
+    public void Only_Players_On_The_Same_Circle_Are_Notified() {
+        registerPlayer(1, "a", 0);
+        registerPlayer(2, "b", 3);
+        registerPlayer(3, "c", 0);
+
+        assertEquals(2, manager.notifyInterested(0, 0, message));
+        assertArrayEquals(new int[]{1, 3}, notifiedConnections(2));
+    }
+
+    @Test
+    public void Players_Within_Radius_Are_Notified() {
+        manager = new InterestManager(gameMock, connectionsMock, fieldsOnCircles, 1, 8);
+        registerPlayer(1, "a", 0);
+        registerPlayer(2, "b", 1);
+        registerPlayer(3, "c", 3);
+
+        assertEquals(2, manager.notifyInterested(0, 0, message));
+    }
+
+    @Test
+    public void Moved_Player_Is_Notified_About_New_Circle() {
+        Player player = registerPlayer(1, "a", 0);
+        when(player.circle()).thenReturn(2);
+        manager.playerMoved(1);
+
+        assertEquals(0, manager.notifyInterested(0, 0, message));
+        assertEquals(1, manager.notifyInterested(2, 0, message));
+    }
+
+    @Test
+    public void Author_Of_Command_Is_Always_Notified() {
+        manager = new InterestManager(gameMock, connectionsMock, fieldsOnCircles, 0, 1);
+        registerPlayer(1, "a", 0, 0);
+        registerPlayer(2, "b", 0, 5);
+
+        assertEquals(2, manager.notifyInterested(0, 0, 0, 0, 2, message));
+        assertArrayEquals(new int[]{1, 2}, notifiedConnections(2));
+    }
+
+    @Test
+    public void Only_Players_Near_The_Field_Are_Notified() {
+        manager = new InterestManager(gameMock, connectionsMock, fieldsOnCircles, 0, 1);
+        registerPlayer(1, "a", 0, 0);
+        registerPlayer(2, "b", 0, 4);
+        registerPlayer(3, "c", 0, 7);
+
+        assertEquals(2, manager.notifyInterested(0, 0, message));
+        assertArrayEquals(new int[]{1, 3}, notifiedConnections(2));
+    }
+
+    @Test
+    public void Field_Is_Scaled_To_Neighbouring_Circle() {
+        manager = new InterestManager(gameMock, connectionsMock, fieldsOnCircles, 1, 1);
+        registerPlayer(1, "a", 3, 8);
+        registerPlayer(2, "b", 3, 2);
+
+        assertEquals(1, manager.notifyInterested(2, 4, message));
+        assertArrayEquals(new int[]{1}, notifiedConnections(1));
+    }
+
+    @Test
+    public void Moved_Player_Is_Notified_About_New_Field() {
+        manager = new InterestManager(gameMock, connectionsMock, fieldsOnCircles, 0, 1);
+        Player player = registerPlayer(1, "a", 0, 0);
+        when(player.field()).thenReturn(4);
+
+        assertTrue(manager.refresh(1));
+        assertEquals(0, manager.notifyInterested(0, 0, message));
+        assertEquals(1, manager.notifyInterested(0, 5, message));
+    }
+
+    @Test
+    public void Refresh_Ignores_Unregistered_Connection() {
+        assertFalse(manager.refresh(7));
+    }
+
+    @Test
+    public void Nobody_Is_Notified_When_Nobody_Is_Interested() {
+        registerPlayer(1, "a", 3);
+        manager.notifyInterested(0, 0, message);
+        verify(connectionsMock, never()).notifyAll(any(int[].class), anyInt(), eq(message));
+    }
+
+    @Test
+    public void Unregistered_Player_Is_Not_Notified() {
+        registerPlayer(1, "a", 0);
+        manager.unregister(1);
+        assertEquals(0, manager.notifyInterested(0, 0, message));
+    }
+
+    private Player registerPlayer(int sourceId, String name, int circle) {
+        return registerPlayer(sourceId, name, circle, 0);
+    }
+
+    private Player registerPlayer(int sourceId, String name, int circle, int field) {
+        Player player = mock(Player.class);
+        when(player.circle()).thenReturn(circle);
+        when(player.field()).thenReturn(field);
+        when(gameMock.player(name)).thenReturn(player);
+        manager.register(sourceId, name);
+        return player;
+    }
+
+    private int[] notifiedConnections(int count) {
+        ArgumentCaptor<int[]> captor = ArgumentCaptor.forClass(int[].class);
+        verify(connectionsMock).notifyAll(captor.capture(), eq(count), eq(message));
+        int[] recipients = Arrays.copyOf(captor.getValue(), count);
+        Arrays.sort(recipients);
+        return recipients;
+    }
+}
@@ -0,0 +1,45 @@
+package com.mprzypadlo.thserver.application.lobby;
+
+import com.mprzypadlo.thserver.tools.SampleContent;
+import com.przypadlo.thserver.domain.Player;
+import com.przypadlo.thserver.model.content.ContentCompiler;
+import com.przypadlo.thserver.model.content.ContentPack;
+import com.przypadlo.thserver.model.content.ContentRepository;
+import com.przypadlo.thserver.model.dice.SplittableDice;
+import com.przypadlo.thserver.model.game.Game;
+import java.nio.ByteBuffer;
+import java.util.Properties;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author mprzypadlo
+ */
+public class ContentGameFactoryTest {
+
+    private final ContentCompiler compiler = new ContentCompiler();
+
+    @Test
+    public void Running_Game_Keeps_Its_Content_Version() {
+        ContentRepository repository = new ContentRepository(pack(SampleContent.properties()));
+        ContentGameFactory factory = new ContentGameFactory(repository, () -> new SplittableDice(6, 1));
+        Game running = factory.newGame(2);
+
+        Properties patched = SampleContent.properties();
+        patched.setProperty("warrior.hp", "150");
+        repository.publish(pack(patched));
+        Game created = factory.newGame(2);
+        running.addPlayer("old", "warrior");
+        created.addPlayer("new", "warrior");
+
+        Player old = running.player("old");
+        Player patchedPlayer = created.player("new");
+        assertEquals(120, old.hp());
+        assertEquals(150, patchedPlayer.hp());
+    }
+
+    private ContentPack pack(Properties config) {
+        return ContentPack.wrap(ByteBuffer.wrap(compiler.compile(config)));
+    }
+}
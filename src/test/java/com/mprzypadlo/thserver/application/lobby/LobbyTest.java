@@ -0,0 +1,193 @@
+package com.mprzypadlo.thserver.application.lobby;
+
+import com.mprzypadlo.thserver.application.command.Command;
+import com.mprzypadlo.thserver.application.command.commands.CreatePlayer;
+import com.przypadlo.thserver.domain.Board;
+import com.przypadlo.thserver.domain.Dice;
+import com.przypadlo.thserver.domain.PlayerFactoryInterface;
+import com.przypadlo.thserver.model.game.Game;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+import static org.mockito.Mockito.*;
+
+/**
+ *
+ * @author mprzypadlo
+ */
+public class LobbyTest {
+
+    private final List<List<JoinRequest>> filled = Collections.synchronizedList(new ArrayList<>());
+
+    private final List<JoinRequest> rejected = Collections.synchronizedList(new ArrayList<>());
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private LobbyListener listener;
+
+    private Lobby lobby;
+
+    @Before
+    public void setUp() {
+        listener = new LobbyListener() {
+            @Override
+            public void gameFilled(Game game, List<JoinRequest> players) {
+                assertEquals(Game.Status.CURRENT_PLAYER_MOVE, game.status());
+                filled.add(players);
+            }
+
+            @Override
+            public void requestRejected(JoinRequest request, RuntimeException reason) {
+                rejected.add(request);
+            }
+        };
+        lobby = new Lobby(players -> newGame(players), listener, 2, 100, 1000, clock::get);
+    }
+
+    private Game newGame(int players) {
+        return new Game(
+                mock(Board.class),
+                mock(PlayerFactoryInterface.class),
+                new LinkedHashMap<>(),
+                players,
+                mock(Dice.class)
+        );
+    }
+
+    @Test
+    public void Players_With_Similar_Skill_Are_Matched() {
+        lobby.enqueue(1, "johny", "warrior", 10);
+        lobby.enqueue(2, "mark", "wizard", 50);
+        lobby.enqueue(3, "anna", "warrior", 20);
+
+        assertEquals(1, lobby.match());
+
+        assertEquals(1, filled.size());
+        assertEquals(1, lobby.waiting());
+    }
+
+    @Test
+    public void Players_Far_Apart_Are_Matched_After_Waiting() {
+        lobby.enqueue(1, "johny", "warrior", 10);
+        lobby.enqueue(2, "mark", "wizard", 150);
+
+        assertEquals(0, lobby.match());
+        clock.set(1000);
+
+        assertEquals(1, lobby.match());
+        assertEquals(0, lobby.waiting());
+    }
+
+    @Test
+    public void Game_Mixes_Player_Classes() {
+        lobby.enqueue(1, "w1", "warrior", 10);
+        lobby.enqueue(2, "w2", "warrior", 10);
+        lobby.enqueue(3, "m1", "wizard", 10);
+        lobby.enqueue(4, "m2", "wizard", 10);
+
+        assertEquals(2, lobby.match());
+
+        for (List<JoinRequest> game : filled) {
+            assertNotEquals(game.get(0).playerClass(), game.get(1).playerClass());
+        }
+    }
+
+    @Test
+    public void Reopened_Game_Is_Filled_First_Through_Its_Dispatcher() {
+        Game game = newGame(2);
+        game.addPlayer("johny", "warrior");
+        List<Command> dispatched = new ArrayList<>();
+        lobby.reopen(game, command -> {
+            dispatched.add(command);
+            CreatePlayer create = (CreatePlayer) command;
+            game.addPlayer(create.playerName(), create.playerClass());
+        }, 10, 1);
+        lobby.enqueue(2, "mark", "wizard", 10);
+
+        assertEquals(1, lobby.match());
+
+        assertEquals(1, dispatched.size());
+        assertEquals(2, dispatched.get(0).sourceId());
+        assertEquals(Game.Status.CURRENT_PLAYER_MOVE, game.status());
+        assertEquals(0, lobby.openGames());
+    }
+
+    @Test
+    public void Rejected_Player_Leaves_Game_Open() {
+        lobby.enqueue(1, "johny", "warrior", 10);
+        lobby.enqueue(2, "johny", "wizard", 10);
+
+        assertEquals(0, lobby.match());
+
+        assertEquals(1, rejected.size());
+        assertEquals(1, lobby.openGames());
+    }
+
+    @Test
+    public void Only_Stale_Players_Are_Matched_Across_Buckets() {
+        lobby = new Lobby(players -> newGame(players), listener, 3, 100, 1000, clock::get);
+        lobby.enqueue(1, "johny", "warrior", 10);
+        lobby.enqueue(2, "jack", "wizard", 20);
+        lobby.enqueue(3, "mark", "wizard", 150);
+        clock.set(1000);
+        lobby.enqueue(4, "anna", "warrior", 160);
+
+        assertEquals(1, lobby.match());
+
+        assertEquals(1, lobby.waiting());
+        assertEquals(0, lobby.openGames());
+        for (JoinRequest request : filled.get(0)) {
+            assertNotEquals("anna", request.playerName());
+        }
+    }
+
+    @Test
+    public void Stale_Players_From_Distant_Buckets_Are_Not_Matched() {
+        lobby.enqueue(1, "johny", "warrior", 10);
+        lobby.enqueue(2, "mark", "wizard", 250);
+        clock.set(1000);
+
+        assertEquals(0, lobby.match());
+
+        assertEquals(2, lobby.waiting());
+    }
+
+    @Test
+    public void Concurrently_Queued_Players_Are_Assigned_Once() throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    lobby.enqueue(i, "player-" + thread + "-" + i, i % 2 == 0 ? "warrior" : "wizard", i);
+                    if (i % 50 == 0) {
+                        lobby.match();
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        lobby.match();
+
+        Set<String> names = new HashSet<>();
+        for (List<JoinRequest> game : filled) {
+            for (JoinRequest request : game) {
+                assertTrue(names.add(request.playerName()));
+            }
+        }
+        assertEquals(2000, names.size() + lobby.waiting());
+        assertEquals(filled.size(), lobby.gamesFilled());
+    }
+}
@@ -0,0 +1,89 @@
+package com.mprzypadlo.thserver.application.metrics;
+
+import java.util.concurrent.CountDownLatch;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void Histogram_Counts_Recorded_Values() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(10);
+        histogram.record(20);
+        assertEquals(2, histogram.snapshot().count());
+    }
+
+    @Test
+    public void Histogram_Keeps_Small_Values_Exact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 10; i++) {
+            histogram.record(i);
+        }
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(5, snapshot.percentile(50));
+        assertEquals(10, snapshot.max());
+    }
+
+    @Test
+    public void Histogram_Percentiles_Are_Within_Relative_Error() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100000; value++) {
+            histogram.record(value * 1000);
+        }
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertWithinError(50000000L, snapshot.percentile(50));
+        assertWithinError(99000000L, snapshot.percentile(99));
+        assertWithinError(100000000L, snapshot.max());
+    }
+
+    @Test
+    public void Histogram_Merges_Values_Recorded_By_Many_Threads()
+            throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        int threads = 4;
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    histogram.record(i);
+                }
+                done.countDown();
+            }).start();
+        }
+        done.await();
+        assertEquals(4000, histogram.snapshot().count());
+    }
+
+    @Test
+    public void Short_Lived_Threads_Share_Recorders() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int t = 0; t < 4 * LatencyHistogram.RECORDERS; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 100; i++) {
+                    histogram.record(i);
+                }
+            });
+            thread.start();
+            thread.join();
+        }
+        assertEquals(400 * LatencyHistogram.RECORDERS, histogram.snapshot().count());
+    }
+
+    @Test
+    public void Bucket_Bounds_Contain_Value() {
+        for (long value : new long[]{0, 31, 32, 33, 1000, 123456789L, Long.MAX_VALUE}) {
+            int bucket = LatencyHistogram.bucket(value);
+            assertTrue(bucket < LatencyHistogram.BUCKETS);
+            assertTrue(LatencyHistogram.highestValue(bucket) >= value);
+        }
+    }
+
+    private void assertWithinError(long expected, long actual) {
+        assertTrue(
+                "expected ~" + expected + " but was " + actual,
+                Math.abs(actual - expected) <= expected * 0.04
+        );
+    }
+}
@@ -0,0 +1,166 @@
+package com.mprzypadlo.thserver.application.metrics;
+
+import com.mprzypadlo.thserver.application.Message;
+import com.mprzypadlo.thserver.application.MessageBus;
+import com.mprzypadlo.thserver.application.SimpleMessageBuilder;
+import com.mprzypadlo.thserver.application.command.Command;
+import com.mprzypadlo.thserver.application.command.CommandBus;
+import com.mprzypadlo.thserver.application.command.CommandHandler;
+import com.mprzypadlo.thserver.application.command.commands.AttackPlayer;
+import com.mprzypadlo.thserver.application.command.exception.CommandHandlerNotFoundException;
+import com.mprzypadlo.thserver.application.command.handlers.GameHandlers;
+import com.mprzypadlo.thserver.application.dispatch.LaneDispatcher;
+import com.mprzypadlo.thserver.application.dispatch.ShardedDispatcher;
+import com.mprzypadlo.thserver.application.replication.CommandJournal;
+import com.mprzypadlo.thserver.application.session.SessionRegistry;
+import com.przypadlo.thserver.model.exception.CannotAttackException;
+import com.przypadlo.thserver.model.game.Game;
+import java.util.HashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MeteredCommandBusTest {
+
+    private Metrics metrics;
+
+    private MeteredCommandBus bus;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void setUp() {
+        metrics = new Metrics();
+        bus = new MeteredCommandBus(new HashMap(), metrics);
+    }
+
+    @Test
+    public void Bus_Records_Latency_Per_Command() {
+        bus.registerHandler("create-player", mock(CommandHandler.class));
+        bus.dispatch(createCommand("create-player"));
+        bus.dispatch(createCommand("create-player"));
+
+        assertEquals(2, metrics.histograms().get("command.create-player").count());
+        assertEquals(Long.valueOf(2), metrics.counters().get("commands.dispatched"));
+    }
+
+    @Test
+    public void Bus_Counts_Exceptions_By_Type() {
+        try {
+            bus.dispatch(createCommand("unknown"));
+        } catch (CommandHandlerNotFoundException ex) {
+        }
+        assertEquals(
+                Long.valueOf(1),
+                metrics.counters().get("exceptions.CommandHandlerNotFoundException")
+        );
+    }
+
+    @Test
+    public void Bus_Counts_Exceptions_Handled_By_Game_Handlers() {
+        Game game = mock(Game.class);
+        doThrow(new CannotAttackException()).when(game).attack("first-player", "second-player");
+        GameHandlers.register(bus, game, mock(MessageBus.class), new SimpleMessageBuilder());
+
+        AttackPlayer attack = mock(AttackPlayer.class);
+        when(attack.name()).thenReturn(AttackPlayer.NAME);
+        when(attack.attackerName()).thenReturn("first-player");
+        when(attack.attackedName()).thenReturn("second-player");
+        bus.dispatch(attack);
+
+        assertEquals(
+                Long.valueOf(1),
+                metrics.counters().get("exceptions.CannotAttackException")
+        );
+    }
+
+    @Test
+    public void Exporter_Keeps_Running_After_Failed_Write() throws Exception {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        try {
+            ScheduledFuture<?> export = new MetricsExporter(metrics).exportPeriodically(
+                    executor,
+                    folder.getRoot().toPath().resolve("missing").resolve("metrics.txt"),
+                    1
+            );
+            long deadline = System.currentTimeMillis() + 5000;
+            while (failedExports() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(1);
+            }
+            assertTrue(failedExports() >= 2);
+            assertFalse(export.isDone());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void Bus_Rethrows_Handler_Exceptions() {
+        CommandHandler handler = mock(CommandHandler.class);
+        Command command = createCommand("attack");
+        doThrow(IllegalStateException.class).when(handler).handle(command);
+        bus.registerHandler("attack", handler);
+        bus.dispatch(command);
+    }
+
+    @Test
+    public void Exporter_Writes_All_Metrics() {
+        metrics.gauge("message-bus.backlog", () -> 3);
+        bus.registerHandler("create-player", mock(CommandHandler.class));
+        bus.dispatch(createCommand("create-player"));
+
+        String export = new MetricsExporter(metrics).export();
+        assertTrue(export.contains("counter commands.dispatched 1\n"));
+        assertTrue(export.contains("gauge message-bus.backlog 3\n"));
+        assertTrue(export.contains("histogram command.create-player count=1 "));
+    }
+
+    @Test
+    public void Server_Gauges_Report_Queue_Backlogs() {
+        SessionRegistry sessions = new SessionRegistry();
+        sessions.open(1);
+        sessions.open(2);
+        sessions.notifyAll(mock(Message.class));
+        sessions.session(1).poll();
+        LaneDispatcher lanes = new LaneDispatcher(mock(CommandBus.class), 10);
+        lanes.submit(createCommand("chat-message"));
+        ShardedDispatcher shards = new ShardedDispatcher(2, (gameId) -> mock(CommandBus.class));
+        shards.submit(1, createCommand("chat-message"));
+        CommandJournal journal = new CommandJournal(4);
+        ServerGauges.register(metrics, sessions);
+        ServerGauges.register(metrics, lanes);
+        ServerGauges.register(metrics, shards);
+        ServerGauges.register(metrics, journal);
+
+        assertEquals(1, (long) metrics.gauges().get(ServerGauges.MESSAGE_BUS_BACKLOG));
+        assertEquals(1, (long) metrics.gauges().get(ServerGauges.LANE_BACKLOG));
+        assertEquals(1, (long) metrics.gauges().get(ServerGauges.SHARD_BACKLOG));
+        assertEquals(0, (long) metrics.gauges().get(ServerGauges.JOURNAL_BACKLOG));
+        lanes.drain(10);
+        shards.drain(1);
+        assertEquals(0, (long) metrics.gauges().get(ServerGauges.LANE_BACKLOG));
+        assertEquals(0, (long) metrics.gauges().get(ServerGauges.SHARD_BACKLOG));
+    }
+
+    private long failedExports() {
+        Long failed = metrics.counters().get(MetricsExporter.EXPORT_FAILURES);
+        return failed == null ? 0 : failed;
+    }
+
+    private Command createCommand(String name) {
+        Command command = mock(Command.class);
+        when(command.name()).thenReturn(name);
+        return command;
+    }
+}
@@ -0,0 +1,155 @@
+package com.mprzypadlo.thserver.application.protocol;
+
+import com.mprzypadlo.thserver.application.command.Command;
+import com.mprzypadlo.thserver.application.command.CommandBus;
+import com.mprzypadlo.thserver.application.command.commands.CreatePlayer;
+import com.mprzypadlo.thserver.application.command.commands.MovePlayer;
+import com.mprzypadlo.thserver.application.command.commands.PickItem;
+import com.mprzypadlo.thserver.application.ratelimit.RateLimiter;
+import com.przypadlo.thserver.domain.Board.Directions;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ *
+ * @author mprzypadlo
+ */
+public class CommandDecoderTest {
+
+    private final List<Command> dispatched = new ArrayList<>();
+
+    private CommandDecoder decoder;
+
+    @Before
+    public void setUp() {
+        CommandBus bus = mock(CommandBus.class);
+        doAnswer(invocation -> {
+            dispatched.add(((DecodedCommand) invocation.getArguments()[0]).detach());
+            return null;
+        }).when(bus).dispatch(any(Command.class));
+        decoder = new CommandDecoder(bus, 7);
+    }
+
+    @Test
+    public void Many_Commands_Are_Decoded_From_One_Read() {
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        frame(buffer, Protocol.CREATE_PLAYER, name("johny"), name("wizard"));
+        frame(buffer, Protocol.MOVE_PLAYER, name("johny"), new byte[]{1});
+        frame(buffer, Protocol.PICK_ITEM, name("johny"), name("mana-potion"));
+        buffer.flip();
+
+        assertEquals(3, decoder.decode(buffer));
+
+        CreatePlayer create = (CreatePlayer) dispatched.get(0);
+        assertEquals(7, create.sourceId());
+        assertEquals("johny", create.playerName());
+        assertEquals("wizard", create.playerClass());
+        assertEquals(Directions.RIGHT, ((MovePlayer) dispatched.get(1)).direction());
+        assertEquals("mana-potion", ((PickItem) dispatched.get(2)).itemName());
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void Partial_Frame_Waits_For_Next_Read() {
+        ByteBuffer frames = ByteBuffer.allocate(1024);
+        frame(frames, Protocol.CREATE_PLAYER, name("johny"), name("wizard"));
+        frames.flip();
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        buffer.put(frames.array(), 0, 6).flip();
+
+        assertEquals(0, decoder.decode(buffer));
+        assertEquals(6, buffer.remaining());
+
+        buffer.compact();
+        buffer.put(frames.array(), 6, frames.limit() - 6).flip();
+
+        assertEquals(1, decoder.decode(buffer));
+        assertEquals("wizard", ((CreatePlayer) dispatched.get(0)).playerClass());
+    }
+
+    @Test
+    public void Repeated_Names_Are_Not_Allocated_Again() {
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        frame(buffer, Protocol.PICK_ITEM, name("johny"), name("mana-potion"));
+        frame(buffer, Protocol.PICK_ITEM, name("johny"), name("mana-potion"));
+        buffer.flip();
+
+        decoder.decode(buffer);
+
+        assertSame(
+                ((PickItem) dispatched.get(0)).itemName(),
+                ((PickItem) dispatched.get(1)).itemName()
+        );
+    }
+
+    @Test(expected = ProtocolException.class)
+    public void Too_Long_Frame_Is_Rejected_Before_It_Arrives() {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.putInt(Protocol.DEFAULT_MAX_FRAME_SIZE + 1).flip();
+
+        decoder.decode(buffer);
+    }
+
+    @Test(expected = ProtocolException.class)
+    public void Name_Exceeding_Frame_Is_Rejected() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        frame(buffer, Protocol.PICK_ITEM, new byte[]{5, 'j', 'o'});
+        buffer.flip();
+
+        decoder.decode(buffer);
+    }
+
+    @Test(expected = ProtocolException.class)
+    public void Unknown_Command_Is_Rejected() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        frame(buffer, (byte) 99);
+        buffer.flip();
+
+        decoder.decode(buffer);
+    }
+
+    @Test
+    public void Commands_Over_Limit_Are_Rejected_Before_Command_Bus() {
+        CommandBus bus = mock(CommandBus.class);
+        RateLimiter limiter = RateLimiter.builder()
+                .limit(MovePlayer.NAME, 2, 0)
+                .build();
+        CommandDecoder limited = new CommandDecoder(bus, 7, Protocol.DEFAULT_MAX_FRAME_SIZE, limiter);
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        for (int i = 0; i < 5; i++) {
+            frame(buffer, Protocol.MOVE_PLAYER, name("johny"), new byte[]{0});
+        }
+        buffer.flip();
+
+        assertEquals(2, limited.decode(buffer));
+
+        assertEquals(3, limited.rejected());
+        verify(bus, times(2)).dispatch(any(Command.class));
+    }
+
+    private static byte[] name(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        byte[] field = new byte[bytes.length + 1];
+        field[0] = (byte) bytes.length;
+        System.arraycopy(bytes, 0, field, 1, bytes.length);
+        return field;
+    }
+
+    private static void frame(ByteBuffer buffer, byte type, byte[]... fields) {
+        int length = 1;
+        for (byte[] field : fields) {
+            length += field.length;
+        }
+        buffer.putInt(length).put(type);
+        for (byte[] field : fields) {
+            buffer.put(field);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.mprzypadlo.thserver.application.ratelimit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ * @author mprzypadlo
+ */
+public class RateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(1000);
+
+    private RateLimiter limiter;
+
+    @Before
+    public void setUp() {
+        limiter = RateLimiter.builder()
+                .limit("move-player", 3, 10)
+                .limit("attack-player", 1, 1)
+                .clock(clock::get)
+                .build();
+    }
+
+    @Test
+    public void Burst_Is_Allowed_Up_To_Capacity() {
+        assertTrue(limiter.tryAcquire(1, "move-player"));
+        assertTrue(limiter.tryAcquire(1, "move-player"));
+        assertTrue(limiter.tryAcquire(1, "move-player"));
+        assertFalse(limiter.tryAcquire(1, "move-player"));
+        assertEquals(1, limiter.rejected());
+    }
+
+    @Test
+    public void Tokens_Are_Refilled_Over_Time() {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire(1, "move-player");
+        }
+        clock.addAndGet(99);
+        assertFalse(limiter.tryAcquire(1, "move-player"));
+        clock.addAndGet(1);
+        assertTrue(limiter.tryAcquire(1, "move-player"));
+        clock.addAndGet(10000);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire(1, "move-player"));
+        }
+        assertFalse(limiter.tryAcquire(1, "move-player"));
+    }
+
+    @Test
+    public void Limits_Are_Separate_For_Connections_And_Commands() {
+        assertTrue(limiter.tryAcquire(1, "attack-player"));
+        assertFalse(limiter.tryAcquire(1, "attack-player"));
+        assertTrue(limiter.tryAcquire(2, "attack-player"));
+        assertTrue(limiter.tryAcquire(1, "move-player"));
+        assertTrue(limiter.tryAcquire(1, "use-item"));
+    }
+
+    @Test
+    public void Default_Limit_Applies_To_Other_Commands() {
+        RateLimiter limited = RateLimiter.builder()
+                .defaultLimit(1, 0)
+                .clock(clock::get)
+                .build();
+        assertTrue(limited.tryAcquire(1, "use-item"));
+        assertFalse(limited.tryAcquire(1, "pick-item"));
+    }
+
+    @Test
+    public void Tokens_Are_Not_Refilled_Without_Rate() {
+        RateLimiter limited = RateLimiter.builder()
+                .limit("move-player", 2, 0)
+                .clock(clock::get)
+                .build();
+        assertTrue(limited.tryAcquire(1, "move-player"));
+        assertTrue(limited.tryAcquire(1, "move-player"));
+        clock.addAndGet(1);
+        assertFalse(limited.tryAcquire(1, "move-player"));
+        clock.addAndGet(60000);
+        assertFalse(limited.tryAcquire(1, "move-player"));
+        assertEquals(2, limited.rejected());
+    }
+
+    @Test
+    public void Late_Clock_Reading_Does_Not_Refill_Twice() {
+        RateLimiter limited = RateLimiter.builder()
+                .limit("move-player", 2, 1)
+                .clock(clock::get)
+                .build();
+        assertTrue(limited.tryAcquire(1, "move-player"));
+        clock.set(2000);
+        assertTrue(limited.tryAcquire(1, "move-player"));
+        clock.set(1000);
+        assertTrue(limited.tryAcquire(1, "move-player"));
+        clock.set(2000);
+        assertFalse(limited.tryAcquire(1, "move-player"));
+    }
+
+    @Test
+    public void Concurrent_Requests_Never_Exceed_Capacity() throws InterruptedException {
+        RateLimiter limited = RateLimiter.builder()
+                .limit("move-player", 1000, 0)
+                .clock(clock::get)
+                .build();
+        AtomicInteger accepted = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    if (limited.tryAcquire(7, "move-player")) {
+                        accepted.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(1000, accepted.get());
+        assertEquals(3000, limited.rejected());
+    }
+}
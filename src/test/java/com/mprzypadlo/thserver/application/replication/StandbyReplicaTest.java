@@ -0,0 +1,201 @@
+package com.mprzypadlo.thserver.application.replication;
+
+import com.mprzypadlo.thserver.application.MessageBus;
+import com.mprzypadlo.thserver.application.SimpleMessageBuilder;
+import com.mprzypadlo.thserver.application.cluster.GameHost;
+import com.mprzypadlo.thserver.application.cluster.HostedGame;
+import com.mprzypadlo.thserver.application.command.Command;
+import com.mprzypadlo.thserver.application.command.CommandBus;
+import com.mprzypadlo.thserver.application.command.commands.ExecuteAction;
+import com.mprzypadlo.thserver.application.command.commands.MovePlayer;
+import com.mprzypadlo.thserver.application.command.handlers.GameHandlers;
+import com.mprzypadlo.thserver.tools.SampleContent;
+import com.przypadlo.thserver.domain.Board;
+import com.przypadlo.thserver.domain.Board.Directions;
+import com.przypadlo.thserver.model.dice.RecordingDice;
+import com.przypadlo.thserver.model.dice.SplittableDice;
+import com.przypadlo.thserver.model.game.Game;
+import com.przypadlo.thserver.model.player.PlayerFactory;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+import static org.mockito.Mockito.*;
+
+/**
+ *
+ * @author mprzypadlo
+ */
+public class StandbyReplicaTest {
+
+    private static final String[] PLAYERS = {"johny", "mark"};
+
+    private static final int GAME_ID = 42;
+
+    private final SampleContent content = new SampleContent();
+
+    private HostedGame primary;
+
+    private GameHost standbyHost;
+
+    private StandbyReplica replica;
+
+    @Before
+    public void setUp() {
+        GameHost primaryHost = new GameHost(StandbyReplicaTest::bus, mock(MessageBus.class));
+        RecordingDice dice = new RecordingDice(new SplittableDice(6, 3));
+        primary = primaryHost.host(GAME_ID, newGame(dice), dice);
+        standbyHost = new GameHost(StandbyReplicaTest::bus, mock(MessageBus.class));
+        replica = new StandbyReplica(standbyHost, () -> new SplittableDice(6, 17));
+    }
+
+    @Test
+    public void Replica_Follows_Primary() {
+        CommandJournal journal = new CommandJournal(1024);
+        JournalShipper shipper = new JournalShipper(journal, replica::apply);
+        primary.journalTo(GAME_ID, journal);
+
+        play(0, 100);
+        shipper.shipPending();
+
+        assertSameState(primary.game(), replica.game(GAME_ID));
+        assertEquals(201, replica.appliedSequence(GAME_ID));
+    }
+
+    @Test
+    public void Replica_Recovers_After_Journal_Overflow() {
+        CommandJournal journal = new CommandJournal(8);
+        JournalShipper shipper = new JournalShipper(journal, replica::apply);
+        primary.journalTo(GAME_ID, journal);
+
+        play(0, 20);
+        shipper.shipPending();
+        play(20, 22);
+        shipper.shipPending();
+
+        assertTrue(journal.dropped() > 0);
+        assertSameState(primary.game(), replica.game(GAME_ID));
+    }
+
+    @Test
+    public void Snapshot_Waits_Until_Journal_Has_Room() {
+        CommandJournal journal = new CommandJournal(8);
+        JournalShipper shipper = new JournalShipper(journal, replica::apply);
+        primary.journalTo(GAME_ID, journal);
+
+        play(0, 20);
+
+        assertEquals(8, journal.size());
+        assertEquals(1, journal.dropped());
+        shipper.shipPending();
+        play(20, 21);
+        shipper.shipPending();
+        assertEquals(1, journal.dropped());
+        assertSameState(primary.game(), replica.game(GAME_ID));
+    }
+
+    @Test
+    public void Promoted_Replica_Continues_The_Game() throws InterruptedException {
+        CommandJournal journal = new CommandJournal(1024);
+        JournalShipper shipper = new JournalShipper(journal, replica::apply);
+        shipper.start();
+        primary.journalTo(GAME_ID, journal);
+
+        play(0, 50);
+        shipper.stop();
+
+        assertEquals(Arrays.asList(GAME_ID), replica.promote());
+        HostedGame promoted = standbyHost.game(GAME_ID);
+        assertSameState(primary.game(), promoted.game());
+        for (Command command : turn(50)) {
+            promoted.dispatch(command);
+        }
+        assertEquals(primary.game().version() + 2, promoted.game().version());
+    }
+
+    private void play(int fromTurn, int toTurn) {
+        for (int turn = fromTurn; turn < toTurn; turn++) {
+            for (Command command : turn(turn)) {
+                primary.dispatch(command);
+            }
+        }
+    }
+
+    private static void assertSameState(Game expected, Game actual) {
+        assertEquals(expected.version(), actual.version());
+        assertEquals(expected.currentPlayer(), actual.currentPlayer());
+        assertEquals(expected.lastDiceRoll(), actual.lastDiceRoll());
+        for (String player : PLAYERS) {
+            assertEquals(expected.player(player).field(), actual.player(player).field());
+            assertEquals(expected.player(player).hp(), actual.player(player).hp());
+        }
+    }
+
+    private Game newGame(RecordingDice dice) {
+        Board board = content.board().newBoard();
+        Game game = new Game(
+                board,
+                new PlayerFactory(board, content.playerClasses(), content.items()),
+                new LinkedHashMap<>(),
+                PLAYERS.length,
+                dice
+        );
+        game.addPlayer(PLAYERS[0], "warrior");
+        game.addPlayer(PLAYERS[1], "wizard");
+        return game;
+    }
+
+    private static CommandBus bus(Game game, MessageBus connections) {
+        return GameHandlers.register(
+                new CommandBus(new HashMap()),
+                game,
+                connections,
+                new SimpleMessageBuilder()
+        );
+    }
+
+    private static Command[] turn(int turn) {
+        String player = PLAYERS[turn % PLAYERS.length];
+        return new Command[]{move(player), endTurn(player)};
+    }
+
+    private static MovePlayer move(String playerName) {
+        return new MovePlayer() {
+            @Override
+            public int sourceId() {
+                return 1;
+            }
+
+            @Override
+            public String playerName() {
+                return playerName;
+            }
+
+            @Override
+            public Directions direction() {
+                return Directions.RIGHT;
+            }
+        };
+    }
+
+    private static ExecuteAction endTurn(String playerName) {
+        return new ExecuteAction() {
+            @Override
+            public int sourceId() {
+                return 1;
+            }
+
+            @Override
+            public String playerName() {
+                return playerName;
+            }
+
+            @Override
+            public String actionName() {
+                return "end-turn";
+            }
+        };
+    }
+}
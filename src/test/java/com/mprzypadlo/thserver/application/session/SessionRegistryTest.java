@@ -0,0 +1,61 @@
+package com.mprzypadlo.thserver.application.session;
+
+import com.mprzypadlo.thserver.application.Message;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import static org.mockito.Mockito.*;
+
+/**
+ *
+ * @author mprzypadlo
+ */
+public class SessionRegistryTest {
+
+    @Test
+    public void Session_Is_Found_By_Source_Id() {
+        SessionRegistry registry = new SessionRegistry();
+        Session session = registry.open(7);
+        session.join("johny", 3);
+
+        assertSame(session, registry.session(7));
+        assertEquals("johny", registry.session(7).playerName());
+        assertEquals(3, registry.session(7).gameId());
+        assertNull(registry.session(8));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void Session_Cant_Be_Opened_Twice() {
+        SessionRegistry registry = new SessionRegistry();
+        registry.open(7);
+        registry.open(7);
+    }
+
+    @Test
+    public void Messages_Are_Queued_For_Session() {
+        SessionRegistry registry = new SessionRegistry();
+        Session first = registry.open(1);
+        Session second = registry.open(2);
+        Message message = mock(Message.class);
+
+        registry.notify(1, message);
+        registry.notify(3, message);
+        registry.notifyAll(new int[]{2, 1}, 1, message);
+
+        assertSame(message, first.poll());
+        assertNull(first.poll());
+        assertSame(message, second.poll());
+        assertFalse(second.hasPending());
+    }
+
+    @Test
+    public void Closed_Session_Does_Not_Receive_Messages() {
+        SessionRegistry registry = new SessionRegistry();
+        Session session = registry.open(1);
+        registry.close(1);
+
+        registry.notifyAll(mock(Message.class));
+
+        assertNull(session.poll());
+        assertEquals(0, registry.size());
+    }
+}
@@ -0,0 +1,68 @@
+package com.mprzypadlo.thserver.application.session;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author mprzypadlo
+ */
+public class StripedIntMapTest {
+
+    @Test
+    public void Map_Behaves_Like_Hash_Map() {
+        StripedIntMap<Integer> map = new StripedIntMap<>(4, 8);
+        Map<Integer, Integer> expected = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(11);
+        for (int i = 0; i < 100000; i++) {
+            int key = random.nextInt(-500, 500);
+            if (random.nextBoolean()) {
+                assertEquals(expected.put(key, i), map.put(key, i));
+            } else {
+                assertEquals(expected.remove(key), map.remove(key));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (int key = -500; key < 500; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+    }
+
+    @Test
+    public void Map_Can_Be_Modified_Concurrently() throws InterruptedException {
+        StripedIntMap<String> map = new StripedIntMap<>(8, 16);
+        AtomicInteger misses = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int offset = t * 10000;
+            threads.add(new Thread(() -> {
+                for (int i = offset; i < offset + 10000; i++) {
+                    map.put(i, "v" + i);
+                    if (!("v" + i).equals(map.get(i))) {
+                        misses.incrementAndGet();
+                    }
+                    if (i % 2 == 0) {
+                        map.remove(i);
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(0, misses.get());
+        assertEquals(20000, map.size());
+        assertEquals("v1", map.get(1));
+        assertNull(map.get(2));
+    }
+}
@@ -0,0 +1,205 @@
+package com.mprzypadlo.thserver.application.spectator;
+
+import com.mprzypadlo.thserver.application.Message;
+import com.mprzypadlo.thserver.application.SimpleMessage;
+import com.mprzypadlo.thserver.application.spectator.SpectatorChannel.Spectator;
+import com.mprzypadlo.thserver.application.sync.DeltaEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class SpectatorChannelTest {
+
+    private long now;
+
+    private SpectatorChannel channel;
+
+    @Before
+    public void setUp() {
+        now = 1000;
+        channel = new SpectatorChannel(new TextFrameEncoder(), 4, 0, 1, () -> now);
+    }
+
+    @Test
+    public void Spectator_Starts_From_Keyframe() {
+        channel.publish(message("d1"), false);
+        channel.publish(message("k1"), true);
+        channel.publish(message("d2"), false);
+
+        Spectator spectator = channel.watch();
+        assertEquals("k1", name(spectator.poll()));
+        assertEquals("d2", name(spectator.poll()));
+        assertNull(spectator.poll());
+    }
+
+    @Test
+    public void Spectators_Share_Encoded_Frames() {
+        FrameEncoder encoderMock = mock(FrameEncoder.class);
+        channel = new SpectatorChannel(encoderMock, 4);
+        channel.publish(message("k1"), true);
+
+        Spectator first = channel.watch();
+        Spectator second = channel.watch();
+        assertSame(first.poll(), second.poll());
+        verify(encoderMock, times(1)).encode(any(Message.class));
+    }
+
+    @Test
+    public void Slow_Spectator_Skips_To_Latest_Keyframe() {
+        channel.publish(message("k1"), true);
+        Spectator spectator = channel.watch();
+        spectator.poll();
+
+        channel.publish(message("d1"), false);
+        channel.publish(message("d2"), false);
+        channel.publish(message("k2"), true);
+        channel.publish(message("d3"), false);
+        channel.publish(message("d4"), false);
+
+        assertEquals("k2", name(spectator.poll()));
+        assertEquals("d3", name(spectator.poll()));
+        assertEquals("d4", name(spectator.poll()));
+    }
+
+    @Test
+    public void Slow_Spectator_Waits_For_Keyframe_When_Keyframe_Was_Overwritten() {
+        channel.publish(message("k1"), true);
+        Spectator spectator = channel.watch();
+        for (int i = 0; i < 6; i++) {
+            channel.publish(message("d" + i), false);
+        }
+        spectator.poll();
+        assertNull(spectator.poll());
+
+        channel.publish(message("k2"), true);
+        assertEquals("k2", name(spectator.poll()));
+    }
+
+    @Test
+    public void Channel_Delays_Frames() {
+        channel = new SpectatorChannel(new TextFrameEncoder(), 4, 500, 1, () -> now);
+        channel.publish(message("k1"), true);
+        Spectator spectator = channel.watch();
+
+        assertNull(spectator.poll());
+        now += 500;
+        assertEquals("k1", name(spectator.poll()));
+    }
+
+    @Test
+    public void Channel_Decimates_Deltas_But_Not_Keyframes() {
+        channel = new SpectatorChannel(new TextFrameEncoder(), 8, 0, 2, () -> now);
+        channel.publish(message("k1", "hp", "100", "field", "0"), true);
+        channel.publish(message(DeltaEncoder.DELTA, DeltaEncoder.BASE_VERSION, "1", "hp", "90"), false);
+        channel.publish(message(DeltaEncoder.DELTA, DeltaEncoder.BASE_VERSION, "2", "field", "3"), false);
+        channel.publish(message(DeltaEncoder.DELTA, DeltaEncoder.BASE_VERSION, "3", "hp", "80"), false);
+        channel.publish(message(DeltaEncoder.DELTA, DeltaEncoder.BASE_VERSION, "4", "mana", "5"), false);
+
+        assertEquals(3, channel.published());
+        Spectator spectator = channel.watch();
+        Map<String, String> state = new HashMap<>();
+        Frame keyframe = spectator.poll();
+        assertTrue(keyframe.isKeyframe());
+        apply(keyframe, state);
+        Frame first = spectator.poll();
+        assertEquals(DeltaEncoder.DELTA, name(first));
+        assertEquals("1", fields(first).get(DeltaEncoder.BASE_VERSION));
+        apply(first, state);
+        apply(spectator.poll(), state);
+
+        assertEquals("80", state.get("hp"));
+        assertEquals("3", state.get("field"));
+        assertEquals("5", state.get("mana"));
+    }
+
+    @Test
+    public void Channel_Publishes_Other_Events_Without_Decimation() {
+        channel = new SpectatorChannel(new TextFrameEncoder(), 8, 0, 2, () -> now);
+        channel.publish(message("k1", "hp", "100"), true);
+        channel.publish(message(DeltaEncoder.DELTA, "hp", "90"), false);
+        channel.publish(message("player-moved", "player-name", "johny", "field", "3"), false);
+        channel.publish(message("action-executed", "player-name", "mark"), false);
+        channel.publish(message(DeltaEncoder.DELTA, "mana", "5"), false);
+
+        assertEquals(4, channel.published());
+        Spectator spectator = channel.watch();
+        spectator.poll();
+        Frame moved = spectator.poll();
+        assertEquals("player-moved", name(moved));
+        assertEquals("johny", fields(moved).get("player-name"));
+        assertFalse(fields(moved).containsKey("hp"));
+        assertEquals("action-executed", name(spectator.poll()));
+        Map<String, String> delta = fields(spectator.poll());
+        assertEquals("90", delta.get("hp"));
+        assertEquals("5", delta.get("mana"));
+    }
+
+    @Test
+    public void Keyframe_Discards_Skipped_Deltas() {
+        channel = new SpectatorChannel(new TextFrameEncoder(), 8, 0, 2, () -> now);
+        channel.publish(message(DeltaEncoder.DELTA, "hp", "90"), false);
+        channel.publish(message("k1", "hp", "80"), true);
+        channel.publish(message(DeltaEncoder.DELTA, "field", "3"), false);
+        channel.publish(message(DeltaEncoder.DELTA, "mana", "5"), false);
+
+        Spectator spectator = channel.watch();
+        spectator.poll();
+        Map<String, String> delta = fields(spectator.poll());
+        assertEquals("3", delta.get("field"));
+        assertFalse(delta.containsKey("hp"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void Channel_Capacity_Must_Be_Power_Of_Two() {
+        new SpectatorChannel(new TextFrameEncoder(), 6);
+    }
+
+    @Test
+    public void Delta_Encoder_Keyframes_Are_Recognized_By_Name() {
+        channel.publish(message(DeltaEncoder.KEYFRAME));
+        assertTrue(channel.watch().poll().isKeyframe());
+    }
+
+    private Message message(String name) {
+        return new SimpleMessage(name, Collections.emptyMap());
+    }
+
+    private Message message(String name, String... fields) {
+        Map<String, String> content = new LinkedHashMap<>();
+        for (int i = 0; i < fields.length; i += 2) {
+            content.put(fields[i], fields[i + 1]);
+        }
+        return new SimpleMessage(name, content);
+    }
+
+    private Map<String, String> fields(Frame frame) {
+        Map<String, String> fields = new HashMap<>();
+        String[] lines = new String(frame.payload(), StandardCharsets.UTF_8).split("\n");
+        for (int i = 1; i < lines.length; i++) {
+            String[] field = lines[i].split("=", 2);
+            fields.put(field[0], field[1]);
+        }
+        return fields;
+    }
+
+    private void apply(Frame frame, Map<String, String> state) {
+        state.putAll(fields(frame));
+    }
+
+    private String name(Frame frame) {
+        return new String(frame.payload(), StandardCharsets.UTF_8).split("\n")[0];
+    }
+}
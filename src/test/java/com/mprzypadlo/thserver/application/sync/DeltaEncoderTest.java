@@ -0,0 +1,174 @@
+package com.mprzypadlo.thserver.application.sync;
+
+import com.mprzypadlo.thserver.application.Message;
+import com.mprzypadlo.thserver.application.MessageBus;
+import com.mprzypadlo.thserver.application.SimpleMessageBuilder;
+import com.przypadlo.thserver.domain.Board;
+import com.przypadlo.thserver.domain.Board.Directions;
+import com.przypadlo.thserver.domain.Dice;
+import com.przypadlo.thserver.domain.Player;
+import com.przypadlo.thserver.domain.PlayerFactoryInterface;
+import com.przypadlo.thserver.domain.Weapon;
+import com.przypadlo.thserver.model.game.Game;
+import java.util.LinkedHashMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DeltaEncoderTest {
+
+    private Game game;
+
+    private MessageBus connectionsMock;
+
+    private DeltaEncoder encoder;
+
+    @Before
+    public void setUp() {
+        Board boardMock = mock(Board.class);
+        when(boardMock.calculatePosition(any(Player.class), any(Directions.class), anyInt()))
+                .thenReturn(3);
+        Weapon weaponMock = mock(Weapon.class);
+        when(weaponMock.name()).thenReturn("sword");
+        PlayerFactoryInterface factoryMock = mock(PlayerFactoryInterface.class);
+        when(factoryMock.getPlayer(anyString())).thenAnswer(
+                (invocation) -> new Player(boardMock, 100, 1, 10, 5, weaponMock)
+        );
+        Dice diceMock = mock(Dice.class);
+        when(diceMock.roll()).thenReturn(2);
+
+        game = new Game(boardMock, factoryMock, new LinkedHashMap<>(), 2, diceMock);
+        connectionsMock = mock(MessageBus.class);
+        encoder = new DeltaEncoder(game, connectionsMock, new SimpleMessageBuilder(), 100);
+        encoder.connect(1);
+    }
+
+    @Test
+    public void New_Connection_Receives_Keyframe() {
+        startGame();
+        Message message = encoder.encode(1);
+
+        assertEquals(DeltaEncoder.KEYFRAME, message.name());
+        assertEquals("100", message.content().get("player.first.hp"));
+        assertEquals("100", message.content().get("player.second.hp"));
+        assertEquals("first", message.content().get("current-player"));
+    }
+
+    @Test
+    public void Acknowledged_Connection_Receives_Only_Changes() {
+        startGame();
+        encoder.acknowledge(1, game.version());
+        game.movePlayerRight("first");
+
+        Message message = encoder.encode(1);
+        assertEquals(DeltaEncoder.DELTA, message.name());
+        assertEquals("3", message.content().get("player.first.field"));
+        assertFalse(message.content().containsKey("player.first.hp"));
+        assertFalse(message.content().containsKey("player.second.field"));
+        assertFalse(message.content().containsKey("current-player"));
+    }
+
+    @Test
+    public void Delta_Contains_All_Changes_Since_Acknowledged_Version() {
+        startGame();
+        encoder.acknowledge(1, game.version());
+        game.movePlayerRight("first");
+        encoder.encode(1);
+        game.removePlayer("second");
+
+        Message message = encoder.encode(1);
+        assertEquals("3", message.content().get("player.first.field"));
+        assertEquals("true", message.content().get("player.second.removed"));
+        assertEquals("WAITING_FOR_USERS", message.content().get("status"));
+    }
+
+    @Test
+    public void Up_To_Date_Connection_Receives_Nothing() {
+        startGame();
+        encoder.acknowledge(1, game.version());
+        assertNull(encoder.encode(1));
+    }
+
+    @Test
+    public void Connection_Receives_Periodic_Keyframes() {
+        encoder = new DeltaEncoder(game, connectionsMock, new SimpleMessageBuilder(), 2);
+        encoder.connect(1);
+        startGame();
+        encoder.encode(1);
+        encoder.acknowledge(1, game.version());
+        game.movePlayerRight("first");
+        game.movePlayerLeft("first");
+
+        assertEquals(DeltaEncoder.KEYFRAME, encoder.encode(1).name());
+    }
+
+    @Test
+    public void Publish_Notifies_Each_Connection() {
+        encoder.connect(2);
+        startGame();
+        encoder.publish();
+        verify(connectionsMock, times(1)).notify(eq(1), any(Message.class));
+        verify(connectionsMock, times(1)).notify(eq(2), any(Message.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void Encoder_Throws_Exception_For_Unknown_Connection() {
+        encoder.encode(5);
+    }
+
+    @Test
+    public void Keyframe_Contains_Players_Passed_To_Game() {
+        Board boardMock = mock(Board.class);
+        LinkedHashMap<String, Player> players = new LinkedHashMap<>();
+        players.put("host", new Player(boardMock, 80, 1, 10, 5, mock(Weapon.class)));
+        game = new Game(boardMock, mock(PlayerFactoryInterface.class), players, 2, mock(Dice.class));
+        encoder = new DeltaEncoder(game, connectionsMock, new SimpleMessageBuilder(), 100);
+        encoder.connect(1);
+
+        Message message = encoder.encode(1);
+        assertEquals(DeltaEncoder.KEYFRAME, message.name());
+        assertEquals("80", message.content().get("player.host.hp"));
+    }
+
+    @Test
+    public void Removals_Are_Forgotten_Once_Acknowledged_By_All_Connections() {
+        encoder.connect(2);
+        startGame();
+        encoder.acknowledge(1, game.version());
+        encoder.acknowledge(2, game.version());
+        game.removePlayer("second");
+
+        encoder.acknowledge(1, game.version());
+        assertTrue(game.changes().removedPlayers().contains("second"));
+        assertEquals("true", encoder.encode(2).content().get("player.second.removed"));
+
+        encoder.acknowledge(2, game.version());
+        assertTrue(game.changes().removedPlayers().isEmpty());
+    }
+
+    @Test
+    public void Keyframe_Lists_Player_Inventory_And_Stats() {
+        startGame();
+        Message message = encoder.encode(1);
+        assertEquals("", message.content().get("player.first.items"));
+        assertEquals("sword", message.content().get("player.first.weapon"));
+        assertEquals("5", message.content().get("player.first.mana"));
+        assertTrue(message.content().containsKey("version"));
+    }
+
+    private void startGame() {
+        game.addPlayer("first", "warrior");
+        game.addPlayer("second", "wizard");
+    }
+}
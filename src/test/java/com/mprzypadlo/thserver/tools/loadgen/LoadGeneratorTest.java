@@ -0,0 +1,39 @@
+package com.mprzypadlo.thserver.tools.loadgen;
+
+import java.util.SplittableRandom;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author mprzypadlo
+ */
+public class LoadGeneratorTest {
+
+    @Test
+    public void Mix_Is_Parsed_From_Text() {
+        BehaviorMix mix = BehaviorMix.parse("move=1");
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(BehaviorMix.Behavior.MOVE, mix.pick(random));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void Mix_Requires_Positive_Weight() {
+        BehaviorMix.parse("move=0,attack=0");
+    }
+
+    @Test
+    public void Generator_Runs_Commands_Through_Command_Bus() throws InterruptedException {
+        LoadGenerator generator = new LoadGenerator(
+                4, 3, 2, 100, BehaviorMix.parse("move=4,attack=3,pick=2,use=1"), 7
+        );
+
+        LoadGenerator.Report report = generator.run();
+
+        assertTrue(report.commands() > 0);
+        assertEquals(12, report.latencies().get("command.create-player").count());
+        assertTrue(report.latencies().containsKey("command.move-player"));
+    }
+}
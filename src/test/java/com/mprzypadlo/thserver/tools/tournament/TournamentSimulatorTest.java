@@ -0,0 +1,79 @@
+package com.mprzypadlo.thserver.tools.tournament;
+
+import com.mprzypadlo.thserver.tools.SampleContent;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author mprzypadlo
+ */
+public class TournamentSimulatorTest {
+
+    private final SampleContent content = new SampleContent();
+
+    @Test
+    public void Every_Game_Ends_With_Win_Or_Draw() throws InterruptedException {
+        TournamentSimulator.Report report = simulator(Policies.aggressive(), 7).run(500, 2);
+
+        assertEquals(500, report.games());
+        assertEquals(500, report.wins("warrior") + report.wins("wizard") + report.draws());
+        assertTrue(report.averageTurns() > 0);
+        assertTrue(report.maxTurns() <= 100);
+        assertTrue(report.damage("warrior").count() > 0);
+    }
+
+    @Test
+    public void Result_Does_Not_Depend_On_Threads() throws InterruptedException {
+        TournamentSimulator.Report single = simulator(Policies.random(), 3).run(300, 1);
+        TournamentSimulator.Report parallel = simulator(Policies.random(), 3).run(300, 4);
+
+        assertEquals(single.wins("warrior"), parallel.wins("warrior"));
+        assertEquals(single.wins("wizard"), parallel.wins("wizard"));
+        assertEquals(single.averageTurns(), parallel.averageTurns(), 0.0);
+        assertEquals(single.damage("wizard").count(), parallel.damage("wizard").count());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void Lineup_Requires_Known_Classes() {
+        new TournamentSimulator(
+                content.board(),
+                content.playerClasses(),
+                content.items(),
+                new String[]{"warrior", "bard"},
+                Policies.random(),
+                100,
+                1
+        );
+    }
+
+    @Test
+    public void Damage_Histogram_Reports_Percentiles() {
+        DamageHistogram histogram = new DamageHistogram();
+        for (int damage = 1; damage <= 10; damage++) {
+            histogram.record(damage);
+        }
+        histogram.record(-3);
+        DamageHistogram other = new DamageHistogram();
+        other.record(1000);
+        histogram.merge(other);
+
+        assertEquals(12, histogram.count());
+        assertEquals(5, histogram.percentile(50));
+        assertEquals(1000, histogram.percentile(100));
+        assertEquals(0, histogram.percentile(1));
+        assertEquals(1000, histogram.max());
+    }
+
+    private TournamentSimulator simulator(Policy policy, long seed) {
+        return new TournamentSimulator(
+                content.board(),
+                content.playerClasses(),
+                content.items(),
+                new String[]{"warrior", "wizard"},
+                policy,
+                100,
+                seed
+        );
+    }
+}